@@ -14,7 +14,10 @@
 package com.facebook.presto.plugin.jdbc;
 
 import com.facebook.airlift.log.Logger;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.CharType;
 import com.facebook.presto.common.type.DecimalType;
 import com.facebook.presto.common.type.Type;
@@ -29,6 +32,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
 import com.facebook.presto.spi.statistics.TableStatistics;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Joiner;
 import com.google.common.cache.Cache;
@@ -40,8 +44,10 @@ import com.google.common.collect.ImmutableSet;
 import javax.annotation.Nullable;
 import javax.annotation.PreDestroy;
 
+import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -108,17 +114,21 @@ public class BaseJdbcClient
             .put(TIMESTAMP_WITH_TIME_ZONE, "timestamp with timezone")
             .build();
 
+    private static final Set<Type> RANGE_SPLIT_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
+
     protected final String connectorId;
     protected final ConnectionFactory connectionFactory;
     protected final String identifierQuote;
     protected final boolean caseInsensitiveNameMatching;
     protected final Cache<JdbcIdentity, Map<String, String>> remoteSchemaNames;
     protected final Cache<RemoteTableNameCacheKey, Map<String, String>> remoteTableNames;
+    protected final int parallelReadMaxSplits;
+    protected final long parallelReadMinKeyRangePerSplit;
 
     public BaseJdbcClient(JdbcConnectorId connectorId, BaseJdbcConfig config, String identifierQuote, ConnectionFactory connectionFactory)
     {
         this.connectorId = requireNonNull(connectorId, "connectorId is null").toString();
-        requireNonNull(config, "config is null"); // currently unused, retained as parameter for future extensions
+        requireNonNull(config, "config is null");
         this.identifierQuote = requireNonNull(identifierQuote, "identifierQuote is null");
         this.connectionFactory = requireNonNull(connectionFactory, "connectionFactory is null");
 
@@ -127,6 +137,8 @@ public class BaseJdbcClient
                 .expireAfterWrite(config.getCaseInsensitiveNameMatchingCacheTtl().toMillis(), MILLISECONDS);
         this.remoteSchemaNames = remoteNamesCacheBuilder.build();
         this.remoteTableNames = remoteNamesCacheBuilder.build();
+        this.parallelReadMaxSplits = config.getParallelReadMaxSplits();
+        this.parallelReadMinKeyRangePerSplit = config.getParallelReadMinKeyRangePerSplit();
     }
 
     @PreDestroy
@@ -265,14 +277,152 @@ public class BaseJdbcClient
     public ConnectorSplitSource getSplits(JdbcIdentity identity, JdbcTableLayoutHandle layoutHandle)
     {
         JdbcTableHandle tableHandle = layoutHandle.getTable();
-        JdbcSplit jdbcSplit = new JdbcSplit(
-                connectorId,
-                tableHandle.getCatalogName(),
-                tableHandle.getSchemaName(),
-                tableHandle.getTableName(),
-                layoutHandle.getTupleDomain(),
-                layoutHandle.getAdditionalPredicate());
-        return new FixedSplitSource(ImmutableList.of(jdbcSplit));
+        List<TupleDomain<ColumnHandle>> splitTupleDomains = ImmutableList.of(layoutHandle.getTupleDomain());
+        if (parallelReadMaxSplits > 1 && !layoutHandle.getTupleDomain().isNone()) {
+            splitTupleDomains = getRangeSplitTupleDomains(identity, tableHandle, layoutHandle.getTupleDomain());
+        }
+
+        ImmutableList.Builder<JdbcSplit> splits = ImmutableList.builder();
+        for (TupleDomain<ColumnHandle> tupleDomain : splitTupleDomains) {
+            splits.add(new JdbcSplit(
+                    connectorId,
+                    tableHandle.getCatalogName(),
+                    tableHandle.getSchemaName(),
+                    tableHandle.getTableName(),
+                    tupleDomain,
+                    layoutHandle.getAdditionalPredicate()));
+        }
+        return new FixedSplitSource(splits.build());
+    }
+
+    /**
+     * Divides the scan into ranges of the table's single column integral or date primary key,
+     * sized from the key's current minimum and maximum. The first and the last range are open
+     * ended, so rows written after the bounds are read are not lost.
+     */
+    protected List<TupleDomain<ColumnHandle>> getRangeSplitTupleDomains(JdbcIdentity identity, JdbcTableHandle tableHandle, TupleDomain<ColumnHandle> tupleDomain)
+    {
+        try (Connection connection = connectionFactory.openConnection(identity)) {
+            Optional<JdbcColumnHandle> splitColumn = getSplitColumn(connection, tableHandle);
+            if (!splitColumn.isPresent()) {
+                return ImmutableList.of(tupleDomain);
+            }
+            Type type = splitColumn.get().getColumnType();
+            Domain constraint = tupleDomain.getDomains().get().get(splitColumn.get());
+            if (constraint != null && !constraint.getType().equals(type)) {
+                return ImmutableList.of(tupleDomain);
+            }
+
+            String sql = format(
+                    "SELECT min(%1$s), max(%1$s) FROM %2$s",
+                    quoted(splitColumn.get().getColumnName()),
+                    quoted(tableHandle.getCatalogName(), tableHandle.getSchemaName(), tableHandle.getTableName()));
+            long min;
+            long max;
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(sql)) {
+                if (!resultSet.next()) {
+                    return ImmutableList.of(tupleDomain);
+                }
+                if (type.equals(DATE)) {
+                    Date minDate = resultSet.getDate(1);
+                    Date maxDate = resultSet.getDate(2);
+                    if (minDate == null || maxDate == null) {
+                        return ImmutableList.of(tupleDomain);
+                    }
+                    min = minDate.toLocalDate().toEpochDay();
+                    max = maxDate.toLocalDate().toEpochDay();
+                }
+                else {
+                    min = resultSet.getLong(1);
+                    if (resultSet.wasNull()) {
+                        return ImmutableList.of(tupleDomain);
+                    }
+                    max = resultSet.getLong(2);
+                }
+            }
+
+            ImmutableList.Builder<TupleDomain<ColumnHandle>> splitTupleDomains = ImmutableList.builder();
+            for (Domain domain : getRangeSplitDomains(type, min, max, parallelReadMaxSplits, parallelReadMinKeyRangePerSplit)) {
+                TupleDomain<ColumnHandle> splitTupleDomain = TupleDomain.withColumnDomains(ImmutableMap.<ColumnHandle, Domain>of(splitColumn.get(), domain)).intersect(tupleDomain);
+                if (!splitTupleDomain.isNone()) {
+                    splitTupleDomains.add(splitTupleDomain);
+                }
+            }
+            List<TupleDomain<ColumnHandle>> result = splitTupleDomains.build();
+            return result.isEmpty() ? ImmutableList.of(tupleDomain) : result;
+        }
+        catch (SQLException e) {
+            throw new PrestoException(JDBC_ERROR, e);
+        }
+    }
+
+    protected Optional<JdbcColumnHandle> getSplitColumn(Connection connection, JdbcTableHandle tableHandle)
+            throws SQLException
+    {
+        DatabaseMetaData metadata = connection.getMetaData();
+        String keyColumnName = null;
+        try (ResultSet resultSet = metadata.getPrimaryKeys(tableHandle.getCatalogName(), tableHandle.getSchemaName(), tableHandle.getTableName())) {
+            while (resultSet.next()) {
+                if (keyColumnName != null) {
+                    // compound keys are not range partitioned
+                    return Optional.empty();
+                }
+                keyColumnName = resultSet.getString("COLUMN_NAME");
+            }
+        }
+        if (keyColumnName == null) {
+            return Optional.empty();
+        }
+
+        try (ResultSet resultSet = getColumns(tableHandle, metadata)) {
+            while (resultSet.next()) {
+                if (!keyColumnName.equals(resultSet.getString("COLUMN_NAME"))) {
+                    continue;
+                }
+                JdbcTypeHandle typeHandle = new JdbcTypeHandle(
+                        resultSet.getInt("DATA_TYPE"),
+                        resultSet.getInt("COLUMN_SIZE"),
+                        resultSet.getInt("DECIMAL_DIGITS"));
+                Optional<Type> type = jdbcTypeToPrestoType(typeHandle).map(ReadMapping::getType);
+                if (!type.isPresent() || !RANGE_SPLIT_TYPES.contains(type.get())) {
+                    return Optional.empty();
+                }
+                boolean nullable = columnNullable == resultSet.getInt("NULLABLE");
+                return Optional.of(new JdbcColumnHandle(connectorId, keyColumnName, typeHandle, type.get(), nullable));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @VisibleForTesting
+    static List<Domain> getRangeSplitDomains(Type type, long min, long max, int maxSplits, long minKeyRangePerSplit)
+    {
+        checkArgument(min <= max, "min is greater than max");
+        BigInteger span = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min)).add(BigInteger.ONE);
+        int splitCount = span.divide(BigInteger.valueOf(minKeyRangePerSplit))
+                .min(BigInteger.valueOf(maxSplits))
+                .max(BigInteger.ONE)
+                .intValueExact();
+        if (splitCount == 1) {
+            return ImmutableList.of(Domain.all(type));
+        }
+
+        long[] boundaries = new long[splitCount - 1];
+        for (int i = 1; i < splitCount; i++) {
+            boundaries[i - 1] = span.multiply(BigInteger.valueOf(i))
+                    .divide(BigInteger.valueOf(splitCount))
+                    .add(BigInteger.valueOf(min))
+                    .longValueExact();
+        }
+
+        ImmutableList.Builder<Domain> domains = ImmutableList.builder();
+        domains.add(Domain.create(ValueSet.ofRanges(Range.lessThan(type, boundaries[0])), true));
+        for (int i = 1; i < boundaries.length; i++) {
+            domains.add(Domain.create(ValueSet.ofRanges(Range.range(type, boundaries[i - 1], true, boundaries[i], false)), false));
+        }
+        domains.add(Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(type, boundaries[boundaries.length - 1])), false));
+        return domains.build();
     }
 
     @Override
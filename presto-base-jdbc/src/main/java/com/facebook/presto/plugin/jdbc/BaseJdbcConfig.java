@@ -14,10 +14,12 @@
 package com.facebook.presto.plugin.jdbc;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.configuration.ConfigSecuritySensitive;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import static java.util.concurrent.TimeUnit.MINUTES;
@@ -29,6 +31,10 @@ public class BaseJdbcConfig
     private String connectionPassword;
     private boolean caseInsensitiveNameMatching;
     private Duration caseInsensitiveNameMatchingCacheTtl = new Duration(1, MINUTES);
+    private int parallelReadMaxSplits = 1;
+    private long parallelReadMinKeyRangePerSplit = 1_000_000;
+    private int fetchSize;
+    private boolean prefetchEnabled;
 
     @NotNull
     public String getConnectionUrl()
@@ -93,4 +99,59 @@ public class BaseJdbcConfig
         this.caseInsensitiveNameMatchingCacheTtl = caseInsensitiveNameMatchingCacheTtl;
         return this;
     }
+
+    @Min(1)
+    public int getParallelReadMaxSplits()
+    {
+        return parallelReadMaxSplits;
+    }
+
+    @Config("parallel-read.max-splits")
+    @ConfigDescription("Maximum number of key range splits a single table scan is divided into. This does not limit the connections of concurrent scans to the remote database")
+    public BaseJdbcConfig setParallelReadMaxSplits(int parallelReadMaxSplits)
+    {
+        this.parallelReadMaxSplits = parallelReadMaxSplits;
+        return this;
+    }
+
+    @Min(1)
+    public long getParallelReadMinKeyRangePerSplit()
+    {
+        return parallelReadMinKeyRangePerSplit;
+    }
+
+    @Config("parallel-read.min-key-range-per-split")
+    @ConfigDescription("Minimum width of the key range read by a single range split, in key values rather than rows")
+    public BaseJdbcConfig setParallelReadMinKeyRangePerSplit(long parallelReadMinKeyRangePerSplit)
+    {
+        this.parallelReadMinKeyRangePerSplit = parallelReadMinKeyRangePerSplit;
+        return this;
+    }
+
+    @Min(0)
+    public int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    @Config("fetch-size")
+    @ConfigDescription("Number of rows fetched from the remote database per round trip, or 0 for the connector's default")
+    public BaseJdbcConfig setFetchSize(int fetchSize)
+    {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    public boolean isPrefetchEnabled()
+    {
+        return prefetchEnabled;
+    }
+
+    @Config("prefetch-enabled")
+    @ConfigDescription("Read the next page from the result set while the current page is processed")
+    public BaseJdbcConfig setPrefetchEnabled(boolean prefetchEnabled)
+    {
+        this.prefetchEnabled = prefetchEnabled;
+        return this;
+    }
 }
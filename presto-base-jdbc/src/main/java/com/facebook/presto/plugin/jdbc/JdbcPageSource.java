@@ -0,0 +1,366 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.jdbc;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.base.VerifyException;
+import io.airlift.slice.Slice;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.facebook.presto.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static com.facebook.presto.plugin.jdbc.StandardReadMappings.isNullTolerant;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Reads a JDBC result set directly into blocks. Each column gets a reader specialized
+ * for its {@link ReadMapping} once, instead of dispatching on the column type for every
+ * value as the {@link JdbcRecordCursor} path does. With a prefetch executor, the next page
+ * is read from the result set while the current one is processed.
+ */
+public class JdbcPageSource
+        implements ConnectorPageSource
+{
+    private static final Logger log = Logger.get(JdbcPageSource.class);
+
+    private static final int ROWS_PER_REQUEST = 4096;
+
+    private final JdbcClient jdbcClient;
+    private final ColumnReader[] columnReaders;
+    private final PageBuilder pageBuilder;
+    private final Optional<Executor> prefetchExecutor;
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+
+    private CompletableFuture<Page> prefetchedPage;
+    // published by the thread reading the result set, which may be the prefetch thread
+    private volatile long pageBuilderSizeInBytes;
+    private volatile long prefetchedPageSizeInBytes;
+    private long completedPositions;
+    private long readTimeNanos;
+    private boolean exhausted;
+    private boolean closed;
+
+    public JdbcPageSource(
+            JdbcClient jdbcClient,
+            ConnectorSession session,
+            JdbcSplit split,
+            List<JdbcColumnHandle> columnHandles,
+            int fetchSize,
+            Optional<Executor> prefetchExecutor)
+    {
+        this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        this.prefetchExecutor = requireNonNull(prefetchExecutor, "prefetchExecutor is null");
+
+        columnReaders = new ColumnReader[columnHandles.size()];
+        for (int i = 0; i < columnReaders.length; i++) {
+            ReadMapping readMapping = jdbcClient.toPrestoType(session, columnHandles.get(i).getJdbcTypeHandle())
+                    .orElseThrow(() -> new VerifyException("Unsupported column type"));
+            columnReaders[i] = createColumnReader(readMapping);
+        }
+        pageBuilder = new PageBuilder(columnHandles.stream()
+                .map(JdbcColumnHandle::getColumnType)
+                .collect(toImmutableList()));
+        pageBuilderSizeInBytes = pageBuilder.getRetainedSizeInBytes();
+
+        try {
+            connection = jdbcClient.getConnection(JdbcIdentity.from(session), split);
+            statement = jdbcClient.buildSql(session, connection, split, columnHandles);
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            log.debug("Executing: %s", statement.toString());
+            resultSet = statement.executeQuery();
+        }
+        catch (SQLException | RuntimeException e) {
+            throw handleSqlException(e);
+        }
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return completedPositions;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed || (exhausted && prefetchedPage == null);
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (isFinished()) {
+            return null;
+        }
+        if (!prefetchExecutor.isPresent()) {
+            return readPage();
+        }
+
+        if (prefetchedPage == null) {
+            prefetchedPage = supplyAsync(this::prefetchPage, prefetchExecutor.get());
+            return null;
+        }
+        if (!prefetchedPage.isDone()) {
+            return null;
+        }
+        Page page = getFutureValue(prefetchedPage);
+        prefetchedPageSizeInBytes = 0;
+        prefetchedPage = exhausted ? null : supplyAsync(this::prefetchPage, prefetchExecutor.get());
+        return page;
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        CompletableFuture<Page> prefetchedPage = this.prefetchedPage;
+        if (prefetchedPage == null || prefetchedPage.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return prefetchedPage;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return pageBuilderSizeInBytes + prefetchedPageSizeInBytes;
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (prefetchedPage != null && !prefetchedPage.isDone()) {
+            // the result set is not thread safe, so release it once the read in flight returns
+            prefetchedPage.whenComplete((page, throwable) -> closeResources());
+            return;
+        }
+        closeResources();
+    }
+
+    private Page prefetchPage()
+    {
+        Page page = readPage();
+        if (page != null) {
+            prefetchedPageSizeInBytes = page.getRetainedSizeInBytes();
+        }
+        return page;
+    }
+
+    private Page readPage()
+    {
+        long start = System.nanoTime();
+        try {
+            for (int row = 0; row < ROWS_PER_REQUEST && !pageBuilder.isFull(); row++) {
+                if (!resultSet.next()) {
+                    exhausted = true;
+                    break;
+                }
+                pageBuilder.declarePosition();
+                for (int column = 0; column < columnReaders.length; column++) {
+                    columnReaders[column].read(resultSet, column + 1, pageBuilder.getBlockBuilder(column));
+                }
+            }
+        }
+        catch (SQLException | RuntimeException e) {
+            throw handleSqlException(e);
+        }
+        finally {
+            readTimeNanos += System.nanoTime() - start;
+            pageBuilderSizeInBytes = pageBuilder.getRetainedSizeInBytes();
+        }
+
+        if (pageBuilder.isEmpty()) {
+            return null;
+        }
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+        pageBuilderSizeInBytes = pageBuilder.getRetainedSizeInBytes();
+        completedPositions += page.getPositionCount();
+        return page;
+    }
+
+    private void closeResources()
+    {
+        // use try with resources to close everything properly
+        try (Connection connection = this.connection;
+                Statement statement = this.statement;
+                ResultSet resultSet = this.resultSet) {
+            if (connection != null) {
+                jdbcClient.abortReadConnection(connection);
+            }
+        }
+        catch (SQLException e) {
+            // ignore exception from close
+        }
+    }
+
+    private RuntimeException handleSqlException(Exception e)
+    {
+        closed = true;
+        try {
+            closeResources();
+        }
+        catch (Exception closeException) {
+            // Self-suppression not permitted
+            if (e != closeException) {
+                e.addSuppressed(closeException);
+            }
+        }
+        return new PrestoException(JDBC_ERROR, e);
+    }
+
+    private static ColumnReader createColumnReader(ReadMapping readMapping)
+    {
+        Type type = readMapping.getType();
+        Class<?> javaType = type.getJavaType();
+        ReadFunction readFunction = readMapping.getReadFunction();
+        // a value is read once when its read function tolerates null, otherwise it is checked for null first
+        boolean nullTolerant = isNullTolerant(readFunction);
+
+        if (javaType == boolean.class) {
+            BooleanReadFunction booleanReadFunction = (BooleanReadFunction) readFunction;
+            if (nullTolerant) {
+                return (resultSet, columnIndex, output) -> {
+                    boolean value = booleanReadFunction.readBoolean(resultSet, columnIndex);
+                    if (resultSet.wasNull()) {
+                        output.appendNull();
+                    }
+                    else {
+                        type.writeBoolean(output, value);
+                    }
+                };
+            }
+            return (resultSet, columnIndex, output) -> {
+                if (isNull(resultSet, columnIndex)) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeBoolean(output, booleanReadFunction.readBoolean(resultSet, columnIndex));
+                }
+            };
+        }
+        if (javaType == long.class) {
+            LongReadFunction longReadFunction = (LongReadFunction) readFunction;
+            if (nullTolerant) {
+                return (resultSet, columnIndex, output) -> {
+                    long value = longReadFunction.readLong(resultSet, columnIndex);
+                    if (resultSet.wasNull()) {
+                        output.appendNull();
+                    }
+                    else {
+                        type.writeLong(output, value);
+                    }
+                };
+            }
+            return (resultSet, columnIndex, output) -> {
+                if (isNull(resultSet, columnIndex)) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeLong(output, longReadFunction.readLong(resultSet, columnIndex));
+                }
+            };
+        }
+        if (javaType == double.class) {
+            DoubleReadFunction doubleReadFunction = (DoubleReadFunction) readFunction;
+            if (nullTolerant) {
+                return (resultSet, columnIndex, output) -> {
+                    double value = doubleReadFunction.readDouble(resultSet, columnIndex);
+                    if (resultSet.wasNull()) {
+                        output.appendNull();
+                    }
+                    else {
+                        type.writeDouble(output, value);
+                    }
+                };
+            }
+            return (resultSet, columnIndex, output) -> {
+                if (isNull(resultSet, columnIndex)) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeDouble(output, doubleReadFunction.readDouble(resultSet, columnIndex));
+                }
+            };
+        }
+        if (javaType == Slice.class) {
+            SliceReadFunction sliceReadFunction = (SliceReadFunction) readFunction;
+            return (resultSet, columnIndex, output) -> {
+                if (isNull(resultSet, columnIndex)) {
+                    output.appendNull();
+                }
+                else {
+                    Slice slice = sliceReadFunction.readSlice(resultSet, columnIndex);
+                    type.writeSlice(output, slice, 0, slice.length());
+                }
+            };
+        }
+        throw new IllegalStateException(format("Unsupported java type %s", javaType));
+    }
+
+    private static boolean isNull(ResultSet resultSet, int columnIndex)
+            throws SQLException
+    {
+        // the other read functions do not all tolerate nulls, so the value has to be checked first
+        resultSet.getObject(columnIndex);
+        return resultSet.wasNull();
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader
+    {
+        void read(ResultSet resultSet, int columnIndex, BlockBuilder output)
+                throws SQLException;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.jdbc;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.SplitContext;
+import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
+import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+public class JdbcPageSourceProvider
+        implements ConnectorPageSourceProvider
+{
+    private final JdbcClient jdbcClient;
+    private final int fetchSize;
+    private final Optional<ExecutorService> prefetchExecutor;
+
+    @Inject
+    public JdbcPageSourceProvider(JdbcClient jdbcClient, BaseJdbcConfig config)
+    {
+        this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        requireNonNull(config, "config is null");
+        this.fetchSize = config.getFetchSize();
+        this.prefetchExecutor = config.isPrefetchEnabled() ? Optional.of(newCachedThreadPool(daemonThreadsNamed("jdbc-prefetch-%s"))) : Optional.empty();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        prefetchExecutor.ifPresent(ExecutorService::shutdownNow);
+    }
+
+    @Override
+    public ConnectorPageSource createPageSource(
+            ConnectorTransactionHandle transactionHandle,
+            ConnectorSession session,
+            ConnectorSplit split,
+            List<ColumnHandle> columns,
+            SplitContext splitContext)
+    {
+        ImmutableList.Builder<JdbcColumnHandle> handles = ImmutableList.builder();
+        for (ColumnHandle handle : columns) {
+            handles.add((JdbcColumnHandle) handle);
+        }
+
+        return new JdbcPageSource(jdbcClient, session, (JdbcSplit) split, handles.build(), fetchSize, prefetchExecutor.map(Executor.class::cast));
+    }
+}
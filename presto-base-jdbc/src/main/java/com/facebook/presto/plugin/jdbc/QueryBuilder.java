@@ -47,6 +47,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.common.type.DateTimeEncoding.unpackMillisUtc;
@@ -233,6 +234,14 @@ public class QueryBuilder
                 }
             }
         }
+        // range splits constrain their split column whether or not it is projected
+        for (Map.Entry<ColumnHandle, Domain> entry : tupleDomain.getDomains().get().entrySet()) {
+            JdbcColumnHandle column = (JdbcColumnHandle) entry.getKey();
+            Type type = column.getColumnType();
+            if (!columns.contains(column) && isAcceptedType(type)) {
+                builder.add(toPredicate(column.getColumnName(), entry.getValue(), type, accumulator));
+            }
+        }
         return builder.build();
     }
 
@@ -18,6 +18,7 @@ import com.facebook.presto.common.type.DecimalType;
 import com.facebook.presto.common.type.Decimals;
 import com.facebook.presto.common.type.VarcharType;
 import com.google.common.base.CharMatcher;
+import com.google.common.collect.ImmutableSet;
 import org.joda.time.chrono.ISOChronology;
 
 import java.sql.ResultSet;
@@ -25,6 +26,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
@@ -60,39 +62,62 @@ public final class StandardReadMappings
 
     private static final ISOChronology UTC_CHRONOLOGY = ISOChronology.getInstanceUTC();
 
+    private static final BooleanReadFunction BOOLEAN_READ_FUNCTION = ResultSet::getBoolean;
+    private static final LongReadFunction TINYINT_READ_FUNCTION = ResultSet::getByte;
+    private static final LongReadFunction SMALLINT_READ_FUNCTION = ResultSet::getShort;
+    private static final LongReadFunction INTEGER_READ_FUNCTION = ResultSet::getInt;
+    private static final LongReadFunction BIGINT_READ_FUNCTION = ResultSet::getLong;
+    private static final LongReadFunction REAL_READ_FUNCTION = (resultSet, columnIndex) -> floatToRawIntBits(resultSet.getFloat(columnIndex));
+    private static final DoubleReadFunction DOUBLE_READ_FUNCTION = ResultSet::getDouble;
+
+    // these return a default value for SQL NULL, so the value can be read before checking ResultSet#wasNull
+    private static final Set<ReadFunction> NULL_TOLERANT_READ_FUNCTIONS = ImmutableSet.of(
+            BOOLEAN_READ_FUNCTION,
+            TINYINT_READ_FUNCTION,
+            SMALLINT_READ_FUNCTION,
+            INTEGER_READ_FUNCTION,
+            BIGINT_READ_FUNCTION,
+            REAL_READ_FUNCTION,
+            DOUBLE_READ_FUNCTION);
+
     public static ReadMapping booleanReadMapping()
     {
-        return ReadMapping.booleanReadMapping(BOOLEAN, ResultSet::getBoolean);
+        return ReadMapping.booleanReadMapping(BOOLEAN, BOOLEAN_READ_FUNCTION);
     }
 
     public static ReadMapping tinyintReadMapping()
     {
-        return longReadMapping(TINYINT, ResultSet::getByte);
+        return longReadMapping(TINYINT, TINYINT_READ_FUNCTION);
     }
 
     public static ReadMapping smallintReadMapping()
     {
-        return longReadMapping(SMALLINT, ResultSet::getShort);
+        return longReadMapping(SMALLINT, SMALLINT_READ_FUNCTION);
     }
 
     public static ReadMapping integerReadMapping()
     {
-        return longReadMapping(INTEGER, ResultSet::getInt);
+        return longReadMapping(INTEGER, INTEGER_READ_FUNCTION);
     }
 
     public static ReadMapping bigintReadMapping()
     {
-        return longReadMapping(BIGINT, ResultSet::getLong);
+        return longReadMapping(BIGINT, BIGINT_READ_FUNCTION);
     }
 
     public static ReadMapping realReadMapping()
     {
-        return longReadMapping(REAL, (resultSet, columnIndex) -> floatToRawIntBits(resultSet.getFloat(columnIndex)));
+        return longReadMapping(REAL, REAL_READ_FUNCTION);
     }
 
     public static ReadMapping doubleReadMapping()
     {
-        return ReadMapping.doubleReadMapping(DOUBLE, ResultSet::getDouble);
+        return ReadMapping.doubleReadMapping(DOUBLE, DOUBLE_READ_FUNCTION);
+    }
+
+    static boolean isNullTolerant(ReadFunction readFunction)
+    {
+        return NULL_TOLERANT_READ_FUNCTIONS.contains(readFunction);
     }
 
     public static ReadMapping decimalReadMapping(DecimalType decimalType)
@@ -33,7 +33,11 @@ public class TestBaseJdbcConfig
                 .setConnectionUser(null)
                 .setConnectionPassword(null)
                 .setCaseInsensitiveNameMatching(false)
-                .setCaseInsensitiveNameMatchingCacheTtl(new Duration(1, MINUTES)));
+                .setCaseInsensitiveNameMatchingCacheTtl(new Duration(1, MINUTES))
+                .setParallelReadMaxSplits(1)
+                .setParallelReadMinKeyRangePerSplit(1_000_000)
+                .setFetchSize(0)
+                .setPrefetchEnabled(false));
     }
 
     @Test
@@ -45,6 +49,10 @@ public class TestBaseJdbcConfig
                 .put("connection-password", "password")
                 .put("case-insensitive-name-matching", "true")
                 .put("case-insensitive-name-matching.cache-ttl", "1s")
+                .put("parallel-read.max-splits", "16")
+                .put("parallel-read.min-key-range-per-split", "5000")
+                .put("fetch-size", "10000")
+                .put("prefetch-enabled", "true")
                 .build();
 
         BaseJdbcConfig expected = new BaseJdbcConfig()
@@ -52,7 +60,11 @@ public class TestBaseJdbcConfig
                 .setConnectionUser("user")
                 .setConnectionPassword("password")
                 .setCaseInsensitiveNameMatching(true)
-                .setCaseInsensitiveNameMatchingCacheTtl(new Duration(1, SECONDS));
+                .setCaseInsensitiveNameMatchingCacheTtl(new Duration(1, SECONDS))
+                .setParallelReadMaxSplits(16)
+                .setParallelReadMinKeyRangePerSplit(5000)
+                .setFetchSize(10000)
+                .setPrefetchEnabled(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
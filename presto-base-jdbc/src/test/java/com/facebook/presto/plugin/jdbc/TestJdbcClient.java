@@ -13,22 +13,35 @@
  */
 package com.facebook.presto.plugin.jdbc;
 
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.BigintType;
 import com.facebook.presto.common.type.DateType;
 import com.facebook.presto.common.type.DoubleType;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.SchemaTableName;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import org.h2.Driver;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Properties;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.RealType.REAL;
@@ -40,7 +53,9 @@ import static com.facebook.presto.plugin.jdbc.TestingJdbcTypeHandle.JDBC_DATE;
 import static com.facebook.presto.plugin.jdbc.TestingJdbcTypeHandle.JDBC_DOUBLE;
 import static com.facebook.presto.plugin.jdbc.TestingJdbcTypeHandle.JDBC_REAL;
 import static com.facebook.presto.plugin.jdbc.TestingJdbcTypeHandle.JDBC_VARCHAR;
+import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static com.google.common.collect.MoreCollectors.onlyElement;
 import static java.util.Collections.emptyMap;
 import static java.util.Locale.ENGLISH;
 import static java.util.UUID.randomUUID;
@@ -181,4 +196,57 @@ public class TestJdbcClient
             jdbcClient.dropTable(JdbcIdentity.from(session), tableHandle);
         }
     }
+
+    @Test
+    public void testRangeSplits()
+            throws Exception
+    {
+        String connectionUrl = "jdbc:h2:mem:test" + System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(connectionUrl)) {
+            connection.createStatement().execute("CREATE SCHEMA example");
+            connection.createStatement().execute("CREATE TABLE example.orders(orderkey bigint primary key, custkey bigint)");
+            connection.createStatement().execute("INSERT INTO example.orders SELECT x, x * 10 FROM system_range(1, 100)");
+            connection.commit();
+
+            JdbcClient client = new BaseJdbcClient(
+                    new JdbcConnectorId(CONNECTOR_ID),
+                    new BaseJdbcConfig()
+                            .setParallelReadMaxSplits(4)
+                            .setParallelReadMinKeyRangePerSplit(10),
+                    "\"",
+                    new DriverConnectionFactory(new Driver(), connectionUrl, new Properties()));
+            JdbcIdentity identity = JdbcIdentity.from(session);
+            JdbcTableHandle tableHandle = client.getTableHandle(identity, new SchemaTableName("example", "orders"));
+            JdbcColumnHandle custkey = client.getColumns(session, tableHandle).stream()
+                    .filter(column -> column.getColumnName().equals("CUSTKEY"))
+                    .collect(onlyElement());
+
+            ConnectorSplitSource splitSource = client.getSplits(identity, new JdbcTableLayoutHandle(tableHandle, TupleDomain.all(), Optional.empty()));
+            List<ConnectorSplit> splits = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 1000)).getSplits();
+            assertEquals(splits.size(), 4);
+
+            // the split column is constrained even though it is not projected
+            long rows = 0;
+            for (ConnectorSplit split : splits) {
+                try (Connection splitConnection = client.getConnection(identity, (JdbcSplit) split);
+                        PreparedStatement statement = client.buildSql(session, splitConnection, (JdbcSplit) split, ImmutableList.of(custkey));
+                        ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows++;
+                    }
+                }
+            }
+            assertEquals(rows, 100);
+        }
+    }
+
+    @Test
+    public void testRangeSplitDomains()
+    {
+        assertEquals(BaseJdbcClient.getRangeSplitDomains(BIGINT, 1, 100, 4, 50), ImmutableList.of(
+                Domain.create(ValueSet.ofRanges(Range.lessThan(BIGINT, 51L)), true),
+                Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 51L)), false)));
+        assertEquals(BaseJdbcClient.getRangeSplitDomains(BIGINT, 1, 100, 4, 1000), ImmutableList.of(Domain.all(BIGINT)));
+        assertEquals(BaseJdbcClient.getRangeSplitDomains(BIGINT, Long.MIN_VALUE, Long.MAX_VALUE, 4, 1).size(), 4);
+    }
 }
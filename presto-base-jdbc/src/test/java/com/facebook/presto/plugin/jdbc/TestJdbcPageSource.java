@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.jdbc;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestJdbcPageSource
+{
+    private static final ConnectorSession session = testSessionBuilder().build().toConnectorSession();
+
+    private TestingDatabase database;
+    private JdbcClient jdbcClient;
+    private JdbcSplit split;
+    private Map<String, JdbcColumnHandle> columnHandles;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        database = new TestingDatabase();
+        jdbcClient = database.getJdbcClient();
+        split = database.getSplit("example", "numbers");
+        columnHandles = database.getColumnHandles("example", "numbers");
+        executor = newCachedThreadPool(daemonThreadsNamed("test-jdbc-prefetch-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        executor.shutdownNow();
+        database.close();
+    }
+
+    @Test
+    public void testReadPages()
+            throws Exception
+    {
+        assertEquals(readAll(new JdbcPageSource(jdbcClient, session, split, ImmutableList.of(columnHandles.get("text"), columnHandles.get("value")), 0, Optional.empty())), expectedData());
+    }
+
+    @Test
+    public void testPrefetch()
+            throws Exception
+    {
+        assertEquals(readAll(new JdbcPageSource(jdbcClient, session, split, ImmutableList.of(columnHandles.get("text"), columnHandles.get("value")), 2, Optional.of(executor))), expectedData());
+    }
+
+    @Test
+    public void testNoColumns()
+            throws Exception
+    {
+        try (ConnectorPageSource pageSource = new JdbcPageSource(jdbcClient, session, split, ImmutableList.of(), 0, Optional.empty())) {
+            long positions = 0;
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page != null) {
+                    positions += page.getPositionCount();
+                }
+            }
+            assertEquals(positions, 6);
+            assertNull(pageSource.getNextPage());
+        }
+    }
+
+    @Test
+    public void testNulls()
+            throws Exception
+    {
+        database.getConnection().createStatement().execute("INSERT INTO exa_ple.table_with_float_col(col1, col2, col3, col4) VALUES (1, NULL, 2.5, NULL), (NULL, 3.5, NULL, 4.5)");
+        database.getConnection().commit();
+        JdbcSplit split = database.getSplit("exa_ple", "table_with_float_col");
+        Map<String, JdbcColumnHandle> columnHandles = database.getColumnHandles("exa_ple", "table_with_float_col");
+        List<JdbcColumnHandle> columns = ImmutableList.of(columnHandles.get("col1"), columnHandles.get("col2"), columnHandles.get("col4"));
+
+        List<List<Object>> rows = new ArrayList<>();
+        try (ConnectorPageSource pageSource = new JdbcPageSource(jdbcClient, session, split, columns, 0, Optional.empty())) {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page == null) {
+                    continue;
+                }
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    List<Object> row = new ArrayList<>();
+                    for (int channel = 0; channel < columns.size(); channel++) {
+                        row.add(columns.get(channel).getColumnType().getObjectValue(session.getSqlFunctionProperties(), page.getBlock(channel), position));
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+        assertEquals(rows, ImmutableList.of(Arrays.asList(1L, null, null), Arrays.asList(null, 3.5, 4.5f)));
+    }
+
+    @Test
+    public void testPrefetchedPageMemoryUsage()
+            throws Exception
+    {
+        try (ConnectorPageSource pageSource = new JdbcPageSource(jdbcClient, session, split, ImmutableList.of(columnHandles.get("text"), columnHandles.get("value")), 0, Optional.of(executor))) {
+            assertNull(pageSource.getNextPage());
+            pageSource.isBlocked().get();
+            long memoryUsage = pageSource.getSystemMemoryUsage();
+            Page page = pageSource.getNextPage();
+            assertEquals(page.getPositionCount(), 6);
+            assertTrue(memoryUsage >= page.getRetainedSizeInBytes());
+        }
+    }
+
+    private static Map<String, Long> readAll(ConnectorPageSource pageSource)
+            throws Exception
+    {
+        Map<String, Long> data = new LinkedHashMap<>();
+        try {
+            while (!pageSource.isFinished()) {
+                pageSource.isBlocked().get();
+                Page page = pageSource.getNextPage();
+                if (page == null) {
+                    continue;
+                }
+                Block text = page.getBlock(0);
+                Block value = page.getBlock(1);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    assertFalse(text.isNull(position));
+                    data.put(VARCHAR.getSlice(text, position).toStringUtf8(), BIGINT.getLong(value, position));
+                }
+            }
+            assertEquals(pageSource.getCompletedPositions(), data.size());
+        }
+        finally {
+            pageSource.close();
+        }
+        return data;
+    }
+
+    private static Map<String, Long> expectedData()
+    {
+        return ImmutableMap.<String, Long>builder()
+                .put("one", 1L)
+                .put("two", 2L)
+                .put("three", 3L)
+                .put("ten", 10L)
+                .put("eleven", 11L)
+                .put("twelve", 12L)
+                .build();
+    }
+}
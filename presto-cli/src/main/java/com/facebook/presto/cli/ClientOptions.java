@@ -34,6 +34,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
 
+import static com.facebook.presto.client.ClientSession.DEFAULT_RESULT_PREFETCH_BUFFER_SIZE;
 import static com.facebook.presto.client.KerberosUtil.defaultCredentialCachePath;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
@@ -143,6 +144,9 @@ public class ClientOptions
     @Option(name = "--disable-compression", title = "disable response compression", description = "Disable compression of query results")
     public boolean disableCompression;
 
+    @Option(name = "--binary-results", title = "binary results", description = "Request query results in the binary page encoding")
+    public boolean binaryResults;
+
     public enum OutputFormat
     {
         ALIGNED,
@@ -175,6 +179,9 @@ public class ClientOptions
                 null,
                 clientRequestTimeout,
                 disableCompression,
+                binaryResults,
+                0,
+                DEFAULT_RESULT_PREFETCH_BUFFER_SIZE,
                 emptyMap());
     }
 
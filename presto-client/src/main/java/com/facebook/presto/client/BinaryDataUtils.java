@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.block.BlockEncodingSerde;
+import com.facebook.presto.common.type.StandardTypes;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slices;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PageCodecMarker.none;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPage;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binary result encoding: each page of query output is sent as a base64 encoded
+ * {@link SerializedPage} and decoded column by column, producing the same values
+ * the JSON encoding produces after {@link FixJsonDataUtils#fixData}.
+ */
+public final class BinaryDataUtils
+{
+    private static final Set<String> SUPPORTED_TYPES = ImmutableSet.of(
+            StandardTypes.BIGINT,
+            StandardTypes.INTEGER,
+            StandardTypes.SMALLINT,
+            StandardTypes.TINYINT,
+            StandardTypes.DOUBLE,
+            StandardTypes.REAL,
+            StandardTypes.BOOLEAN,
+            StandardTypes.VARCHAR,
+            StandardTypes.VARBINARY,
+            StandardTypes.DATE);
+
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = new BlockEncodingManager();
+
+    private BinaryDataUtils() {}
+
+    /**
+     * Whether every column has a type the binary encoding can carry. Results with other
+     * columns are sent as JSON.
+     */
+    public static boolean isBinaryDataSupported(List<Column> columns)
+    {
+        return columns.stream()
+                .allMatch(column -> SUPPORTED_TYPES.contains(parseTypeSignature(column.getType()).getBase()));
+    }
+
+    public static String encodeSerializedPage(SerializedPage page)
+    {
+        checkArgument(page.getPageCodecMarkers() == none(), "page must not be compressed or encrypted");
+        DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES * 3 + Byte.BYTES));
+        writeSerializedPage(output, page);
+        return Base64.getEncoder().encodeToString(output.slice().getBytes());
+    }
+
+    public static Iterable<List<Object>> decodeBinaryData(List<Column> columns, List<String> binaryData)
+    {
+        if (binaryData == null) {
+            return null;
+        }
+        requireNonNull(columns, "columns is null");
+        List<String> types = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            String type = parseTypeSignature(column.getType()).getBase();
+            checkArgument(SUPPORTED_TYPES.contains(type), "Unsupported type for binary data: %s", column.getType());
+            types.add(type);
+        }
+
+        PagesSerde serde = new PagesSerde(BLOCK_ENCODING_SERDE, Optional.empty(), Optional.empty(), Optional.empty());
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (String encodedPage : binaryData) {
+            Page page = serde.deserialize(readSerializedPage(Slices.wrappedBuffer(Base64.getDecoder().decode(encodedPage)).getInput()));
+            checkArgument(page.getChannelCount() == columns.size(), "page/column size mismatch");
+
+            Object[][] values = new Object[columns.size()][];
+            for (int channel = 0; channel < values.length; channel++) {
+                values[channel] = decodeColumn(types.get(channel), page.getBlock(channel));
+            }
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                List<Object> row = new ArrayList<>(values.length);
+                for (Object[] column : values) {
+                    row.add(column[position]);
+                }
+                rows.add(unmodifiableList(row)); // allow nulls in list
+            }
+        }
+        return rows.build();
+    }
+
+    private static Object[] decodeColumn(String type, Block block)
+    {
+        Object[] values = new Object[block.getPositionCount()];
+        switch (type) {
+            case StandardTypes.BIGINT:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : BIGINT.getLong(block, position);
+                }
+                return values;
+            case StandardTypes.INTEGER:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : (int) INTEGER.getLong(block, position);
+                }
+                return values;
+            case StandardTypes.SMALLINT:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : (short) SMALLINT.getLong(block, position);
+                }
+                return values;
+            case StandardTypes.TINYINT:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : (byte) TINYINT.getLong(block, position);
+                }
+                return values;
+            case StandardTypes.DOUBLE:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : DOUBLE.getDouble(block, position);
+                }
+                return values;
+            case StandardTypes.REAL:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : intBitsToFloat((int) REAL.getLong(block, position));
+                }
+                return values;
+            case StandardTypes.BOOLEAN:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : BOOLEAN.getBoolean(block, position);
+                }
+                return values;
+            case StandardTypes.VARCHAR:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : VARCHAR.getSlice(block, position).toStringUtf8();
+                }
+                return values;
+            case StandardTypes.VARBINARY:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : VARBINARY.getSlice(block, position).getBytes();
+                }
+                return values;
+            case StandardTypes.DATE:
+                for (int position = 0; position < values.length; position++) {
+                    values[position] = block.isNull(position) ? null : LocalDate.ofEpochDay(DATE.getLong(block, position)).toString();
+                }
+                return values;
+            default:
+                throw new IllegalArgumentException("Unsupported type for binary data: " + type);
+        }
+    }
+}
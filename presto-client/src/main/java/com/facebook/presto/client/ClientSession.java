@@ -17,6 +17,7 @@ import com.facebook.presto.common.type.TimeZoneKey;
 import com.facebook.presto.spi.security.SelectedRole;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
 import java.net.URI;
@@ -29,11 +30,14 @@ import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.Objects.requireNonNull;
 
 public class ClientSession
 {
+    public static final DataSize DEFAULT_RESULT_PREFETCH_BUFFER_SIZE = new DataSize(16, MEGABYTE);
+
     private final URI server;
     private final String user;
     private final String source;
@@ -52,6 +56,9 @@ public class ClientSession
     private final String transactionId;
     private final Duration clientRequestTimeout;
     private final boolean compressionDisabled;
+    private final boolean binaryResults;
+    private final int resultPrefetchCount;
+    private final DataSize resultPrefetchBufferSize;
     private final Map<String, String> sessionFunctions;
 
     public static Builder builder(ClientSession clientSession)
@@ -86,6 +93,55 @@ public class ClientSession
             Duration clientRequestTimeout,
             boolean compressionDisabled,
             Map<String, String> sessionFunctions)
+    {
+        this(
+                server,
+                user,
+                source,
+                traceToken,
+                clientTags,
+                clientInfo,
+                catalog,
+                schema,
+                timeZoneId,
+                locale,
+                resourceEstimates,
+                properties,
+                preparedStatements,
+                roles,
+                extraCredentials,
+                transactionId,
+                clientRequestTimeout,
+                compressionDisabled,
+                false,
+                0,
+                DEFAULT_RESULT_PREFETCH_BUFFER_SIZE,
+                sessionFunctions);
+    }
+
+    public ClientSession(
+            URI server,
+            String user,
+            String source,
+            Optional<String> traceToken,
+            Set<String> clientTags,
+            String clientInfo,
+            String catalog,
+            String schema,
+            String timeZoneId,
+            Locale locale,
+            Map<String, String> resourceEstimates,
+            Map<String, String> properties,
+            Map<String, String> preparedStatements,
+            Map<String, SelectedRole> roles,
+            Map<String, String> extraCredentials,
+            String transactionId,
+            Duration clientRequestTimeout,
+            boolean compressionDisabled,
+            boolean binaryResults,
+            int resultPrefetchCount,
+            DataSize resultPrefetchBufferSize,
+            Map<String, String> sessionFunctions)
     {
         this.server = requireNonNull(server, "server is null");
         this.user = user;
@@ -105,8 +161,13 @@ public class ClientSession
         this.extraCredentials = ImmutableMap.copyOf(requireNonNull(extraCredentials, "extraCredentials is null"));
         this.clientRequestTimeout = clientRequestTimeout;
         this.compressionDisabled = compressionDisabled;
+        this.binaryResults = binaryResults;
+        this.resultPrefetchCount = resultPrefetchCount;
+        this.resultPrefetchBufferSize = requireNonNull(resultPrefetchBufferSize, "resultPrefetchBufferSize is null");
         this.sessionFunctions = ImmutableMap.copyOf(requireNonNull(sessionFunctions, "sessionFunctions is null"));
 
+        checkArgument(resultPrefetchCount >= 0, "resultPrefetchCount is negative");
+
         for (String clientTag : clientTags) {
             checkArgument(!clientTag.contains(","), "client tag cannot contain ','");
         }
@@ -234,6 +295,25 @@ public class ClientSession
         return compressionDisabled;
     }
 
+    public boolean isBinaryResults()
+    {
+        return binaryResults;
+    }
+
+    /**
+     * Maximum number of result batches fetched ahead of the consumer, or zero to
+     * fetch each batch only when the consumer advances to it.
+     */
+    public int getResultPrefetchCount()
+    {
+        return resultPrefetchCount;
+    }
+
+    public DataSize getResultPrefetchBufferSize()
+    {
+        return resultPrefetchBufferSize;
+    }
+
     public Map<String, String> getSessionFunctions()
     {
         return sessionFunctions;
@@ -278,6 +358,9 @@ public class ClientSession
         private String transactionId;
         private Duration clientRequestTimeout;
         private boolean compressionDisabled;
+        private boolean binaryResults;
+        private int resultPrefetchCount;
+        private DataSize resultPrefetchBufferSize;
         private Map<String, String> sessionFunctions;
 
         private Builder(ClientSession clientSession)
@@ -301,6 +384,9 @@ public class ClientSession
             transactionId = clientSession.getTransactionId();
             clientRequestTimeout = clientSession.getClientRequestTimeout();
             compressionDisabled = clientSession.isCompressionDisabled();
+            binaryResults = clientSession.isBinaryResults();
+            resultPrefetchCount = clientSession.getResultPrefetchCount();
+            resultPrefetchBufferSize = clientSession.getResultPrefetchBufferSize();
             sessionFunctions = clientSession.getSessionFunctions();
         }
 
@@ -358,6 +444,19 @@ public class ClientSession
             return this;
         }
 
+        public Builder withBinaryResults(boolean binaryResults)
+        {
+            this.binaryResults = binaryResults;
+            return this;
+        }
+
+        public Builder withResultPrefetch(int resultPrefetchCount, DataSize resultPrefetchBufferSize)
+        {
+            this.resultPrefetchCount = resultPrefetchCount;
+            this.resultPrefetchBufferSize = requireNonNull(resultPrefetchBufferSize, "resultPrefetchBufferSize is null");
+            return this;
+        }
+
         public Builder withSessionFunctions(Map<String, String> sessionFunctions)
         {
             this.sessionFunctions = requireNonNull(sessionFunctions, "sessionFunctions is null");
@@ -385,6 +484,9 @@ public class ClientSession
                     transactionId,
                     clientRequestTimeout,
                     compressionDisabled,
+                    binaryResults,
+                    resultPrefetchCount,
+                    resultPrefetchBufferSize,
                     sessionFunctions);
         }
     }
@@ -24,6 +24,7 @@ import javax.annotation.concurrent.Immutable;
 import java.net.URI;
 import java.util.List;
 
+import static com.facebook.presto.client.BinaryDataUtils.decodeBinaryData;
 import static com.facebook.presto.client.FixJsonDataUtils.fixData;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -41,6 +42,7 @@ public class QueryResults
     private final URI nextUri;
     private final List<Column> columns;
     private final Iterable<List<Object>> data;
+    private final List<String> binaryData;
     private final StatementStats stats;
     private final QueryError error;
     private final List<PrestoWarning> warnings;
@@ -55,6 +57,7 @@ public class QueryResults
             @JsonProperty("nextUri") URI nextUri,
             @JsonProperty("columns") List<Column> columns,
             @JsonProperty("data") List<List<Object>> data,
+            @JsonProperty("binaryData") List<String> binaryData,
             @JsonProperty("stats") StatementStats stats,
             @JsonProperty("error") QueryError error,
             @JsonProperty("warnings") List<PrestoWarning> warnings,
@@ -67,7 +70,8 @@ public class QueryResults
                 partialCancelUri,
                 nextUri,
                 columns,
-                fixData(columns, data),
+                binaryData != null ? decodeBinaryData(columns, binaryData) : fixData(columns, data),
+                binaryData,
                 stats,
                 error,
                 firstNonNull(warnings, ImmutableList.of()),
@@ -87,6 +91,23 @@ public class QueryResults
             List<PrestoWarning> warnings,
             String updateType,
             Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, null, stats, error, warnings, updateType, updateCount);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            List<String> binaryData,
+            StatementStats stats,
+            QueryError error,
+            List<PrestoWarning> warnings,
+            String updateType,
+            Long updateCount)
     {
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
@@ -94,7 +115,9 @@ public class QueryResults
         this.nextUri = nextUri;
         this.columns = (columns != null) ? ImmutableList.copyOf(columns) : null;
         this.data = (data != null) ? unmodifiableIterable(data) : null;
+        this.binaryData = (binaryData != null) ? ImmutableList.copyOf(binaryData) : null;
         checkArgument(data == null || columns != null, "data present without columns");
+        checkArgument(binaryData == null || columns != null, "binary data present without columns");
         this.stats = requireNonNull(stats, "stats is null");
         this.error = error;
         this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
@@ -148,6 +171,17 @@ public class QueryResults
         return data;
     }
 
+    /**
+     * The data as base64 encoded serialized pages, when the client asked for binary results
+     * and every column type is supported by {@link BinaryDataUtils}.
+     */
+    @Nullable
+    @JsonProperty
+    public List<String> getBinaryData()
+    {
+        return binaryData;
+    }
+
     @JsonProperty
     @Override
     public StatementStats getStats()
@@ -195,7 +229,7 @@ public class QueryResults
                 .add("partialCancelUri", partialCancelUri)
                 .add("nextUri", nextUri)
                 .add("columns", columns)
-                .add("hasData", data != null)
+                .add("hasData", data != null || binaryData != null)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
@@ -21,6 +21,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.airlift.units.Duration;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
@@ -30,24 +31,30 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_SESSION_FUNCTION;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BINARY_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_TRANSACTION_ID;
@@ -74,6 +81,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_TRANSACTION_ID;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_USER;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
 import static com.google.common.net.HttpHeaders.USER_AGENT;
@@ -82,6 +90,7 @@ import static java.net.HttpURLConnection.HTTP_OK;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 @ThreadSafe
@@ -96,6 +105,11 @@ class StatementClientV1
             "/" +
             firstNonNull(StatementClientV1.class.getPackage().getImplementationVersion(), "unknown");
 
+    private static final ExecutorService PREFETCH_EXECUTOR = newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("statement-client-prefetch-%s")
+            .setDaemon(true)
+            .build());
+
     private final OkHttpClient httpClient;
     private final String query;
     private final AtomicReference<QueryResults> currentResults = new AtomicReference<>();
@@ -112,11 +126,23 @@ class StatementClientV1
     private final Duration requestTimeoutNanos;
     private final String user;
     private final boolean compressionDisabled;
+    private final boolean binaryResults;
+    private final int resultPrefetchCount;
+    private final long resultPrefetchBufferBytes;
     private final Map<String, String> addedSessionFunctions = new ConcurrentHashMap<>();
     private final Set<String> removedSessionFunctions = newConcurrentHashSet();
 
     private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
 
+    @GuardedBy("this")
+    private final Deque<PrefetchedResults> prefetchedResults = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long prefetchedBytes;
+    @GuardedBy("this")
+    private Throwable prefetchFailure;
+    @GuardedBy("this")
+    private Future<?> prefetchTask;
+
     public StatementClientV1(OkHttpClient httpClient, ClientSession session, String query)
     {
         requireNonNull(httpClient, "httpClient is null");
@@ -129,6 +155,9 @@ class StatementClientV1
         this.requestTimeoutNanos = session.getClientRequestTimeout();
         this.user = session.getUser();
         this.compressionDisabled = session.isCompressionDisabled();
+        this.binaryResults = session.isBinaryResults();
+        this.resultPrefetchCount = session.getResultPrefetchCount();
+        this.resultPrefetchBufferBytes = session.getResultPrefetchBufferSize().toBytes();
 
         Request request = buildQueryRequest(session, query);
 
@@ -345,6 +374,9 @@ class StatementClientV1
         if (compressionDisabled) {
             builder.header(ACCEPT_ENCODING, "identity");
         }
+        if (binaryResults) {
+            builder.header(PRESTO_BINARY_RESULTS, "true");
+        }
         return builder;
     }
 
@@ -361,6 +393,37 @@ class StatementClientV1
             return false;
         }
 
+        if (resultPrefetchCount > 0) {
+            PrefetchedResults results = takePrefetchedResults(nextUri);
+            if (results == null) {
+                return false;
+            }
+            processResponse(results.getHeaders(), results.getResults());
+            return true;
+        }
+
+        JsonResponse<QueryResults> response;
+        try {
+            response = fetch(nextUri);
+        }
+        catch (RuntimeException e) {
+            state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
+            throw e;
+        }
+        if (response == null) {
+            return false;
+        }
+        processResponse(response.getHeaders(), response.getValue());
+        return true;
+    }
+
+    /**
+     * Fetches the results at the given URI, retrying while the server is unavailable.
+     * Returns null if the client is closed in the meantime.
+     */
+    @Nullable
+    private JsonResponse<QueryResults> fetch(URI nextUri)
+    {
         Request request = prepareRequest(HttpUrl.get(nextUri)).build();
 
         Exception cause = null;
@@ -369,12 +432,11 @@ class StatementClientV1
 
         while (true) {
             if (isClientAborted()) {
-                return false;
+                return null;
             }
 
             Duration sinceStart = Duration.nanosSince(start);
             if (attempts > 0 && sinceStart.compareTo(requestTimeoutNanos) > 0) {
-                state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
                 throw new RuntimeException(format("Error fetching next (attempts: %s, duration: %s)", attempts, sinceStart), cause);
             }
 
@@ -390,7 +452,6 @@ class StatementClientV1
                     finally {
                         Thread.currentThread().interrupt();
                     }
-                    state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
                     throw new RuntimeException("StatementClient thread was interrupted");
                 }
             }
@@ -406,17 +467,100 @@ class StatementClientV1
             }
 
             if ((response.getStatusCode() == HTTP_OK) && response.hasValue()) {
-                processResponse(response.getHeaders(), response.getValue());
-                return true;
+                return response;
             }
 
             if (response.getStatusCode() != HTTP_UNAVAILABLE) {
-                state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
                 throw requestFailedException("fetching next", request, response);
             }
         }
     }
 
+    /**
+     * Returns the next batch fetched by the background prefetch, starting the prefetch
+     * from {@code nextUri} on first use. Returns null if the client is closed while waiting.
+     */
+    @Nullable
+    private synchronized PrefetchedResults takePrefetchedResults(URI nextUri)
+    {
+        if (prefetchTask == null) {
+            prefetchTask = PREFETCH_EXECUTOR.submit(() -> prefetchResults(nextUri));
+        }
+
+        while (prefetchedResults.isEmpty()) {
+            if (isClientAborted()) {
+                return null;
+            }
+            if (prefetchFailure != null) {
+                state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
+                throwIfUnchecked(prefetchFailure);
+                throw new RuntimeException(prefetchFailure);
+            }
+            try {
+                wait();
+            }
+            catch (InterruptedException e) {
+                try {
+                    close();
+                }
+                finally {
+                    Thread.currentThread().interrupt();
+                }
+                state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
+                throw new RuntimeException("StatementClient thread was interrupted");
+            }
+        }
+
+        PrefetchedResults results = prefetchedResults.poll();
+        prefetchedBytes -= results.getSizeInBytes();
+        // wake up the prefetch if it was waiting for buffer space
+        notifyAll();
+        return results;
+    }
+
+    /**
+     * Follows the chain of next URIs in the background, keeping at most {@link #resultPrefetchCount}
+     * batches (and roughly {@link #resultPrefetchBufferBytes} of response bodies) ahead of the consumer.
+     * The session updates carried by each response are only applied once the consumer advances to it.
+     */
+    private void prefetchResults(URI nextUri)
+    {
+        try {
+            while (nextUri != null) {
+                synchronized (this) {
+                    while (prefetchedResults.size() >= resultPrefetchCount || prefetchedBytes >= resultPrefetchBufferBytes) {
+                        if (!isRunning()) {
+                            return;
+                        }
+                        wait();
+                    }
+                }
+
+                JsonResponse<QueryResults> response = fetch(nextUri);
+                if (response == null) {
+                    return;
+                }
+                QueryResults results = response.getValue();
+                synchronized (this) {
+                    PrefetchedResults prefetched = new PrefetchedResults(response.getHeaders(), results, response.getResponseBody().length());
+                    prefetchedResults.add(prefetched);
+                    prefetchedBytes += prefetched.getSizeInBytes();
+                    notifyAll();
+                }
+                nextUri = results.getNextUri();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (Throwable t) {
+            synchronized (this) {
+                prefetchFailure = t;
+                notifyAll();
+            }
+        }
+    }
+
     private void processResponse(Headers headers, QueryResults results)
     {
         setCatalog.set(headers.get(PRESTO_SET_CATALOG));
@@ -515,6 +659,15 @@ class StatementClientV1
                 httpDelete(uri);
             }
         }
+
+        synchronized (this) {
+            if (prefetchTask != null) {
+                prefetchTask.cancel(true);
+            }
+            prefetchedResults.clear();
+            prefetchedBytes = 0;
+            notifyAll();
+        }
     }
 
     private void httpDelete(URI uri)
@@ -545,6 +698,35 @@ class StatementClientV1
         }
     }
 
+    private static class PrefetchedResults
+    {
+        private final Headers headers;
+        private final QueryResults results;
+        private final long sizeInBytes;
+
+        public PrefetchedResults(Headers headers, QueryResults results, long sizeInBytes)
+        {
+            this.headers = requireNonNull(headers, "headers is null");
+            this.results = requireNonNull(results, "results is null");
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        public Headers getHeaders()
+        {
+            return headers;
+        }
+
+        public QueryResults getResults()
+        {
+            return results;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+    }
+
     private enum State
     {
         /**
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.client.BinaryDataUtils.decodeBinaryData;
+import static com.facebook.presto.client.BinaryDataUtils.encodeSerializedPage;
+import static com.facebook.presto.client.BinaryDataUtils.isBinaryDataSupported;
+import static com.facebook.presto.client.FixJsonDataUtils.fixData;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.google.common.collect.Lists.newArrayList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.lang.Float.floatToRawIntBits;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBinaryDataUtils
+{
+    @Test
+    public void testRoundTrip()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, DOUBLE, REAL, BOOLEAN, VARCHAR, DATE);
+        List<Column> columns = types.stream()
+                .map(type -> new Column("c", type))
+                .collect(ImmutableList.toImmutableList());
+        assertTrue(isBinaryDataSupported(columns));
+
+        BlockBuilder[] builders = types.stream()
+                .map(type -> type.createBlockBuilder(null, 2))
+                .toArray(BlockBuilder[]::new);
+        BIGINT.writeLong(builders[0], 1000);
+        INTEGER.writeLong(builders[1], 100);
+        DOUBLE.writeDouble(builders[2], 100.23456);
+        REAL.writeLong(builders[3], floatToRawIntBits(1.5f));
+        BOOLEAN.writeBoolean(builders[4], true);
+        VARCHAR.writeSlice(builders[5], utf8Slice("teststring"));
+        DATE.writeLong(builders[6], 17348);
+        for (BlockBuilder builder : builders) {
+            builder.appendNull();
+        }
+        Page page = new Page(Arrays.stream(builders).map(BlockBuilder::build).toArray(Block[]::new));
+
+        PagesSerde serde = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+        List<List<Object>> rows = newArrayList(decodeBinaryData(columns, ImmutableList.of(encodeSerializedPage(serde.serialize(page)))));
+
+        List<List<Object>> expected = newArrayList(fixData(columns, ImmutableList.of(
+                ImmutableList.of(1000, 100, 100.23456, 1.5, true, "teststring", "2017-07-01"),
+                Arrays.asList(null, null, null, null, null, null, null))));
+        assertEquals(rows, expected);
+    }
+
+    @Test
+    public void testUnsupportedTypes()
+    {
+        assertFalse(isBinaryDataSupported(ImmutableList.of(
+                new Column("a", BIGINT),
+                new Column("b", parseTypeSignature("array(bigint)")))));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.String.format;
+
+/**
+ * A fixed size bloom filter over the native values of integer-like types (as longs)
+ * and of string-like types (as raw bytes). Filters of the same size can be merged,
+ * so summaries built by separate drivers can be combined.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class BloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BloomFilter.class).instanceSize();
+
+    private static final int HASH_FUNCTIONS = 3;
+    private static final int MIN_SIZE_IN_BYTES = Long.BYTES;
+    private static final int MAX_SIZE_IN_BYTES = 1 << 27;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] bits;
+    private final int bitMask;
+
+    /**
+     * @param sizeInBytes the requested size, rounded up to a power of two
+     */
+    public BloomFilter(int sizeInBytes)
+    {
+        if (sizeInBytes <= 0 || sizeInBytes > MAX_SIZE_IN_BYTES) {
+            throw new IllegalArgumentException(format("sizeInBytes must be between 1 and %s: %s", MAX_SIZE_IN_BYTES, sizeInBytes));
+        }
+        int size = Math.max(MIN_SIZE_IN_BYTES, Integer.highestOneBit(sizeInBytes - 1) << 1);
+        this.bits = new long[size / Long.BYTES];
+        this.bitMask = size * Byte.SIZE - 1;
+    }
+
+    private BloomFilter(long[] bits)
+    {
+        this.bits = bits;
+        this.bitMask = bits.length * Long.SIZE - 1;
+    }
+
+    public void put(long value)
+    {
+        addHash(hash(value));
+    }
+
+    public void put(Slice value)
+    {
+        addHash(hash(value));
+    }
+
+    public boolean mightContain(long value)
+    {
+        return containsHash(hash(value));
+    }
+
+    public boolean mightContain(Slice value)
+    {
+        return containsHash(hash(value));
+    }
+
+    public boolean mightContain(byte[] buffer, int offset, int length)
+    {
+        return containsHash(hash(buffer, offset, length));
+    }
+
+    /**
+     * Returns a new filter that contains the values of both filters.
+     */
+    public BloomFilter union(BloomFilter other)
+    {
+        if (bits.length != other.bits.length) {
+            throw new IllegalArgumentException(format("Cannot merge bloom filters of different sizes: %s and %s", getSizeInBytes(), other.getSizeInBytes()));
+        }
+        long[] merged = new long[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            merged[i] = bits[i] | other.bits[i];
+        }
+        return new BloomFilter(merged);
+    }
+
+    public BloomFilter copy()
+    {
+        return new BloomFilter(Arrays.copyOf(bits, bits.length));
+    }
+
+    /**
+     * Estimates the probability that a value that was never added passes the filter.
+     */
+    public double getFalsePositiveProbability()
+    {
+        long bitCount = 0;
+        for (long word : bits) {
+            bitCount += Long.bitCount(word);
+        }
+        return Math.pow((double) bitCount / (bits.length * Long.SIZE), HASH_FUNCTIONS);
+    }
+
+    public int getSizeInBytes()
+    {
+        return bits.length * Long.BYTES;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(bits);
+    }
+
+    private void addHash(long hash)
+    {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = (hash1 + i * hash2) & bitMask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean containsHash(long hash)
+    {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = (hash1 + i * hash2) & bitMask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(long value)
+    {
+        return mix(value);
+    }
+
+    private static long hash(Slice value)
+    {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.getByte(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long hash(byte[] buffer, int offset, int length)
+    {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ buffer[i]) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    // finalization step of MurmurHash3
+    private static long mix(long hash)
+    {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("BloomFilter{sizeInBytes=%s}", getSizeInBytes());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBloomFilter
+{
+    @Test
+    public void testLongValues()
+    {
+        BloomFilter filter = new BloomFilter(1024);
+        for (long value = 0; value < 1000; value += 2) {
+            filter.put(value);
+        }
+        int falsePositives = 0;
+        for (long value = 0; value < 1000; value++) {
+            if (value % 2 == 0) {
+                assertTrue(filter.mightContain(value));
+            }
+            else if (filter.mightContain(value)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 100, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testBytesValues()
+    {
+        BloomFilter filter = new BloomFilter(1024);
+        filter.put(utf8Slice("apple"));
+        filter.put(utf8Slice("banana"));
+
+        assertTrue(filter.mightContain(utf8Slice("apple")));
+        byte[] buffer = "xxbananaxx".getBytes();
+        assertTrue(filter.mightContain(buffer, 2, 6));
+        assertFalse(filter.mightContain(utf8Slice("cherry")));
+    }
+
+    @Test
+    public void testUnion()
+    {
+        BloomFilter left = new BloomFilter(100);
+        BloomFilter right = new BloomFilter(128);
+        assertEquals(left.getSizeInBytes(), 128);
+
+        left.put(1);
+        Slice value = utf8Slice("value");
+        right.put(value);
+        BloomFilter union = left.union(right);
+        assertTrue(union.mightContain(1));
+        assertTrue(union.mightContain(value));
+        assertFalse(left.mightContain(value));
+        assertTrue(union.getFalsePositiveProbability() > left.getFalsePositiveProbability());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnionOfDifferentSizes()
+    {
+        new BloomFilter(64).union(new BloomFilter(128));
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.airlift.stats.CounterStat;
 import com.facebook.airlift.stats.DistributionStat;
 import com.facebook.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
@@ -29,6 +30,8 @@ public class FileFormatDataSourceStats
     private final TimeStat time100KBto1MB = new TimeStat(MILLISECONDS);
     private final TimeStat time1MBto10MB = new TimeStat(MILLISECONDS);
     private final TimeStat time10MBPlus = new TimeStat(MILLISECONDS);
+    private final CounterStat orcStripePrefetchHits = new CounterStat();
+    private final CounterStat orcStripePrefetchMisses = new CounterStat();
 
     @Managed
     @Nested
@@ -72,6 +75,20 @@ public class FileFormatDataSourceStats
         return time10MBPlus;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getOrcStripePrefetchHits()
+    {
+        return orcStripePrefetchHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getOrcStripePrefetchMisses()
+    {
+        return orcStripePrefetchMisses;
+    }
+
     public void readDataBytesPerSecond(long bytes, long nanos)
     {
         readBytes.add(bytes);
@@ -93,4 +110,10 @@ public class FileFormatDataSourceStats
     {
         maxCombinedBytesPerRow.add(bytes);
     }
+
+    public void addOrcStripePrefetchStats(long hits, long misses)
+    {
+        orcStripePrefetchHits.update(hits);
+        orcStripePrefetchMisses.update(misses);
+    }
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.spi.ConnectorPageSource;
@@ -43,4 +44,42 @@ public interface HiveBatchPageSourceFactory
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
             Optional<EncryptionInformation> encryptionInformation);
+
+    /**
+     * @param dynamicBloomFilters bloom filters of the values of the columns that can match a join, which
+     * the page source may use to drop rows. Factories that do not override this method ignore them.
+     */
+    default Optional<? extends ConnectorPageSource> createPageSource(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            long fileSize,
+            Storage storage,
+            SchemaTableName tableName,
+            Map<String, String> tableParameters,
+            List<HiveColumnHandle> columns,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            Map<HiveColumnHandle, BloomFilter> dynamicBloomFilters,
+            DateTimeZone hiveStorageTimeZone,
+            HiveFileContext hiveFileContext,
+            Optional<EncryptionInformation> encryptionInformation)
+    {
+        return createPageSource(
+                configuration,
+                session,
+                path,
+                start,
+                length,
+                fileSize,
+                storage,
+                tableName,
+                tableParameters,
+                columns,
+                effectivePredicate,
+                hiveStorageTimeZone,
+                hiveFileContext,
+                encryptionInformation);
+    }
 }
@@ -114,6 +114,9 @@ public class HiveClientConfig
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcMaxReadBlockSize = new DataSize(16, MEGABYTE);
     private boolean orcLazyReadSmallRanges = true;
+    private boolean orcStripePrefetchEnabled;
+    private DataSize orcMaxStripePrefetchSize = new DataSize(64, MEGABYTE);
+    private int orcMaxStripePrefetchThreads = 16;
     private boolean orcOptimizedWriterEnabled = true;
     private double orcWriterValidationPercentage;
     private OrcWriteValidationMode orcWriterValidationMode = OrcWriteValidationMode.BOTH;
@@ -177,6 +180,8 @@ public class HiveClientConfig
     private boolean parquetBatchReadOptimizationEnabled;
     private boolean parquetEnableBatchReaderVerification;
     private boolean parquetDereferencePushdownEnabled;
+    private boolean parquetSelectiveReadsEnabled;
+    private boolean parquetPagePruningEnabled;
 
     private int maxMetadataUpdaterThreads = 100;
 
@@ -756,6 +761,47 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isOrcStripePrefetchEnabled()
+    {
+        return orcStripePrefetchEnabled;
+    }
+
+    @Config("hive.orc.stripe-prefetch-enabled")
+    @ConfigDescription("ORC: read the next stripe in the background while the current stripe is decoded")
+    public HiveClientConfig setOrcStripePrefetchEnabled(boolean orcStripePrefetchEnabled)
+    {
+        this.orcStripePrefetchEnabled = orcStripePrefetchEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcMaxStripePrefetchSize()
+    {
+        return orcMaxStripePrefetchSize;
+    }
+
+    @Config("hive.orc.max-stripe-prefetch-size")
+    @ConfigDescription("ORC: maximum size of the data read ahead for the next stripe")
+    public HiveClientConfig setOrcMaxStripePrefetchSize(DataSize orcMaxStripePrefetchSize)
+    {
+        this.orcMaxStripePrefetchSize = orcMaxStripePrefetchSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getOrcMaxStripePrefetchThreads()
+    {
+        return orcMaxStripePrefetchThreads;
+    }
+
+    @Config("hive.orc.max-stripe-prefetch-threads")
+    @ConfigDescription("ORC: maximum number of stripes read ahead at the same time")
+    public HiveClientConfig setOrcMaxStripePrefetchThreads(int orcMaxStripePrefetchThreads)
+    {
+        this.orcMaxStripePrefetchThreads = orcMaxStripePrefetchThreads;
+        return this;
+    }
+
     public boolean isOrcBloomFiltersEnabled()
     {
         return orcBloomFiltersEnabled;
@@ -1503,6 +1549,32 @@ public class HiveClientConfig
         return this.parquetDereferencePushdownEnabled;
     }
 
+    @Config("hive.parquet-selective-reads-enabled")
+    @ConfigDescription("Filter Parquet rows on the predicate while reading, and read the other columns only for the remaining rows")
+    public HiveClientConfig setParquetSelectiveReadsEnabled(boolean parquetSelectiveReadsEnabled)
+    {
+        this.parquetSelectiveReadsEnabled = parquetSelectiveReadsEnabled;
+        return this;
+    }
+
+    public boolean isParquetSelectiveReadsEnabled()
+    {
+        return this.parquetSelectiveReadsEnabled;
+    }
+
+    @Config("hive.parquet-page-pruning-enabled")
+    @ConfigDescription("Skip the Parquet pages whose statistics do not match the predicate")
+    public HiveClientConfig setParquetPagePruningEnabled(boolean parquetPagePruningEnabled)
+    {
+        this.parquetPagePruningEnabled = parquetPagePruningEnabled;
+        return this;
+    }
+
+    public boolean isParquetPagePruningEnabled()
+    {
+        return this.parquetPagePruningEnabled;
+    }
+
     @Min(1)
     public int getMaxMetadataUpdaterThreads()
     {
@@ -254,6 +254,17 @@ public class HiveClientModule
                                 hiveClientConfig.getMaxConcurrentZeroRowFileCreations())));
     }
 
+    @ForStripePrefetch
+    @Singleton
+    @Provides
+    public ExecutorService createStripePrefetchExecutor(HiveConnectorId hiveClientId, HiveClientConfig hiveClientConfig)
+    {
+        return new ExecutorServiceAdapter(
+                new BoundedExecutor(
+                        newCachedThreadPool(daemonThreadsNamed("hive-orc-stripe-prefetch-" + hiveClientId + "-%s")),
+                        hiveClientConfig.getOrcMaxStripePrefetchThreads()));
+    }
+
     @Singleton
     @Provides
     public OrcFileTailSource createOrcFileTailSource(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
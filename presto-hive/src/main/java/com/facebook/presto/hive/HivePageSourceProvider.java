@@ -16,6 +16,7 @@ package com.facebook.presto.hive;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.Subfield.NestedField;
 import com.facebook.presto.common.Subfield.PathElement;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.NullableValue;
 import com.facebook.presto.common.predicate.TupleDomain;
@@ -193,6 +194,8 @@ public class HivePageSourceProvider
                 hiveSplit.getFileSize(),
                 hiveSplit.getStorage(),
                 splitContext.getDynamicFilterPredicate().map(filter -> filter.transform(handle -> (HiveColumnHandle) handle).intersect(effectivePredicate)).orElse(effectivePredicate),
+                splitContext.getDynamicBloomFilters().entrySet().stream()
+                        .collect(toImmutableMap(entry -> (HiveColumnHandle) entry.getKey(), Map.Entry::getValue)),
                 selectedColumns,
                 hiveLayout.getPredicateColumns(),
                 hiveSplit.getPartitionKeys(),
@@ -313,6 +316,8 @@ public class HivePageSourceProvider
                     outputColumns,
                     splitContext.getDynamicFilterPredicate().map(filter -> filter.transform(
                             handle -> new Subfield(((HiveColumnHandle) handle).getName())).intersect(layout.getDomainPredicate())).orElse(layout.getDomainPredicate()),
+                    splitContext.getDynamicBloomFilters().entrySet().stream()
+                            .collect(toImmutableMap(entry -> ((HiveColumnHandle) entry.getKey()).getName(), Map.Entry::getValue)),
                     optimizedRemainingPredicate,
                     hiveStorageTimeZone,
                     new HiveFileContext(splitContext.isCacheable(), cacheQuota, split.getExtraFileInfo().map(BinaryExtraHiveFileInfo::new), Optional.of(split.getFileSize())),
@@ -337,6 +342,7 @@ public class HivePageSourceProvider
             long fileSize,
             Storage storage,
             TupleDomain<HiveColumnHandle> effectivePredicate,
+            Map<HiveColumnHandle, BloomFilter> dynamicBloomFilters,
             List<HiveColumnHandle> hiveColumns,
             Map<String, HiveColumnHandle> predicateColumns,
             List<HivePartitionKey> partitionKeys,
@@ -403,6 +409,7 @@ public class HivePageSourceProvider
                     tableParameters,
                     toColumnHandles(regularAndInterimColumnMappings, true),
                     effectivePredicate,
+                    dynamicBloomFilters,
                     hiveStorageTimeZone,
                     hiveFileContext,
                     encryptionInformation);
@@ -14,6 +14,7 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.spi.ConnectorPageSource;
@@ -43,6 +44,7 @@ public interface HiveSelectivePageSourceFactory
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,                    // element is hiveColumnIndex
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BloomFilter> dynamicBloomFilters,   // key is column name
             RowExpression remainingPredicate,               // refers to columns by name; already optimized
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
@@ -54,6 +54,8 @@ public final class HiveSessionProperties
     private static final String ORC_TINY_STRIPE_THRESHOLD = "orc_tiny_stripe_threshold";
     private static final String ORC_MAX_READ_BLOCK_SIZE = "orc_max_read_block_size";
     private static final String ORC_LAZY_READ_SMALL_RANGES = "orc_lazy_read_small_ranges";
+    private static final String ORC_STRIPE_PREFETCH_ENABLED = "orc_stripe_prefetch_enabled";
+    private static final String ORC_MAX_STRIPE_PREFETCH_SIZE = "orc_max_stripe_prefetch_size";
     private static final String ORC_ZSTD_JNI_DECOMPRESSION_ENABLED = "orc_zstd_jni_decompression_enabled";
     private static final String ORC_STRING_STATISTICS_LIMIT = "orc_string_statistics_limit";
     private static final String ORC_OPTIMIZED_WRITER_ENABLED = "orc_optimized_writer_enabled";
@@ -109,6 +111,8 @@ public final class HiveSessionProperties
     private static final String PARQUET_BATCH_READER_VERIFICATION_ENABLED = "parquet_batch_reader_verification_enabled";
     private static final String BUCKET_FUNCTION_TYPE_FOR_EXCHANGE = "bucket_function_type_for_exchange";
     public static final String PARQUET_DEREFERENCE_PUSHDOWN_ENABLED = "parquet_dereference_pushdown_enabled";
+    private static final String PARQUET_SELECTIVE_READS_ENABLED = "parquet_selective_reads_enabled";
+    private static final String PARQUET_PAGE_PRUNING_ENABLED = "parquet_page_pruning_enabled";
     public static final String IGNORE_UNREADABLE_PARTITION = "ignore_unreadable_partition";
     public static final String PARTIAL_AGGREGATION_PUSHDOWN_ENABLED = "partial_aggregation_pushdown_enabled";
     public static final String PARTIAL_AGGREGATION_PUSHDOWN_FOR_VARIABLE_LENGTH_DATATYPES_ENABLED = "partial_aggregation_pushdown_for_variable_length_datatypes_enabled";
@@ -208,6 +212,16 @@ public final class HiveSessionProperties
                         "Experimental: ORC: Read small file segments lazily",
                         hiveClientConfig.isOrcLazyReadSmallRanges(),
                         false),
+                booleanProperty(
+                        ORC_STRIPE_PREFETCH_ENABLED,
+                        "ORC: Read the next stripe in the background while the current stripe is decoded",
+                        hiveClientConfig.isOrcStripePrefetchEnabled(),
+                        false),
+                dataSizeSessionProperty(
+                        ORC_MAX_STRIPE_PREFETCH_SIZE,
+                        "ORC: Maximum size of the data read ahead for the next stripe",
+                        hiveClientConfig.getOrcMaxStripePrefetchSize(),
+                        false),
                 dataSizeSessionProperty(
                         ORC_STRING_STATISTICS_LIMIT,
                         "ORC: Maximum size of string statistics; drop if exceeding",
@@ -520,6 +534,16 @@ public final class HiveSessionProperties
                         "Is dereference pushdown expression pushdown into Parquet reader enabled?",
                         hiveClientConfig.isParquetDereferencePushdownEnabled(),
                         false),
+                booleanProperty(
+                        PARQUET_SELECTIVE_READS_ENABLED,
+                        "Filter Parquet rows on the predicate while reading, and read the other columns only for the remaining rows",
+                        hiveClientConfig.isParquetSelectiveReadsEnabled(),
+                        false),
+                booleanProperty(
+                        PARQUET_PAGE_PRUNING_ENABLED,
+                        "Skip the Parquet pages whose statistics do not match the predicate",
+                        hiveClientConfig.isParquetPagePruningEnabled(),
+                        false),
                 booleanProperty(
                         PARTIAL_AGGREGATION_PUSHDOWN_ENABLED,
                         "Is partial aggregation pushdown enabled for Hive file formats",
@@ -617,6 +641,16 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_LAZY_READ_SMALL_RANGES, Boolean.class);
     }
 
+    public static boolean isOrcStripePrefetchEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_STRIPE_PREFETCH_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getOrcMaxStripePrefetchSize(ConnectorSession session)
+    {
+        return session.getProperty(ORC_MAX_STRIPE_PREFETCH_SIZE, DataSize.class);
+    }
+
     public static boolean isOrcZstdJniDecompressionEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_ZSTD_JNI_DECOMPRESSION_ENABLED, Boolean.class);
@@ -930,6 +964,16 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_DEREFERENCE_PUSHDOWN_ENABLED, Boolean.class);
     }
 
+    public static boolean isParquetSelectiveReadsEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_SELECTIVE_READS_ENABLED, Boolean.class);
+    }
+
+    public static boolean isParquetPagePruningEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_PAGE_PRUNING_ENABLED, Boolean.class);
+    }
+
     public static boolean isPartialAggregationPushdownEnabled(ConnectorSession session)
     {
         return session.getProperty(PARTIAL_AGGREGATION_PUSHDOWN_ENABLED, Boolean.class);
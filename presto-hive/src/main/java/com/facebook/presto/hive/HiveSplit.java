@@ -13,6 +13,11 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.NullableValue;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.TimestampType;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.spi.ColumnHandle;
@@ -25,6 +30,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import org.joda.time.DateTimeZone;
 
 import java.util.List;
 import java.util.Map;
@@ -34,6 +40,7 @@ import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 
+import static com.facebook.presto.hive.HiveUtil.parsePartitionValue;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.SOFT_AFFINITY;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -305,6 +312,32 @@ public class HiveSplit
                 .build();
     }
 
+    @Override
+    public boolean mayMatchDynamicFilter(TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        if (dynamicFilter.isNone()) {
+            return false;
+        }
+        for (Map.Entry<ColumnHandle, Domain> entry : dynamicFilter.getDomains().get().entrySet()) {
+            HiveColumnHandle column = (HiveColumnHandle) entry.getKey();
+            Domain domain = entry.getValue();
+            Type type = domain.getType();
+            // timestamp partition values depend on the storage time zone, which is not known here
+            if (!column.isPartitionKey() || type instanceof TimestampType) {
+                continue;
+            }
+            for (HivePartitionKey partitionKey : partitionKeys) {
+                if (partitionKey.getName().equals(column.getName())) {
+                    NullableValue value = parsePartitionValue(partitionKey.getName(), partitionKey.getValue(), type, DateTimeZone.UTC);
+                    if (!domain.includesNullableValue(value.getValue())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public Object getSplitIdentifier()
     {
@@ -15,11 +15,13 @@ package com.facebook.presto.hive.orc;
 
 import com.facebook.hive.orc.OrcSerde;
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForStripePrefetch;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveCoercer;
@@ -46,6 +48,7 @@ import javax.inject.Inject;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.orc.OrcSelectivePageSourceFactory.createOrcPageSource;
@@ -65,6 +68,7 @@ public class DwrfSelectivePageSourceFactory
     private final StripeMetadataSource stripeMetadataSource;
     private final TupleDomainFilterCache tupleDomainFilterCache;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final ExecutorService stripePrefetchExecutor;
 
     @Inject
     public DwrfSelectivePageSourceFactory(
@@ -77,7 +81,8 @@ public class DwrfSelectivePageSourceFactory
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSource stripeMetadataSource,
             TupleDomainFilterCache tupleDomainFilterCache,
-            HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            @ForStripePrefetch ExecutorService stripePrefetchExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -89,6 +94,7 @@ public class DwrfSelectivePageSourceFactory
         this.stripeMetadataSource = requireNonNull(stripeMetadataSource, "stripeMetadataSource is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "dwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
     }
 
     @Override
@@ -106,6 +112,7 @@ public class DwrfSelectivePageSourceFactory
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BloomFilter> dynamicBloomFilters,
             RowExpression remainingPredicate,
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
@@ -134,6 +141,7 @@ public class DwrfSelectivePageSourceFactory
                 bucketAdaptation,
                 outputColumns,
                 domainPredicate,
+                dynamicBloomFilters,
                 remainingPredicate,
                 false,
                 hiveStorageTimeZone,
@@ -147,6 +155,7 @@ public class DwrfSelectivePageSourceFactory
                 stripeMetadataSource,
                 hiveFileContext,
                 tupleDomainFilterCache,
+                stripePrefetchExecutor,
                 encryptionInformation,
                 dwrfEncryptionProvider));
     }
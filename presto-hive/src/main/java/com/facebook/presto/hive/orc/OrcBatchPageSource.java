@@ -178,6 +178,7 @@ public class OrcBatchPageSource
 
         try {
             stats.addMaxCombinedBytesPerRow(recordReader.getMaxCombinedBytesPerRow());
+            stats.addOrcStripePrefetchStats(recordReader.getStripePrefetchHits(), recordReader.getStripePrefetchMisses());
             recordReader.close();
         }
         catch (IOException e) {
@@ -118,6 +118,7 @@ public class OrcSelectivePageSource
 
         try {
             stats.addMaxCombinedBytesPerRow(recordReader.getMaxCombinedBytesPerRow());
+            stats.addOrcStripePrefetchStats(recordReader.getStripePrefetchHits(), recordReader.getStripePrefetchMisses());
             recordReader.close();
         }
         catch (IOException e) {
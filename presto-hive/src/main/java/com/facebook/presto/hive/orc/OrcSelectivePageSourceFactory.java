@@ -16,6 +16,7 @@ package com.facebook.presto.hive.orc;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.relation.Predicate;
 import com.facebook.presto.common.type.Type;
@@ -25,6 +26,7 @@ import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForStripePrefetch;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveCoercer;
@@ -48,6 +50,7 @@ import com.facebook.presto.orc.OrcReaderOptions;
 import com.facebook.presto.orc.OrcSelectiveRecordReader;
 import com.facebook.presto.orc.StripeMetadataSource;
 import com.facebook.presto.orc.TupleDomainFilter;
+import com.facebook.presto.orc.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.orc.TupleDomainOrcPredicate;
 import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.spi.ConnectorPageSource;
@@ -92,6 +95,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.IntStream;
@@ -112,10 +117,12 @@ import static com.facebook.presto.hive.HiveSessionProperties.getOrcLazyReadSmall
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxBufferSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxReadBlockSize;
+import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxStripePrefetchSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcStreamBufferSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcTinyStripeThreshold;
 import static com.facebook.presto.hive.HiveSessionProperties.isAdaptiveFilterReorderingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isOrcBloomFiltersEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcStripePrefetchEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isOrcZstdJniDecompressionEnabled;
 import static com.facebook.presto.hive.HiveUtil.getPhysicalHiveColumnHandles;
 import static com.facebook.presto.hive.HiveUtil.typedPartitionKey;
@@ -146,6 +153,7 @@ public class OrcSelectivePageSourceFactory
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSource stripeMetadataSource;
     private final TupleDomainFilterCache tupleDomainFilterCache;
+    private final ExecutorService stripePrefetchExecutor;
 
     @Inject
     public OrcSelectivePageSourceFactory(
@@ -157,7 +165,8 @@ public class OrcSelectivePageSourceFactory
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSource stripeMetadataSource,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            @ForStripePrefetch ExecutorService stripePrefetchExecutor)
     {
         this(
                 typeManager,
@@ -169,7 +178,8 @@ public class OrcSelectivePageSourceFactory
                 config.getDomainCompactionThreshold(),
                 orcFileTailSource,
                 stripeMetadataSource,
-                tupleDomainFilterCache);
+                tupleDomainFilterCache,
+                stripePrefetchExecutor);
     }
 
     public OrcSelectivePageSourceFactory(
@@ -182,7 +192,8 @@ public class OrcSelectivePageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSource stripeMetadataSource,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            ExecutorService stripePrefetchExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -194,6 +205,7 @@ public class OrcSelectivePageSourceFactory
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailCache is null");
         this.stripeMetadataSource = requireNonNull(stripeMetadataSource, "stripeMetadataSource is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
     }
 
     @Override
@@ -211,6 +223,7 @@ public class OrcSelectivePageSourceFactory
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BloomFilter> dynamicBloomFilters,
             RowExpression remainingPredicate,
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
@@ -240,6 +253,7 @@ public class OrcSelectivePageSourceFactory
                 bucketAdaptation,
                 outputColumns,
                 domainPredicate,
+                dynamicBloomFilters,
                 remainingPredicate,
                 useOrcColumnNames,
                 hiveStorageTimeZone,
@@ -253,6 +267,7 @@ public class OrcSelectivePageSourceFactory
                 stripeMetadataSource,
                 hiveFileContext,
                 tupleDomainFilterCache,
+                stripePrefetchExecutor,
                 encryptionInformation,
                 NO_ENCRYPTION));
     }
@@ -272,6 +287,7 @@ public class OrcSelectivePageSourceFactory
             Optional<BucketAdaptation> bucketAdaptation,
             List<Integer> outputColumns,
             TupleDomain<Subfield> domainPredicate,
+            Map<String, BloomFilter> dynamicBloomFilters,
             RowExpression remainingPredicate,
             boolean useOrcColumnNames,
             DateTimeZone hiveStorageTimeZone,
@@ -285,6 +301,7 @@ public class OrcSelectivePageSourceFactory
             StripeMetadataSource stripeMetadataSource,
             HiveFileContext hiveFileContext,
             TupleDomainFilterCache tupleDomainFilterCache,
+            Executor stripePrefetchExecutor,
             Optional<EncryptionInformation> encryptionInformation,
             DwrfEncryptionProvider dwrfEncryptionProvider)
     {
@@ -295,7 +312,15 @@ public class OrcSelectivePageSourceFactory
         DataSize streamBufferSize = getOrcStreamBufferSize(session);
         DataSize tinyStripeThreshold = getOrcTinyStripeThreshold(session);
         DataSize maxReadBlockSize = getOrcMaxReadBlockSize(session);
-        OrcReaderOptions orcReaderOptions = new OrcReaderOptions(maxMergeDistance, tinyStripeThreshold, maxReadBlockSize, isOrcZstdJniDecompressionEnabled(session));
+        OrcReaderOptions orcReaderOptions = new OrcReaderOptions(
+                maxMergeDistance,
+                tinyStripeThreshold,
+                maxReadBlockSize,
+                isOrcZstdJniDecompressionEnabled(session),
+                false,
+                false,
+                isOrcStripePrefetchEnabled(session) ? Optional.of(stripePrefetchExecutor) : Optional.empty(),
+                getOrcMaxStripePrefetchSize(session));
         boolean lazyReadSmallRanges = getOrcLazyReadSmallRanges(session);
 
         OrcDataSource orcDataSource;
@@ -353,7 +378,7 @@ public class OrcSelectivePageSourceFactory
             OrcPredicate orcPredicate = toOrcPredicate(domainPredicate, physicalColumns, mappedCoercers, typeManager, domainCompactionThreshold, orcBloomFiltersEnabled);
 
             Map<String, Integer> columnIndices = ImmutableBiMap.copyOf(columnNames).inverse();
-            Map<Integer, Map<Subfield, TupleDomainFilter>> tupleDomainFilters = toTupleDomainFilters(domainPredicate, columnIndices, mappedCoercers, tupleDomainFilterCache);
+            Map<Integer, Map<Subfield, TupleDomainFilter>> tupleDomainFilters = toTupleDomainFilters(domainPredicate, dynamicBloomFilters, columnIndices, mappedCoercers, tupleDomainFilterCache);
 
             List<Integer> outputIndices = outputColumns.stream().map(indexMapping::get).collect(toImmutableList());
             Map<Integer, List<Subfield>> requiredSubfields = collectRequiredSubfields(physicalColumns, outputIndices, tupleDomainFilters, remainingPredicate, columnIndices, functionResolution, rowExpressionService, session);
@@ -574,7 +599,12 @@ public class OrcSelectivePageSourceFactory
         }
     }
 
-    private static Map<Integer, Map<Subfield, TupleDomainFilter>> toTupleDomainFilters(TupleDomain<Subfield> domainPredicate, Map<String, Integer> columnIndices, Map<Integer, HiveCoercer> coercers, TupleDomainFilterCache tupleDomainFilterCache)
+    private static Map<Integer, Map<Subfield, TupleDomainFilter>> toTupleDomainFilters(
+            TupleDomain<Subfield> domainPredicate,
+            Map<String, BloomFilter> dynamicBloomFilters,
+            Map<String, Integer> columnIndices,
+            Map<Integer, HiveCoercer> coercers,
+            TupleDomainFilterCache tupleDomainFilterCache)
     {
         Map<Subfield, TupleDomainFilter> filtersBySubfield = Maps.transformValues(domainPredicate.getDomains().get(), tupleDomainFilterCache::getFilter);
 
@@ -583,6 +613,11 @@ public class OrcSelectivePageSourceFactory
             Subfield subfield = entry.getKey();
             int columnIndex = columnIndices.get(subfield.getRootName());
             TupleDomainFilter filter = entry.getValue();
+            BloomFilter bloomFilter = dynamicBloomFilters.get(subfield.getRootName());
+            // the bloom filter is built over values of the table type, which coerced columns do not read
+            if (bloomFilter != null && isEntireColumn(subfield) && !coercers.containsKey(columnIndex)) {
+                filter = BloomFilterValues.of(filter, bloomFilter);
+            }
             if (coercers.containsKey(columnIndex)) {
                 filter = coercers.get(columnIndex).toCoercingFilter(filter, subfield);
             }
@@ -19,20 +19,26 @@ import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.block.LazyBlockLoader;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.ColumnFilter;
 import com.facebook.presto.parquet.Field;
 import com.facebook.presto.parquet.ParquetCorruptionException;
+import com.facebook.presto.parquet.PrimitiveField;
 import com.facebook.presto.parquet.reader.ParquetReader;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
@@ -44,6 +50,8 @@ public class ParquetPageSource
     private final List<String> columnNames;
     private final List<Type> types;
     private final List<Optional<Field>> fields;
+    // filters of flat primitive columns, by column index, that the rows are filtered on while reading
+    private final Map<Integer, ColumnFilter> columnFilters;
 
     private int batchId;
     private long completedPositions;
@@ -54,11 +62,25 @@ public class ParquetPageSource
             List<Type> types,
             List<Optional<Field>> fields,
             List<String> columnNames)
+    {
+        this(parquetReader, types, fields, columnNames, ImmutableMap.of());
+    }
+
+    public ParquetPageSource(
+            ParquetReader parquetReader,
+            List<Type> types,
+            List<Optional<Field>> fields,
+            List<String> columnNames,
+            Map<Integer, ColumnFilter> columnFilters)
     {
         this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.fields = ImmutableList.copyOf(requireNonNull(fields, "fields is null"));
         this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
+        this.columnFilters = ImmutableMap.copyOf(requireNonNull(columnFilters, "columnFilters is null"));
+        for (Integer column : this.columnFilters.keySet()) {
+            checkArgument(this.fields.get(column).isPresent() && this.fields.get(column).get() instanceof PrimitiveField, "Only primitive columns can be filtered");
+        }
     }
 
     @Override
@@ -95,27 +117,45 @@ public class ParquetPageSource
     public Page getNextPage()
     {
         try {
-            batchId++;
-            int batchSize = parquetReader.nextBatch();
+            while (true) {
+                batchId++;
+                int batchSize = parquetReader.nextBatch();
 
-            if (closed || batchSize <= 0) {
-                close();
-                return null;
-            }
+                if (closed || batchSize <= 0) {
+                    close();
+                    return null;
+                }
 
-            completedPositions += batchSize;
+                completedPositions += batchSize;
 
-            Block[] blocks = new Block[fields.size()];
-            for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
-                Optional<Field> field = fields.get(fieldId);
-                if (field.isPresent()) {
-                    blocks[fieldId] = new LazyBlock(batchSize, new ParquetBlockLoader(field.get()));
+                int[] positions = null;
+                int positionCount = batchSize;
+                if (!columnFilters.isEmpty()) {
+                    positions = new int[batchSize];
+                    for (int i = 0; i < batchSize; i++) {
+                        positions[i] = i;
+                    }
+                    positionCount = filterBatch(positions, batchSize);
+                    if (positionCount == 0) {
+                        continue;
+                    }
+                    if (positionCount == batchSize) {
+                        positions = null;
+                    }
                 }
-                else {
-                    blocks[fieldId] = RunLengthEncodedBlock.create(types.get(fieldId), null, batchSize);
+
+                Block[] blocks = new Block[fields.size()];
+                for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+                    Optional<Field> field = fields.get(fieldId);
+                    if (field.isPresent()) {
+                        blocks[fieldId] = new LazyBlock(positionCount, new ParquetBlockLoader(field.get(), positions, positionCount));
+                    }
+                    else {
+                        blocks[fieldId] = RunLengthEncodedBlock.create(types.get(fieldId), null, positionCount);
+                    }
                 }
+                return new Page(positionCount, blocks);
             }
-            return new Page(batchSize, blocks);
         }
         catch (PrestoException e) {
             closeWithSuppression(e);
@@ -127,6 +167,26 @@ public class ParquetPageSource
         }
     }
 
+    private int filterBatch(int[] positions, int positionCount)
+    {
+        try {
+            for (Entry<Integer, ColumnFilter> entry : columnFilters.entrySet()) {
+                PrimitiveField field = (PrimitiveField) fields.get(entry.getKey()).get();
+                positionCount = parquetReader.filter(field, entry.getValue(), positions, positionCount);
+                if (positionCount == 0) {
+                    break;
+                }
+            }
+            return positionCount;
+        }
+        catch (ParquetCorruptionException e) {
+            throw new PrestoException(HIVE_BAD_DATA, e);
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_CURSOR_ERROR, e);
+        }
+    }
+
     private void closeWithSuppression(Throwable throwable)
     {
         requireNonNull(throwable, "throwable is null");
@@ -162,11 +222,16 @@ public class ParquetPageSource
     {
         private final int expectedBatchId = batchId;
         private final Field field;
+        // positions of the batch that passed the filters, or null if all positions are read
+        private final int[] positions;
+        private final int positionCount;
         private boolean loaded;
 
-        public ParquetBlockLoader(Field field)
+        public ParquetBlockLoader(Field field, int[] positions, int positionCount)
         {
             this.field = requireNonNull(field, "field is null");
+            this.positions = positions;
+            this.positionCount = positionCount;
         }
 
         @Override
@@ -179,7 +244,7 @@ public class ParquetPageSource
             checkState(batchId == expectedBatchId);
 
             try {
-                Block block = parquetReader.readBlock(field);
+                Block block = positions == null ? parquetReader.readBlock(field) : parquetReader.readBlock(field, positions, positionCount);
                 lazyBlock.setBlock(block);
             }
             catch (ParquetCorruptionException e) {
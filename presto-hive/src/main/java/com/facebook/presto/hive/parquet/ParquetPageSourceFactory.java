@@ -14,6 +14,7 @@
 package com.facebook.presto.hive.parquet;
 
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.RowType;
@@ -28,9 +29,11 @@ import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.parquet.ColumnFilter;
 import com.facebook.presto.parquet.Field;
 import com.facebook.presto.parquet.ParquetCorruptionException;
 import com.facebook.presto.parquet.ParquetDataSource;
+import com.facebook.presto.parquet.PrimitiveField;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.parquet.cache.ParquetMetadataSource;
 import com.facebook.presto.parquet.predicate.Predicate;
@@ -73,6 +76,7 @@ import java.util.stream.Collectors;
 
 import static com.facebook.presto.common.type.StandardTypes.ARRAY;
 import static com.facebook.presto.common.type.StandardTypes.BIGINT;
+import static com.facebook.presto.common.type.StandardTypes.BOOLEAN;
 import static com.facebook.presto.common.type.StandardTypes.CHAR;
 import static com.facebook.presto.common.type.StandardTypes.DATE;
 import static com.facebook.presto.common.type.StandardTypes.DECIMAL;
@@ -98,6 +102,8 @@ import static com.facebook.presto.hive.HiveSessionProperties.getParquetMaxReadBl
 import static com.facebook.presto.hive.HiveSessionProperties.isFailOnCorruptedParquetStatistics;
 import static com.facebook.presto.hive.HiveSessionProperties.isParquetBatchReaderVerificationEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isParquetBatchReadsEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isParquetPagePruningEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isParquetSelectiveReadsEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isUseParquetColumnNames;
 import static com.facebook.presto.hive.HiveUtil.shouldUseRecordReaderFromInputFormat;
 import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
@@ -127,6 +133,8 @@ public class ParquetPageSourceFactory
             .add("org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe")
             .add("parquet.hive.serde.ParquetHiveSerDe")
             .build();
+    // types whose values the Parquet readers produce in the same representation as the predicate domains
+    private static final Set<String> SELECTIVE_READ_TYPES = ImmutableSet.of(BOOLEAN, TINYINT, SMALLINT, INTEGER, BIGINT, DATE, VARCHAR, VARBINARY);
 
     private final TypeManager typeManager;
     private final StandardFunctionResolution functionResolution;
@@ -164,6 +172,42 @@ public class ParquetPageSourceFactory
             DateTimeZone hiveStorageTimeZone,
             HiveFileContext hiveFileContext,
             Optional<EncryptionInformation> encryptionInformation)
+    {
+        return createPageSource(
+                configuration,
+                session,
+                path,
+                start,
+                length,
+                fileSize,
+                storage,
+                tableName,
+                tableParameters,
+                columns,
+                effectivePredicate,
+                ImmutableMap.of(),
+                hiveStorageTimeZone,
+                hiveFileContext,
+                encryptionInformation);
+    }
+
+    @Override
+    public Optional<? extends ConnectorPageSource> createPageSource(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            long fileSize,
+            Storage storage,
+            SchemaTableName tableName,
+            Map<String, String> tableParameters,
+            List<HiveColumnHandle> columns,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            Map<HiveColumnHandle, BloomFilter> dynamicBloomFilters,
+            DateTimeZone hiveStorageTimeZone,
+            HiveFileContext hiveFileContext,
+            Optional<EncryptionInformation> encryptionInformation)
     {
         if (!PARQUET_SERDE_CLASS_NAMES.contains(storage.getStorageFormat().getSerDe()) || shouldUseRecordReaderFromInputFormat(configuration, storage)) {
             return Optional.empty();
@@ -184,9 +228,12 @@ public class ParquetPageSourceFactory
                 getParquetMaxReadBlockSize(session),
                 isParquetBatchReadsEnabled(session),
                 isParquetBatchReaderVerificationEnabled(session),
+                isParquetSelectiveReadsEnabled(session),
+                isParquetPagePruningEnabled(session),
                 typeManager,
                 functionResolution,
                 effectivePredicate,
+                dynamicBloomFilters,
                 stats,
                 hiveFileContext,
                 parquetMetadataSource));
@@ -207,9 +254,12 @@ public class ParquetPageSourceFactory
             DataSize maxReadBlockSize,
             boolean batchReaderEnabled,
             boolean verificationEnabled,
+            boolean selectiveReadsEnabled,
+            boolean pagePruningEnabled,
             TypeManager typeManager,
             StandardFunctionResolution functionResolution,
             TupleDomain<HiveColumnHandle> effectivePredicate,
+            Map<HiveColumnHandle, BloomFilter> dynamicBloomFilters,
             FileFormatDataSourceStats stats,
             HiveFileContext hiveFileContext,
             ParquetMetadataSource parquetMetadataSource)
@@ -265,12 +315,16 @@ public class ParquetPageSourceFactory
                     systemMemoryContext,
                     maxReadBlockSize,
                     batchReaderEnabled,
-                    verificationEnabled);
+                    verificationEnabled,
+                    pagePruningEnabled ? parquetTupleDomain : TupleDomain.all());
 
             ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Optional<Field>> fieldsBuilder = ImmutableList.builder();
-            for (HiveColumnHandle column : columns) {
+            ImmutableMap.Builder<Integer, ColumnFilter> columnFilters = ImmutableMap.builder();
+            Map<HiveColumnHandle, Domain> predicateDomains = selectiveReadsEnabled ? effectivePredicate.getDomains().orElse(ImmutableMap.of()) : ImmutableMap.of();
+            for (int channel = 0; channel < columns.size(); channel++) {
+                HiveColumnHandle column = columns.get(channel);
                 checkArgument(column.getColumnType() == REGULAR || column.getColumnType() == SYNTHESIZED, "column type must be regular or synthesized column");
 
                 String name = column.getName();
@@ -292,13 +346,21 @@ public class ParquetPageSourceFactory
                 }
                 else if (getParquetType(type, fileSchema, useParquetColumnNames, column, tableName, path).isPresent()) {
                     String columnName = useParquetColumnNames ? name : fileSchema.getFields().get(column.getHiveColumnIndex()).getName();
-                    fieldsBuilder.add(constructField(type, lookupColumnByName(messageColumnIO, columnName)));
+                    Optional<Field> field = constructField(type, lookupColumnByName(messageColumnIO, columnName));
+                    fieldsBuilder.add(field);
+
+                    Domain domain = predicateDomains.get(column);
+                    // the bloom filters are keyed by the columns of the table, so they do not apply to coerced columns
+                    Optional<BloomFilter> bloomFilter = selectiveReadsEnabled ? Optional.ofNullable(dynamicBloomFilters.get(column)) : Optional.empty();
+                    if ((domain != null || bloomFilter.isPresent()) && field.isPresent() && isSelectiveReadSupported(type, field.get())) {
+                        columnFilters.put(channel, new ColumnFilter(domain == null ? Domain.all(type) : domain, bloomFilter));
+                    }
                 }
                 else {
                     fieldsBuilder.add(Optional.empty());
                 }
             }
-            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), namesBuilder.build());
+            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), namesBuilder.build(), columnFilters.build());
         }
         catch (Exception e) {
             try {
@@ -329,6 +391,13 @@ public class ParquetPageSourceFactory
         }
     }
 
+    private static boolean isSelectiveReadSupported(Type type, Field field)
+    {
+        return SELECTIVE_READ_TYPES.contains(type.getTypeSignature().getBase()) &&
+                field instanceof PrimitiveField &&
+                ((PrimitiveField) field).getDescriptor().getPath().length == 1;
+    }
+
     public static TupleDomain<ColumnDescriptor> getParquetTupleDomain(Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<HiveColumnHandle> effectivePredicate)
     {
         if (effectivePredicate.isNone()) {
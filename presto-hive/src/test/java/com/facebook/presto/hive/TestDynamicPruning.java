@@ -62,6 +62,8 @@ import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFEREN
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.Slices.utf8Slice;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 public class TestDynamicPruning
@@ -118,11 +120,59 @@ public class TestDynamicPruning
         }
     }
 
+    @Test
+    public void testDynamicPartitionPruningBeforeScheduling()
+    {
+        HiveClientConfig config = new HiveClientConfig();
+        try (TempFile tempFile = new TempFile()) {
+            HiveSplit split = createTestingSplit(config, tempFile.file());
+            assertFalse(split.mayMatchDynamicFilter(getToSkipTupleDomainForPartition()));
+            assertTrue(split.mayMatchDynamicFilter(getToKeepTupleDomainForPartition()));
+            // only partition keys can be checked before the file is opened
+            assertTrue(split.mayMatchDynamicFilter(getToSkipTupleDomain()));
+            assertFalse(split.mayMatchDynamicFilter(TupleDomain.none()));
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
     private static ConnectorPageSource createTestingPageSource(HiveTransactionHandle transaction, HiveClientConfig config, SplitContext splitContext, MetastoreClientConfig metastoreClientConfig, File outputFile)
+    {
+        HiveSplit split = createTestingSplit(config, outputFile);
+
+        TableHandle tableHandle = new TableHandle(
+                new ConnectorId(HIVE_CATALOG),
+                new HiveTableHandle(SCHEMA_NAME, TABLE_NAME),
+                transaction,
+                Optional.of(new HiveTableLayoutHandle(
+                        new SchemaTableName(SCHEMA_NAME, TABLE_NAME),
+                        "path",
+                        ImmutableList.of(PARTITION_HIVE_COLUMN_HANDLE),
+                        getColumnHandles().stream()
+                                .map(column -> new Column(column.getName(), column.getHiveType(), Optional.empty()))
+                                .collect(toImmutableList()),
+                        ImmutableMap.of(),
+                        TupleDomain.all(),
+                        TRUE_CONSTANT,
+                        ImmutableMap.of(),
+                        TupleDomain.all(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        false,
+                        "layout",
+                        Optional.empty(),
+                        false)));
+        HivePageSourceProvider provider = new HivePageSourceProvider(config, createTestHdfsEnvironment(config, metastoreClientConfig), getDefaultHiveRecordCursorProvider(config, metastoreClientConfig), getDefaultHiveBatchPageSourceFactories(config, metastoreClientConfig), getDefaultHiveSelectivePageSourceFactories(config, metastoreClientConfig), FUNCTION_AND_TYPE_MANAGER, ROW_EXPRESSION_SERVICE);
+        return provider.createPageSource(transaction, getSession(config), split, tableHandle.getLayout().get(), ImmutableList.copyOf(getColumnHandles()), splitContext);
+    }
+
+    private static HiveSplit createTestingSplit(HiveClientConfig config, File outputFile)
     {
         ImmutableList<HivePartitionKey> partitionKeys = ImmutableList.of(new HivePartitionKey(PARTITION_COLUMN.getName(), "2020-09-09"));
         Map<Integer, Column> partitionSchemaDifference = ImmutableMap.of(1, new Column("ds", HIVE_STRING, Optional.empty()));
-        HiveSplit split = new HiveSplit(
+        return new HiveSplit(
                 SCHEMA_NAME,
                 TABLE_NAME,
                 "",
@@ -151,31 +201,6 @@ public class TestDynamicPruning
                 Optional.empty(),
                 ImmutableMap.of(),
                 ImmutableSet.of());
-
-        TableHandle tableHandle = new TableHandle(
-                new ConnectorId(HIVE_CATALOG),
-                new HiveTableHandle(SCHEMA_NAME, TABLE_NAME),
-                transaction,
-                Optional.of(new HiveTableLayoutHandle(
-                        new SchemaTableName(SCHEMA_NAME, TABLE_NAME),
-                        "path",
-                        ImmutableList.of(PARTITION_HIVE_COLUMN_HANDLE),
-                        getColumnHandles().stream()
-                                .map(column -> new Column(column.getName(), column.getHiveType(), Optional.empty()))
-                                .collect(toImmutableList()),
-                        ImmutableMap.of(),
-                        TupleDomain.all(),
-                        TRUE_CONSTANT,
-                        ImmutableMap.of(),
-                        TupleDomain.all(),
-                        Optional.empty(),
-                        Optional.empty(),
-                        false,
-                        "layout",
-                        Optional.empty(),
-                        false)));
-        HivePageSourceProvider provider = new HivePageSourceProvider(config, createTestHdfsEnvironment(config, metastoreClientConfig), getDefaultHiveRecordCursorProvider(config, metastoreClientConfig), getDefaultHiveBatchPageSourceFactories(config, metastoreClientConfig), getDefaultHiveSelectivePageSourceFactories(config, metastoreClientConfig), FUNCTION_AND_TYPE_MANAGER, ROW_EXPRESSION_SERVICE);
-        return provider.createPageSource(transaction, getSession(config), split, tableHandle.getLayout().get(), ImmutableList.copyOf(getColumnHandles()), splitContext);
     }
 
     private static TupleDomain<ColumnHandle> getToSkipTupleDomain()
@@ -95,6 +95,9 @@ public class TestHiveClientConfig
                 .setOrcTinyStripeThreshold(new DataSize(8, Unit.MEGABYTE))
                 .setOrcMaxReadBlockSize(new DataSize(16, Unit.MEGABYTE))
                 .setOrcLazyReadSmallRanges(true)
+                .setOrcStripePrefetchEnabled(false)
+                .setOrcMaxStripePrefetchSize(new DataSize(64, Unit.MEGABYTE))
+                .setOrcMaxStripePrefetchThreads(16)
                 .setRcfileOptimizedWriterEnabled(true)
                 .setRcfileWriterValidate(false)
                 .setOrcOptimizedWriterEnabled(true)
@@ -142,6 +145,8 @@ public class TestHiveClientConfig
                 .setParquetBatchReadOptimizationEnabled(false)
                 .setBucketFunctionTypeForExchange(HIVE_COMPATIBLE)
                 .setParquetDereferencePushdownEnabled(false)
+                .setParquetSelectiveReadsEnabled(false)
+                .setParquetPagePruningEnabled(false)
                 .setIgnoreUnreadablePartition(false)
                 .setMaxMetadataUpdaterThreads(100)
                 .setPartialAggregationPushdownEnabled(false)
@@ -204,6 +209,9 @@ public class TestHiveClientConfig
                 .put("hive.orc.tiny-stripe-threshold", "61kB")
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
+                .put("hive.orc.stripe-prefetch-enabled", "true")
+                .put("hive.orc.max-stripe-prefetch-size", "67kB")
+                .put("hive.orc.max-stripe-prefetch-threads", "5")
                 .put("hive.rcfile-optimized-writer.enabled", "false")
                 .put("hive.rcfile.writer.validate", "true")
                 .put("hive.orc.optimized-writer.enabled", "false")
@@ -252,6 +260,8 @@ public class TestHiveClientConfig
                 .put("hive.enable-parquet-batch-reader-verification", "true")
                 .put("hive.bucket-function-type-for-exchange", "PRESTO_NATIVE")
                 .put("hive.enable-parquet-dereference-pushdown", "true")
+                .put("hive.parquet-selective-reads-enabled", "true")
+                .put("hive.parquet-page-pruning-enabled", "true")
                 .put("hive.ignore-unreadable-partition", "true")
                 .put("hive.max-metadata-updater-threads", "1000")
                 .put("hive.partial_aggregation_pushdown_enabled", "true")
@@ -311,6 +321,9 @@ public class TestHiveClientConfig
                 .setOrcTinyStripeThreshold(new DataSize(61, Unit.KILOBYTE))
                 .setOrcMaxReadBlockSize(new DataSize(66, Unit.KILOBYTE))
                 .setOrcLazyReadSmallRanges(false)
+                .setOrcStripePrefetchEnabled(true)
+                .setOrcMaxStripePrefetchSize(new DataSize(67, Unit.KILOBYTE))
+                .setOrcMaxStripePrefetchThreads(5)
                 .setRcfileOptimizedWriterEnabled(false)
                 .setRcfileWriterValidate(true)
                 .setOrcOptimizedWriterEnabled(false)
@@ -359,6 +372,8 @@ public class TestHiveClientConfig
                 .setParquetBatchReadOptimizationEnabled(true)
                 .setBucketFunctionTypeForExchange(PRESTO_NATIVE)
                 .setParquetDereferencePushdownEnabled(true)
+                .setParquetSelectiveReadsEnabled(true)
+                .setParquetPagePruningEnabled(true)
                 .setIgnoreUnreadablePartition(true)
                 .setMaxMetadataUpdaterThreads(1000)
                 .setPartialAggregationPushdownEnabled(true)
@@ -116,6 +116,7 @@ import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.google.common.base.Predicates.not;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
@@ -449,7 +450,8 @@ public class TestOrcBatchPageSourceMemoryTracking
                     stats,
                     100,
                     new StorageOrcFileTailSource(),
-                    new StorageStripeMetadataSource());
+                    new StorageStripeMetadataSource(),
+                    newDirectExecutorService());
             return HivePageSourceProvider.createHivePageSource(
                     ImmutableSet.of(),
                     ImmutableSet.of(orcPageSourceFactory),
@@ -462,6 +464,7 @@ public class TestOrcBatchPageSourceMemoryTracking
                     fileSplit.getLength(),
                     storage,
                     TupleDomain.all(),
+                    ImmutableMap.of(),
                     columns,
                     ImmutableMap.of(),
                     partitionKeys,
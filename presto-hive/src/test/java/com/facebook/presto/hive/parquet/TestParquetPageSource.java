@@ -0,0 +1,244 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.ColumnFilter;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.FileParquetDataSource;
+import com.facebook.presto.parquet.cache.MetadataReader;
+import com.facebook.presto.parquet.reader.ParquetReader;
+import com.facebook.presto.parquet.writer.ParquetWriter;
+import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.apache.parquet.io.ColumnIOConverter.constructField;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetPageSource
+{
+    private static final int ROW_COUNT = 5_000;
+    private static final int ROWS_PER_PAGE = 100;
+
+    private static final List<String> FILE_COLUMN_NAMES = ImmutableList.of("key", "dictionary", "integer");
+    private static final List<Type> FILE_COLUMN_TYPES = ImmutableList.of(BIGINT, VARCHAR, INTEGER);
+
+    // the columns of the page source: the integer column is read as bigint, and the last column is missing from the file
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("key", "dictionary", "integer", "missing");
+    private static final List<Type> COLUMN_TYPES = ImmutableList.of(BIGINT, VARCHAR, BIGINT, VARCHAR);
+
+    private File temporaryDirectory;
+    private File file;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        temporaryDirectory = createTempDir();
+        file = new File(temporaryDirectory, "test.parquet");
+        writeParquetFile(file);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testNoFilters()
+            throws IOException
+    {
+        assertRows(ImmutableMap.of());
+    }
+
+    @Test
+    public void testFilters()
+            throws IOException
+    {
+        // the filtered columns are projected as well
+        ColumnFilter dictionaryFilter = ColumnFilter.of(Domain.create(ValueSet.of(VARCHAR, utf8Slice("value_1"), utf8Slice("value_2")), true));
+        ColumnFilter integerFilter = ColumnFilter.of(Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 1_000L, true, 4_000L, false)), false));
+        List<Object[]> rows = assertRows(ImmutableMap.of(1, dictionaryFilter, 2, integerFilter));
+        assertTrue(!rows.isEmpty() && rows.size() < ROW_COUNT);
+    }
+
+    @Test
+    public void testBatchesFilteredOut()
+            throws IOException
+    {
+        // the batches where no row passes are skipped instead of being returned as empty pages
+        ColumnFilter integerFilter = ColumnFilter.of(Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 2_500L, true, 2_600L, false)), false));
+        List<Object[]> rows = assertRows(ImmutableMap.of(2, integerFilter));
+        assertTrue(!rows.isEmpty());
+
+        assertEquals(assertRows(ImmutableMap.of(1, ColumnFilter.of(Domain.singleValue(VARCHAR, utf8Slice("missing"))))).size(), 0);
+    }
+
+    /**
+     * Reads the file through a page source with the given filters, by channel, and verifies that it
+     * returns the rows that pass all filters, in order.
+     */
+    private List<Object[]> assertRows(Map<Integer, ColumnFilter> columnFilters)
+            throws IOException
+    {
+        List<Object[]> expectedRows = new ArrayList<>();
+        for (int row = 0; row < ROW_COUNT; row++) {
+            Object[] values = getRow(row);
+            boolean matches = true;
+            for (Map.Entry<Integer, ColumnFilter> entry : columnFilters.entrySet()) {
+                Object value = values[entry.getKey()];
+                matches &= entry.getValue().testNullable(value instanceof String ? utf8Slice((String) value) : value);
+            }
+            if (matches) {
+                expectedRows.add(values);
+            }
+        }
+
+        List<Object[]> actualRows = new ArrayList<>();
+        ParquetPageSource pageSource = createPageSource(columnFilters);
+        for (Page page = pageSource.getNextPage(); page != null; page = pageSource.getNextPage()) {
+            assertTrue(page.getPositionCount() > 0);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                Object[] row = new Object[COLUMN_TYPES.size()];
+                for (int channel = 0; channel < COLUMN_TYPES.size(); channel++) {
+                    row[channel] = getValue(COLUMN_TYPES.get(channel), page.getBlock(channel), position);
+                }
+                actualRows.add(row);
+            }
+        }
+        assertTrue(pageSource.isFinished());
+        assertEquals(pageSource.getCompletedPositions(), ROW_COUNT);
+
+        assertEquals(actualRows.size(), expectedRows.size());
+        for (int i = 0; i < actualRows.size(); i++) {
+            assertEquals(actualRows.get(i), expectedRows.get(i), Arrays.toString(actualRows.get(i)));
+        }
+        return actualRows;
+    }
+
+    private ParquetPageSource createPageSource(Map<Integer, ColumnFilter> columnFilters)
+            throws IOException
+    {
+        ParquetMetadata parquetMetadata = MetadataReader.readFooter(FileSystem.getLocal(new Configuration()), new Path(file.getAbsolutePath()), file.length()).getParquetMetadata();
+        MessageType schema = parquetMetadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumnIO = getColumnIO(schema, schema);
+        ParquetReader parquetReader = new ParquetReader(
+                messageColumnIO,
+                parquetMetadata.getBlocks(),
+                new FileParquetDataSource(file),
+                newSimpleAggregatedMemoryContext(),
+                new DataSize(16, MEGABYTE),
+                true,
+                false);
+
+        ImmutableList.Builder<Optional<Field>> fields = ImmutableList.builder();
+        for (int channel = 0; channel < FILE_COLUMN_NAMES.size(); channel++) {
+            fields.add(constructField(COLUMN_TYPES.get(channel), messageColumnIO.getChild(channel)));
+        }
+        fields.add(Optional.empty());
+        return new ParquetPageSource(parquetReader, COLUMN_TYPES, fields.build(), COLUMN_NAMES, columnFilters);
+    }
+
+    private static Object[] getRow(int row)
+    {
+        return new Object[] {
+                (long) row,
+                row % 7 == 3 ? null : "value_" + row % 5,
+                row % 17 == 0 ? null : (long) row,
+                null};
+    }
+
+    private static Object getValue(Type type, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return null;
+        }
+        if (type.equals(BIGINT)) {
+            return BIGINT.getLong(block, position);
+        }
+        return type.getSlice(block, position).toStringUtf8();
+    }
+
+    private static void writeParquetFile(File file)
+            throws IOException
+    {
+        ParquetWriterOptions writerOptions = ParquetWriterOptions.builder()
+                .setMaxPageSize(DataSize.succinctBytes(100))
+                .setMaxBlockSize(new DataSize(64, MEGABYTE))
+                .build();
+        try (ParquetWriter writer = new ParquetWriter(new FileOutputStream(file), FILE_COLUMN_NAMES, FILE_COLUMN_TYPES, writerOptions, UNCOMPRESSED.getHadoopCompressionCodecClassName())) {
+            for (int start = 0; start < ROW_COUNT; start += ROWS_PER_PAGE) {
+                PageBuilder pageBuilder = new PageBuilder(FILE_COLUMN_TYPES);
+                for (int row = start; row < start + ROWS_PER_PAGE; row++) {
+                    pageBuilder.declarePosition();
+                    Object[] values = getRow(row);
+                    for (int column = 0; column < FILE_COLUMN_TYPES.size(); column++) {
+                        BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(column);
+                        if (values[column] == null) {
+                            blockBuilder.appendNull();
+                        }
+                        else if (values[column] instanceof String) {
+                            VARCHAR.writeSlice(blockBuilder, utf8Slice((String) values[column]));
+                        }
+                        else {
+                            FILE_COLUMN_TYPES.get(column).writeLong(blockBuilder, (Long) values[column]);
+                        }
+                    }
+                }
+                writer.write(pageBuilder.build());
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@ package com.facebook.presto.jdbc;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HostAndPort;
+import io.airlift.units.DataSize;
 
 import java.io.File;
 import java.util.List;
@@ -40,6 +41,9 @@ final class ConnectionProperties
     public static final ConnectionProperty<HostAndPort> HTTP_PROXY = new HttpProxy();
     public static final ConnectionProperty<String> APPLICATION_NAME_PREFIX = new ApplicationNamePrefix();
     public static final ConnectionProperty<Boolean> DISABLE_COMPRESSION = new DisableCompression();
+    public static final ConnectionProperty<Boolean> BINARY_RESULTS = new BinaryResults();
+    public static final ConnectionProperty<Integer> RESULT_PREFETCH_COUNT = new ResultPrefetchCount();
+    public static final ConnectionProperty<DataSize> RESULT_PREFETCH_BUFFER_SIZE = new ResultPrefetchBufferSize();
     public static final ConnectionProperty<Boolean> SSL = new Ssl();
     public static final ConnectionProperty<String> SSL_KEY_STORE_PATH = new SslKeyStorePath();
     public static final ConnectionProperty<String> SSL_KEY_STORE_PASSWORD = new SslKeyStorePassword();
@@ -63,6 +67,9 @@ final class ConnectionProperties
             .add(HTTP_PROXY)
             .add(APPLICATION_NAME_PREFIX)
             .add(DISABLE_COMPRESSION)
+            .add(BINARY_RESULTS)
+            .add(RESULT_PREFETCH_COUNT)
+            .add(RESULT_PREFETCH_BUFFER_SIZE)
             .add(SSL)
             .add(SSL_KEY_STORE_PATH)
             .add(SSL_KEY_STORE_PASSWORD)
@@ -170,6 +177,33 @@ final class ConnectionProperties
         }
     }
 
+    private static class BinaryResults
+            extends AbstractConnectionProperty<Boolean>
+    {
+        public BinaryResults()
+        {
+            super("binaryResults", NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
+    private static class ResultPrefetchCount
+            extends AbstractConnectionProperty<Integer>
+    {
+        public ResultPrefetchCount()
+        {
+            super("resultPrefetchCount", NOT_REQUIRED, ALLOWED, Integer::parseInt);
+        }
+    }
+
+    private static class ResultPrefetchBufferSize
+            extends AbstractConnectionProperty<DataSize>
+    {
+        public ResultPrefetchBufferSize()
+        {
+            super("resultPrefetchBufferSize", NOT_REQUIRED, ALLOWED, DataSize::valueOf);
+        }
+    }
+
     private static class Ssl
             extends AbstractConnectionProperty<Boolean>
     {
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
 import java.net.URI;
@@ -87,6 +88,9 @@ public class PrestoConnection
     private final URI httpUri;
     private final String user;
     private final boolean compressionDisabled;
+    private final boolean binaryResults;
+    private final int resultPrefetchCount;
+    private final DataSize resultPrefetchBufferSize;
     private final Map<String, String> extraCredentials;
     private final Map<String, String> sessionProperties;
     private final Optional<String> applicationNamePrefix;
@@ -109,6 +113,9 @@ public class PrestoConnection
         this.user = uri.getUser();
         this.applicationNamePrefix = uri.getApplicationNamePrefix();
         this.compressionDisabled = uri.isCompressionDisabled();
+        this.binaryResults = uri.isBinaryResults();
+        this.resultPrefetchCount = uri.getResultPrefetchCount();
+        this.resultPrefetchBufferSize = uri.getResultPrefetchBufferSize();
 
         this.extraCredentials = uri.getExtraCredentials();
         this.sessionProperties = new ConcurrentHashMap<>(uri.getSessionProperties());
@@ -742,6 +749,9 @@ public class PrestoConnection
                 transactionId.get(),
                 timeout,
                 compressionDisabled,
+                binaryResults,
+                resultPrefetchCount,
+                resultPrefetchBufferSize,
                 ImmutableMap.of());
 
         return queryExecutor.startQuery(session, sql);
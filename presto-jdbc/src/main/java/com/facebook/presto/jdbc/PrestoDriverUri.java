@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.net.HostAndPort;
+import io.airlift.units.DataSize;
 import okhttp3.OkHttpClient;
 
 import java.io.File;
@@ -33,6 +34,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
 
+import static com.facebook.presto.client.ClientSession.DEFAULT_RESULT_PREFETCH_BUFFER_SIZE;
 import static com.facebook.presto.client.GCSOAuthInterceptor.GCS_CREDENTIALS_PATH_KEY;
 import static com.facebook.presto.client.GCSOAuthInterceptor.GCS_OAUTH_SCOPES_KEY;
 import static com.facebook.presto.client.KerberosUtil.defaultCredentialCachePath;
@@ -45,6 +47,7 @@ import static com.facebook.presto.client.OkHttpUtil.setupSsl;
 import static com.facebook.presto.client.OkHttpUtil.tokenAuth;
 import static com.facebook.presto.jdbc.ConnectionProperties.ACCESS_TOKEN;
 import static com.facebook.presto.jdbc.ConnectionProperties.APPLICATION_NAME_PREFIX;
+import static com.facebook.presto.jdbc.ConnectionProperties.BINARY_RESULTS;
 import static com.facebook.presto.jdbc.ConnectionProperties.DISABLE_COMPRESSION;
 import static com.facebook.presto.jdbc.ConnectionProperties.EXTRA_CREDENTIALS;
 import static com.facebook.presto.jdbc.ConnectionProperties.HTTP_PROXY;
@@ -56,6 +59,8 @@ import static com.facebook.presto.jdbc.ConnectionProperties.KERBEROS_REMOTE_SERV
 import static com.facebook.presto.jdbc.ConnectionProperties.KERBEROS_USE_CANONICAL_HOSTNAME;
 import static com.facebook.presto.jdbc.ConnectionProperties.PASSWORD;
 import static com.facebook.presto.jdbc.ConnectionProperties.QUERY_INTERCEPTORS;
+import static com.facebook.presto.jdbc.ConnectionProperties.RESULT_PREFETCH_BUFFER_SIZE;
+import static com.facebook.presto.jdbc.ConnectionProperties.RESULT_PREFETCH_COUNT;
 import static com.facebook.presto.jdbc.ConnectionProperties.SESSION_PROPERTIES;
 import static com.facebook.presto.jdbc.ConnectionProperties.SOCKS_PROXY;
 import static com.facebook.presto.jdbc.ConnectionProperties.SSL;
@@ -170,6 +175,24 @@ final class PrestoDriverUri
         return DISABLE_COMPRESSION.getValue(properties).orElse(false);
     }
 
+    public boolean isBinaryResults()
+            throws SQLException
+    {
+        return BINARY_RESULTS.getValue(properties).orElse(false);
+    }
+
+    public int getResultPrefetchCount()
+            throws SQLException
+    {
+        return RESULT_PREFETCH_COUNT.getValue(properties).orElse(0);
+    }
+
+    public DataSize getResultPrefetchBufferSize()
+            throws SQLException
+    {
+        return RESULT_PREFETCH_BUFFER_SIZE.getValue(properties).orElse(DEFAULT_RESULT_PREFETCH_BUFFER_SIZE);
+    }
+
     public void setupClient(OkHttpClient.Builder builder)
             throws SQLException
     {
@@ -14,6 +14,7 @@
 package com.facebook.presto.jdbc;
 
 import com.facebook.presto.common.type.TypeSignature;
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
@@ -23,6 +24,7 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Date;
@@ -42,10 +44,14 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.facebook.presto.jdbc.ColumnInfo.setTypeInfo;
 import static com.facebook.presto.jdbc.ObjectCasts.castToBigDecimal;
@@ -71,7 +77,13 @@ public class PrestoPreparedStatement
         extends PrestoStatement
         implements PreparedStatement
 {
+    // single-row INSERT ... VALUES whose values are all parameters, which a batch can fold into one multi-row INSERT
+    private static final Pattern INSERT_VALUES_PATTERN = Pattern.compile("\\s*(INSERT\\s+INTO\\s.+?\\bVALUES)\\s*\\((\\s*\\?\\s*(?:,\\s*\\?\\s*)*)\\)\\s*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    // keep folded statements well below the server's default query.max-length
+    private static final int MAX_BATCH_SQL_LENGTH = 500_000;
+
     private final Map<Integer, String> parameters = new HashMap<>();
+    private final List<List<String>> batchValues = new ArrayList<>();
     private final String statementName;
     private final String originalSql;
 
@@ -425,7 +437,68 @@ public class PrestoPreparedStatement
     public void addBatch()
             throws SQLException
     {
-        throw new NotImplementedException("PreparedStatement", "addBatch");
+        checkOpen();
+        batchValues.add(getParameterValues());
+    }
+
+    @Override
+    public void clearBatch()
+            throws SQLException
+    {
+        checkOpen();
+        batchValues.clear();
+    }
+
+    @Override
+    public int[] executeBatch()
+            throws SQLException
+    {
+        return Arrays.stream(executeLargeBatch())
+                .mapToInt(Ints::saturatedCast)
+                .toArray();
+    }
+
+    @Override
+    public long[] executeLargeBatch()
+            throws SQLException
+    {
+        checkOpen();
+        List<List<String>> batch = ImmutableList.copyOf(batchValues);
+        batchValues.clear();
+
+        long[] updateCounts = new long[batch.size()];
+        int completed = 0;
+        try {
+            Optional<String> insertPrefix = getBatchInsertPrefix(batch);
+            if (insertPrefix.isPresent()) {
+                // fold the parameter sets into multi-row INSERT statements, one query per chunk
+                while (completed < batch.size()) {
+                    StringBuilder sql = new StringBuilder(insertPrefix.get());
+                    int end = completed;
+                    do {
+                        sql.append(end == completed ? " (" : ", (");
+                        Joiner.on(", ").appendTo(sql, batch.get(end));
+                        sql.append(')');
+                        end++;
+                    }
+                    while (end < batch.size() && sql.length() < MAX_BATCH_SQL_LENGTH);
+
+                    long updateCount = executeBatchUpdate(sql.toString());
+                    Arrays.fill(updateCounts, completed, end, (updateCount == end - completed) ? 1 : SUCCESS_NO_INFO);
+                    completed = end;
+                }
+            }
+            else {
+                while (completed < batch.size()) {
+                    updateCounts[completed] = executeBatchUpdate(getExecuteSql(batch.get(completed)));
+                    completed++;
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), Arrays.copyOf(updateCounts, completed), e);
+        }
+        return updateCounts;
     }
 
     @Override
@@ -754,7 +827,7 @@ public class PrestoPreparedStatement
         parameters.put(parameterIndex - 1, value);
     }
 
-    private void formatParametersTo(StringBuilder builder)
+    private List<String> getParameterValues()
             throws SQLException
     {
         List<String> values = new ArrayList<>();
@@ -764,21 +837,52 @@ public class PrestoPreparedStatement
             }
             values.add(parameters.get(index));
         }
-        Joiner.on(", ").appendTo(builder, values);
+        return values;
     }
 
     private String getExecuteSql()
             throws SQLException
+    {
+        return getExecuteSql(getParameterValues());
+    }
+
+    private String getExecuteSql(List<String> values)
     {
         StringBuilder sql = new StringBuilder();
         sql.append("EXECUTE ").append(statementName);
-        if (!parameters.isEmpty()) {
+        if (!values.isEmpty()) {
             sql.append(" USING ");
-            formatParametersTo(sql);
+            Joiner.on(", ").appendTo(sql, values);
         }
         return sql.toString();
     }
 
+    private long executeBatchUpdate(String sql)
+            throws SQLException
+    {
+        if (super.execute(sql)) {
+            throw new SQLException("Prepared SQL is not an update statement: " + originalSql);
+        }
+        return getLargeUpdateCount();
+    }
+
+    /**
+     * Returns the {@code INSERT INTO ... VALUES} prefix of the prepared statement if every
+     * parameter set in the batch can be written as one row of a multi-row insert.
+     */
+    private Optional<String> getBatchInsertPrefix(List<List<String>> batch)
+    {
+        Matcher matcher = INSERT_VALUES_PATTERN.matcher(originalSql);
+        if (batch.size() < 2 || !matcher.matches()) {
+            return Optional.empty();
+        }
+        int parameterCount = CharMatcher.is('?').countIn(matcher.group(2));
+        if (!batch.stream().allMatch(values -> values.size() == parameterCount)) {
+            return Optional.empty();
+        }
+        return Optional.of(matcher.group(1));
+    }
+
     private static String formatLiteral(String type, String x)
     {
         return type + " " + formatStringLiteral(x);
@@ -16,12 +16,15 @@ package com.facebook.presto.jdbc;
 import com.facebook.airlift.log.Logging;
 import com.facebook.presto.plugin.blackhole.BlackHolePlugin;
 import com.facebook.presto.server.testing.TestingPrestoServer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Longs;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.DriverManager;
@@ -271,6 +274,66 @@ public class TestJdbcPreparedStatement
         }
     }
 
+    @Test
+    public void testExecuteBatch()
+            throws Exception
+    {
+        try (Connection connection = createConnection("blackhole", "blackhole")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE test_execute_batch (c_bigint bigint, c_varchar varchar)");
+            }
+
+            // folded into a single multi-row insert
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO test_execute_batch VALUES (?, ?)")) {
+                for (int i = 0; i < 100; i++) {
+                    statement.setLong(1, i);
+                    statement.setString(2, "value" + i);
+                    statement.addBatch();
+                }
+                statement.setNull(1, Types.BIGINT);
+                statement.setNull(2, Types.VARCHAR);
+                statement.addBatch();
+
+                int[] updateCounts = statement.executeBatch();
+                assertEquals(updateCounts.length, 101);
+                for (int updateCount : updateCounts) {
+                    assertEquals(updateCount, 1);
+                }
+
+                // the batch is cleared after execution
+                assertEquals(statement.executeBatch().length, 0);
+
+                statement.addBatch();
+                statement.clearBatch();
+                assertEquals(statement.executeBatch().length, 0);
+            }
+
+            // executed one parameter set at a time
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO test_execute_batch VALUES (? + 1, ?)")) {
+                for (int i = 0; i < 3; i++) {
+                    statement.setLong(1, i);
+                    statement.setString(2, "value" + i);
+                    statement.addBatch();
+                }
+                assertEquals(Longs.asList(statement.executeLargeBatch()), ImmutableList.of(1L, 1L, 1L));
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("SELECT ?")) {
+                statement.setLong(1, 1);
+                statement.addBatch();
+                assertThatThrownBy(statement::executeBatch)
+                        .isInstanceOf(BatchUpdateException.class)
+                        .hasMessageContaining("Prepared SQL is not an update statement");
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE test_execute_batch");
+            }
+        }
+    }
+
     @Test
     public void testPrepareMultiple()
             throws Exception
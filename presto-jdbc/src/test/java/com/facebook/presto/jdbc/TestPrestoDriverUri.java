@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.jdbc;
 
+import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
 import java.io.UnsupportedEncodingException;
@@ -22,6 +23,7 @@ import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.Properties;
 
+import static com.facebook.presto.jdbc.ConnectionProperties.BINARY_RESULTS;
 import static com.facebook.presto.jdbc.ConnectionProperties.DISABLE_COMPRESSION;
 import static com.facebook.presto.jdbc.ConnectionProperties.EXTRA_CREDENTIALS;
 import static com.facebook.presto.jdbc.ConnectionProperties.HTTP_PROXY;
@@ -30,6 +32,7 @@ import static com.facebook.presto.jdbc.ConnectionProperties.SESSION_PROPERTIES;
 import static com.facebook.presto.jdbc.ConnectionProperties.SOCKS_PROXY;
 import static com.facebook.presto.jdbc.ConnectionProperties.SSL_TRUST_STORE_PASSWORD;
 import static com.facebook.presto.jdbc.ConnectionProperties.SSL_TRUST_STORE_PATH;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
@@ -176,6 +179,27 @@ public class TestPrestoDriverUri
         assertEquals(parameters.getProperties().getProperty(DISABLE_COMPRESSION.getKey()), "true");
     }
 
+    @Test
+    public void testUriWithBinaryResults()
+            throws SQLException
+    {
+        PrestoDriverUri parameters = createDriverUri("presto://localhost:8080/blackhole?binaryResults=true");
+        assertTrue(parameters.isBinaryResults());
+        assertEquals(parameters.getProperties().getProperty(BINARY_RESULTS.getKey()), "true");
+    }
+
+    @Test
+    public void testUriWithResultPrefetch()
+            throws SQLException
+    {
+        PrestoDriverUri parameters = createDriverUri("presto://localhost:8080/blackhole?resultPrefetchCount=4&resultPrefetchBufferSize=64MB");
+        assertEquals(parameters.getResultPrefetchCount(), 4);
+        assertEquals(parameters.getResultPrefetchBufferSize(), new DataSize(64, MEGABYTE));
+
+        parameters = createDriverUri("presto://localhost:8080/blackhole");
+        assertEquals(parameters.getResultPrefetchCount(), 0);
+    }
+
     @Test
     public void testUriWithoutSsl()
             throws SQLException
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.jdbc;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.presto.client.Column;
+import com.facebook.presto.client.QueryResults;
+import com.facebook.presto.client.StatementStats;
+import com.facebook.presto.common.type.BigintType;
+import com.google.common.collect.ImmutableList;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static java.lang.String.format;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestResultPrefetch
+{
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+    private static final String QUERY_ID = "20160128_214710_00012_rk68b";
+    private static final List<Column> COLUMNS = ImmutableList.of(new Column("_col0", BigintType.BIGINT));
+    private static final int BATCHES = 10;
+
+    private MockWebServer server;
+
+    @BeforeMethod
+    public void setup()
+            throws IOException
+    {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterMethod
+    public void teardown()
+            throws IOException
+    {
+        server.close();
+    }
+
+    @Test
+    public void testPrefetch()
+            throws SQLException
+    {
+        enqueueResults(BATCHES);
+        server.enqueue(jsonResponse(newQueryResults(null, COLUMNS, null)));
+
+        try (Connection connection = createConnection("resultPrefetchCount=2");
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("bogus query for testing")) {
+            for (long i = 0; i < BATCHES; i++) {
+                assertTrue(rs.next());
+                assertEquals(rs.getLong(1), i);
+            }
+            assertFalse(rs.next());
+        }
+        assertEquals(server.getRequestCount(), BATCHES + 2);
+    }
+
+    @Test
+    public void testPrefetchFailureAfterBufferedResults()
+            throws SQLException
+    {
+        enqueueResults(2);
+        server.enqueue(new MockResponse().setResponseCode(HTTP_INTERNAL_ERROR));
+
+        try (Connection connection = createConnection("resultPrefetchCount=4");
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("bogus query for testing")) {
+            // the batch fetched before the failure is still returned
+            assertTrue(rs.next());
+            assertEquals(rs.getLong(1), 0);
+            try {
+                rs.next();
+                fail("expected exception");
+            }
+            catch (SQLException e) {
+                assertTrue(e.getCause().getMessage().contains("Error fetching next"), e.getCause().getMessage());
+            }
+        }
+    }
+
+    private void enqueueResults(int batches)
+    {
+        server.enqueue(jsonResponse(newQueryResults(1, null, null)));
+        for (int i = 0; i < batches; i++) {
+            server.enqueue(jsonResponse(newQueryResults(i + 2, COLUMNS, ImmutableList.of(ImmutableList.of(i)))));
+        }
+    }
+
+    private static MockResponse jsonResponse(String body)
+    {
+        return new MockResponse()
+                .addHeader(CONTENT_TYPE, "application/json")
+                .setBody(body);
+    }
+
+    private String newQueryResults(Integer nextUriId, List<Column> responseColumns, List<List<Object>> data)
+    {
+        String state = nextUriId == null ? "FINISHED" : "RUNNING";
+        QueryResults queryResults = new QueryResults(
+                QUERY_ID,
+                server.url("/query.html?" + QUERY_ID).uri(),
+                null,
+                nextUriId == null ? null : server.url(format("/v1/statement/%s/%s", QUERY_ID, nextUriId)).uri(),
+                responseColumns,
+                data,
+                new StatementStats(state, false, true, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, null),
+                null,
+                ImmutableList.of(),
+                null,
+                null);
+
+        return QUERY_RESULTS_CODEC.toJson(queryResults);
+    }
+
+    private Connection createConnection(String parameters)
+            throws SQLException
+    {
+        String url = format("jdbc:presto://%s?%s", server.url("/").uri().getAuthority(), parameters);
+        return DriverManager.getConnection(url, "test", null);
+    }
+}
@@ -116,6 +116,7 @@ public final class SystemSessionProperties
     public static final String SPILL_ENABLED = "spill_enabled";
     public static final String JOIN_SPILL_ENABLED = "join_spill_enabled";
     public static final String AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT = "aggregation_operator_unspill_memory_limit";
+    public static final String TOPN_OPERATOR_UNSPILL_MEMORY_LIMIT = "topn_operator_unspill_memory_limit";
     public static final String OPTIMIZE_DISTINCT_AGGREGATIONS = "optimize_mixed_distinct_aggregations";
     public static final String LEGACY_ROW_FIELD_ORDINAL_ACCESS = "legacy_row_field_ordinal_access";
     public static final String LEGACY_MAP_SUBSCRIPT = "do_not_use_legacy_map_subscript";
@@ -163,8 +164,10 @@ public final class SystemSessionProperties
     public static final String TARGET_RESULT_SIZE = "target_result_size";
     public static final String PUSHDOWN_DEREFERENCE_ENABLED = "pushdown_dereference_enabled";
     public static final String ENABLE_DYNAMIC_FILTERING = "enable_dynamic_filtering";
+    public static final String ENABLE_DISTRIBUTED_DYNAMIC_FILTERING = "enable_distributed_dynamic_filtering";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT = "dynamic_filtering_max_per_driver_row_count";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTER_SIZE = "dynamic_filtering_bloom_filter_size";
     public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
     public static final String LEGACY_TYPE_COERCION_WARNING_ENABLED = "legacy_type_coercion_warning_enabled";
     public static final String INLINE_SQL_FUNCTIONS = "inline_sql_functions";
@@ -172,6 +175,7 @@ public final class SystemSessionProperties
     public static final String CHECK_ACCESS_CONTROL_ON_UTILIZED_COLUMNS_ONLY = "check_access_control_on_utilized_columns_only";
     public static final String SKIP_REDUNDANT_SORT = "skip_redundant_sort";
     public static final String ALLOW_WINDOW_ORDER_BY_LITERALS = "allow_window_order_by_literals";
+    public static final String BIGINT_JOIN_HASH_ENABLED = "bigint_join_hash_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -572,6 +576,15 @@ public final class SystemSessionProperties
                         false,
                         value -> DataSize.valueOf((String) value),
                         DataSize::toString),
+                new PropertyMetadata<>(
+                        TOPN_OPERATOR_UNSPILL_MEMORY_LIMIT,
+                        "Experimental: How much memory can be allocated per TopNRowNumber operator to merge spilled partitions",
+                        VARCHAR,
+                        DataSize.class,
+                        featuresConfig.getTopNOperatorUnspillMemoryLimit(),
+                        false,
+                        value -> DataSize.valueOf((String) value),
+                        DataSize::toString),
                 booleanProperty(
                         OPTIMIZE_DISTINCT_AGGREGATIONS,
                         "Optimize mixed non-distinct and distinct aggregations",
@@ -848,6 +861,11 @@ public final class SystemSessionProperties
                         "Experimental: Enable dynamic filtering",
                         featuresConfig.isEnableDynamicFiltering(),
                         false),
+                booleanProperty(
+                        ENABLE_DISTRIBUTED_DYNAMIC_FILTERING,
+                        "Experimental: Collect dynamic filters of partitioned joins on the coordinator and apply them to probe-side scans",
+                        featuresConfig.isEnableDistributedDynamicFiltering(),
+                        false),
                 integerProperty(
                         DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT,
                         "Experimental: maximum number of build-side rows to be collected for dynamic filtering per-driver",
@@ -862,6 +880,15 @@ public final class SystemSessionProperties
                         false,
                         value -> DataSize.valueOf((String) value),
                         DataSize::toString),
+                new PropertyMetadata<>(
+                        DYNAMIC_FILTERING_BLOOM_FILTER_SIZE,
+                        "Experimental: size of the per-driver bloom filter of build-side values exceeding the dynamic filtering limits, 0 disables it",
+                        VARCHAR,
+                        DataSize.class,
+                        featuresConfig.getDynamicFilteringBloomFilterSize(),
+                        false,
+                        value -> DataSize.valueOf((String) value),
+                        DataSize::toString),
                 booleanProperty(
                         FRAGMENT_RESULT_CACHING_ENABLED,
                         "Enable fragment result caching and read/write leaf fragment result pages from/to cache when applicable",
@@ -896,6 +923,11 @@ public final class SystemSessionProperties
                         ALLOW_WINDOW_ORDER_BY_LITERALS,
                         "Allow ORDER BY literals in window functions",
                         featuresConfig.isAllowWindowOrderByLiterals(),
+                        false),
+                booleanProperty(
+                        BIGINT_JOIN_HASH_ENABLED,
+                        "Experimental: use a hash table specialized for single BIGINT and INTEGER join keys",
+                        featuresConfig.isBigintJoinHashEnabled(),
                         false));
     }
 
@@ -909,6 +941,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ALLOW_WINDOW_ORDER_BY_LITERALS, Boolean.class);
     }
 
+    public static boolean isBigintJoinHashEnabled(Session session)
+    {
+        return session.getSystemProperty(BIGINT_JOIN_HASH_ENABLED, Boolean.class);
+    }
+
     public List<PropertyMetadata<?>> getSessionProperties()
     {
         return sessionProperties;
@@ -1205,6 +1242,11 @@ public final class SystemSessionProperties
         return memoryLimitForMerge;
     }
 
+    public static DataSize getTopNOperatorUnspillMemoryLimit(Session session)
+    {
+        return session.getSystemProperty(TOPN_OPERATOR_UNSPILL_MEMORY_LIMIT, DataSize.class);
+    }
+
     public static boolean isOptimizeDistinctAggregationEnabled(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_DISTINCT_AGGREGATIONS, Boolean.class);
@@ -1483,6 +1525,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ENABLE_DYNAMIC_FILTERING, Boolean.class);
     }
 
+    public static boolean isEnableDistributedDynamicFiltering(Session session)
+    {
+        return isEnableDynamicFiltering(session) && session.getSystemProperty(ENABLE_DISTRIBUTED_DYNAMIC_FILTERING, Boolean.class);
+    }
+
     public static int getDynamicFilteringMaxPerDriverRowCount(Session session)
     {
         return session.getSystemProperty(DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT, Integer.class);
@@ -1493,6 +1540,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE, DataSize.class);
     }
 
+    public static DataSize getDynamicFilteringBloomFilterSize(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_SIZE, DataSize.class);
+    }
+
     public static boolean isFragmentResultCachingEnabled(Session session)
     {
         return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.execution;
 
+import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.execution.buffer.BufferInfo;
 import com.facebook.presto.execution.buffer.OutputBufferInfo;
 import com.facebook.presto.metadata.MetadataUpdates;
@@ -20,6 +21,7 @@ import com.facebook.presto.operator.TaskStats;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.joda.time.DateTime;
 
@@ -27,6 +29,7 @@ import javax.annotation.concurrent.Immutable;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.facebook.presto.execution.TaskStatus.initialTaskStatus;
@@ -49,6 +52,9 @@ public class TaskInfo
     private final MetadataUpdates metadataUpdates;
     private final String nodeId;
 
+    // Dynamic filters collected by the task for consumers in other stages, keyed by dynamic filter ID
+    private final Map<String, Domain> dynamicFilterDomains;
+
     @JsonCreator
     public TaskInfo(
             @JsonProperty("taskId") TaskId taskId,
@@ -59,7 +65,8 @@ public class TaskInfo
             @JsonProperty("stats") TaskStats stats,
             @JsonProperty("needsPlan") boolean needsPlan,
             @JsonProperty("metadataUpdates") MetadataUpdates metadataUpdates,
-            @JsonProperty("nodeId") String nodeId)
+            @JsonProperty("nodeId") String nodeId,
+            @JsonProperty("dynamicFilterDomains") Map<String, Domain> dynamicFilterDomains)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskStatus = requireNonNull(taskStatus, "taskStatus is null");
@@ -71,6 +78,7 @@ public class TaskInfo
         this.needsPlan = needsPlan;
         this.metadataUpdates = metadataUpdates;
         this.nodeId = requireNonNull(nodeId, "nodeId is null");
+        this.dynamicFilterDomains = ImmutableMap.copyOf(requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null"));
     }
 
     @JsonProperty
@@ -127,6 +135,12 @@ public class TaskInfo
         return nodeId;
     }
 
+    @JsonProperty
+    public Map<String, Domain> getDynamicFilterDomains()
+    {
+        return dynamicFilterDomains;
+    }
+
     public TaskInfo summarize()
     {
         if (taskStatus.getState().isDone()) {
@@ -139,7 +153,8 @@ public class TaskInfo
                     stats.summarizeFinal(),
                     needsPlan,
                     metadataUpdates,
-                    nodeId);
+                    nodeId,
+                    dynamicFilterDomains);
         }
         return new TaskInfo(
                 taskId,
@@ -150,7 +165,8 @@ public class TaskInfo
                 stats.summarize(),
                 needsPlan,
                 metadataUpdates,
-                nodeId);
+                nodeId,
+                dynamicFilterDomains);
     }
 
     @Override
@@ -173,11 +189,12 @@ public class TaskInfo
                 taskStats,
                 true,
                 DEFAULT_METADATA_UPDATES,
-                nodeId);
+                nodeId,
+                ImmutableMap.of());
     }
 
     public TaskInfo withTaskStatus(TaskStatus newTaskStatus)
     {
-        return new TaskInfo(taskId, newTaskStatus, lastHeartbeat, outputBuffers, noMoreSplits, stats, needsPlan, metadataUpdates, nodeId);
+        return new TaskInfo(taskId, newTaskStatus, lastHeartbeat, outputBuffers, noMoreSplits, stats, needsPlan, metadataUpdates, nodeId, dynamicFilterDomains);
     }
 }
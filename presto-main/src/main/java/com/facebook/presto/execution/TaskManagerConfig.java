@@ -18,6 +18,8 @@ import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.configuration.DefunctConfig;
 import com.facebook.airlift.configuration.LegacyConfig;
 import com.facebook.presto.util.PowerOfTwo;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import io.airlift.units.Duration;
@@ -84,6 +86,9 @@ public class TaskManagerConfig
     private boolean legacyLifespanCompletionCondition;
     private TaskPriorityTracking taskPriorityTracking = TaskPriorityTracking.TASK_FAIR;
 
+    private ImmutableSet<String> blockingIoCatalogs = ImmutableSet.of();
+    private int blockingIoThreads = 256;
+
     @MinDuration("1ms")
     @MaxDuration("10s")
     @NotNull
@@ -552,6 +557,34 @@ public class TaskManagerConfig
         return this;
     }
 
+    @NotNull
+    public ImmutableSet<String> getBlockingIoCatalogs()
+    {
+        return blockingIoCatalogs;
+    }
+
+    @Config("task.blocking-io-catalogs")
+    @ConfigDescription("Catalogs whose page sources block on I/O, and are read on the blocking I/O threads instead of the task runner threads")
+    public TaskManagerConfig setBlockingIoCatalogs(String blockingIoCatalogs)
+    {
+        this.blockingIoCatalogs = ImmutableSet.copyOf(Splitter.on(',').omitEmptyStrings().trimResults().split(blockingIoCatalogs));
+        return this;
+    }
+
+    @Min(1)
+    public int getBlockingIoThreads()
+    {
+        return blockingIoThreads;
+    }
+
+    @Config("task.blocking-io-threads")
+    @ConfigDescription("Maximum number of threads reading from the page sources of the blocking I/O catalogs")
+    public TaskManagerConfig setBlockingIoThreads(int blockingIoThreads)
+    {
+        this.blockingIoThreads = blockingIoThreads;
+        return this;
+    }
+
     public enum TaskPriorityTracking
     {
         TASK_FAIR,
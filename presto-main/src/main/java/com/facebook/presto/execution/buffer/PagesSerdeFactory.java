@@ -52,59 +52,82 @@ public class PagesSerdeFactory
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher)
     {
         if (compressionEnabled) {
-            return new PagesSerde(
-                    blockEncodingSerde,
-                    Optional.of(new PageCompressor()
-                    {
-                        Compressor compressor = new Lz4Compressor();
-                        @Override
-                        public int maxCompressedLength(int uncompressedSize)
-                        {
-                            return compressor.maxCompressedLength(uncompressedSize);
-                        }
-
-                        @Override
-                        public int compress(
-                                byte[] input,
-                                int inputOffset,
-                                int inputLength,
-                                byte[] output,
-                                int outputOffset,
-                                int maxOutputLength)
-                        {
-                            return compressor.compress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
-                        }
-
-                        @Override
-                        public void compress(ByteBuffer input, ByteBuffer output)
-                        {
-                            compressor.compress(input, output);
-                        }
-                    }),
-                    Optional.of(new PageDecompressor()
-                    {
-                        Decompressor decompressor = new Lz4Decompressor();
-                        @Override
-                        public int decompress(
-                                byte[] input,
-                                int inputOffset,
-                                int inputLength,
-                                byte[] output,
-                                int outputOffset,
-                                int maxOutputLength)
-                        {
-                            return decompressor.decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
-                        }
-
-                        @Override
-                        public void decompress(ByteBuffer input, ByteBuffer output)
-                        {
-                            decompressor.decompress(input, output);
-                        }
-                    }),
-                    spillCipher);
+            return createCompressedPagesSerde(blockEncodingSerde, new Lz4Compressor(), new Lz4Decompressor(), spillCipher);
         }
 
         return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
     }
+
+    public static PagesSerde createCompressedPagesSerde(BlockEncodingSerde blockEncodingSerde, Compressor compressor, Decompressor decompressor, Optional<SpillCipher> spillCipher)
+    {
+        return new PagesSerde(
+                blockEncodingSerde,
+                Optional.of(new AirliftPageCompressor(compressor)),
+                Optional.of(new AirliftPageDecompressor(decompressor)),
+                spillCipher);
+    }
+
+    private static class AirliftPageCompressor
+            implements PageCompressor
+    {
+        private final Compressor compressor;
+
+        public AirliftPageCompressor(Compressor compressor)
+        {
+            this.compressor = requireNonNull(compressor, "compressor is null");
+        }
+
+        @Override
+        public int maxCompressedLength(int uncompressedSize)
+        {
+            return compressor.maxCompressedLength(uncompressedSize);
+        }
+
+        @Override
+        public int compress(
+                byte[] input,
+                int inputOffset,
+                int inputLength,
+                byte[] output,
+                int outputOffset,
+                int maxOutputLength)
+        {
+            return compressor.compress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void compress(ByteBuffer input, ByteBuffer output)
+        {
+            compressor.compress(input, output);
+        }
+    }
+
+    private static class AirliftPageDecompressor
+            implements PageDecompressor
+    {
+        private final Decompressor decompressor;
+
+        public AirliftPageDecompressor(Decompressor decompressor)
+        {
+            this.decompressor = requireNonNull(decompressor, "decompressor is null");
+        }
+
+        @Override
+        public int decompress(
+                byte[] input,
+                int inputOffset,
+                int inputLength,
+                byte[] output,
+                int outputOffset,
+                int maxOutputLength)
+        {
+            return decompressor.decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, ByteBuffer output)
+        {
+            decompressor.decompress(input, output);
+        }
+    }
 }
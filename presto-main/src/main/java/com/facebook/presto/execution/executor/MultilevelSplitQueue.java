@@ -20,20 +20,17 @@ import com.google.common.collect.ImmutableList;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkState;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -43,16 +40,19 @@ public class MultilevelSplitQueue
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final List<PriorityBlockingQueue<PrioritizedSplitRunner>> levelWaitingSplits;
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
 
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
+    /**
+     * One permit is released for every split that is offered, after the split is added to its level.
+     * Splits that are removed leave their permits behind, so a permit does not guarantee that a split
+     * is waiting, but a waiting split always has a permit that is not taken yet.
+     */
+    private final Semaphore waitingSplitPermits = new Semaphore(0);
 
     private final double levelTimeMultiplier;
 
@@ -71,7 +71,7 @@ public class MultilevelSplitQueue
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
+            levelWaitingSplits.add(new PriorityBlockingQueue<>());
             counters.add(new CounterStat());
         }
 
@@ -101,52 +101,43 @@ public class MultilevelSplitQueue
 
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
-        try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
-                // Accesses to levelScheduledTime are not synchronized, so we have a data race
-                // here - our level time math will be off. However, the staleness is bounded by
-                // the fact that only running splits that complete during this computation
-                // can update the level time. Therefore, this is benign.
-                long level0Time = getLevel0TargetTime();
-                long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-                long delta = levelExpectedTime - levelScheduledTime[level].get();
-                levelScheduledTime[level].addAndGet(delta);
-            }
-
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
-        }
-        finally {
-            lock.unlock();
+        PriorityBlockingQueue<PrioritizedSplitRunner> levelSplits = levelWaitingSplits.get(level);
+        if (levelSplits.isEmpty()) {
+            // Accesses to levelScheduledTime are not synchronized, so we have a data race
+            // here - our level time math will be off. However, the staleness is bounded by
+            // the fact that only running splits that complete during this computation
+            // can update the level time. Therefore, this is benign.
+            long level0Time = getLevel0TargetTime();
+            long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+            long delta = levelExpectedTime - levelScheduledTime[level].get();
+            levelScheduledTime[level].addAndGet(delta);
         }
+
+        levelSplits.offer(split);
+        waitingSplitPermits.release();
     }
 
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
         while (true) {
-            lock.lockInterruptibly();
-            try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
-                }
+            waitingSplitPermits.acquire();
+            PrioritizedSplitRunner result = pollSplit();
+            if (result == null) {
+                // the permit was left behind by a removed split
+                continue;
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
-                }
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
 
-                return result;
-            }
-            finally {
-                lock.unlock();
-            }
+            return result;
         }
     }
 
@@ -157,37 +148,40 @@ public class MultilevelSplitQueue
      * This function selects the level that has the the lowest ratio of actual to the target time
      * with the objective of minimizing deviation from the target scheduled time. From this level,
      * we pick the split with the lowest priority.
+     * <p>
+     * The levels are not locked together, so the selected level can be emptied by another thread
+     * before the split is polled from it, in which case the level is selected again.
      */
-    @GuardedBy("lock")
     private PrioritizedSplitRunner pollSplit()
     {
-        long targetScheduledTime = getLevel0TargetTime();
-        double worstRatio = 1;
-        int selectedLevel = -1;
-        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
-                long levelTime = levelScheduledTime[level].get();
-                double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
-                if (selectedLevel == -1 || ratio > worstRatio) {
-                    worstRatio = ratio;
-                    selectedLevel = level;
+        while (true) {
+            long targetScheduledTime = getLevel0TargetTime();
+            double worstRatio = 1;
+            int selectedLevel = -1;
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                if (!levelWaitingSplits.get(level).isEmpty()) {
+                    long levelTime = levelScheduledTime[level].get();
+                    double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
+                    if (selectedLevel == -1 || ratio > worstRatio) {
+                        worstRatio = ratio;
+                        selectedLevel = level;
+                    }
                 }
+
+                targetScheduledTime /= levelTimeMultiplier;
             }
 
-            targetScheduledTime /= levelTimeMultiplier;
-        }
+            if (selectedLevel == -1) {
+                return null;
+            }
 
-        if (selectedLevel == -1) {
-            return null;
+            PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
+            if (result != null) {
+                return result;
+            }
         }
-
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
-
-        return result;
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -247,27 +241,15 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
-            }
-        }
-        finally {
-            lock.unlock();
+        for (PriorityBlockingQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
+            level.remove(split);
         }
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
-            }
-        }
-        finally {
-            lock.unlock();
+        for (PriorityBlockingQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
+            level.removeAll(splits);
         }
     }
 
@@ -279,17 +261,11 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
+        int total = 0;
+        for (PriorityBlockingQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
+            total += level.size();
         }
+        return total;
     }
 
     public static int computeLevel(long threadUsageNanos)
@@ -40,20 +40,18 @@ import org.weakref.jmx.Nested;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -61,6 +59,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.DoubleSupplier;
@@ -104,20 +103,25 @@ public class TaskExecutor
     private final ScheduledExecutorService splitMonitorExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("TaskExecutor"));
     private final SortedSet<RunningSplitInfo> runningSplitInfos = new ConcurrentSkipListSet<>();
 
-    @GuardedBy("this")
-    private final List<TaskHandle> tasks;
+    /**
+     * Tasks in the round robin order in which their splits are admitted.
+     */
+    private final Queue<TaskHandle> tasks = new ConcurrentLinkedQueue<>();
 
     /**
      * All splits registered with the task executor.
      */
-    @GuardedBy("this")
-    private final Set<PrioritizedSplitRunner> allSplits = new HashSet<>();
+    private final Set<PrioritizedSplitRunner> allSplits = newConcurrentHashSet();
 
     /**
      * Intermediate splits (i.e. splits that should not be queued).
      */
-    @GuardedBy("this")
-    private final Set<PrioritizedSplitRunner> intermediateSplits = new HashSet<>();
+    private final Set<PrioritizedSplitRunner> intermediateSplits = newConcurrentHashSet();
+
+    /**
+     * Requests to admit new splits. Splits are admitted by one thread at a time, see {@link #addNewEntrants()}.
+     */
+    private final AtomicInteger pendingAdmissions = new AtomicInteger();
 
     /**
      * Splits waiting for a runner thread.
@@ -262,7 +266,6 @@ public class TaskExecutor
                 throw new IllegalArgumentException("Unexpected taskPriorityTracking: " + taskPriorityTracking);
         }
         this.taskPriorityTrackerFactory = taskPriorityTrackerFactory;
-        this.tasks = new LinkedList<>();
     }
 
     @PostConstruct
@@ -304,7 +307,7 @@ public class TaskExecutor
         }
     }
 
-    public synchronized TaskHandle addTask(
+    public TaskHandle addTask(
             TaskId taskId,
             DoubleSupplier utilizationSupplier,
             int initialSplitConcurrency,
@@ -342,19 +345,16 @@ public class TaskExecutor
 
     private void doRemoveTask(TaskHandle taskHandle)
     {
-        List<PrioritizedSplitRunner> splits;
-        synchronized (this) {
-            tasks.remove(taskHandle);
-            splits = taskHandle.destroy();
+        // the handle is destroyed before it is removed, see pollNextSplitWorker
+        List<PrioritizedSplitRunner> splits = taskHandle.destroy();
+        tasks.remove(taskHandle);
 
-            // stop tracking splits (especially blocked splits which may never unblock)
-            allSplits.removeAll(splits);
-            intermediateSplits.removeAll(splits);
-            blockedSplits.keySet().removeAll(splits);
-            waitingSplits.removeAll(splits);
-        }
+        // stop tracking splits (especially blocked splits which may never unblock)
+        intermediateSplits.removeAll(splits);
+        allSplits.removeAll(splits);
+        blockedSplits.keySet().removeAll(splits);
+        waitingSplits.removeAll(splits);
 
-        // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
         for (PrioritizedSplitRunner split : splits) {
             split.destroy();
         }
@@ -370,38 +370,41 @@ public class TaskExecutor
     {
         List<PrioritizedSplitRunner> splitsToDestroy = new ArrayList<>();
         List<ListenableFuture<?>> finishedFutures = new ArrayList<>(taskSplits.size());
-        synchronized (this) {
-            for (SplitRunner taskSplit : taskSplits) {
-                PrioritizedSplitRunner prioritizedSplitRunner = new PrioritizedSplitRunner(
-                        taskHandle,
-                        taskSplit,
-                        ticker,
-                        globalCpuTimeMicros,
-                        globalScheduledTimeMicros,
-                        blockedQuantaWallTime,
-                        unblockedQuantaWallTime);
-
-                if (taskHandle.isDestroyed()) {
-                    // If the handle is destroyed, we destroy the task splits to complete the future
-                    splitsToDestroy.add(prioritizedSplitRunner);
-                }
-                else if (intermediate) {
+        for (SplitRunner taskSplit : taskSplits) {
+            PrioritizedSplitRunner prioritizedSplitRunner = new PrioritizedSplitRunner(
+                    taskHandle,
+                    taskSplit,
+                    ticker,
+                    globalCpuTimeMicros,
+                    globalScheduledTimeMicros,
+                    blockedQuantaWallTime,
+                    unblockedQuantaWallTime);
+
+            if (intermediate) {
+                // add the runner to the handle so it can be destroyed if the task is canceled
+                if (taskHandle.recordIntermediateSplit(prioritizedSplitRunner)) {
                     // Note: we do not record queued time for intermediate splits
                     startIntermediateSplit(prioritizedSplitRunner);
-                    // add the runner to the handle so it can be destroyed if the task is canceled
-                    taskHandle.recordIntermediateSplit(prioritizedSplitRunner);
                 }
                 else {
-                    // add this to the work queue for the task
-                    taskHandle.enqueueSplit(prioritizedSplitRunner);
+                    // If the handle is destroyed, we destroy the task splits to complete the future
+                    splitsToDestroy.add(prioritizedSplitRunner);
+                }
+            }
+            else {
+                // add this to the work queue for the task
+                if (taskHandle.enqueueSplit(prioritizedSplitRunner)) {
                     // if task is under the limit for guaranteed splits, start one
                     scheduleTaskIfNecessary(taskHandle);
                     // if globally we have more resources, start more
                     addNewEntrants();
                 }
-
-                finishedFutures.add(prioritizedSplitRunner.getFinishedFuture());
+                else {
+                    splitsToDestroy.add(prioritizedSplitRunner);
+                }
             }
+
+            finishedFutures.add(prioritizedSplitRunner.getFinishedFuture());
         }
         for (PrioritizedSplitRunner split : splitsToDestroy) {
             split.destroy();
@@ -412,52 +415,75 @@ public class TaskExecutor
     private void splitFinished(PrioritizedSplitRunner split)
     {
         completedSplitsPerLevel.incrementAndGet(split.getPriority().getLevel());
-        synchronized (this) {
-            allSplits.remove(split);
+        // intermediateSplits is kept a subset of allSplits, see admitNewEntrants
+        boolean intermediate = intermediateSplits.remove(split);
+        allSplits.remove(split);
+
+        long wallNanos = System.nanoTime() - split.getCreatedNanos();
+        splitWallTime.add(Duration.succinctNanos(wallNanos));
+
+        if (intermediate) {
+            intermediateSplitWallTime.add(wallNanos);
+            intermediateSplitScheduledTime.add(split.getScheduledNanos());
+            intermediateSplitWaitTime.add(split.getWaitNanos());
+            intermediateSplitCpuTime.add(split.getCpuTimeNanos());
+        }
+        else {
+            leafSplitWallTime.add(wallNanos);
+            leafSplitScheduledTime.add(split.getScheduledNanos());
+            leafSplitWaitTime.add(split.getWaitNanos());
+            leafSplitCpuTime.add(split.getCpuTimeNanos());
+        }
 
-            long wallNanos = System.nanoTime() - split.getCreatedNanos();
-            splitWallTime.add(Duration.succinctNanos(wallNanos));
+        TaskHandle taskHandle = split.getTaskHandle();
+        taskHandle.splitComplete(split);
 
-            if (intermediateSplits.remove(split)) {
-                intermediateSplitWallTime.add(wallNanos);
-                intermediateSplitScheduledTime.add(split.getScheduledNanos());
-                intermediateSplitWaitTime.add(split.getWaitNanos());
-                intermediateSplitCpuTime.add(split.getCpuTimeNanos());
-            }
-            else {
-                leafSplitWallTime.add(wallNanos);
-                leafSplitScheduledTime.add(split.getScheduledNanos());
-                leafSplitWaitTime.add(split.getWaitNanos());
-                leafSplitCpuTime.add(split.getCpuTimeNanos());
-            }
-
-            TaskHandle taskHandle = split.getTaskHandle();
-            taskHandle.splitComplete(split);
+        scheduleTaskIfNecessary(taskHandle);
 
-            scheduleTaskIfNecessary(taskHandle);
+        addNewEntrants();
 
-            addNewEntrants();
-        }
-        // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
         split.destroy();
     }
 
-    private synchronized void scheduleTaskIfNecessary(TaskHandle taskHandle)
+    private void scheduleTaskIfNecessary(TaskHandle taskHandle)
     {
         // if task has less than the minimum guaranteed splits running,
         // immediately schedule a new split for this task.  This assures
         // that a task gets its fair amount of consideration (you have to
         // have splits to be considered for running on a thread).
-        if (taskHandle.getRunningLeafSplits() < min(guaranteedNumberOfDriversPerTask, taskHandle.getMaxDriversPerTask().orElse(Integer.MAX_VALUE))) {
-            PrioritizedSplitRunner split = taskHandle.pollNextSplit();
-            if (split != null) {
-                startSplit(split);
-                splitQueuedTime.add(Duration.nanosSince(split.getCreatedNanos()));
+        PrioritizedSplitRunner split = taskHandle.pollNextSplit(min(guaranteedNumberOfDriversPerTask, taskHandle.getMaxDriversPerTask().orElse(Integer.MAX_VALUE)));
+        if (split != null) {
+            startSplit(split);
+            splitQueuedTime.add(Duration.nanosSince(split.getCreatedNanos()));
+        }
+    }
+
+    /**
+     * Splits are admitted by one thread at a time without blocking the others: a thread that
+     * finds another thread admitting splits leaves a request, and the admitting thread runs
+     * the admission again before it returns.
+     */
+    private void addNewEntrants()
+    {
+        int requests = pendingAdmissions.incrementAndGet();
+        if (requests != 1) {
+            return;
+        }
+        do {
+            try {
+                admitNewEntrants();
             }
+            catch (RuntimeException | Error e) {
+                // let the next caller admit splits
+                pendingAdmissions.set(0);
+                throw e;
+            }
+            requests = pendingAdmissions.addAndGet(-requests);
         }
+        while (requests != 0);
     }
 
-    private synchronized void addNewEntrants()
+    private void admitNewEntrants()
     {
         // Ignore intermediate splits when checking minimumNumberOfDrivers.
         // Otherwise with (for example) minimumNumberOfDrivers = 100, 200 intermediate splits
@@ -465,6 +491,12 @@ public class TaskExecutor
         // simultaneously running splits may vary. If leaf splits start first, there will
         // be 300 running splits. If intermediate splits start first, there will be only
         // 200 running splits.
+        // The two sets are updated without a lock. Splits are added to allSplits before
+        // intermediateSplits and removed from intermediateSplits before allSplits, so that
+        // intermediateSplits is always a subset of allSplits. An intermediate split that finishes
+        // between the two reads may be counted as a running leaf split, which only delays
+        // admission until the next call, and one that starts between them may hide one running
+        // leaf split from this call.
         int running = allSplits.size() - intermediateSplits.size();
         for (int i = 0; i < minimumNumberOfDrivers - running; i++) {
             PrioritizedSplitRunner split = pollNextSplitWorker();
@@ -477,37 +509,39 @@ public class TaskExecutor
         }
     }
 
-    private synchronized void startIntermediateSplit(PrioritizedSplitRunner split)
+    private void startIntermediateSplit(PrioritizedSplitRunner split)
     {
-        startSplit(split);
+        // intermediateSplits is kept a subset of allSplits, see admitNewEntrants
+        allSplits.add(split);
         intermediateSplits.add(split);
+        waitingSplits.offer(split);
     }
 
-    private synchronized void startSplit(PrioritizedSplitRunner split)
+    private void startSplit(PrioritizedSplitRunner split)
     {
         allSplits.add(split);
         waitingSplits.offer(split);
     }
 
-    private synchronized PrioritizedSplitRunner pollNextSplitWorker()
+    // called only by the thread that admits splits
+    private PrioritizedSplitRunner pollNextSplitWorker()
     {
         // todo find a better algorithm for this
         // find the first task that produces a split, then move that task to the
         // end of the task list, so we get round robin
-        for (Iterator<TaskHandle> iterator = tasks.iterator(); iterator.hasNext(); ) {
-            TaskHandle task = iterator.next();
+        for (TaskHandle task : tasks) {
             // skip tasks that are already running the configured max number of drivers
-            if (task.getRunningLeafSplits() >= task.getMaxDriversPerTask().orElse(maximumNumberOfDriversPerTask)) {
-                continue;
-            }
-            PrioritizedSplitRunner split = task.pollNextSplit();
+            PrioritizedSplitRunner split = task.pollNextSplit(task.getMaxDriversPerTask().orElse(maximumNumberOfDriversPerTask));
             if (split != null) {
-                // move task to end of list
-                iterator.remove();
-
-                // CAUTION: we are modifying the list in the loop which would normally
-                // cause a ConcurrentModificationException but we exit immediately
-                tasks.add(task);
+                // move task to end of list, unless it has been removed concurrently
+                if (tasks.remove(task)) {
+                    tasks.add(task);
+                    // removeTask destroys the handle before removing it, so a handle that is
+                    // added back after it was removed is seen as destroyed here
+                    if (task.isDestroyed()) {
+                        tasks.remove(task);
+                    }
+                }
                 return split;
             }
         }
@@ -597,7 +631,7 @@ public class TaskExecutor
     //
 
     @Managed
-    public synchronized int getTasks()
+    public int getTasks()
     {
         return tasks.size();
     }
@@ -615,13 +649,13 @@ public class TaskExecutor
     }
 
     @Managed
-    public synchronized int getTotalSplits()
+    public int getTotalSplits()
     {
         return allSplits.size();
     }
 
     @Managed
-    public synchronized int getIntermediateSplits()
+    public int getIntermediateSplits()
     {
         return intermediateSplits.size();
     }
@@ -832,7 +866,7 @@ public class TaskExecutor
         return globalCpuTimeMicros;
     }
 
-    private synchronized int getRunningTasksForLevel(int level)
+    private int getRunningTasksForLevel(int level)
     {
         int count = 0;
         for (TaskHandle task : tasks) {
@@ -30,7 +30,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.DoubleSupplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
-import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -117,16 +117,24 @@ public class TaskHandle
         return builder.build();
     }
 
-    public synchronized void enqueueSplit(PrioritizedSplitRunner split)
+    // Returns false if the task handle is destroyed. The caller must destroy the split in this case.
+    public synchronized boolean enqueueSplit(PrioritizedSplitRunner split)
     {
-        checkState(!destroyed, "Cannot add split to destroyed task handle");
+        if (destroyed) {
+            return false;
+        }
         queuedLeafSplits.add(split);
+        return true;
     }
 
-    public synchronized void recordIntermediateSplit(PrioritizedSplitRunner split)
+    // Returns false if the task handle is destroyed. The caller must destroy the split in this case.
+    public synchronized boolean recordIntermediateSplit(PrioritizedSplitRunner split)
     {
-        checkState(!destroyed, "Cannot add split to destroyed task handle");
+        if (destroyed) {
+            return false;
+        }
         runningIntermediateSplits.add(split);
+        return true;
     }
 
     synchronized int getRunningLeafSplits()
@@ -140,12 +148,19 @@ public class TaskHandle
     }
 
     public synchronized PrioritizedSplitRunner pollNextSplit()
+    {
+        return pollNextSplit(Integer.MAX_VALUE);
+    }
+
+    // Polls the next split only if fewer than maxRunningLeafSplits leaf splits are running, so that
+    // concurrent callers cannot start more splits than the limit.
+    public synchronized PrioritizedSplitRunner pollNextSplit(int maxRunningLeafSplits)
     {
         if (destroyed) {
             return null;
         }
 
-        if (runningLeafSplits.size() >= concurrencyController.getTargetConcurrency()) {
+        if (runningLeafSplits.size() >= min(maxRunningLeafSplits, concurrencyController.getTargetConcurrency())) {
             return null;
         }
 
@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.execution.RemoteTask;
+import com.facebook.presto.execution.SqlStageExecution;
+import com.facebook.presto.execution.StageExecutionState;
+import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.plan.FilterNode;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.plan.TableScanNode;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.facebook.presto.sql.planner.PlanFragment;
+import com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher;
+import com.facebook.presto.sql.planner.plan.AbstractJoinNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Merges the dynamic filters collected by the tasks of a join stage and makes them
+ * available to the scans of other stages that consume them.
+ * <p>
+ * Every task reports the domains of its build side in {@link com.facebook.presto.execution.TaskInfo}.
+ * A filter is complete once the producing stage has created all of its tasks and every task
+ * has reported the filter, at which point the union of the task domains is handed to consumers.
+ */
+@ThreadSafe
+public class DynamicFilterService
+{
+    private final Map<QueryId, Map<String, SqlStageExecution>> producers = new ConcurrentHashMap<>();
+
+    public void registerProducer(SqlStageExecution stage)
+    {
+        requireNonNull(stage, "stage is null");
+        Set<String> dynamicFilterIds = getProducedDynamicFilterIds(stage.getFragment());
+        if (dynamicFilterIds.isEmpty()) {
+            return;
+        }
+
+        QueryId queryId = stage.getStageExecutionId().getStageId().getQueryId();
+        Map<String, SqlStageExecution> queryProducers = producers.computeIfAbsent(queryId, id -> new ConcurrentHashMap<>());
+        dynamicFilterIds.forEach(dynamicFilterId -> queryProducers.put(dynamicFilterId, stage));
+
+        stage.addStateChangeListener(state -> {
+            if (state.isDone()) {
+                removeProducer(queryId, stage);
+            }
+        });
+    }
+
+    /**
+     * Returns a supplier of the dynamic filters that apply to the columns of the given table scan,
+     * or {@link TupleDomain#all()} while none of them is complete.
+     */
+    public Supplier<TupleDomain<ColumnHandle>> createDynamicFilterSupplier(QueryId queryId, PlanFragment fragment, PlanNodeId tableScanNodeId)
+    {
+        requireNonNull(queryId, "queryId is null");
+        Multimap<String, ColumnHandle> consumedColumns = getConsumedDynamicFilterColumns(fragment, tableScanNodeId);
+        if (consumedColumns.isEmpty()) {
+            return TupleDomain::all;
+        }
+        return new DynamicFilterSupplier(queryId, consumedColumns);
+    }
+
+    private void removeProducer(QueryId queryId, SqlStageExecution stage)
+    {
+        producers.computeIfPresent(queryId, (id, queryProducers) -> {
+            queryProducers.values().removeIf(producer -> producer == stage);
+            return queryProducers.isEmpty() ? null : queryProducers;
+        });
+    }
+
+    private Optional<SqlStageExecution> getProducer(QueryId queryId, String dynamicFilterId)
+    {
+        Map<String, SqlStageExecution> queryProducers = producers.get(queryId);
+        if (queryProducers == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(queryProducers.get(dynamicFilterId));
+    }
+
+    private static Optional<Domain> getMergedDomain(SqlStageExecution stage, String dynamicFilterId)
+    {
+        if (!isTaskSchedulingFinished(stage.getState())) {
+            // more tasks may be added to the stage
+            return Optional.empty();
+        }
+        List<Map<String, Domain>> taskDomains = new ArrayList<>();
+        for (RemoteTask task : stage.getAllTasks()) {
+            taskDomains.add(task.getTaskInfo().getDynamicFilterDomains());
+        }
+        return mergeTaskDomains(dynamicFilterId, taskDomains);
+    }
+
+    @VisibleForTesting
+    static Optional<Domain> mergeTaskDomains(String dynamicFilterId, Collection<Map<String, Domain>> taskDomains)
+    {
+        if (taskDomains.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Domain> domains = new ArrayList<>();
+        for (Map<String, Domain> domainsOfTask : taskDomains) {
+            Domain domain = domainsOfTask.get(dynamicFilterId);
+            if (domain == null) {
+                // the task has not finished building its side of the join yet
+                return Optional.empty();
+            }
+            domains.add(domain);
+        }
+        return Optional.of(Domain.union(domains));
+    }
+
+    private static boolean isTaskSchedulingFinished(StageExecutionState state)
+    {
+        switch (state) {
+            case FINISHED_TASK_SCHEDULING:
+            case SCHEDULING_SPLITS:
+            case SCHEDULED:
+            case RUNNING:
+            case FINISHED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Set<String> getProducedDynamicFilterIds(PlanFragment fragment)
+    {
+        return PlanNodeSearcher.searchFrom(fragment.getRoot())
+                .where(AbstractJoinNode.class::isInstance)
+                .<AbstractJoinNode>findAll()
+                .stream()
+                .flatMap(join -> join.getDynamicFilters().keySet().stream())
+                .collect(toImmutableSet());
+    }
+
+    private static Multimap<String, ColumnHandle> getConsumedDynamicFilterColumns(PlanFragment fragment, PlanNodeId tableScanNodeId)
+    {
+        Optional<FilterNode> filterNode = PlanNodeSearcher.searchFrom(fragment.getRoot())
+                .where(node -> node instanceof FilterNode
+                        && ((FilterNode) node).getSource() instanceof TableScanNode
+                        && ((FilterNode) node).getSource().getId().equals(tableScanNodeId))
+                .findFirst();
+        if (!filterNode.isPresent()) {
+            return ImmutableMultimap.of();
+        }
+
+        Map<VariableReferenceExpression, ColumnHandle> assignments = ((TableScanNode) filterNode.get().getSource()).getAssignments();
+        ImmutableMultimap.Builder<String, ColumnHandle> columns = ImmutableMultimap.builder();
+        for (DynamicFilterPlaceholder placeholder : extractDynamicFilters(filterNode.get().getPredicate()).getDynamicConjuncts()) {
+            if (placeholder.getInput() instanceof VariableReferenceExpression) {
+                ColumnHandle column = assignments.get(placeholder.getInput());
+                if (column != null) {
+                    columns.put(placeholder.getId(), column);
+                }
+            }
+        }
+        return columns.build();
+    }
+
+    @ThreadSafe
+    private class DynamicFilterSupplier
+            implements Supplier<TupleDomain<ColumnHandle>>
+    {
+        private final QueryId queryId;
+        private final Multimap<String, ColumnHandle> consumedColumns;
+        private final Map<String, Domain> completedDomains = new ConcurrentHashMap<>();
+
+        private DynamicFilterSupplier(QueryId queryId, Multimap<String, ColumnHandle> consumedColumns)
+        {
+            this.queryId = requireNonNull(queryId, "queryId is null");
+            this.consumedColumns = requireNonNull(consumedColumns, "consumedColumns is null");
+        }
+
+        @Override
+        public TupleDomain<ColumnHandle> get()
+        {
+            if (completedDomains.size() < consumedColumns.keySet().size()) {
+                for (String dynamicFilterId : consumedColumns.keySet()) {
+                    if (!completedDomains.containsKey(dynamicFilterId)) {
+                        getProducer(queryId, dynamicFilterId)
+                                .flatMap(stage -> getMergedDomain(stage, dynamicFilterId))
+                                .ifPresent(domain -> completedDomains.put(dynamicFilterId, domain));
+                    }
+                }
+            }
+
+            TupleDomain<ColumnHandle> result = TupleDomain.all();
+            for (Map.Entry<String, Domain> entry : completedDomains.entrySet()) {
+                for (ColumnHandle column : consumedColumns.get(entry.getKey())) {
+                    result = result.intersect(TupleDomain.withColumnDomains(ImmutableMap.of(column, entry.getValue())));
+                }
+            }
+            return result;
+        }
+    }
+}
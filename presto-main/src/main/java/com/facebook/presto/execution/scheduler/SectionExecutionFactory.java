@@ -14,6 +14,7 @@
 package com.facebook.presto.execution.scheduler;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.execution.ForQueryExecution;
 import com.facebook.presto.execution.NodeTaskMap;
 import com.facebook.presto.execution.QueryManagerConfig;
@@ -30,6 +31,7 @@ import com.facebook.presto.failureDetector.FailureDetector;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.ForScheduler;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorId;
 import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 import com.facebook.presto.spi.plan.PlanNode;
@@ -66,6 +68,7 @@ import java.util.function.Supplier;
 import static com.facebook.presto.SystemSessionProperties.getConcurrentLifespansPerNode;
 import static com.facebook.presto.SystemSessionProperties.getMaxTasksPerStage;
 import static com.facebook.presto.SystemSessionProperties.getWriterMinSize;
+import static com.facebook.presto.SystemSessionProperties.isEnableDistributedDynamicFiltering;
 import static com.facebook.presto.SystemSessionProperties.isOptimizedScaleWriterProducerBuffer;
 import static com.facebook.presto.execution.SqlStageExecution.createSqlStageExecution;
 import static com.facebook.presto.execution.scheduler.SourcePartitionedScheduler.newSourcePartitionedSchedulerAsStageScheduler;
@@ -99,6 +102,7 @@ public class SectionExecutionFactory
     private final FailureDetector failureDetector;
     private final SplitSchedulerStats schedulerStats;
     private final NodeScheduler nodeScheduler;
+    private final DynamicFilterService dynamicFilterService;
     private final int splitBatchSize;
 
     @Inject
@@ -111,6 +115,7 @@ public class SectionExecutionFactory
             FailureDetector failureDetector,
             SplitSchedulerStats schedulerStats,
             NodeScheduler nodeScheduler,
+            DynamicFilterService dynamicFilterService,
             QueryManagerConfig queryManagerConfig)
     {
         this(
@@ -122,6 +127,7 @@ public class SectionExecutionFactory
                 failureDetector,
                 schedulerStats,
                 nodeScheduler,
+                dynamicFilterService,
                 requireNonNull(queryManagerConfig, "queryManagerConfig is null").getScheduleSplitBatchSize());
     }
 
@@ -134,6 +140,7 @@ public class SectionExecutionFactory
             FailureDetector failureDetector,
             SplitSchedulerStats schedulerStats,
             NodeScheduler nodeScheduler,
+            DynamicFilterService dynamicFilterService,
             int splitBatchSize)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
@@ -144,6 +151,7 @@ public class SectionExecutionFactory
         this.failureDetector = requireNonNull(failureDetector, "failureDetector is null");
         this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
         this.nodeScheduler = requireNonNull(nodeScheduler, "nodeScheduler is null");
+        this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
         this.splitBatchSize = splitBatchSize;
     }
 
@@ -210,6 +218,9 @@ public class SectionExecutionFactory
                 failureDetector,
                 schedulerStats,
                 tableWriteInfo);
+        if (isEnableDistributedDynamicFiltering(session)) {
+            dynamicFilterService.registerProducer(stageExecution);
+        }
 
         PartitioningHandle partitioningHandle = plan.getFragment().getPartitioning();
         List<RemoteSourceNode> remoteSourceNodes = plan.getFragment().getRemoteSourceNodes();
@@ -287,6 +298,10 @@ public class SectionExecutionFactory
             SplitPlacementPolicy placementPolicy = new DynamicSplitPlacementPolicy(nodeSelector, stageExecution::getAllTasks);
 
             checkArgument(!plan.getFragment().getStageExecutionDescriptor().isStageGroupedExecution());
+            if (isEnableDistributedDynamicFiltering(session)) {
+                Supplier<TupleDomain<ColumnHandle>> dynamicFilter = dynamicFilterService.createDynamicFilterSupplier(session.getQueryId(), plan.getFragment(), planNodeId);
+                return newSourcePartitionedSchedulerAsStageScheduler(stageExecution, planNodeId, splitSource, placementPolicy, splitBatchSize, dynamicFilter);
+            }
             return newSourcePartitionedSchedulerAsStageScheduler(stageExecution, planNodeId, splitSource, placementPolicy, splitBatchSize);
         }
         else if (partitioningHandle.equals(SCALED_WRITER_DISTRIBUTION)) {
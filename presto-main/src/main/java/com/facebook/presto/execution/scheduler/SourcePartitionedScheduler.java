@@ -13,12 +13,15 @@
  */
 package com.facebook.presto.execution.scheduler;
 
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.execution.Lifespan;
 import com.facebook.presto.execution.RemoteTask;
 import com.facebook.presto.execution.SqlStageExecution;
 import com.facebook.presto.execution.scheduler.FixedSourcePartitionedScheduler.BucketedSplitPlacementPolicy;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.SplitContext;
 import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.split.EmptySplit;
@@ -40,6 +43,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
@@ -91,6 +95,7 @@ public class SourcePartitionedScheduler
     private final int splitBatchSize;
     private final PlanNodeId partitionedNode;
     private final boolean groupedExecution;
+    private final Supplier<TupleDomain<ColumnHandle>> dynamicFilter;
 
     // TODO: Add LIFESPAN_ADDED into SourcePartitionedScheduler#State and remove this boolean
     private boolean lifespanAdded;
@@ -106,7 +111,8 @@ public class SourcePartitionedScheduler
             SplitSource splitSource,
             SplitPlacementPolicy splitPlacementPolicy,
             int splitBatchSize,
-            boolean groupedExecution)
+            boolean groupedExecution,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
     {
         this.stage = requireNonNull(stage, "stage is null");
         this.partitionedNode = requireNonNull(partitionedNode, "partitionedNode is null");
@@ -116,6 +122,7 @@ public class SourcePartitionedScheduler
         checkArgument(splitBatchSize > 0, "splitBatchSize must be at least one");
         this.splitBatchSize = splitBatchSize;
         this.groupedExecution = groupedExecution;
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
     }
 
     public PlanNodeId getPlanNodeId()
@@ -137,7 +144,22 @@ public class SourcePartitionedScheduler
             SplitPlacementPolicy splitPlacementPolicy,
             int splitBatchSize)
     {
-        SourcePartitionedScheduler sourcePartitionedScheduler = new SourcePartitionedScheduler(stage, partitionedNode, splitSource, splitPlacementPolicy, splitBatchSize, false);
+        return newSourcePartitionedSchedulerAsStageScheduler(stage, partitionedNode, splitSource, splitPlacementPolicy, splitBatchSize, TupleDomain::all);
+    }
+
+    /**
+     * Same as {@link #newSourcePartitionedSchedulerAsStageScheduler(SqlStageExecution, PlanNodeId, SplitSource, SplitPlacementPolicy, int)},
+     * but splits that cannot match the dynamic filter are not scheduled, and the filter is attached to the remaining splits.
+     */
+    public static StageScheduler newSourcePartitionedSchedulerAsStageScheduler(
+            SqlStageExecution stage,
+            PlanNodeId partitionedNode,
+            SplitSource splitSource,
+            SplitPlacementPolicy splitPlacementPolicy,
+            int splitBatchSize,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
+    {
+        SourcePartitionedScheduler sourcePartitionedScheduler = new SourcePartitionedScheduler(stage, partitionedNode, splitSource, splitPlacementPolicy, splitBatchSize, false, dynamicFilter);
         sourcePartitionedScheduler.startLifespan(Lifespan.taskWide(), NOT_PARTITIONED);
 
         return new StageScheduler() {
@@ -176,7 +198,7 @@ public class SourcePartitionedScheduler
             int splitBatchSize,
             boolean groupedExecution)
     {
-        return new SourcePartitionedScheduler(stage, partitionedNode, splitSource, splitPlacementPolicy, splitBatchSize, groupedExecution);
+        return new SourcePartitionedScheduler(stage, partitionedNode, splitSource, splitPlacementPolicy, splitBatchSize, groupedExecution, TupleDomain::all);
     }
 
     @Override
@@ -229,7 +251,7 @@ public class SourcePartitionedScheduler
                 if (scheduleGroup.nextSplitBatchFuture.isDone()) {
                     SplitBatch nextSplits = getFutureValue(scheduleGroup.nextSplitBatchFuture);
                     scheduleGroup.nextSplitBatchFuture = null;
-                    scheduleGroup.pendingSplits = new HashSet<>(nextSplits.getSplits());
+                    scheduleGroup.pendingSplits = applyDynamicFilter(nextSplits.getSplits());
                     if (nextSplits.isLastBatch()) {
                         if (scheduleGroup.state == ScheduleGroupState.INITIALIZED && scheduleGroup.pendingSplits.isEmpty()) {
                             // Add an empty split in case no splits have been produced for the source.
@@ -384,6 +406,35 @@ public class SourcePartitionedScheduler
                 overallSplitAssignmentCount);
     }
 
+    private Set<Split> applyDynamicFilter(List<Split> splits)
+    {
+        TupleDomain<ColumnHandle> filter = dynamicFilter.get();
+        if (filter.isAll()) {
+            return new HashSet<>(splits);
+        }
+
+        Set<Split> filteredSplits = new HashSet<>();
+        if (filter.isNone()) {
+            // the build side of the join is empty
+            return filteredSplits;
+        }
+        for (Split split : splits) {
+            if (!split.getConnectorSplit().mayMatchDynamicFilter(filter)) {
+                continue;
+            }
+            TupleDomain<ColumnHandle> predicate = split.getSplitContext().getDynamicFilterPredicate()
+                    .map(filter::intersect)
+                    .orElse(filter);
+            filteredSplits.add(new Split(
+                    split.getConnectorId(),
+                    split.getTransactionHandle(),
+                    split.getConnectorSplit(),
+                    split.getLifespan(),
+                    new SplitContext(split.getSplitContext().isCacheable(), predicate)));
+        }
+        return filteredSplits;
+    }
+
     private synchronized void dropListenersFromWhenFinishedOrNewLifespansAdded()
     {
         // whenFinishedOrNewLifespanAdded may remain in a not-done state for an extended period of time.
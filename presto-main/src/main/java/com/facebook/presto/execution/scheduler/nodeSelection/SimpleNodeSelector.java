@@ -14,6 +14,7 @@
 package com.facebook.presto.execution.scheduler.nodeSelection;
 
 import com.facebook.airlift.log.Logger;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.execution.NodeTaskMap;
 import com.facebook.presto.execution.RemoteTask;
 import com.facebook.presto.execution.scheduler.BucketNodeMap;
@@ -24,6 +25,7 @@ import com.facebook.presto.execution.scheduler.SplitPlacementResult;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SplitContext;
@@ -161,12 +163,14 @@ public class SimpleNodeSelector
             }
 
             if (chosenNodeInfo.isPresent()) {
+                // results of splits pruned by dynamic filters of other stages are specific to this query
+                Optional<TupleDomain<ColumnHandle>> dynamicFilterPredicate = split.getSplitContext().getDynamicFilterPredicate();
                 split = new Split(
                         split.getConnectorId(),
                         split.getTransactionHandle(),
                         split.getConnectorSplit(),
                         split.getLifespan(),
-                        new SplitContext(chosenNodeInfo.get().isCacheable()));
+                        new SplitContext(chosenNodeInfo.get().isCacheable() && !dynamicFilterPredicate.isPresent(), dynamicFilterPredicate));
 
                 InternalNode chosenNode = chosenNodeInfo.get().getInternalNode();
                 assignment.put(chosenNode, split);
@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.google.common.base.Ticker;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Tunes the size of each exchange request and the number of requests in flight
+ * from the latency and bandwidth observed for every remote source.
+ * <p>
+ * The request size of a source grows additively while it returns full responses
+ * without inflated latency and is halved when latency inflates or the exchange
+ * buffer overflows. Latency and bandwidth are only sampled from full responses,
+ * as a partial response means the source held the request open while waiting for
+ * more data. The limit on requests in flight follows the same
+ * additive-increase/multiplicative-decrease rule against the buffer capacity.
+ * Sources that have delivered the fewest bytes are scheduled first so that slow
+ * upstream tasks do not fall behind the rest of the stage.
+ * <p>
+ * All methods must be called while holding the lock of the owning {@link ExchangeClient}.
+ */
+@NotThreadSafe
+class AdaptiveExchangeRequestController
+{
+    private static final long REQUEST_SIZE_INCREMENT_IN_BYTES = DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+    private static final double LATENCY_INFLATION_FACTOR = 2.0;
+    private static final long LATENCY_TOLERANCE_NANOS = MILLISECONDS.toNanos(50);
+
+    private final long bufferCapacity;
+    private final long minRequestSize;
+    private final long maxRequestSize;
+    private final int concurrentRequestMultiplier;
+    private final double alpha;
+    private final Ticker ticker;
+
+    private final Map<URI, SourceState> sources = new HashMap<>();
+
+    private int maxRequestsInFlight;
+    private int requestsInFlight;
+    private long expectedBytesInFlight;
+
+    public AdaptiveExchangeRequestController(long bufferCapacity, long maxRequestSize, int concurrentRequestMultiplier, double alpha, Ticker ticker)
+    {
+        checkArgument(bufferCapacity > 0, "bufferCapacity must be at least 1 byte: %s", bufferCapacity);
+        checkArgument(maxRequestSize > 0, "maxRequestSize must be at least 1 byte: %s", maxRequestSize);
+        checkArgument(concurrentRequestMultiplier > 0, "concurrentRequestMultiplier must be at least 1: %s", concurrentRequestMultiplier);
+        this.bufferCapacity = bufferCapacity;
+        this.maxRequestSize = maxRequestSize;
+        this.minRequestSize = min(maxRequestSize, DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
+        this.concurrentRequestMultiplier = concurrentRequestMultiplier;
+        this.alpha = alpha;
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        // start from the same number of requests the static heuristic would issue for an empty buffer
+        this.maxRequestsInFlight = (int) max(1, min(Integer.MAX_VALUE, bufferCapacity / DEFAULT_MAX_PAGE_SIZE_IN_BYTES * concurrentRequestMultiplier));
+    }
+
+    public void addSource(URI location)
+    {
+        requireNonNull(location, "location is null");
+        sources.putIfAbsent(location, new SourceState(min(maxRequestSize, 2 * DEFAULT_MAX_PAGE_SIZE_IN_BYTES)));
+    }
+
+    public void removeSource(URI location)
+    {
+        SourceState state = sources.remove(location);
+        if (state != null) {
+            finishRequest(state);
+        }
+    }
+
+    public boolean canScheduleRequest(long neededBytes)
+    {
+        if (requestsInFlight == 0) {
+            // always keep at least one request running so the exchange makes progress
+            return true;
+        }
+        return requestsInFlight < maxRequestsInFlight && expectedBytesInFlight < neededBytes * concurrentRequestMultiplier;
+    }
+
+    /**
+     * Records that a request is about to be sent to the source and returns the maximum response size to ask for.
+     */
+    public long requestScheduled(URI location)
+    {
+        SourceState state = getSourceState(location);
+        if (state.requestStartNanos < 0) {
+            state.requestStartNanos = ticker.read();
+            state.expectedBytes = min(state.requestSize, max(1, (long) state.expectedResponseSize));
+            requestsInFlight++;
+            expectedBytesInFlight += state.expectedBytes;
+        }
+        return state.requestSize;
+    }
+
+    public void responseReceived(URI location, long responseSize, long bufferRetainedSizeInBytes)
+    {
+        SourceState state = sources.get(location);
+        if (state == null || state.requestStartNanos < 0) {
+            return;
+        }
+
+        long latencyNanos = max(1, ticker.read() - state.requestStartNanos);
+        long requestedSize = state.requestSize;
+        state.bytesReceived += responseSize;
+        state.expectedResponseSize += alpha * (responseSize - state.expectedResponseSize);
+        finishRequest(state);
+
+        if (bufferRetainedSizeInBytes > bufferCapacity) {
+            // the consumer is not keeping up: back off both the size and the number of requests
+            state.requestSize = max(minRequestSize, state.requestSize / 2);
+            maxRequestsInFlight = max(1, maxRequestsInFlight / 2);
+            return;
+        }
+
+        if (responseSize == 0) {
+            // empty responses are long polls on an idle buffer and say nothing about the network
+            return;
+        }
+
+        if (responseSize < requestedSize / 2) {
+            // the source ran out of data before filling the response, so the latency includes the time it waited for more
+            return;
+        }
+
+        state.bandwidth += alpha * ((responseSize * 1_000_000_000.0 / latencyNanos) - state.bandwidth);
+        state.minLatencyNanos = min(state.minLatencyNanos, latencyNanos);
+
+        if (latencyNanos > state.minLatencyNanos * LATENCY_INFLATION_FACTOR + LATENCY_TOLERANCE_NANOS) {
+            // latency grew beyond what the transfer itself explains, the path to this source is congested
+            state.requestSize = max(minRequestSize, state.requestSize / 2);
+        }
+        else {
+            // the source had more data ready than we asked for
+            state.requestSize = min(maxRequestSize, state.requestSize + REQUEST_SIZE_INCREMENT_IN_BYTES);
+            if (bufferRetainedSizeInBytes < bufferCapacity / 2) {
+                maxRequestsInFlight = max(1, min(sources.size(), maxRequestsInFlight + 1));
+            }
+        }
+    }
+
+    public void requestFinished(URI location)
+    {
+        SourceState state = sources.get(location);
+        if (state != null) {
+            finishRequest(state);
+        }
+    }
+
+    public long getBytesReceived(URI location)
+    {
+        SourceState state = sources.get(location);
+        return state == null ? 0 : state.bytesReceived;
+    }
+
+    public long getRequestSize(URI location)
+    {
+        return getSourceState(location).requestSize;
+    }
+
+    public long getAverageRequestSize()
+    {
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (SourceState state : sources.values()) {
+            total += state.requestSize;
+        }
+        return total / sources.size();
+    }
+
+    public long getAverageBandwidth()
+    {
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        double total = 0;
+        for (SourceState state : sources.values()) {
+            total += state.bandwidth;
+        }
+        return (long) (total / sources.size());
+    }
+
+    public int getMaxRequestsInFlight()
+    {
+        return maxRequestsInFlight;
+    }
+
+    public int getRequestsInFlight()
+    {
+        return requestsInFlight;
+    }
+
+    private void finishRequest(SourceState state)
+    {
+        if (state.requestStartNanos < 0) {
+            return;
+        }
+        state.requestStartNanos = -1;
+        requestsInFlight--;
+        expectedBytesInFlight -= state.expectedBytes;
+        state.expectedBytes = 0;
+    }
+
+    private SourceState getSourceState(URI location)
+    {
+        SourceState state = sources.get(location);
+        checkState(state != null, "Unknown source: %s", location);
+        return state;
+    }
+
+    private static class SourceState
+    {
+        private long requestSize;
+        private double expectedResponseSize = DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+        private double bandwidth;
+        private long bytesReceived;
+        private long minLatencyNanos = Long.MAX_VALUE;
+        private long requestStartNanos = -1;
+        private long expectedBytes;
+
+        public SourceState(long requestSize)
+        {
+            this.requestSize = requestSize;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.util.Optional;
+
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link JoinHash} counterpart backed by a {@link BigintPagesHash}. Probes read the key
+ * straight from the probe block, so the raw hash computed by the probe side is not needed.
+ */
+public final class BigintJoinHash
+        implements LookupSource
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BigintJoinHash.class).instanceSize();
+    private final BigintPagesHash pagesHash;
+    private final Type keyType;
+
+    // we unwrap Optional<JoinFilterFunction> to actual verifier or null in constructor for performance reasons
+    @Nullable
+    private final JoinFilterFunction filterFunction;
+
+    // we unwrap Optional<PositionLinks> to actual position links or null in constructor for performance reasons
+    @Nullable
+    private final PositionLinks positionLinks;
+
+    // reused between calls of getJoinPositions
+    private long[] values = new long[0];
+
+    public BigintJoinHash(BigintPagesHash pagesHash, Type keyType, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
+    {
+        this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
+        this.keyType = requireNonNull(keyType, "keyType is null");
+        this.filterFunction = requireNonNull(filterFunction, "filterFunction can not be null").orElse(null);
+        this.positionLinks = requireNonNull(positionLinks, "positionLinks is null").orElse(null);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return getJoinPositionCount() == 0;
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return pagesHash.getChannelCount();
+    }
+
+    @Override
+    public long getJoinPositionCount()
+    {
+        return pagesHash.getPositionCount();
+    }
+
+    @Override
+    public long getInMemorySizeInBytes()
+    {
+        return INSTANCE_SIZE + pagesHash.getInMemorySizeInBytes() + (positionLinks == null ? 0 : positionLinks.getSizeInBytes());
+    }
+
+    @Override
+    public long joinPositionWithinPartition(long joinPosition)
+    {
+        return joinPosition;
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage)
+    {
+        Block keyBlock = hashChannelsPage.getBlock(0);
+        if (keyBlock.isNull(position)) {
+            return -1;
+        }
+        int addressIndex = pagesHash.getAddressIndex(keyType.getLong(keyBlock, position));
+        return startJoinPosition(addressIndex, position, allChannelsPage);
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage, long rawHash)
+    {
+        return getJoinPosition(position, hashChannelsPage, allChannelsPage);
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] joinPositions)
+    {
+        getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, joinPositions);
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] joinPositions)
+    {
+        if (values.length < positionCount) {
+            values = new long[positionCount];
+        }
+        Block keyBlock = hashChannelsPage.getBlock(0);
+        for (int i = 0; i < positionCount; i++) {
+            if (!keyBlock.isNull(positions[i])) {
+                values[i] = keyType.getLong(keyBlock, positions[i]);
+            }
+        }
+        pagesHash.getAddressIndexes(values, positionCount, joinPositions);
+        for (int i = 0; i < positionCount; i++) {
+            if (keyBlock.isNull(positions[i])) {
+                joinPositions[i] = -1;
+            }
+            else {
+                joinPositions[i] = startJoinPosition(toIntExact(joinPositions[i]), positions[i], allChannelsPage);
+            }
+        }
+    }
+
+    private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+    {
+        if (currentJoinPosition == -1) {
+            return -1;
+        }
+        if (positionLinks == null) {
+            return currentJoinPosition;
+        }
+        return positionLinks.start(currentJoinPosition, probePosition, allProbeChannelsPage);
+    }
+
+    @Override
+    public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+    {
+        if (positionLinks == null) {
+            return -1;
+        }
+        return positionLinks.next(toIntExact(currentJoinPosition), probePosition, allProbeChannelsPage);
+    }
+
+    @Override
+    public boolean isJoinPositionEligible(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+    {
+        return filterFunction == null || filterFunction.filter(toIntExact(currentJoinPosition), probePosition, allProbeChannelsPage);
+    }
+
+    @Override
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        pagesHash.appendTo(toIntExact(position), pageBuilder, outputChannelOffset);
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.array.AdaptiveLongBigArray;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.HashCommon;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
+import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Variant of {@link PagesHash} for a single join key whose values are compared as raw longs
+ * (BIGINT, INTEGER, SMALLINT, TINYINT and DATE). The key values are copied into a flat array
+ * next to the build positions, so a probe compares longs in the table itself instead of
+ * decoding a synthetic address and reading the build side block for every candidate slot.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public final class BigintPagesHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BigintPagesHash.class).instanceSize();
+    private final AdaptiveLongBigArray addresses;
+    private final int positionCount;
+    private final PagesHashStrategy pagesHashStrategy;
+
+    private final int channelCount;
+    private final int mask;
+    // keys[slot] is only valid if positions[slot] != -1
+    private final long[] keys;
+    private final int[] positions;
+    private final long size;
+
+    private final long hashCollisions;
+    private final double expectedHashCollisions;
+
+    public BigintPagesHash(
+            AdaptiveLongBigArray addresses,
+            int positionCount,
+            PagesHashStrategy pagesHashStrategy,
+            Type keyType,
+            List<Block> keyBlocks,
+            PositionLinks.FactoryBuilder positionLinks)
+    {
+        this.addresses = requireNonNull(addresses, "addresses is null");
+        this.positionCount = positionCount;
+        this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
+        this.channelCount = pagesHashStrategy.getChannelCount();
+        requireNonNull(keyType, "keyType is null");
+        Block[] keyBlockArray = ImmutableList.copyOf(requireNonNull(keyBlocks, "keyBlocks is null")).toArray(new Block[0]);
+
+        int hashSize = HashCommon.arraySize(positionCount, 0.75f);
+        mask = hashSize - 1;
+        keys = new long[hashSize];
+        positions = new int[hashSize];
+        Arrays.fill(positions, -1);
+
+        long hashCollisionsLocal = 0;
+        for (int position = 0; position < positionCount; position++) {
+            long pageAddress = addresses.get(position);
+            Block block = keyBlockArray[decodeSliceIndex(pageAddress)];
+            int blockPosition = decodePosition(pageAddress);
+            if (block.isNull(blockPosition)) {
+                continue;
+            }
+
+            long value = keyType.getLong(block, blockPosition);
+            int slot = getHashPosition(value, mask);
+            int linkedPosition = position;
+
+            // look for an empty slot or a slot containing this key
+            while (positions[slot] != -1) {
+                if (keys[slot] == value) {
+                    // link the new key position to the current key position
+                    linkedPosition = positionLinks.link(position, positions[slot]);
+                    break;
+                }
+                // increment position and mask to handle wrap around
+                slot = (slot + 1) & mask;
+                hashCollisionsLocal++;
+            }
+
+            keys[slot] = value;
+            positions[slot] = linkedPosition;
+        }
+
+        size = addresses.getRetainedSizeInBytes() + pagesHashStrategy.getSizeInBytes() + sizeOf(keys) + sizeOf(positions);
+        hashCollisions = hashCollisionsLocal;
+        expectedHashCollisions = estimateNumberOfHashCollisions(positionCount, hashSize);
+    }
+
+    public int getChannelCount()
+    {
+        return channelCount;
+    }
+
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    public long getInMemorySizeInBytes()
+    {
+        return INSTANCE_SIZE + size;
+    }
+
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions;
+    }
+
+    public int getAddressIndex(long value)
+    {
+        int slot = getHashPosition(value, mask);
+        while (true) {
+            int position = positions[slot];
+            if (position == -1 || keys[slot] == value) {
+                return position;
+            }
+            // increment position and mask to handle wrap around
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Stores the address index of {@code values[i]} in {@code addressIndexes[i]}, computing the initial
+     * slots of all values before comparing any of them.
+     */
+    public void getAddressIndexes(long[] values, int valueCount, long[] addressIndexes)
+    {
+        for (int i = 0; i < valueCount; i++) {
+            addressIndexes[i] = getHashPosition(values[i], mask);
+        }
+
+        for (int i = 0; i < valueCount; i++) {
+            long value = values[i];
+            int slot = (int) addressIndexes[i];
+            while (positions[slot] != -1 && keys[slot] != value) {
+                // increment position and mask to handle wrap around
+                slot = (slot + 1) & mask;
+            }
+            addressIndexes[i] = positions[slot];
+        }
+    }
+
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        long pageAddress = addresses.get(toIntExact(position));
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        pagesHashStrategy.appendTo(blockIndex, blockPosition, pageBuilder, outputChannelOffset);
+    }
+
+    private static int getHashPosition(long value, long mask)
+    {
+        // finalisation step of MurmurHash3, see PagesHash#getHashPosition
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+
+        return (int) (value & mask);
+    }
+}
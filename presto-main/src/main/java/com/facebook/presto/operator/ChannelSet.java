@@ -14,16 +14,21 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.UnknownType.UNKNOWN;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static java.util.Objects.requireNonNull;
@@ -75,6 +80,8 @@ public class ChannelSet
     {
         private static final int[] HASH_CHANNELS = {0};
 
+        private final Type type;
+        private final Optional<Integer> hashChannel;
         private final GroupByHash hash;
         private final Page nullBlockPage;
         private final OperatorContext operatorContext;
@@ -82,6 +89,13 @@ public class ChannelSet
 
         public ChannelSetBuilder(Type type, Optional<Integer> hashChannel, int expectedPositions, OperatorContext operatorContext, JoinCompiler joinCompiler)
         {
+            this(type, hashChannel, expectedPositions, operatorContext, joinCompiler, operatorContext.localUserMemoryContext());
+        }
+
+        public ChannelSetBuilder(Type type, Optional<Integer> hashChannel, int expectedPositions, OperatorContext operatorContext, JoinCompiler joinCompiler, LocalMemoryContext localMemoryContext)
+        {
+            this.type = requireNonNull(type, "type is null");
+            this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             List<Type> types = ImmutableList.of(type);
             this.hash = createGroupByHash(
                     types,
@@ -93,12 +107,52 @@ public class ChannelSet
                     this::updateMemoryReservation);
             this.nullBlockPage = new Page(type.createBlockBuilder(null, 1, UNKNOWN.getFixedSize()).appendNull().build());
             this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
-            this.localMemoryContext = operatorContext.localUserMemoryContext();
+            this.localMemoryContext = requireNonNull(localMemoryContext, "localMemoryContext is null");
         }
 
         public ChannelSet build()
         {
-            return new ChannelSet(hash, hash.contains(0, nullBlockPage, HASH_CHANNELS), HASH_CHANNELS);
+            return new ChannelSet(hash, containsNull(), HASH_CHANNELS);
+        }
+
+        public boolean containsNull()
+        {
+            return hash.contains(0, nullBlockPage, HASH_CHANNELS);
+        }
+
+        /**
+         * Returns the values added so far, in the layout of the pages passed to {@link #addPage(Page)}.
+         */
+        public Iterator<Page> getValues()
+        {
+            PageBuilder pageBuilder = new PageBuilder(hashChannel.isPresent() ? ImmutableList.of(type, BIGINT) : ImmutableList.of(type));
+            return new AbstractIterator<Page>()
+            {
+                private int groupId;
+
+                @Override
+                protected Page computeNext()
+                {
+                    if (groupId == hash.getGroupCount()) {
+                        return endOfData();
+                    }
+
+                    pageBuilder.reset();
+                    while (!pageBuilder.isFull() && groupId < hash.getGroupCount()) {
+                        hash.appendValuesTo(groupId, pageBuilder, 0);
+                        if (hashChannel.isPresent()) {
+                            // some implementations already output the raw hash along with the value
+                            BlockBuilder hashBlockBuilder = pageBuilder.getBlockBuilder(1);
+                            if (hashBlockBuilder.getPositionCount() == pageBuilder.getPositionCount()) {
+                                BIGINT.writeLong(hashBlockBuilder, hash.getRawHash(groupId));
+                            }
+                        }
+                        pageBuilder.declarePosition();
+                        groupId++;
+                    }
+                    return pageBuilder.build();
+                }
+            };
         }
 
         public long getEstimatedSize()
@@ -393,9 +393,8 @@ public class Driver
                 Iterator<Page> remainingPages = cachedResult.get().get();
                 Operator outputOperator = activeOperators.get(activeOperators.size() - 1);
                 if (remainingPages.hasNext()) {
-                    Page outputPage = remainingPages.next();
-                    outputPages.add(outputPage);
-                    outputOperator.addInput(outputPage);
+                    // the cached pages are passed through, outputPages is only used to populate the cache
+                    outputOperator.addInput(remainingPages.next());
                 }
                 else {
                     outputOperator.finish();
@@ -560,6 +559,7 @@ public class Driver
         Throwable inFlightException = null;
         try {
             inFlightException = closeAndDestroyOperators(activeOperators);
+            inFlightException = closeCachedResult(inFlightException);
             if (driverContext.getMemoryUsage() > 0) {
                 log.error("Driver still has memory reserved after freeing all operator memory.");
             }
@@ -587,6 +587,25 @@ public class Driver
         }
     }
 
+    private Throwable closeCachedResult(Throwable inFlightException)
+    {
+        // the cached result holds an open file until it is read to the end
+        Optional<Iterator<Page>> remainingPages = cachedResult.getAndSet(Optional.empty());
+        if (remainingPages.isPresent() && remainingPages.get() instanceof Closeable) {
+            try {
+                ((Closeable) remainingPages.get()).close();
+            }
+            catch (Throwable t) {
+                return addSuppressedException(
+                        inFlightException,
+                        t,
+                        "Error closing cached result for task %s",
+                        driverContext.getTaskId());
+            }
+        }
+        return inFlightException;
+    }
+
     private Throwable closeAndDestroyOperators(List<Operator> operators)
     {
         // record the current interrupted status (and clear the flag); we'll reset it later
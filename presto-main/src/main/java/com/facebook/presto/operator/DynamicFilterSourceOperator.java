@@ -16,25 +16,41 @@ package com.facebook.presto.operator;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeUtils;
+import com.facebook.presto.common.type.VarcharType;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 
 import javax.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toSet;
 
@@ -42,6 +58,9 @@ import static java.util.stream.Collectors.toSet;
  * This operator acts as a simple "pass-through" pipe, while saving its input pages.
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We support only small build-side pages (which should be the case when using "broadcast" join).
+ * <p>
+ * When the build side exceeds the limits, the values of integer-like and string-like channels
+ * are summarized by a fixed size bloom filter and a min/max range instead.
  */
 public class DynamicFilterSourceOperator
         implements Operator
@@ -82,10 +101,11 @@ public class DynamicFilterSourceOperator
     {
         private final int operatorId;
         private final PlanNodeId planNodeId;
-        private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+        private final BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> dynamicPredicateConsumer;
         private final List<Channel> channels;
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
+        private final DataSize bloomFilterSize;
 
         private boolean closed;
 
@@ -96,6 +116,28 @@ public class DynamicFilterSourceOperator
                 List<Channel> channels,
                 int maxFilterPositionsCount,
                 DataSize maxFilterSize)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    ignoreBloomFilters(dynamicPredicateConsumer),
+                    channels,
+                    maxFilterPositionsCount,
+                    maxFilterSize,
+                    new DataSize(0, BYTE));
+        }
+
+        /**
+         * @param bloomFilterSize size of the bloom filter of each channel, or zero to disable them
+         */
+        public DynamicFilterSourceOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> dynamicPredicateConsumer,
+                List<Channel> channels,
+                int maxFilterPositionsCount,
+                DataSize maxFilterSize,
+                DataSize bloomFilterSize)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -109,6 +151,13 @@ public class DynamicFilterSourceOperator
                     "duplicate channel indices are not allowed");
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
+            this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
+        }
+
+        private static BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> ignoreBloomFilters(Consumer<TupleDomain<String>> dynamicPredicateConsumer)
+        {
+            requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+            return (tupleDomain, bloomFilters) -> dynamicPredicateConsumer.accept(tupleDomain);
         }
 
         @Override
@@ -121,7 +170,8 @@ public class DynamicFilterSourceOperator
                     channels,
                     planNodeId,
                     maxFilterPositionsCount,
-                    maxFilterSize);
+                    maxFilterSize,
+                    bloomFilterSize);
         }
 
         @Override
@@ -139,9 +189,11 @@ public class DynamicFilterSourceOperator
     }
 
     private final OperatorContext context;
-    private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+    private final LocalMemoryContext memoryContext;
+    private final BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> dynamicPredicateConsumer;
     private final int maxFilterPositionsCount;
     private final long maxFilterSizeInBytes;
+    private final int bloomFilterSizeInBytes;
     private final List<Channel> channels;
 
     private boolean finished;
@@ -153,17 +205,26 @@ public class DynamicFilterSourceOperator
     @Nullable
     private TypedSet[] valueSets;
 
+    // Used instead of the value sets once the predicate becomes too large, null for channels without a bloom filter.
+    @Nullable
+    private BloomFilter[] bloomFilters;
+    @Nullable
+    private ValueRange[] valueRanges;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
-            Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+            BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> dynamicPredicateConsumer,
             List<Channel> channels,
             PlanNodeId planNodeId,
             int maxFilterPositionsCount,
-            DataSize maxFilterSize)
+            DataSize maxFilterSize,
+            DataSize bloomFilterSize)
     {
         this.context = requireNonNull(context, "context is null");
+        this.memoryContext = context.localUserMemoryContext();
         this.maxFilterPositionsCount = maxFilterPositionsCount;
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
+        this.bloomFilterSizeInBytes = toIntExact(bloomFilterSize.toBytes());
 
         this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
         this.channels = requireNonNull(channels, "channels is null");
@@ -199,11 +260,14 @@ public class DynamicFilterSourceOperator
     {
         verify(!finished, "DynamicFilterSourceOperator: addInput() shouldn't not be called after finish()");
         current = page;
+        if (bloomFilters != null) {
+            addToBloomFilters(page);
+            return;
+        }
         if (valueSets == null) {
             return;  // the predicate became too large.
         }
 
-        // TODO: we should account for the memory used for collecting build-side values using MemoryContext
         long filterSizeInBytes = 0;
         int filterPositionsCount = 0;
         // Collect only the columns which are relevant for the JOIN.
@@ -219,16 +283,97 @@ public class DynamicFilterSourceOperator
         if (filterPositionsCount > maxFilterPositionsCount || filterSizeInBytes > maxFilterSizeInBytes) {
             // The whole filter (summed over all columns) contains too much values or exceeds maxFilterSizeInBytes.
             handleTooLargePredicate();
+            return;
         }
+        memoryContext.setBytes(filterSizeInBytes);
     }
 
     private void handleTooLargePredicate()
     {
+        if (bloomFilterSizeInBytes > 0 && channels.stream().map(Channel::getType).anyMatch(DynamicFilterSourceOperator::isBloomFilterSupported)) {
+            switchToBloomFilters();
+            return;
+        }
         // The resulting predicate is too large, allow all probe-side values to be read.
-        dynamicPredicateConsumer.accept(TupleDomain.all());
+        dynamicPredicateConsumer.accept(TupleDomain.all(), ImmutableMap.of());
         // Drop references to collected values.
         valueSets = null;
         blockBuilders = null;
+        memoryContext.setBytes(0);
+    }
+
+    private void switchToBloomFilters()
+    {
+        verify(blockBuilders != null, "blockBuilders is null when switching to bloom filters in DynamicFilterSourceOperator");
+        bloomFilters = new BloomFilter[channels.size()];
+        valueRanges = new ValueRange[channels.size()];
+        long bloomFiltersSizeInBytes = 0;
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            if (isBloomFilterSupported(channels.get(channelIndex).getType())) {
+                bloomFilters[channelIndex] = new BloomFilter(bloomFilterSizeInBytes);
+                valueRanges[channelIndex] = new ValueRange();
+                bloomFiltersSizeInBytes += bloomFilters[channelIndex].getRetainedSizeInBytes();
+            }
+        }
+        memoryContext.setBytes(bloomFiltersSizeInBytes);
+
+        // The value sets hold the distinct values of all pages seen so far.
+        Block[] blocks = new Block[channels.size()];
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            blocks[channelIndex] = blockBuilders[channelIndex].build();
+        }
+        valueSets = null;
+        blockBuilders = null;
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            addToBloomFilter(channelIndex, blocks[channelIndex]);
+        }
+    }
+
+    private void addToBloomFilters(Page page)
+    {
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            addToBloomFilter(channelIndex, page.getBlock(channels.get(channelIndex).getIndex()));
+        }
+    }
+
+    private void addToBloomFilter(int channelIndex, Block block)
+    {
+        BloomFilter bloomFilter = bloomFilters[channelIndex];
+        if (bloomFilter == null) {
+            return;
+        }
+        Type type = channels.get(channelIndex).getType();
+        ValueRange valueRange = valueRanges[channelIndex];
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            if (block.isNull(position)) {
+                continue;
+            }
+            if (type.getJavaType() == long.class) {
+                long value = type.getLong(block, position);
+                bloomFilter.put(value);
+                valueRange.add(value);
+            }
+            else {
+                Slice value = type.getSlice(block, position);
+                bloomFilter.put(value);
+                valueRange.add(value);
+            }
+        }
+    }
+
+    /**
+     * Whether the values of the type are read as the same longs or bytes by the table scan
+     * filters, so that the scan can test them against a bloom filter.
+     */
+    private static boolean isBloomFilterSupported(Type type)
+    {
+        return type.equals(BIGINT)
+                || type.equals(INTEGER)
+                || type.equals(SMALLINT)
+                || type.equals(TINYINT)
+                || type.equals(DATE)
+                || type instanceof VarcharType
+                || type.equals(VARBINARY);
     }
 
     @Override
@@ -247,6 +392,10 @@ public class DynamicFilterSourceOperator
             return;
         }
         finished = true;
+        if (bloomFilters != null) {
+            finishBloomFilters();
+            return;
+        }
         if (valueSets == null) {
             return; // the predicate became too large.
         }
@@ -260,7 +409,29 @@ public class DynamicFilterSourceOperator
         }
         valueSets = null;
         blockBuilders = null;
-        dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()));
+        memoryContext.setBytes(0);
+        dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()), ImmutableMap.of());
+    }
+
+    private void finishBloomFilters()
+    {
+        ImmutableMap.Builder<String, Domain> domainsBuilder = ImmutableMap.builder();
+        ImmutableMap.Builder<String, BloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            String filterId = channels.get(channelIndex).getFilterId();
+            Type type = channels.get(channelIndex).getType();
+            if (bloomFilters[channelIndex] == null) {
+                // Channels without a bloom filter do not constrain the probe side.
+                continue;
+            }
+            domainsBuilder.put(filterId, valueRanges[channelIndex].toDomain(type));
+            bloomFiltersBuilder.put(filterId, bloomFilters[channelIndex]);
+        }
+        bloomFilters = null;
+        valueRanges = null;
+        // the consumer accounts for the memory of the bloom filters from now on, see LocalDynamicFilter
+        dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()), bloomFiltersBuilder.build());
+        memoryContext.setBytes(0);
     }
 
     private Domain convertToDomain(Type type, Block block)
@@ -281,4 +452,52 @@ public class DynamicFilterSourceOperator
     {
         return current == null && finished;
     }
+
+    @Override
+    public void close()
+    {
+        memoryContext.setBytes(0);
+    }
+
+    private static class ValueRange
+    {
+        private long minLong = Long.MAX_VALUE;
+        private long maxLong = Long.MIN_VALUE;
+        @Nullable
+        private Slice minSlice;
+        @Nullable
+        private Slice maxSlice;
+        private boolean empty = true;
+
+        public void add(long value)
+        {
+            minLong = Math.min(minLong, value);
+            maxLong = Math.max(maxLong, value);
+            empty = false;
+        }
+
+        public void add(Slice value)
+        {
+            // copy the values so they do not retain the input blocks
+            if (minSlice == null || value.compareTo(minSlice) < 0) {
+                minSlice = Slices.copyOf(value);
+            }
+            if (maxSlice == null || value.compareTo(maxSlice) > 0) {
+                maxSlice = Slices.copyOf(value);
+            }
+            empty = false;
+        }
+
+        public Domain toDomain(Type type)
+        {
+            if (empty) {
+                return Domain.none(type);
+            }
+            Range range = type.getJavaType() == long.class
+                    ? Range.range(type, minLong, true, maxLong, true)
+                    : Range.range(type, minSlice, true, maxSlice, true);
+            // Inner and right join doesn't match rows with null key column values.
+            return Domain.create(ValueSet.ofRanges(range), false);
+        }
+    }
 }
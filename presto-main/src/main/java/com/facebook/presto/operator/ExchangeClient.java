@@ -24,6 +24,7 @@ import com.facebook.presto.server.thrift.ThriftTaskClient;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.page.PageCodecMarker;
 import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -38,6 +39,7 @@ import java.io.Closeable;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -119,6 +121,8 @@ public class ExchangeClient
     private long successfulRequests;
     @GuardedBy("this")
     private final ExponentialMovingAverage responseSizeExponentialMovingAverage;
+    @GuardedBy("this")
+    private final Optional<AdaptiveExchangeRequestController> adaptiveRequestController;
 
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
@@ -136,6 +140,7 @@ public class ExchangeClient
             boolean acknowledgePages,
             boolean asyncPageTransportEnabled,
             double responseSizeExponentialMovingAverageDecayingAlpha,
+            boolean adaptiveRequestSizingEnabled,
             HttpClient httpClient,
             DriftClient<ThriftTaskClient> driftClient,
             ScheduledExecutorService scheduler,
@@ -156,6 +161,17 @@ public class ExchangeClient
         this.maxBufferRetainedSizeInBytes = Long.MIN_VALUE;
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
         this.responseSizeExponentialMovingAverage = new ExponentialMovingAverage(responseSizeExponentialMovingAverageDecayingAlpha, DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
+        if (adaptiveRequestSizingEnabled) {
+            this.adaptiveRequestController = Optional.of(new AdaptiveExchangeRequestController(
+                    this.bufferCapacity,
+                    maxResponseSize.toBytes(),
+                    concurrentRequestMultiplier,
+                    responseSizeExponentialMovingAverageDecayingAlpha,
+                    Ticker.systemTicker()));
+        }
+        else {
+            this.adaptiveRequestController = Optional.empty();
+        }
     }
 
     public ExchangeClientStatus getStatus()
@@ -173,7 +189,30 @@ public class ExchangeClient
             if (bufferedPages > 0 && pageBuffer.peekLast() == NO_MORE_PAGES) {
                 bufferedPages--;
             }
-            return new ExchangeClientStatus(bufferRetainedSizeInBytes, maxBufferRetainedSizeInBytes, responseSizeExponentialMovingAverage.get(), successfulRequests, bufferedPages, noMoreLocations, pageBufferClientStatus);
+            long averageRequestSize;
+            long averageSourceBandwidth;
+            int maxRequestsInFlight;
+            if (adaptiveRequestController.isPresent()) {
+                averageRequestSize = adaptiveRequestController.get().getAverageRequestSize();
+                averageSourceBandwidth = adaptiveRequestController.get().getAverageBandwidth();
+                maxRequestsInFlight = adaptiveRequestController.get().getMaxRequestsInFlight();
+            }
+            else {
+                averageRequestSize = getStaticRequestSize();
+                averageSourceBandwidth = 0;
+                maxRequestsInFlight = 0;
+            }
+            return new ExchangeClientStatus(
+                    bufferRetainedSizeInBytes,
+                    maxBufferRetainedSizeInBytes,
+                    responseSizeExponentialMovingAverage.get(),
+                    successfulRequests,
+                    bufferedPages,
+                    noMoreLocations,
+                    averageRequestSize,
+                    averageSourceBandwidth,
+                    maxRequestsInFlight,
+                    pageBufferClientStatus);
         }
     }
 
@@ -225,6 +264,7 @@ public class ExchangeClient
         allClients.put(location, client);
         checkState(taskIdToLocationMap.put(remoteSourceTaskId, location) == null, "Duplicate remoteSourceTaskId: " + remoteSourceTaskId);
         queuedClients.add(client);
+        adaptiveRequestController.ifPresent(controller -> controller.addSource(location));
 
         scheduleRequestIfNecessary();
     }
@@ -253,6 +293,7 @@ public class ExchangeClient
         closeQuietly(client);
         removedClients.add(client);
         completedClients.add(client);
+        adaptiveRequestController.ifPresent(controller -> controller.removeSource(location));
     }
 
     public synchronized void noMoreLocations()
@@ -372,6 +413,12 @@ public class ExchangeClient
         if (neededBytes <= 0) {
             return;
         }
+
+        if (adaptiveRequestController.isPresent()) {
+            scheduleAdaptiveRequests(adaptiveRequestController.get(), neededBytes);
+            return;
+        }
+
         long averageResponseSize = max(1, responseSizeExponentialMovingAverage.get());
         int clientCount = (int) ((1.0 * neededBytes / averageResponseSize) * concurrentRequestMultiplier);
         clientCount = max(clientCount, 1);
@@ -390,12 +437,66 @@ public class ExchangeClient
                 continue;
             }
 
-            DataSize max = new DataSize(min(averageResponseSize * 2, maxResponseSize.toBytes()), BYTE);
+            DataSize max = new DataSize(getStaticRequestSize(), BYTE);
             client.scheduleRequest(max);
             i++;
         }
     }
 
+    @GuardedBy("this")
+    private void scheduleAdaptiveRequests(AdaptiveExchangeRequestController controller, long neededBytes)
+    {
+        while (controller.canScheduleRequest(neededBytes)) {
+            PageBufferClient client = pollLaggingClient(controller);
+            if (client == null) {
+                // no more clients available
+                return;
+            }
+
+            if (removedClients.contains(client)) {
+                continue;
+            }
+
+            long requestSize = controller.requestScheduled(client.getLocation());
+            client.scheduleRequest(new DataSize(requestSize, BYTE));
+        }
+    }
+
+    /**
+     * Removes and returns the queued client that has delivered the fewest bytes so far,
+     * so that requests go to the sources that are falling behind first.
+     */
+    @GuardedBy("this")
+    private PageBufferClient pollLaggingClient(AdaptiveExchangeRequestController controller)
+    {
+        PageBufferClient laggingClient = null;
+        long laggingBytes = Long.MAX_VALUE;
+        for (PageBufferClient client : queuedClients) {
+            long bytesReceived = controller.getBytesReceived(client.getLocation());
+            if (bytesReceived < laggingBytes) {
+                laggingClient = client;
+                laggingBytes = bytesReceived;
+            }
+        }
+        if (laggingClient != null) {
+            Iterator<PageBufferClient> iterator = queuedClients.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next() == laggingClient) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+        return laggingClient;
+    }
+
+    @GuardedBy("this")
+    private long getStaticRequestSize()
+    {
+        long averageResponseSize = max(1, responseSizeExponentialMovingAverage.get());
+        return min(averageResponseSize * 2, maxResponseSize.toBytes());
+    }
+
     public ListenableFuture<?> isBlocked()
     {
         // Fast path return without synchronizing
@@ -413,7 +514,7 @@ public class ExchangeClient
         }
     }
 
-    private boolean addPages(List<SerializedPage> pages)
+    private boolean addPages(PageBufferClient client, List<SerializedPage> pages)
     {
         // Compute stats before acquiring the lock
         long pagesRetainedSizeInBytes = 0;
@@ -443,6 +544,9 @@ public class ExchangeClient
 
             successfulRequests++;
             responseSizeExponentialMovingAverage.update(responseSize);
+            if (adaptiveRequestController.isPresent()) {
+                adaptiveRequestController.get().responseReceived(client.getLocation(), responseSize, bufferRetainedSizeInBytes);
+            }
         }
         // Trigger notifications after releasing the lock
         notifyListeners(notify);
@@ -473,6 +577,7 @@ public class ExchangeClient
         if (!queuedClients.contains(client)) {
             queuedClients.add(client);
         }
+        adaptiveRequestController.ifPresent(controller -> controller.requestFinished(client.getLocation()));
         scheduleRequestIfNecessary();
     }
 
@@ -480,6 +585,7 @@ public class ExchangeClient
     {
         requireNonNull(client, "client is null");
         completedClients.add(client);
+        adaptiveRequestController.ifPresent(controller -> controller.requestFinished(client.getLocation()));
         scheduleRequestIfNecessary();
     }
 
@@ -520,7 +626,7 @@ public class ExchangeClient
         {
             requireNonNull(client, "client is null");
             requireNonNull(pages, "pages is null");
-            return ExchangeClient.this.addPages(pages);
+            return ExchangeClient.this.addPages(client, pages);
         }
 
         @Override
@@ -32,6 +32,9 @@ public class ExchangeClientStatus
     private final long successfulRequestsCount;
     private final int bufferedPages;
     private final boolean noMoreLocations;
+    private final long averageRequestSizeInBytes;
+    private final long averageSourceBandwidthInBytesPerSecond;
+    private final int maxRequestsInFlight;
     private final List<PageBufferClientStatus> pageBufferClientStatuses;
 
     @JsonCreator
@@ -42,6 +45,9 @@ public class ExchangeClientStatus
             @JsonProperty("successfulRequestsCount") long successFullRequestsCount,
             @JsonProperty("bufferedPages") int bufferedPages,
             @JsonProperty("noMoreLocations") boolean noMoreLocations,
+            @JsonProperty("averageRequestSizeInBytes") long averageRequestSizeInBytes,
+            @JsonProperty("averageSourceBandwidthInBytesPerSecond") long averageSourceBandwidthInBytesPerSecond,
+            @JsonProperty("maxRequestsInFlight") int maxRequestsInFlight,
             @JsonProperty("pageBufferClientStatuses") List<PageBufferClientStatus> pageBufferClientStatuses)
     {
         this.bufferedBytes = bufferedBytes;
@@ -50,6 +56,9 @@ public class ExchangeClientStatus
         this.successfulRequestsCount = successFullRequestsCount;
         this.bufferedPages = bufferedPages;
         this.noMoreLocations = noMoreLocations;
+        this.averageRequestSizeInBytes = averageRequestSizeInBytes;
+        this.averageSourceBandwidthInBytesPerSecond = averageSourceBandwidthInBytesPerSecond;
+        this.maxRequestsInFlight = maxRequestsInFlight;
         this.pageBufferClientStatuses = ImmutableList.copyOf(requireNonNull(pageBufferClientStatuses, "pageBufferClientStatuses is null"));
     }
 
@@ -89,6 +98,24 @@ public class ExchangeClientStatus
         return noMoreLocations;
     }
 
+    @JsonProperty
+    public long getAverageRequestSizeInBytes()
+    {
+        return averageRequestSizeInBytes;
+    }
+
+    @JsonProperty
+    public long getAverageSourceBandwidthInBytesPerSecond()
+    {
+        return averageSourceBandwidthInBytesPerSecond;
+    }
+
+    @JsonProperty
+    public int getMaxRequestsInFlight()
+    {
+        return maxRequestsInFlight;
+    }
+
     @JsonProperty
     public List<PageBufferClientStatus> getPageBufferClientStatuses()
     {
@@ -111,6 +138,9 @@ public class ExchangeClientStatus
                 .add("successfulRequestsCount", successfulRequestsCount)
                 .add("bufferedPages", bufferedPages)
                 .add("noMoreLocations", noMoreLocations)
+                .add("averageRequestSizeInBytes", averageRequestSizeInBytes)
+                .add("averageSourceBandwidthInBytesPerSecond", averageSourceBandwidthInBytesPerSecond)
+                .add("maxRequestsInFlight", maxRequestsInFlight)
                 .add("pageBufferClientStatuses", pageBufferClientStatuses)
                 .toString();
     }
@@ -125,6 +155,9 @@ public class ExchangeClientStatus
                 successfulRequestsCount + other.successfulRequestsCount,
                 bufferedPages + other.bufferedPages,
                 noMoreLocations && other.noMoreLocations, // if at least one has some locations, mergee has some too
+                mergeAvgs(averageRequestSizeInBytes, successfulRequestsCount, other.averageRequestSizeInBytes, other.successfulRequestsCount),
+                mergeAvgs(averageSourceBandwidthInBytesPerSecond, successfulRequestsCount, other.averageSourceBandwidthInBytesPerSecond, other.successfulRequestsCount),
+                maxRequestsInFlight + other.maxRequestsInFlight,
                 ImmutableList.of()); // pageBufferClientStatuses may be long, so we don't want to combine the lists
     }
 
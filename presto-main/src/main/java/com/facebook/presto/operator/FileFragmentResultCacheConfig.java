@@ -15,25 +15,26 @@ package com.facebook.presto.operator;
 
 import com.facebook.airlift.configuration.Config;
 import com.facebook.airlift.configuration.ConfigDescription;
+import com.facebook.airlift.configuration.DefunctConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 
-import javax.validation.constraints.Min;
-
 import java.net.URI;
 
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static java.util.concurrent.TimeUnit.DAYS;
 
+@DefunctConfig("fragment-result-cache.max-cached-entries")
 public class FileFragmentResultCacheConfig
 {
     private boolean cachingEnabled;
     private URI baseDirectory;
     private boolean blockEncodingCompressionEnabled;
+    private boolean restoreOnStartupEnabled;
 
-    private int maxCachedEntries = 10_000;
+    private DataSize maxCacheSize = new DataSize(100, GIGABYTE);
     private Duration cacheTtl = new Duration(2, DAYS);
     private DataSize maxInFlightSize = new DataSize(1, GIGABYTE);
 
@@ -76,17 +77,30 @@ public class FileFragmentResultCacheConfig
         return this;
     }
 
-    @Min(0)
-    public int getMaxCachedEntries()
+    public boolean isRestoreOnStartupEnabled()
+    {
+        return restoreOnStartupEnabled;
+    }
+
+    @Config("fragment-result-cache.restore-on-startup-enabled")
+    @ConfigDescription("Serve the entries found in the base directory on startup instead of deleting them")
+    public FileFragmentResultCacheConfig setRestoreOnStartupEnabled(boolean restoreOnStartupEnabled)
+    {
+        this.restoreOnStartupEnabled = restoreOnStartupEnabled;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getMaxCacheSize()
     {
-        return maxCachedEntries;
+        return maxCacheSize;
     }
 
-    @Config("fragment-result-cache.max-cached-entries")
-    @ConfigDescription("Number of entries allowed in cache")
-    public FileFragmentResultCacheConfig setMaxCachedEntries(int maxCachedEntries)
+    @Config("fragment-result-cache.max-cache-size")
+    @ConfigDescription("Maximum size of the cache files on disk")
+    public FileFragmentResultCacheConfig setMaxCacheSize(DataSize maxCacheSize)
     {
-        this.maxCachedEntries = maxCachedEntries;
+        this.maxCacheSize = maxCacheSize;
         return this;
     }
 
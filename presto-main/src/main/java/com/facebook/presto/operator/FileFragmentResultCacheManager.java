@@ -25,9 +25,16 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
 import org.weakref.jmx.Managed;
 
@@ -44,8 +51,8 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -53,9 +60,16 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.readPages;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writePages;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.newInputStream;
 import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 import static java.util.UUID.randomUUID;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -65,16 +79,23 @@ public class FileFragmentResultCacheManager
 {
     private static final Logger log = Logger.get(FileFragmentResultCacheManager.class);
 
+    // part of every key, so it has to be changed whenever the content of the cache files changes
+    // in a way that makes the files written by an older version unreadable
+    private static final int CACHE_FORMAT_VERSION = 2;
+    private static final HashFunction KEY_HASH_FUNCTION = Hashing.sha256();
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private static final String FILE_NAME_SEPARATOR = ".";
+
     private final Path baseDirectory;
     private final long maxInFlightBytes;
     private final PagesSerde pagesSerde;
     private final FragmentCacheStats fragmentCacheStats;
     private final ExecutorService flushExecutor;
     private final ExecutorService removalExecutor;
+    private final long cacheTtlMillis;
 
-    private final Cache<CacheKey, Path> cache;
+    private final Cache<CacheKey, CacheEntry> cache;
 
-    // TODO: Decouple CacheKey by encoding PlanNode and SplitIdentifier separately so we don't have to keep too many objects in memory
     @Inject
     public FileFragmentResultCacheManager(
             FileFragmentResultCacheConfig cacheConfig,
@@ -92,8 +113,10 @@ public class FileFragmentResultCacheManager
         this.fragmentCacheStats = requireNonNull(fragmentCacheStats, "fragmentCacheStats is null");
         this.flushExecutor = requireNonNull(flushExecutor, "flushExecutor is null");
         this.removalExecutor = requireNonNull(removalExecutor, "removalExecutor is null");
+        this.cacheTtlMillis = cacheConfig.getCacheTtl().toMillis();
         this.cache = CacheBuilder.newBuilder()
-                .maximumSize(cacheConfig.getMaxCachedEntries())
+                .maximumWeight(cacheConfig.getMaxCacheSize().toBytes())
+                .weigher((Weigher<CacheKey, CacheEntry>) (key, entry) -> toIntExact(min(entry.getSizeInBytes(), Integer.MAX_VALUE)))
                 .expireAfterAccess(cacheConfig.getCacheTtl().toMillis(), MILLISECONDS)
                 .removalListener(new CacheRemovalListener())
                 .recordStats()
@@ -114,29 +137,40 @@ public class FileFragmentResultCacheManager
                 return;
             }
 
-            this.removalExecutor.submit(() -> Arrays.stream(files).forEach(file -> {
-                try {
-                    Files.delete(file.toPath());
-                }
-                catch (IOException e) {
-                    // ignore
-                }
-            }));
+            if (cacheConfig.isRestoreOnStartupEnabled()) {
+                this.removalExecutor.submit(() -> restoreCache(files));
+            }
+            else {
+                this.removalExecutor.submit(() -> Arrays.stream(files).forEach(file -> tryDeleteFile(file.toPath())));
+            }
         }
     }
 
     @Override
     public Future<?> put(String serializedPlan, Split split, List<Page> result)
     {
-        CacheKey key = new CacheKey(serializedPlan, split.getSplitIdentifier());
+        if (!hasStableIdentifier(split)) {
+            return immediateFuture(null);
+        }
+
+        SplitIdentifier splitIdentifier = split.getSplitIdentifier();
+        CacheKey key = CacheKey.of(serializedPlan, splitIdentifier);
         long resultSize = getPagesSize(result);
         if (fragmentCacheStats.getInFlightBytes() + resultSize > maxInFlightBytes || cache.getIfPresent(key) != null) {
             return immediateFuture(null);
         }
 
         fragmentCacheStats.addInFlightBytes(resultSize);
-        Path path = baseDirectory.resolve(randomUUID().toString().replaceAll("-", "_"));
-        return flushExecutor.submit(() -> cachePages(key, path, result));
+        return flushExecutor.submit(() -> cachePages(key, splitIdentifier, result));
+    }
+
+    /**
+     * A connector split that does not override {@link com.facebook.presto.spi.ConnectorSplit#getSplitIdentifier()}
+     * is its own identifier, and its string representation is not guaranteed to be unique or stable.
+     */
+    private static boolean hasStableIdentifier(Split split)
+    {
+        return split.getSplitIdentifier().getSplitIdentifier() != split.getConnectorSplit();
     }
 
     private static long getPagesSize(List<Page> pages)
@@ -146,30 +180,67 @@ public class FileFragmentResultCacheManager
                 .sum();
     }
 
-    private void cachePages(CacheKey key, Path path, List<Page> pages)
+    private void cachePages(CacheKey key, SplitIdentifier splitIdentifier, List<Page> pages)
     {
-        // TODO: To support both memory and disk limit, we should check cache size before putting to cache and use written bytes as weight for cache
+        // pages are written to a temporary file first, so that a file with the name of a key is always
+        // complete, even if the worker is stopped in the middle of a write.
+        // Every write gets a file of its own, so that deleting the file of a removed entry
+        // never deletes the file of an entry cached later under the same key.
+        Path temporaryPath = baseDirectory.resolve(randomUUID().toString().replaceAll("-", "_") + TEMPORARY_FILE_SUFFIX);
+        Path path = baseDirectory.resolve(key.newFileName());
         try {
-            Files.createFile(path);
-            try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(path, APPEND))) {
+            Files.createFile(temporaryPath);
+            try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(temporaryPath, APPEND))) {
+                writeSplitIdentifier(output, splitIdentifier);
                 writePages(pagesSerde, output, pages.iterator());
-                cache.put(key, path);
-                fragmentCacheStats.incrementCacheEntries();
             }
-            catch (UncheckedIOException | IOException e) {
-                log.warn(e, "%s encountered an error while writing to path %s", Thread.currentThread().getName(), path);
+            long sizeInBytes = Files.size(temporaryPath);
+            Files.move(temporaryPath, path, ATOMIC_MOVE);
+            if (cache.asMap().putIfAbsent(key, new CacheEntry(path, sizeInBytes, Optional.of(splitIdentifier), OptionalLong.empty())) != null) {
+                // the same fragment was cached concurrently
                 tryDeleteFile(path);
+                return;
             }
+            fragmentCacheStats.incrementCacheEntries();
+            fragmentCacheStats.addCacheSizeInBytes(sizeInBytes);
         }
         catch (UncheckedIOException | IOException e) {
-            log.warn(e, "%s encountered an error while writing to path %s", Thread.currentThread().getName(), path);
-            tryDeleteFile(path);
+            log.warn(e, "%s encountered an error while writing to path %s", Thread.currentThread().getName(), temporaryPath);
+            tryDeleteFile(temporaryPath);
         }
         finally {
             fragmentCacheStats.addInFlightBytes(-getPagesSize(pages));
         }
     }
 
+    private void restoreCache(File[] files)
+    {
+        // restore the oldest files first, so they are the first ones to be evicted if the cache is smaller than before
+        long now = currentTimeMillis();
+        Arrays.sort(files, comparingLong(File::lastModified));
+
+        int restoredEntries = 0;
+        for (File file : files) {
+            Optional<CacheKey> key = CacheKey.fromFileName(file.getName());
+            // the access time of the entries is not persisted, so the entries expire based on the time they were written
+            if (!key.isPresent() || now - file.lastModified() > cacheTtlMillis) {
+                tryDeleteFile(file.toPath());
+                continue;
+            }
+
+            // the split identifier is only known once the file is read, see get
+            CacheEntry entry = new CacheEntry(file.toPath(), file.length(), Optional.empty(), OptionalLong.of(file.lastModified() + cacheTtlMillis));
+            if (cache.asMap().putIfAbsent(key.get(), entry) != null) {
+                tryDeleteFile(file.toPath());
+                continue;
+            }
+            fragmentCacheStats.incrementCacheEntries();
+            fragmentCacheStats.addCacheSizeInBytes(entry.getSizeInBytes());
+            restoredEntries++;
+        }
+        log.info("Restored %s fragment result cache entries from %s", restoredEntries, baseDirectory);
+    }
+
     private static void tryDeleteFile(Path path)
     {
         try {
@@ -186,23 +257,83 @@ public class FileFragmentResultCacheManager
     @Override
     public Optional<Iterator<Page>> get(String serializedPlan, Split split)
     {
-        CacheKey key = new CacheKey(serializedPlan, split.getSplitIdentifier());
-        Path path = cache.getIfPresent(key);
-        if (path == null) {
+        if (!hasStableIdentifier(split)) {
+            return Optional.empty();
+        }
+
+        SplitIdentifier splitIdentifier = split.getSplitIdentifier();
+        CacheKey key = CacheKey.of(serializedPlan, splitIdentifier);
+        CacheEntry entry = cache.getIfPresent(key);
+        // an entry restored on startup is verified against the identifier written to its file below
+        if (entry == null || !entry.getSplitIdentifier().map(splitIdentifier::equals).orElse(true)) {
+            fragmentCacheStats.incrementCacheMiss();
+            return Optional.empty();
+        }
+        if (entry.isRestoredAndExpired(currentTimeMillis())) {
+            // entries restored on startup that have not been read since expire based on the time they were written
+            cache.asMap().remove(key, entry);
             fragmentCacheStats.incrementCacheMiss();
             return Optional.empty();
         }
 
+        InputStream inputStream = null;
         try {
-            InputStream inputStream = newInputStream(path);
-            Iterator<Page> result = readPages(pagesSerde, new InputStreamSliceInput(inputStream));
-            fragmentCacheStats.incrementCacheHit();
-            return Optional.of(closeWhenExhausted(result, inputStream));
+            // pages are deserialized one at a time as the iterator is consumed
+            inputStream = newInputStream(entry.getPath());
+            SliceInput input = new InputStreamSliceInput(inputStream);
+            // the identifier of an entry restored on startup is only known from its file
+            if (readSplitIdentifierMatches(input, splitIdentifier)) {
+                entry.accessed();
+                Iterator<Page> result = readPages(pagesSerde, input);
+                fragmentCacheStats.incrementCacheHit();
+                return Optional.of(closeWhenExhausted(result, inputStream));
+            }
         }
         catch (UncheckedIOException | IOException e) {
             // there might be a chance the file has been deleted. We would return cache miss in this case.
-            fragmentCacheStats.incrementCacheMiss();
-            return Optional.empty();
+        }
+        tryClose(inputStream);
+        cache.asMap().remove(key, entry);
+        fragmentCacheStats.incrementCacheMiss();
+        return Optional.empty();
+    }
+
+    private static void writeSplitIdentifier(SliceOutput output, SplitIdentifier splitIdentifier)
+    {
+        // the key only holds a hash of the identifier, so the identifier is written before the pages
+        writeString(output, splitIdentifier.getConnectorId().toString());
+        writeString(output, String.valueOf(splitIdentifier.getSplitIdentifier()));
+    }
+
+    private static boolean readSplitIdentifierMatches(SliceInput input, SplitIdentifier splitIdentifier)
+    {
+        return readString(input).equals(splitIdentifier.getConnectorId().toString()) &&
+                readString(input).equals(String.valueOf(splitIdentifier.getSplitIdentifier()));
+    }
+
+    private static void writeString(SliceOutput output, String value)
+    {
+        Slice slice = utf8Slice(value);
+        output.writeInt(slice.length());
+        output.writeBytes(slice);
+    }
+
+    private static String readString(SliceInput input)
+    {
+        int length = input.readInt();
+        return input.readSlice(length).toStringUtf8();
+    }
+
+    private static void tryClose(Closeable closeable)
+    {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        }
+        catch (IOException e) {
+            // ignore
         }
     }
 
@@ -214,47 +345,95 @@ public class FileFragmentResultCacheManager
 
     private static <T> Iterator<T> closeWhenExhausted(Iterator<T> iterator, Closeable resource)
     {
-        requireNonNull(iterator, "iterator is null");
-        requireNonNull(resource, "resource is null");
+        return new ClosingIterator<>(iterator, resource);
+    }
+
+    /**
+     * Closes the resource once the iterator is exhausted, or when it is closed before that.
+     */
+    private static class ClosingIterator<T>
+            extends AbstractIterator<T>
+            implements Closeable
+    {
+        private final Iterator<T> iterator;
+        private final Closeable resource;
 
-        return new AbstractIterator<T>()
+        public ClosingIterator(Iterator<T> iterator, Closeable resource)
         {
-            @Override
-            protected T computeNext()
-            {
-                if (iterator.hasNext()) {
-                    return iterator.next();
-                }
-                try {
-                    resource.close();
-                }
-                catch (IOException e) {
-                    throw new UncheckedIOException(e);
-                }
-                return endOfData();
+            this.iterator = requireNonNull(iterator, "iterator is null");
+            this.resource = requireNonNull(resource, "resource is null");
+        }
+
+        @Override
+        protected T computeNext()
+        {
+            if (iterator.hasNext()) {
+                return iterator.next();
+            }
+            try {
+                close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        };
+            return endOfData();
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            resource.close();
+        }
     }
 
+    /**
+     * Hash of the serialized plan and the split identifier. The split identifier is hashed through
+     * its string representation, which has to be stable across restarts for cache files to be reused.
+     * The file of an entry is named after the key, followed by a suffix that is unique to the write.
+     */
     public static class CacheKey
     {
-        private final String serializedPlan;
-        private final SplitIdentifier splitIdentifier;
+        private final HashCode hash;
 
-        public CacheKey(String serializedPlan, SplitIdentifier splitIdentifier)
+        private CacheKey(HashCode hash)
         {
-            this.serializedPlan = requireNonNull(serializedPlan, "serializedPlan is null");
-            this.splitIdentifier = requireNonNull(splitIdentifier, "splitIdentifier is null");
+            this.hash = requireNonNull(hash, "hash is null");
         }
 
-        public String getSerializedPlan()
+        public static CacheKey of(String serializedPlan, SplitIdentifier splitIdentifier)
         {
-            return serializedPlan;
+            Hasher hasher = KEY_HASH_FUNCTION.newHasher().putInt(CACHE_FORMAT_VERSION);
+            putString(hasher, serializedPlan);
+            putString(hasher, splitIdentifier.getConnectorId().toString());
+            putString(hasher, String.valueOf(splitIdentifier.getSplitIdentifier()));
+            return new CacheKey(hasher.hash());
         }
 
-        public SplitIdentifier getSplitIdentifier()
+        public static Optional<CacheKey> fromFileName(String fileName)
         {
-            return splitIdentifier;
+            int hashLength = KEY_HASH_FUNCTION.bits() / 4;
+            if (fileName.length() <= hashLength + FILE_NAME_SEPARATOR.length() || !fileName.startsWith(FILE_NAME_SEPARATOR, hashLength) || fileName.endsWith(TEMPORARY_FILE_SUFFIX)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new CacheKey(HashCode.fromString(fileName.substring(0, hashLength))));
+            }
+            catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        private static void putString(Hasher hasher, String value)
+        {
+            // prefix with the length, so that the boundary between the values is part of the hash
+            hasher.putInt(value.length());
+            hasher.putString(value, UTF_8);
+        }
+
+        public String newFileName()
+        {
+            return hash + FILE_NAME_SEPARATOR + randomUUID();
         }
 
         @Override
@@ -267,26 +446,77 @@ public class FileFragmentResultCacheManager
                 return false;
             }
             CacheKey cacheKey = (CacheKey) o;
-            return Objects.equals(serializedPlan, cacheKey.serializedPlan) &&
-                    Objects.equals(splitIdentifier, cacheKey.splitIdentifier);
+            return hash.equals(cacheKey.hash);
         }
 
         @Override
         public int hashCode()
         {
-            return Objects.hash(serializedPlan, splitIdentifier);
+            return hash.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return hash.toString();
+        }
+    }
+
+    private static class CacheEntry
+    {
+        private final Path path;
+        private final long sizeInBytes;
+        private final Optional<SplitIdentifier> splitIdentifier;
+        // set for entries restored on startup, until they are first read
+        private volatile OptionalLong restoredExpirationMillis;
+
+        public CacheEntry(Path path, long sizeInBytes, Optional<SplitIdentifier> splitIdentifier, OptionalLong restoredExpirationMillis)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.sizeInBytes = sizeInBytes;
+            this.splitIdentifier = requireNonNull(splitIdentifier, "splitIdentifier is null");
+            this.restoredExpirationMillis = requireNonNull(restoredExpirationMillis, "restoredExpirationMillis is null");
+        }
+
+        public Path getPath()
+        {
+            return path;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+
+        public Optional<SplitIdentifier> getSplitIdentifier()
+        {
+            return splitIdentifier;
+        }
+
+        public boolean isRestoredAndExpired(long nowMillis)
+        {
+            OptionalLong expirationMillis = restoredExpirationMillis;
+            return expirationMillis.isPresent() && nowMillis > expirationMillis.getAsLong();
+        }
+
+        public void accessed()
+        {
+            // from now on the entry expires after the cache TTL from its last access, like any other entry
+            restoredExpirationMillis = OptionalLong.empty();
         }
     }
 
     private class CacheRemovalListener
-            implements RemovalListener<CacheKey, Path>
+            implements RemovalListener<CacheKey, CacheEntry>
     {
         @Override
-        public void onRemoval(RemovalNotification<CacheKey, Path> notification)
+        public void onRemoval(RemovalNotification<CacheKey, CacheEntry> notification)
         {
-            removalExecutor.submit(() -> tryDeleteFile(notification.getValue()));
+            // no other entry shares the file, see cachePages
+            removalExecutor.submit(() -> tryDeleteFile(notification.getValue().getPath()));
             fragmentCacheStats.incrementCacheRemoval();
             fragmentCacheStats.decrementCacheEntries();
+            fragmentCacheStats.addCacheSizeInBytes(-notification.getValue().getSizeInBytes());
         }
     }
 }
@@ -24,6 +24,7 @@ public class FragmentCacheStats
     private final AtomicLong inFlightBytes = new AtomicLong();
     private final AtomicLong cacheRemoval = new AtomicLong();
     private final AtomicLong cacheEntries = new AtomicLong();
+    private final AtomicLong cacheSizeInBytes = new AtomicLong();
 
     public void incrementCacheHit()
     {
@@ -55,6 +56,11 @@ public class FragmentCacheStats
         cacheEntries.getAndDecrement();
     }
 
+    public void addCacheSizeInBytes(long bytes)
+    {
+        cacheSizeInBytes.addAndGet(bytes);
+    }
+
     @Managed
     public long getCacheHit()
     {
@@ -84,4 +90,10 @@ public class FragmentCacheStats
     {
         return cacheEntries.get();
     }
+
+    @Managed
+    public long getCacheSizeInBytes()
+    {
+        return cacheSizeInBytes.get();
+    }
 }
@@ -25,5 +25,9 @@ public interface FragmentResultCacheManager
 {
     Future<?> put(String serializedPlan, Split split, List<Page> result);
 
+    /**
+     * Returns the cached result of the fragment for the split. If the returned iterator implements
+     * {@link java.io.Closeable}, the caller has to close it when it stops reading before the end.
+     */
     Optional<Iterator<Page>> get(String serializedPlan, Split split);
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.array.IntBigArray;
 import com.facebook.presto.array.ObjectBigArray;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
@@ -21,6 +22,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Ordering;
+import it.unimi.dsi.fastutil.ints.AbstractIntIterator;
 import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
 import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
@@ -103,7 +105,21 @@ public class GroupedTopNBuilder
 
     public Iterator<Page> buildResult()
     {
-        return new ResultIterator();
+        return new ResultIterator(groupIds(), produceRowNumber);
+    }
+
+    /**
+     * Returns the buffered rows without row numbers, with the groups ordered by the raw hash of their keys.
+     * Results of several builders can then be merged with {@link MergeHashSort}.
+     */
+    public Iterator<Page> buildHashSortedResult()
+    {
+        return new ResultIterator(hashSortedGroupIds(), false);
+    }
+
+    public boolean isEmpty()
+    {
+        return groupByHash.getGroupCount() == 0;
     }
 
     public long getEstimatedSizeInBytes()
@@ -125,6 +141,56 @@ public class GroupedTopNBuilder
                 .collect(toImmutableList());
     }
 
+    private IntIterator groupIds()
+    {
+        int groupCount = groupByHash.getGroupCount();
+        return new AbstractIntIterator()
+        {
+            private int groupId;
+
+            @Override
+            public boolean hasNext()
+            {
+                return groupId < groupCount;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                return groupId++;
+            }
+        };
+    }
+
+    private IntIterator hashSortedGroupIds()
+    {
+        int groupCount = groupByHash.getGroupCount();
+        IntBigArray groupIds = new IntBigArray();
+        groupIds.ensureCapacity(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            groupIds.set(i, i);
+        }
+        groupIds.sort(0, groupCount, (leftGroupId, rightGroupId) ->
+                Long.compare(groupByHash.getRawHash(leftGroupId), groupByHash.getRawHash(rightGroupId)));
+
+        return new AbstractIntIterator()
+        {
+            private int position;
+
+            @Override
+            public boolean hasNext()
+            {
+                return position < groupCount;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                return groupIds.get(position++);
+            }
+        };
+    }
+
     private void processPage(Page newPage, GroupByIdBlock groupIds)
     {
         checkArgument(newPage != null);
@@ -371,10 +437,10 @@ public class GroupedTopNBuilder
             extends AbstractIterator<Page>
     {
         private final PageBuilder pageBuilder;
+        private final boolean produceRowNumber;
         // we may have 0 groups if there is no input page processed
-        private final int groupCount = groupByHash.getGroupCount();
+        private final IntIterator groupIds;
 
-        private int currentGroupNumber;
         private long currentGroupSizeInBytes;
 
         // the row number of the current position in the group
@@ -382,10 +448,13 @@ public class GroupedTopNBuilder
         // number of rows in the group
         private int currentGroupSize;
 
-        private ObjectBigArray<Row> currentRows = nextGroupedRows();
+        private ObjectBigArray<Row> currentRows;
 
-        ResultIterator()
+        ResultIterator(IntIterator groupIds, boolean produceRowNumber)
         {
+            this.groupIds = requireNonNull(groupIds, "groupIds is null");
+            this.produceRowNumber = produceRowNumber;
+            this.currentRows = nextGroupedRows();
             if (produceRowNumber) {
                 pageBuilder = new PageBuilder(new ImmutableList.Builder<Type>().addAll(sourceTypes).add(BIGINT).build());
             }
@@ -439,12 +508,12 @@ public class GroupedTopNBuilder
 
         private ObjectBigArray<Row> nextGroupedRows()
         {
-            if (currentGroupNumber < groupCount) {
-                RowHeap rows = groupedRows.get(currentGroupNumber);
+            if (groupIds.hasNext()) {
+                int groupId = groupIds.nextInt();
+                RowHeap rows = groupedRows.get(groupId);
                 verify(rows != null && !rows.isEmpty(), "impossible to have inserted a group without a witness row");
-                groupedRows.set(currentGroupNumber, null);
+                groupedRows.set(groupId, null);
                 currentGroupSizeInBytes = rows.getEstimatedSizeInBytes();
-                currentGroupNumber++;
                 currentGroupSize = rows.size();
 
                 // sort output rows in a big array in case there are too many rows
@@ -14,19 +14,33 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.PartitionedConsumption.Partition;
 import com.facebook.presto.operator.SetBuilderOperator.SetSupplier;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
+import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static com.facebook.airlift.concurrent.MoreFutures.getDone;
 import static com.facebook.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
+import static com.facebook.presto.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class HashSemiJoinOperator
@@ -42,9 +56,23 @@ public class HashSemiJoinOperator
         private final SetSupplier setSupplier;
         private final List<Type> probeTypes;
         private final int probeJoinChannel;
+        private final Optional<Integer> probeHashChannel;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
         public HashSemiJoinOperatorFactory(int operatorId, PlanNodeId planNodeId, SetSupplier setSupplier, List<? extends Type> probeTypes, int probeJoinChannel)
+        {
+            this(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, Optional.empty(), unsupportedPartitioningSpillerFactory());
+        }
+
+        public HashSemiJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                SetSupplier setSupplier,
+                List<? extends Type> probeTypes,
+                int probeJoinChannel,
+                Optional<Integer> probeHashChannel,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -52,6 +80,8 @@ public class HashSemiJoinOperator
             this.probeTypes = ImmutableList.copyOf(probeTypes);
             checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
             this.probeJoinChannel = probeJoinChannel;
+            this.probeHashChannel = requireNonNull(probeHashChannel, "probeHashChannel is null");
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
@@ -59,7 +89,7 @@ public class HashSemiJoinOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, HashSemiJoinOperator.class.getSimpleName());
-            return new HashSemiJoinOperator(operatorContext, setSupplier, probeJoinChannel);
+            return new HashSemiJoinOperator(operatorContext, setSupplier, probeTypes, probeJoinChannel, probeHashChannel, partitioningSpillerFactory);
         }
 
         @Override
@@ -71,18 +101,41 @@ public class HashSemiJoinOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new HashSemiJoinOperatorFactory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel);
+            return new HashSemiJoinOperatorFactory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeHashChannel, partitioningSpillerFactory);
         }
     }
 
+    private final List<Type> probeTypes;
     private final int probeJoinChannel;
+    private final Optional<Integer> probeHashChannel;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
     private final ListenableFuture<ChannelSet> channelSetFuture;
+    private final ListenableFuture<SpilledChannelSet> spilledChannelSetFuture;
+    private final ListenableFuture<?> buildFinished;
 
     private ChannelSet channelSet;
     private Page outputPage;
     private boolean finishing;
 
-    public HashSemiJoinOperator(OperatorContext operatorContext, SetSupplier channelSetFuture, int probeJoinChannel)
+    // When the set has been spilled, all the input is spilled with the same partitioning as the set.
+    // Once every probe operator has finished, the partitions are marked one at a time.
+    private SpilledChannelSet spilledChannelSet;
+    private Optional<PartitioningSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private ListenableFuture<PartitionedConsumption<ChannelSet>> partitionedConsumption;
+    private Iterator<Partition<ChannelSet>> spilledPartitions;
+    private Optional<Partition<ChannelSet>> currentPartition = Optional.empty();
+    private Optional<ListenableFuture<ChannelSet>> unspilledChannelSet = Optional.empty();
+    private Iterator<Page> unspilledInputPages = emptyIterator();
+    private boolean unspillingFinished;
+
+    public HashSemiJoinOperator(
+            OperatorContext operatorContext,
+            SetSupplier channelSetFuture,
+            List<Type> probeTypes,
+            int probeJoinChannel,
+            Optional<Integer> probeHashChannel,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
@@ -91,7 +144,12 @@ public class HashSemiJoinOperator
         checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
 
         this.channelSetFuture = channelSetFuture.getChannelSet();
+        this.spilledChannelSetFuture = channelSetFuture.getSpilledChannelSet();
+        this.buildFinished = channelSetFuture.getBuildFinished();
+        this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
         this.probeJoinChannel = probeJoinChannel;
+        this.probeHashChannel = requireNonNull(probeHashChannel, "probeHashChannel is null");
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
     }
 
     @Override
@@ -109,26 +167,39 @@ public class HashSemiJoinOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && outputPage == null;
+        return finishing && outputPage == null && (spilledChannelSet == null || unspillingFinished);
     }
 
     @Override
     public ListenableFuture<?> isBlocked()
     {
-        return channelSetFuture;
+        if (!buildFinished.isDone()) {
+            return buildFinished;
+        }
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        if (partitionedConsumption != null && !partitionedConsumption.isDone()) {
+            return partitionedConsumption;
+        }
+        if (unspilledChannelSet.isPresent() && !unspilledChannelSet.get().isDone()) {
+            return unspilledChannelSet.get();
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
     public boolean needsInput()
     {
-        if (finishing || outputPage != null) {
+        if (finishing || outputPage != null || !spillInProgress.isDone()) {
             return false;
         }
 
-        if (channelSet == null) {
+        if (channelSet == null && spilledChannelSet == null) {
             channelSet = tryGetFutureValue(channelSetFuture).orElse(null);
+            spilledChannelSet = tryGetFutureValue(spilledChannelSetFuture).orElse(null);
         }
-        return channelSet != null;
+        return channelSet != null || spilledChannelSet != null;
     }
 
     @Override
@@ -136,19 +207,114 @@ public class HashSemiJoinOperator
     {
         requireNonNull(page, "page is null");
         checkState(!finishing, "Operator is finishing");
-        checkState(channelSet != null, "Set has not been built yet");
+        checkState(channelSet != null || spilledChannelSet != null, "Set has not been built yet");
         checkState(outputPage == null, "Operator still has pending output");
+        checkSpillSucceeded(spillInProgress);
+
+        if (spilledChannelSet != null) {
+            // the set is on disk, so the page can only be marked once its partition is read back
+            if (!spiller.isPresent()) {
+                spiller = Optional.of(partitioningSpillerFactory.create(
+                        probeTypes,
+                        new SpillPartitionGenerator(createHashGenerator(), spilledChannelSet.getPartitionCount()),
+                        operatorContext.getSpillContext().newLocalSpillContext(),
+                        operatorContext.newAggregateSystemMemoryContext()));
+            }
+            spillInProgress = spiller.get().partitionAndSpill(page, partition -> true).getSpillingFuture();
+            return;
+        }
+
+        outputPage = markPage(page, channelSet, channelSet.isEmpty(), channelSet.containsNull());
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (outputPage == null && finishing && spilledChannelSet != null && !unspillingFinished) {
+            unspillNextPage();
+        }
+
+        Page result = outputPage;
+        outputPage = null;
+        return result;
+    }
 
+    @Override
+    public void close()
+    {
+        if (partitionedConsumption == null) {
+            // The operator did not take part in reading the spilled set back, possibly because the set is not built yet.
+            addSuccessCallback(spilledChannelSetFuture, SpilledChannelSet::probeOperatorClosed);
+        }
+
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void unspillNextPage()
+    {
+        if (!spillInProgress.isDone()) {
+            return;
+        }
+        checkSpillSucceeded(spillInProgress);
+
+        if (partitionedConsumption == null) {
+            partitionedConsumption = spilledChannelSet.finishProbeOperator(spiller.isPresent());
+        }
+        if (!partitionedConsumption.isDone()) {
+            return;
+        }
+        if (spilledPartitions == null) {
+            spilledPartitions = getDone(partitionedConsumption).beginConsumption();
+        }
+
+        if (unspilledInputPages.hasNext()) {
+            outputPage = markPage(unspilledInputPages.next(), channelSet, spilledChannelSet.isEmpty(), spilledChannelSet.containsNull());
+            return;
+        }
+
+        if (unspilledChannelSet.isPresent()) {
+            if (!unspilledChannelSet.get().isDone()) {
+                return;
+            }
+            channelSet = getDone(unspilledChannelSet.get());
+            unspilledChannelSet = Optional.empty();
+            int partition = currentPartition.get().number();
+            unspilledInputPages = spiller.map(spiller -> spiller.getSpilledPages(partition)).orElse(emptyIterator());
+            return;
+        }
+
+        // the set of the previous partition is no longer needed
+        channelSet = null;
+        currentPartition.ifPresent(Partition::release);
+        currentPartition = Optional.empty();
+
+        if (spilledPartitions.hasNext()) {
+            currentPartition = Optional.of(spilledPartitions.next());
+            unspilledChannelSet = Optional.of(currentPartition.get().load());
+            return;
+        }
+
+        unspillingFinished = true;
+    }
+
+    private Page markPage(Page page, ChannelSet channelSet, boolean setIsEmpty, boolean setContainsNull)
+    {
         // create the block builder for the new boolean column
         // we know the exact size required for the block
         BlockBuilder blockBuilder = BOOLEAN.createFixedSizeBlockBuilder(page.getPositionCount());
 
         Page probeJoinPage = page.extractChannel(probeJoinChannel);
+        Block probeJoinBlock = probeJoinPage.getBlock(0);
 
         // update hashing strategy to use probe cursor
         for (int position = 0; position < page.getPositionCount(); position++) {
-            if (probeJoinPage.getBlock(0).isNull(position)) {
-                if (channelSet.isEmpty()) {
+            if (probeJoinBlock.isNull(position)) {
+                if (setIsEmpty) {
                     BOOLEAN.writeBoolean(blockBuilder, false);
                 }
                 else {
@@ -157,7 +323,7 @@ public class HashSemiJoinOperator
             }
             else {
                 boolean contains = channelSet.contains(position, probeJoinPage);
-                if (!contains && channelSet.containsNull()) {
+                if (!contains && setContainsNull) {
                     blockBuilder.appendNull();
                 }
                 else {
@@ -167,14 +333,14 @@ public class HashSemiJoinOperator
         }
 
         // add the new boolean column to the page
-        outputPage = page.appendColumn(blockBuilder.build());
+        return page.appendColumn(blockBuilder.build());
     }
 
-    @Override
-    public Page getOutput()
+    private HashGenerator createHashGenerator()
     {
-        Page result = outputPage;
-        outputPage = null;
-        return result;
+        if (probeHashChannel.isPresent()) {
+            return new PrecomputedHashGenerator(probeHashChannel.get());
+        }
+        return new InterpretedHashGenerator(ImmutableList.of(probeTypes.get(probeJoinChannel)), new int[] {probeJoinChannel});
     }
 }
@@ -41,6 +41,9 @@ public final class JoinHash
     @Nullable
     private final PositionLinks positionLinks;
 
+    // reused between calls of getJoinPositions without precomputed hashes
+    private long[] rawHashes = new long[0];
+
     public JoinHash(PagesHash pagesHash, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
     {
         this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
@@ -92,6 +95,27 @@ public final class JoinHash
         return startJoinPosition(addressIndex, position, allChannelsPage);
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] joinPositions)
+    {
+        if (rawHashes.length < positionCount) {
+            rawHashes = new long[positionCount];
+        }
+        for (int i = 0; i < positionCount; i++) {
+            rawHashes[i] = pagesHash.hashRow(positions[i], hashChannelsPage);
+        }
+        getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] joinPositions)
+    {
+        pagesHash.getAddressIndexes(positions, positionCount, hashChannelsPage, rawHashes, joinPositions);
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = startJoinPosition(toIntExact(joinPositions[i]), positions[i], allChannelsPage);
+        }
+    }
+
     private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
         if (currentJoinPosition == -1) {
@@ -24,6 +24,8 @@ import static com.facebook.presto.common.type.BigintType.BIGINT;
 
 public class JoinProbe
 {
+    private static final int JOIN_POSITIONS_BATCH_SIZE = 256;
+
     public static class JoinProbeFactory
     {
         private final int[] probeOutputChannels;
@@ -52,6 +54,14 @@ public class JoinProbe
 
     private int position = -1;
 
+    // join positions of [batchStart, batchEnd) looked up ahead from batchLookupSource
+    private LookupSource batchLookupSource;
+    private int batchStart;
+    private int batchEnd;
+    private int[] batchPositions;
+    private long[] batchRawHashes;
+    private long[] batchJoinPositions;
+
     private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel)
     {
         this.probeOutputChannels = probeOutputChannels;
@@ -79,6 +89,13 @@ public class JoinProbe
 
     public long getCurrentJoinPosition(LookupSource lookupSource)
     {
+        if (lookupSource.isBatchProbeSupported()) {
+            if (lookupSource != batchLookupSource || position < batchStart || position >= batchEnd) {
+                loadJoinPositions(lookupSource);
+            }
+            return batchJoinPositions[position - batchStart];
+        }
+
         if (currentRowContainsNull()) {
             return -1;
         }
@@ -99,10 +116,58 @@ public class JoinProbe
         return page;
     }
 
+    private void loadJoinPositions(LookupSource lookupSource)
+    {
+        if (batchJoinPositions == null) {
+            int batchSize = Math.min(JOIN_POSITIONS_BATCH_SIZE, positionCount);
+            batchPositions = new int[batchSize];
+            batchRawHashes = new long[batchSize];
+            batchJoinPositions = new long[batchSize];
+        }
+        batchLookupSource = lookupSource;
+        batchStart = position;
+        batchEnd = Math.min(position + batchJoinPositions.length, positionCount);
+
+        // rows with a null in any of the join channels never match, so only the others are looked up
+        int lookupCount = 0;
+        for (int probePosition = batchStart; probePosition < batchEnd; probePosition++) {
+            if (!rowContainsNull(probePosition)) {
+                batchPositions[lookupCount] = probePosition;
+                if (probeHashBlock.isPresent()) {
+                    batchRawHashes[lookupCount] = BIGINT.getLong(probeHashBlock.get(), probePosition);
+                }
+                lookupCount++;
+            }
+        }
+
+        // lookups are written compacted to the start of batchJoinPositions and then moved to their rows,
+        // which is safe, since a row is always at or after its compacted index
+        if (probeHashBlock.isPresent()) {
+            lookupSource.getJoinPositions(batchPositions, lookupCount, probePage, page, batchRawHashes, batchJoinPositions);
+        }
+        else {
+            lookupSource.getJoinPositions(batchPositions, lookupCount, probePage, page, batchJoinPositions);
+        }
+        for (int i = batchEnd - batchStart - 1, lookup = lookupCount - 1; i >= 0; i--) {
+            if (lookup >= 0 && batchPositions[lookup] == batchStart + i) {
+                batchJoinPositions[i] = batchJoinPositions[lookup];
+                lookup--;
+            }
+            else {
+                batchJoinPositions[i] = -1;
+            }
+        }
+    }
+
     private boolean currentRowContainsNull()
+    {
+        return rowContainsNull(position);
+    }
+
+    private boolean rowContainsNull(int probePosition)
     {
         for (Block probeBlock : probeBlocks) {
-            if (probeBlock.isNull(position)) {
+            if (probeBlock.isNull(probePosition)) {
                 return true;
             }
         }
@@ -39,6 +39,9 @@ public class LookupJoinPageBuilder
     private final int buildOutputChannelCount;
     private int estimatedProbeBlockBytes;
     private boolean isSequentialProbeIndices = true;
+    // estimated size of a row of the output channels of estimatedProbeRowPage
+    private Page estimatedProbeRowPage;
+    private long estimatedProbeRowBytes;
 
     public LookupJoinPageBuilder(List<Type> buildTypes)
     {
@@ -176,10 +179,22 @@ public class LookupJoinPageBuilder
         if (previousPosition == position) {
             return;
         }
-        for (int index : probe.getOutputChannels()) {
-            Block block = probe.getPage().getBlock(index);
-            // Estimate the size of the current row
-            estimatedProbeBlockBytes += block.getSizeInBytes() / block.getPositionCount();
+        estimatedProbeBlockBytes += getEstimatedProbeRowBytes(probe);
+    }
+
+    private long getEstimatedProbeRowBytes(JoinProbe probe)
+    {
+        // the estimate only depends on the probe page, so it is computed once per page rather than per row
+        if (probe.getPage() != estimatedProbeRowPage) {
+            long rowBytes = 0;
+            for (int index : probe.getOutputChannels()) {
+                Block block = probe.getPage().getBlock(index);
+                // Estimate the size of the current row
+                rowBytes += block.getSizeInBytes() / block.getPositionCount();
+            }
+            estimatedProbeRowPage = probe.getPage();
+            estimatedProbeRowBytes = rowBytes;
         }
+        return estimatedProbeRowBytes;
     }
 }
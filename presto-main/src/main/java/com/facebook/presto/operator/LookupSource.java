@@ -36,6 +36,41 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Batched version of {@link #getJoinPosition(int, Page, Page, long)}. For each {@code i} in
+     * {@code [0, positionCount)} stores the first join position of probe position {@code positions[i]},
+     * whose raw hash is {@code rawHashes[i]}, in {@code joinPositions[i]}, or -1 if there is no match.
+     * Implementations should resolve all positions before returning, so that the hash table loads of
+     * independent probe rows can overlap.
+     */
+    default void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage, rawHashes[i]);
+        }
+    }
+
+    /**
+     * Batched version of {@link #getJoinPosition(int, Page, Page)}.
+     *
+     * @see #getJoinPositions(int[], int, Page, Page, long[], long[])
+     */
+    default void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] joinPositions)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage);
+        }
+    }
+
+    /**
+     * Whether join positions returned for one probe position stay valid while other probe positions
+     * are looked up, which is required to look up positions ahead with {@link #getJoinPositions}.
+     */
+    default boolean isBatchProbeSupported()
+    {
+        return true;
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
@@ -15,21 +15,27 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 
 public class MarkDistinctHash
 {
+    private final List<Type> types;
     private final GroupByHash groupByHash;
     private long nextDistinctId;
 
@@ -40,6 +46,7 @@ public class MarkDistinctHash
 
     public MarkDistinctHash(Session session, List<Type> types, int[] channels, Optional<Integer> hashChannel, int expectedDistinctValues, JoinCompiler joinCompiler, UpdateMemory updateMemory)
     {
+        this.types = ImmutableList.copyOf(types);
         this.groupByHash = createGroupByHash(types, channels, hashChannel, expectedDistinctValues, isDictionaryAggregationEnabled(session), joinCompiler, updateMemory);
     }
 
@@ -67,6 +74,42 @@ public class MarkDistinctHash
                 });
     }
 
+    /**
+     * Returns the distinct values marked so far, followed by a BIGINT channel with their raw hash.
+     */
+    public Iterator<Page> getDistinctValues()
+    {
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.<Type>builder()
+                .addAll(types)
+                .add(BIGINT)
+                .build());
+        return new AbstractIterator<Page>()
+        {
+            private int groupId;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (groupId == groupByHash.getGroupCount()) {
+                    return endOfData();
+                }
+
+                pageBuilder.reset();
+                while (!pageBuilder.isFull() && groupId < groupByHash.getGroupCount()) {
+                    groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+                    // some implementations already output the raw hash along with the values
+                    BlockBuilder hashBlockBuilder = pageBuilder.getBlockBuilder(types.size());
+                    if (hashBlockBuilder.getPositionCount() == pageBuilder.getPositionCount()) {
+                        BIGINT.writeLong(hashBlockBuilder, groupByHash.getRawHash(groupId));
+                    }
+                    pageBuilder.declarePosition();
+                    groupId++;
+                }
+                return pageBuilder.build();
+            }
+        };
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
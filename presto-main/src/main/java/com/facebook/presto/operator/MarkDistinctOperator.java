@@ -15,26 +15,45 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
+import static com.facebook.presto.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.collect.Iterators.transform;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class MarkDistinctOperator
         implements Operator
 {
+    // number of partitions the input is split into once the distinct values have been spilled
+    private static final int SPILL_PARTITION_COUNT = 16;
+
     public static class MarkDistinctOperatorFactory
             implements OperatorFactory
     {
@@ -44,6 +63,8 @@ public class MarkDistinctOperator
         private final List<Integer> markDistinctChannels;
         private final List<Type> types;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
         public MarkDistinctOperatorFactory(
@@ -53,6 +74,19 @@ public class MarkDistinctOperator
                 Collection<Integer> markDistinctChannels,
                 Optional<Integer> hashChannel,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, sourceTypes, markDistinctChannels, hashChannel, joinCompiler, false, unsupportedPartitioningSpillerFactory());
+        }
+
+        public MarkDistinctOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                Collection<Integer> markDistinctChannels,
+                Optional<Integer> hashChannel,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -64,6 +98,8 @@ public class MarkDistinctOperator
                     .addAll(sourceTypes)
                     .add(BOOLEAN)
                     .build();
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
@@ -71,7 +107,7 @@ public class MarkDistinctOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MarkDistinctOperator.class.getSimpleName());
-            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -83,13 +119,23 @@ public class MarkDistinctOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
-    private final MarkDistinctHash markDistinctHash;
+    private final List<Type> sourceTypes;
+    private final List<Type> distinctTypes;
+    private final List<Integer> markDistinctChannels;
+    private final Optional<Integer> hashChannel;
+    private final JoinCompiler joinCompiler;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
+
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+
+    private MarkDistinctHash markDistinctHash;
 
     private Page inputPage;
     private boolean finishing;
@@ -97,7 +143,22 @@ public class MarkDistinctOperator
     // for yield when memory is not available
     private Work<Block> unfinishedWork;
 
-    public MarkDistinctOperator(OperatorContext operatorContext, List<Type> types, List<Integer> markDistinctChannels, Optional<Integer> hashChannel, JoinCompiler joinCompiler)
+    // Once the distinct values have been spilled, all the input is spilled along with them, partitioned by the
+    // hash of the distinct channels. Spilled pages carry an extra BOOLEAN channel that is set for the rows which
+    // only restore the values marked before the spill. Partitions are then marked one at a time on finish.
+    private Optional<PartitioningSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private int unspilledPartition = -1;
+    private Iterator<Page> unspilledPages = emptyIterator();
+
+    public MarkDistinctOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            List<Integer> markDistinctChannels,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
@@ -108,8 +169,16 @@ public class MarkDistinctOperator
         for (int channel : markDistinctChannels) {
             distinctTypes.add(types.get(channel));
         }
-        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes.build(), Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+        this.sourceTypes = ImmutableList.copyOf(types.subList(0, types.size() - 1));
+        this.distinctTypes = distinctTypes.build();
+        this.markDistinctChannels = ImmutableList.copyOf(markDistinctChannels);
+        this.hashChannel = hashChannel;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.markDistinctHash = createMarkDistinctHash();
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
     }
 
     @Override
@@ -127,13 +196,19 @@ public class MarkDistinctOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && !hasUnfinishedInput();
+        return finishing && !hasUnfinishedInput() && !hasSpilledInput();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return spillInProgress.isDone() ? NOT_BLOCKED : spillInProgress;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && spillInProgress.isDone();
     }
 
     @Override
@@ -141,6 +216,13 @@ public class MarkDistinctOperator
     {
         requireNonNull(page, "page is null");
         checkState(needsInput());
+        checkSpillSucceeded(spillInProgress);
+
+        if (spiller.isPresent()) {
+            // the values marked before the spill are on disk, so the page can only be marked once its partitions are read back
+            spillInProgress = spiller.get().partitionAndSpill(appendSpillMarker(page, false), partition -> true).getSpillingFuture();
+            return;
+        }
 
         inputPage = page;
 
@@ -151,6 +233,15 @@ public class MarkDistinctOperator
     @Override
     public Page getOutput()
     {
+        if (!spillInProgress.isDone()) {
+            return null;
+        }
+        checkSpillSucceeded(spillInProgress);
+
+        if (unfinishedWork == null && finishing && spiller.isPresent()) {
+            unspillNextPage();
+        }
+
         if (unfinishedWork == null) {
             return null;
         }
@@ -159,8 +250,14 @@ public class MarkDistinctOperator
             return null;
         }
 
-        // add the new boolean column to the page
-        Page outputPage = inputPage.appendColumn(unfinishedWork.getResult());
+        Page outputPage;
+        if (spiller.isPresent()) {
+            outputPage = toOutputPage(inputPage, unfinishedWork.getResult());
+        }
+        else {
+            // add the new boolean column to the page
+            outputPage = inputPage.appendColumn(unfinishedWork.getResult());
+        }
 
         unfinishedWork = null;
         inputPage = null;
@@ -169,11 +266,160 @@ public class MarkDistinctOperator
         return outputPage;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (spiller.isPresent() || localRevocableMemoryContext.getBytes() == 0) {
+            // the distinct values have already been spilled
+            return NOT_BLOCKED;
+        }
+        checkSpillSucceeded(spillInProgress);
+
+        spiller = Optional.of(partitioningSpillerFactory.create(
+                ImmutableList.<Type>builder()
+                        .addAll(sourceTypes)
+                        .add(BOOLEAN)
+                        .build(),
+                new SpillPartitionGenerator(createHashGenerator(), SPILL_PARTITION_COUNT),
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext()));
+
+        Iterator<Page> spilledPages = transform(markDistinctHash.getDistinctValues(), this::toSpilledDistinctValues);
+        if (unfinishedWork != null) {
+            // the pending page has not been marked yet, so it follows the values marked before it
+            spilledPages = concat(spilledPages, singletonIterator(appendSpillMarker(inputPage, false)));
+            unfinishedWork = null;
+            inputPage = null;
+        }
+        spillInProgress = spillPages(spilledPages);
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        if (spiller.isPresent()) {
+            markDistinctHash = null;
+        }
+        updateMemoryReservation();
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+            closer.register(() -> localUserMemoryContext.setBytes(0));
+            closer.register(() -> localRevocableMemoryContext.setBytes(0));
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private boolean hasUnfinishedInput()
     {
         return inputPage != null || unfinishedWork != null;
     }
 
+    private boolean hasSpilledInput()
+    {
+        return spiller.isPresent() && (!spillInProgress.isDone() || unspilledPartition < SPILL_PARTITION_COUNT - 1 || unspilledPages.hasNext());
+    }
+
+    private void unspillNextPage()
+    {
+        while (!unspilledPages.hasNext()) {
+            if (unspilledPartition == SPILL_PARTITION_COUNT - 1) {
+                return;
+            }
+            // partitions do not share any distinct values, so each of them is marked with a new hash
+            unspilledPartition++;
+            markDistinctHash = createMarkDistinctHash();
+            unspilledPages = spiller.get().getSpilledPages(unspilledPartition);
+        }
+
+        inputPage = unspilledPages.next();
+        unfinishedWork = markDistinctHash.markDistinctRows(inputPage);
+    }
+
+    private ListenableFuture<Void> spillPages(Iterator<Page> pages)
+    {
+        while (pages.hasNext()) {
+            ListenableFuture<?> spillingFuture = spiller.get().partitionAndSpill(pages.next(), partition -> true).getSpillingFuture();
+            if (!spillingFuture.isDone()) {
+                // the spiller accepts a single spill at a time
+                return transformAsync(spillingFuture, ignored -> spillPages(pages), directExecutor());
+            }
+            checkSpillSucceeded(spillingFuture);
+        }
+        return immediateFuture((Void) null);
+    }
+
+    private Page toSpilledDistinctValues(Page distinctValues)
+    {
+        int positionCount = distinctValues.getPositionCount();
+        Block[] blocks = new Block[sourceTypes.size() + 1];
+        for (int channel = 0; channel < sourceTypes.size(); channel++) {
+            blocks[channel] = RunLengthEncodedBlock.create(sourceTypes.get(channel), null, positionCount);
+        }
+        for (int i = 0; i < markDistinctChannels.size(); i++) {
+            blocks[markDistinctChannels.get(i)] = distinctValues.getBlock(i);
+        }
+        if (hashChannel.isPresent()) {
+            blocks[hashChannel.get()] = distinctValues.getBlock(markDistinctChannels.size());
+        }
+        blocks[sourceTypes.size()] = RunLengthEncodedBlock.create(BOOLEAN, true, positionCount);
+        return new Page(positionCount, blocks);
+    }
+
+    private static Page appendSpillMarker(Page page, boolean marker)
+    {
+        return page.appendColumn(RunLengthEncodedBlock.create(BOOLEAN, marker, page.getPositionCount()));
+    }
+
+    private static Page toOutputPage(Page spilledPage, Block distinctMask)
+    {
+        int markerChannel = spilledPage.getChannelCount() - 1;
+        Block markers = spilledPage.getBlock(markerChannel);
+        int[] retainedPositions = new int[spilledPage.getPositionCount()];
+        int retainedPositionCount = 0;
+        for (int position = 0; position < spilledPage.getPositionCount(); position++) {
+            if (!BOOLEAN.getBoolean(markers, position)) {
+                retainedPositions[retainedPositionCount] = position;
+                retainedPositionCount++;
+            }
+        }
+        if (retainedPositionCount == 0) {
+            return null;
+        }
+
+        // replace the marker with the new boolean column
+        Block[] blocks = new Block[spilledPage.getChannelCount()];
+        for (int channel = 0; channel < markerChannel; channel++) {
+            blocks[channel] = spilledPage.getBlock(channel);
+        }
+        blocks[markerChannel] = distinctMask;
+        Page outputPage = new Page(spilledPage.getPositionCount(), blocks);
+        if (retainedPositionCount == outputPage.getPositionCount()) {
+            return outputPage;
+        }
+        return outputPage.getPositions(retainedPositions, 0, retainedPositionCount);
+    }
+
+    private MarkDistinctHash createMarkDistinctHash()
+    {
+        return new MarkDistinctHash(operatorContext.getSession(), distinctTypes, Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+    }
+
+    private HashGenerator createHashGenerator()
+    {
+        if (hashChannel.isPresent()) {
+            return new PrecomputedHashGenerator(hashChannel.get());
+        }
+        return new InterpretedHashGenerator(distinctTypes, markDistinctChannels);
+    }
+
     /**
      * Update memory usage.
      *
@@ -184,9 +430,17 @@ public class MarkDistinctOperator
     // The following implementation is a hybrid model, where the push model is going to call the pull model causing reentrancy
     private boolean updateMemoryReservation()
     {
+        long estimatedSize = markDistinctHash == null ? 0 : markDistinctHash.getEstimatedSize();
+        if (spillEnabled && !spiller.isPresent()) {
+            // the hash is revocable until it has been spilled, and spilling releases memory instead of yielding
+            localRevocableMemoryContext.setBytes(estimatedSize);
+            return true;
+        }
+
+        localRevocableMemoryContext.setBytes(0);
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        localUserMemoryContext.setBytes(estimatedSize);
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
@@ -188,6 +188,11 @@ public final class PageBufferClient
                 future == null ? "not scheduled" : "processing request");
     }
 
+    public URI getLocation()
+    {
+        return location;
+    }
+
     public synchronized boolean isRunning()
     {
         return future != null;
@@ -171,6 +171,44 @@ public final class PagesHash
         return -1;
     }
 
+    public long hashRow(int position, Page hashChannelsPage)
+    {
+        return pagesHashStrategy.hashRow(position, hashChannelsPage);
+    }
+
+    /**
+     * Stores the address index of {@code rightPositions[i]} in {@code addressIndexes[i]}. The initial
+     * slots of all rows are computed before any row is compared, so the first, usually cache missing,
+     * loads from the table do not depend on the comparisons of the previous rows.
+     */
+    public void getAddressIndexes(int[] rightPositions, int positionCount, Page hashChannelsPage, long[] rawHashes, long[] addressIndexes)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            addressIndexes[i] = key[getHashPosition(rawHashes[i], mask)];
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            if (addressIndexes[i] == -1) {
+                continue;
+            }
+            if (positionEqualsCurrentRowIgnoreNulls(toIntExact(addressIndexes[i]), (byte) rawHashes[i], rightPositions[i], hashChannelsPage)) {
+                continue;
+            }
+            // first candidate did not match, continue with the linear probing
+            int pos = (getHashPosition(rawHashes[i], mask) + 1) & mask;
+            int addressIndex = -1;
+            while (key[pos] != -1) {
+                if (positionEqualsCurrentRowIgnoreNulls(key[pos], (byte) rawHashes[i], rightPositions[i], hashChannelsPage)) {
+                    addressIndex = key[pos];
+                    break;
+                }
+                // increment position and mask to handler wrap around
+                pos = (pos + 1) & mask;
+            }
+            addressIndexes[i] = addressIndex;
+        }
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.get(toIntExact(position));
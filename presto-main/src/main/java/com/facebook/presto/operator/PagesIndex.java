@@ -54,6 +54,7 @@ import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.facebook.presto.SystemSessionProperties.isBigintJoinHashEnabled;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
@@ -480,6 +481,21 @@ public class PagesIndex
             Optional<List<Integer>> outputChannels)
     {
         List<List<Block>> channels = ImmutableList.copyOf(this.channels);
+        if (joinChannels.size() == 1 &&
+                !sortChannel.isPresent() &&
+                BigintJoinHashSupplier.isSupportedKeyType(types.get(joinChannels.get(0))) &&
+                isBigintJoinHashEnabled(session)) {
+            return new BigintJoinHashSupplier(
+                    session,
+                    createPagesHashStrategy(joinChannels, hashChannel, outputChannels),
+                    valueAddresses,
+                    positionCount,
+                    channels,
+                    types.get(joinChannels.get(0)),
+                    joinChannels.get(0),
+                    filterFunctionFactory);
+        }
+
         if (!joinChannels.isEmpty()) {
             // todo compiled implementation of lookup join does not support when we are joining with empty join channels.
             // This code path will trigger only for OUTER joins. To fix that we need to add support for
@@ -86,6 +86,16 @@ public class PartitionedLookupSource
 
     private boolean closed;
 
+    // scratch space of getJoinPositions
+    private final int[] partitionOffsets;
+    private final int[] partitionCursors;
+    private long[] batchRawHashes = new long[0];
+    private int[] batchPartitions = new int[0];
+    private int[] sortedIndexes = new int[0];
+    private int[] partitionPositions = new int[0];
+    private long[] partitionRawHashes = new long[0];
+    private long[] partitionJoinPositions = new long[0];
+
     private PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes, Optional<OuterPositionTracker> outerPositionTracker)
     {
         this.lookupSources = lookupSources.toArray(new LookupSource[lookupSources.size()]);
@@ -101,6 +111,8 @@ public class PartitionedLookupSource
         this.partitionMask = lookupSources.size() - 1;
         this.shiftSize = numberOfTrailingZeros(lookupSources.size()) + 1;
         this.outerPositionTracker = outerPositionTracker.orElse(null);
+        this.partitionOffsets = new int[lookupSources.size() + 1];
+        this.partitionCursors = new int[lookupSources.size()];
     }
 
     @Override
@@ -147,6 +159,71 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] joinPositions)
+    {
+        ensureBatchCapacity(positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            batchRawHashes[i] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+        }
+        getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, batchRawHashes, joinPositions);
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] joinPositions)
+    {
+        if (lookupSources.length == 1) {
+            lookupSources[0].getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+            for (int i = 0; i < positionCount; i++) {
+                if (joinPositions[i] >= 0) {
+                    joinPositions[i] = encodePartitionedJoinPosition(0, toIntExact(joinPositions[i]));
+                }
+            }
+            return;
+        }
+
+        ensureBatchCapacity(positionCount);
+
+        // group the positions by partition, so that every partition is probed with a single batch
+        Arrays.fill(partitionOffsets, 0);
+        for (int i = 0; i < positionCount; i++) {
+            int partition = partitionGenerator.getPartition(rawHashes[i]);
+            batchPartitions[i] = partition;
+            partitionOffsets[partition + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+            partitionCursors[partition] = partitionOffsets[partition];
+        }
+        for (int i = 0; i < positionCount; i++) {
+            sortedIndexes[partitionCursors[batchPartitions[i]]++] = i;
+        }
+
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int start = partitionOffsets[partition];
+            int count = partitionOffsets[partition + 1] - start;
+            if (count == 0) {
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                int index = sortedIndexes[start + i];
+                partitionPositions[i] = positions[index];
+                partitionRawHashes[i] = rawHashes[index];
+            }
+            lookupSources[partition].getJoinPositions(partitionPositions, count, hashChannelsPage, allChannelsPage, partitionRawHashes, partitionJoinPositions);
+            for (int i = 0; i < count; i++) {
+                long joinPosition = partitionJoinPositions[i];
+                joinPositions[sortedIndexes[start + i]] = joinPosition < 0 ? joinPosition : encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
+            }
+        }
+    }
+
+    @Override
+    public boolean isBatchProbeSupported()
+    {
+        return Arrays.stream(lookupSources).allMatch(LookupSource::isBatchProbeSupported);
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -206,6 +283,19 @@ public class PartitionedLookupSource
         closed = true;
     }
 
+    private void ensureBatchCapacity(int positionCount)
+    {
+        if (batchRawHashes.length >= positionCount) {
+            return;
+        }
+        batchRawHashes = new long[positionCount];
+        batchPartitions = new int[positionCount];
+        sortedIndexes = new int[positionCount];
+        partitionPositions = new int[positionCount];
+        partitionRawHashes = new long[positionCount];
+        partitionJoinPositions = new long[positionCount];
+    }
+
     private int decodePartition(long partitionedJoinPosition)
     {
         return (int) (partitionedJoinPosition & partitionMask);
@@ -14,31 +14,57 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.ChannelSet.ChannelSetBuilder;
+import com.facebook.presto.operator.SpilledChannelSet.SpilledPartition;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.OptionalInt;
 
+import static com.facebook.airlift.concurrent.MoreFutures.whenAnyComplete;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
+import static com.facebook.presto.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 public class SetBuilderOperator
         implements Operator
 {
+    // number of partitions the set is split into when it is spilled
+    private static final int SPILL_PARTITION_COUNT = 16;
+
     public static class SetSupplier
     {
         private final Type type;
         private final SettableFuture<ChannelSet> channelSetFuture = SettableFuture.create();
+        private final SettableFuture<SpilledChannelSet> spilledChannelSetFuture = SettableFuture.create();
+        private final ListenableFuture<?> buildFinished = whenAnyComplete(ImmutableList.<ListenableFuture<?>>of(channelSetFuture, spilledChannelSetFuture));
 
         public SetSupplier(Type type)
         {
@@ -55,11 +81,35 @@ public class SetBuilderOperator
             return channelSetFuture;
         }
 
+        /**
+         * Completes instead of {@link #getChannelSet()} when the set has been spilled.
+         */
+        public ListenableFuture<SpilledChannelSet> getSpilledChannelSet()
+        {
+            return spilledChannelSetFuture;
+        }
+
+        /**
+         * Completes once the set has either been built or been spilled.
+         */
+        public ListenableFuture<?> getBuildFinished()
+        {
+            return buildFinished;
+        }
+
         void setChannelSet(ChannelSet channelSet)
         {
+            checkState(!spilledChannelSetFuture.isDone(), "ChannelSet already spilled");
             boolean wasSet = channelSetFuture.set(requireNonNull(channelSet, "channelSet is null"));
             checkState(wasSet, "ChannelSet already set");
         }
+
+        void setSpilledChannelSet(SpilledChannelSet spilledChannelSet)
+        {
+            checkState(!channelSetFuture.isDone(), "ChannelSet already set");
+            boolean wasSet = spilledChannelSetFuture.set(requireNonNull(spilledChannelSet, "spilledChannelSet is null"));
+            checkState(wasSet, "ChannelSet already spilled");
+        }
     }
 
     public static class SetBuilderOperatorFactory
@@ -73,6 +123,9 @@ public class SetBuilderOperator
         private final int expectedPositions;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final OptionalInt probeOperatorsCount;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         public SetBuilderOperatorFactory(
                 int operatorId,
@@ -82,6 +135,21 @@ public class SetBuilderOperator
                 Optional<Integer> hashChannel,
                 int expectedPositions,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, type, setChannel, hashChannel, expectedPositions, joinCompiler, false, OptionalInt.empty(), unsupportedPartitioningSpillerFactory());
+        }
+
+        public SetBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Type type,
+                int setChannel,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                OptionalInt probeOperatorsCount,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -91,6 +159,10 @@ public class SetBuilderOperator
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.probeOperatorsCount = requireNonNull(probeOperatorsCount, "probeOperatorsCount is null");
+            checkArgument(!spillEnabled || probeOperatorsCount.isPresent(), "probeOperatorsCount is required when spilling is enabled");
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         public SetSupplier getSetProvider()
@@ -103,7 +175,7 @@ public class SetBuilderOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, SetBuilderOperator.class.getSimpleName());
-            return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler);
+            return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler, spillEnabled, probeOperatorsCount, partitioningSpillerFactory);
         }
 
         @Override
@@ -115,20 +187,43 @@ public class SetBuilderOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new SetBuilderOperatorFactory(operatorId, planNodeId, setProvider.getType(), setChannel, hashChannel, expectedPositions, joinCompiler);
+            return new SetBuilderOperatorFactory(operatorId, planNodeId, setProvider.getType(), setChannel, hashChannel, expectedPositions, joinCompiler, spillEnabled, probeOperatorsCount, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
     private final SetSupplier setSupplier;
     private final int[] sourceChannels;
+    private final Optional<Integer> channelSetHashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
-    private final ChannelSetBuilder channelSetBuilder;
+    private final boolean spillEnabled;
+    private final OptionalInt probeOperatorsCount;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+
+    @Nullable
+    private ChannelSetBuilder channelSetBuilder;
 
     private boolean finished;
 
     @Nullable
     private Work<?> unfinishedWork;  // The pending work for current page.
+    @Nullable
+    private Page unfinishedPage;
+
+    // Once the set has been spilled, all the input is spilled along with it, partitioned by the hash of the set channel.
+    // The partitions are read back one at a time, when the probe operators request them.
+    private Optional<PartitioningSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private boolean spilledEmpty = true;
+    private boolean spilledContainsNull;
+    private Optional<SpilledChannelSet> spilledChannelSet = Optional.empty();
+    private int unspilledPartition;
+    private Iterator<Page> unspilledPages = emptyIterator();
+    private boolean partitionUnspilled;
 
     public SetBuilderOperator(
             OperatorContext operatorContext,
@@ -136,7 +231,10 @@ public class SetBuilderOperator
             int setChannel,
             Optional<Integer> hashChannel,
             int expectedPositions,
-            JoinCompiler joinCompiler)
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            OptionalInt probeOperatorsCount,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.setSupplier = requireNonNull(setSupplier, "setProvider is null");
@@ -149,13 +247,23 @@ public class SetBuilderOperator
         }
 
         // Set builder is has a single channel which goes in channel 0, if hash is present, add a hachBlock to channel 1
-        Optional<Integer> channelSetHashChannel = hashChannel.isPresent() ? Optional.of(1) : Optional.empty();
+        this.channelSetHashChannel = hashChannel.isPresent() ? Optional.of(1) : Optional.empty();
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.spillEnabled = spillEnabled;
+        this.probeOperatorsCount = requireNonNull(probeOperatorsCount, "probeOperatorsCount is null");
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+
+        // the set is revocable until it is handed to the probe side
         this.channelSetBuilder = new ChannelSetBuilder(
                 setSupplier.getType(),
                 channelSetHashChannel,
                 expectedPositions,
-                requireNonNull(operatorContext, "operatorContext is null"),
-                requireNonNull(joinCompiler, "joinCompiler is null"));
+                operatorContext,
+                joinCompiler,
+                spillEnabled ? localRevocableMemoryContext : localUserMemoryContext);
     }
 
     @Override
@@ -167,7 +275,20 @@ public class SetBuilderOperator
     @Override
     public void finish()
     {
-        if (finished) {
+        if (finished || !spillInProgress.isDone()) {
+            return;
+        }
+        checkSpillSucceeded(spillInProgress);
+
+        if (spilledChannelSet.isPresent()) {
+            // the probe operators read the spilled partitions back through the set builder
+            unspillPartitionIfRequested();
+            return;
+        }
+
+        if (spiller.isPresent()) {
+            spilledChannelSet = Optional.of(new SpilledChannelSet(SPILL_PARTITION_COUNT, spilledEmpty, spilledContainsNull, probeOperatorsCount.getAsInt()));
+            setSupplier.setSpilledChannelSet(spilledChannelSet.get());
             return;
         }
 
@@ -183,13 +304,26 @@ public class SetBuilderOperator
         return finished;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        if (spilledChannelSet.isPresent() && !finished) {
+            SpilledPartition partition = spilledChannelSet.get().getPartition(unspilledPartition);
+            return partitionUnspilled ? partition.getDisposeRequested() : partition.getUnspillingOrDisposeRequested();
+        }
+        return NOT_BLOCKED;
+    }
+
     @Override
     public boolean needsInput()
     {
         // Since SetBuilderOperator doesn't produce any output, the getOutput()
         // method may never be called. We need to handle any unfinished work
         // before addInput() can be called again.
-        return !finished && (unfinishedWork == null || processUnfinishedWork());
+        return !finished && !spilledChannelSet.isPresent() && spillInProgress.isDone() && (unfinishedWork == null || processUnfinishedWork());
     }
 
     @Override
@@ -197,8 +331,17 @@ public class SetBuilderOperator
     {
         requireNonNull(page, "page is null");
         checkState(!isFinished(), "Operator is already finished");
+        checkSpillSucceeded(spillInProgress);
+
+        Page setPage = page.extractChannels(sourceChannels);
+        if (spiller.isPresent()) {
+            recordSpilledValues(setPage.getBlock(0));
+            spillInProgress = spiller.get().partitionAndSpill(setPage, partition -> true).getSpillingFuture();
+            return;
+        }
 
-        unfinishedWork = channelSetBuilder.addPage(page.extractChannels(sourceChannels));
+        unfinishedPage = setPage;
+        unfinishedWork = channelSetBuilder.addPage(setPage);
         processUnfinishedWork();
     }
 
@@ -208,6 +351,136 @@ public class SetBuilderOperator
         return null;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (finished || spiller.isPresent() || localRevocableMemoryContext.getBytes() == 0) {
+            return NOT_BLOCKED;
+        }
+        checkState(spillEnabled, "Spill is not enabled");
+        checkSpillSucceeded(spillInProgress);
+
+        spiller = Optional.of(partitioningSpillerFactory.create(
+                channelSetHashChannel.isPresent() ? ImmutableList.of(setSupplier.getType(), BIGINT) : ImmutableList.of(setSupplier.getType()),
+                new SpillPartitionGenerator(createHashGenerator(), SPILL_PARTITION_COUNT),
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext()));
+
+        spilledEmpty = channelSetBuilder.size() == 0;
+        spilledContainsNull = channelSetBuilder.containsNull();
+        Iterator<Page> spilledPages = channelSetBuilder.getValues();
+        if (unfinishedWork != null) {
+            // the page may have been added to the set partially, and values that are spilled twice are deduplicated when read back
+            recordSpilledValues(unfinishedPage.getBlock(0));
+            spilledPages = concat(spilledPages, singletonIterator(unfinishedPage));
+            unfinishedWork = null;
+            unfinishedPage = null;
+        }
+        spillInProgress = spillPages(spilledPages);
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        if (spiller.isPresent()) {
+            channelSetBuilder = null;
+        }
+        localRevocableMemoryContext.setBytes(0);
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+            closer.register(() -> localUserMemoryContext.setBytes(0));
+            closer.register(() -> localRevocableMemoryContext.setBytes(0));
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void unspillPartitionIfRequested()
+    {
+        SpilledPartition partition = spilledChannelSet.get().getPartition(unspilledPartition);
+        if (partition.getDisposeRequested().isDone()) {
+            // all probe operators are done with the partition
+            channelSetBuilder = null;
+            unfinishedWork = null;
+            unspilledPages = emptyIterator();
+            partitionUnspilled = false;
+            localUserMemoryContext.setBytes(0);
+
+            unspilledPartition++;
+            if (unspilledPartition == SPILL_PARTITION_COUNT) {
+                finished = true;
+            }
+            return;
+        }
+
+        if (!partition.getUnspillingRequested().isDone() || partitionUnspilled) {
+            return;
+        }
+
+        if (channelSetBuilder == null) {
+            // values are not shared between partitions, so each partition is read back into a new set
+            channelSetBuilder = new ChannelSetBuilder(setSupplier.getType(), channelSetHashChannel, expectedPositions, operatorContext, joinCompiler, localUserMemoryContext);
+            unspilledPages = spiller.get().getSpilledPages(unspilledPartition);
+        }
+
+        if (unfinishedWork != null && !processUnfinishedWork()) {
+            return;
+        }
+        while (unspilledPages.hasNext()) {
+            unfinishedWork = channelSetBuilder.addPage(unspilledPages.next());
+            if (!processUnfinishedWork()) {
+                return;
+            }
+        }
+
+        partition.setChannelSet(channelSetBuilder.build());
+        partitionUnspilled = true;
+    }
+
+    private void recordSpilledValues(Block values)
+    {
+        if (values.getPositionCount() == 0) {
+            return;
+        }
+        spilledEmpty = false;
+        if (!spilledContainsNull && values.mayHaveNull()) {
+            for (int position = 0; position < values.getPositionCount(); position++) {
+                if (values.isNull(position)) {
+                    spilledContainsNull = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private ListenableFuture<Void> spillPages(Iterator<Page> pages)
+    {
+        while (pages.hasNext()) {
+            ListenableFuture<?> spillingFuture = spiller.get().partitionAndSpill(pages.next(), partition -> true).getSpillingFuture();
+            if (!spillingFuture.isDone()) {
+                // the spiller accepts a single spill at a time
+                return transformAsync(spillingFuture, ignored -> spillPages(pages), directExecutor());
+            }
+            checkSpillSucceeded(spillingFuture);
+        }
+        return immediateFuture((Void) null);
+    }
+
+    private HashGenerator createHashGenerator()
+    {
+        if (channelSetHashChannel.isPresent()) {
+            return new PrecomputedHashGenerator(channelSetHashChannel.get());
+        }
+        return new InterpretedHashGenerator(ImmutableList.of(setSupplier.getType()), new int[] {0});
+    }
+
     private boolean processUnfinishedWork()
     {
         // Processes the unfinishedWork for this page by adding the data to the hash table. If this page
@@ -216,6 +489,7 @@ public class SetBuilderOperator
         boolean done = unfinishedWork.process();
         if (done) {
             unfinishedWork = null;
+            unfinishedPage = null;
         }
         // We need to update the memory reservation again since the page builder memory may also be increasing.
         channelSetBuilder.updateMemoryReservation();
@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
+import io.airlift.slice.XxHash64;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Partitions the rows spilled by an operator by the hash of the given channels.
+ * <p>
+ * The input of such an operator is usually partitioned between its drivers by a
+ * {@link LocalPartitionGenerator} on the same channels, so the low bits of the mixed hash
+ * are the same for all rows of a driver. The spill partition is taken from the high bits
+ * instead, so that the rows of a driver spread across all spill partitions.
+ */
+public class SpillPartitionGenerator
+        implements PartitionFunction
+{
+    private final HashGenerator hashGenerator;
+    private final int partitionCount;
+    private final int partitionBits;
+
+    public SpillPartitionGenerator(HashGenerator hashGenerator, int partitionCount)
+    {
+        this.hashGenerator = requireNonNull(hashGenerator, "hashGenerator is null");
+        checkArgument(Integer.bitCount(partitionCount) == 1, "partitionCount must be a power of 2");
+        this.partitionCount = partitionCount;
+        this.partitionBits = Integer.numberOfTrailingZeros(partitionCount);
+    }
+
+    @Override
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    @Override
+    public int getPartition(Page page, int position)
+    {
+        if (partitionBits == 0) {
+            return 0;
+        }
+        long rawHash = hashGenerator.hashPosition(position, page);
+        return (int) (XxHash64.hash(Long.reverse(rawHash)) >>> (Long.SIZE - partitionBits));
+    }
+}
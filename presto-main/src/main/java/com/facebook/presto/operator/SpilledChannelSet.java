@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.facebook.airlift.concurrent.MoreFutures.whenAnyComplete;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The build side of a semi join that has been spilled to disk, partitioned by the hash of its values.
+ * <p>
+ * The probe operators spill their input with the same partitioning. Once all of them have finished,
+ * the {@link SetBuilderOperator} reads the partitions back one at a time and every probe operator
+ * marks its spilled rows of the partition against it.
+ */
+@ThreadSafe
+public final class SpilledChannelSet
+{
+    private final int partitionCount;
+    private final boolean empty;
+    private final boolean containsNull;
+    private final int probeOperatorsCount;
+    private final List<SpilledPartition> partitions;
+
+    private final SettableFuture<PartitionedConsumption<ChannelSet>> partitionedConsumption = SettableFuture.create();
+
+    @GuardedBy("this")
+    private int finishedProbeOperators;
+    @GuardedBy("this")
+    private int consumingProbeOperators;
+    @GuardedBy("this")
+    private boolean probeInputSpilled;
+
+    public SpilledChannelSet(int partitionCount, boolean empty, boolean containsNull, int probeOperatorsCount)
+    {
+        checkArgument(partitionCount > 0, "partitionCount must be positive");
+        checkArgument(probeOperatorsCount > 0, "probeOperatorsCount must be positive");
+        this.partitionCount = partitionCount;
+        this.empty = empty;
+        this.containsNull = containsNull;
+        this.probeOperatorsCount = probeOperatorsCount;
+        this.partitions = IntStream.range(0, partitionCount)
+                .mapToObj(partition -> new SpilledPartition())
+                .collect(toImmutableList());
+    }
+
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    /**
+     * Whether the whole set, across all partitions, is empty.
+     */
+    public boolean isEmpty()
+    {
+        return empty;
+    }
+
+    /**
+     * Whether the whole set, across all partitions, contains null.
+     */
+    public boolean containsNull()
+    {
+        return containsNull;
+    }
+
+    /**
+     * Called by a probe operator once all of its input has been spilled. The returned consumption
+     * completes when all probe operators have either finished or been closed.
+     */
+    public synchronized ListenableFuture<PartitionedConsumption<ChannelSet>> finishProbeOperator(boolean inputSpilled)
+    {
+        consumingProbeOperators++;
+        probeInputSpilled |= inputSpilled;
+        probeOperatorFinished();
+        return partitionedConsumption;
+    }
+
+    /**
+     * Called by a probe operator that does not take part in reading the partitions back,
+     * because it was closed before it finished.
+     */
+    public synchronized void probeOperatorClosed()
+    {
+        probeOperatorFinished();
+    }
+
+    @GuardedBy("this")
+    private void probeOperatorFinished()
+    {
+        checkState(finishedProbeOperators < probeOperatorsCount, "%s probe operators finished out of %s declared", finishedProbeOperators + 1, probeOperatorsCount);
+        finishedProbeOperators++;
+        if (finishedProbeOperators < probeOperatorsCount) {
+            return;
+        }
+
+        if (consumingProbeOperators == 0 || !probeInputSpilled) {
+            // there are no probe rows to mark, so none of the partitions needs to be read back
+            partitions.forEach(SpilledPartition::dispose);
+            partitionedConsumption.set(new PartitionedConsumption<>(
+                    Math.max(consumingProbeOperators, 1),
+                    ImmutableList.of(),
+                    partition -> {
+                        throw new UnsupportedOperationException();
+                    },
+                    partition -> {}));
+            return;
+        }
+
+        partitionedConsumption.set(new PartitionedConsumption<>(
+                consumingProbeOperators,
+                IntStream.range(0, partitionCount).boxed().collect(toImmutableList()),
+                partition -> partitions.get(partition).getChannelSet(),
+                partition -> partitions.get(partition).dispose()));
+    }
+
+    SpilledPartition getPartition(int partition)
+    {
+        return partitions.get(partition);
+    }
+
+    @ThreadSafe
+    static final class SpilledPartition
+    {
+        private final SettableFuture<?> unspillingRequested = SettableFuture.create();
+        private final SettableFuture<ChannelSet> channelSet = SettableFuture.create();
+        private final SettableFuture<?> disposeRequested = SettableFuture.create();
+        private final ListenableFuture<?> unspillingOrDisposeRequested = whenAnyComplete(ImmutableList.of(unspillingRequested, disposeRequested));
+
+        public ListenableFuture<ChannelSet> getChannelSet()
+        {
+            unspillingRequested.set(null);
+            return channelSet;
+        }
+
+        public void setChannelSet(ChannelSet channelSet)
+        {
+            requireNonNull(channelSet, "channelSet is null");
+            checkState(unspillingRequested.isDone(), "unspilling has not been requested");
+            boolean wasSet = this.channelSet.set(channelSet);
+            checkState(wasSet, "ChannelSet already set");
+        }
+
+        public void dispose()
+        {
+            disposeRequested.set(null);
+        }
+
+        public ListenableFuture<?> getUnspillingRequested()
+        {
+            return unspillingRequested;
+        }
+
+        public ListenableFuture<?> getDisposeRequested()
+        {
+            return disposeRequested;
+        }
+
+        public ListenableFuture<?> getUnspillingOrDisposeRequested()
+        {
+            return unspillingOrDisposeRequested;
+        }
+    }
+}
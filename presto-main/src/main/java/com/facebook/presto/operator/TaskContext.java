@@ -16,7 +16,9 @@ package com.facebook.presto.operator;
 import com.facebook.airlift.stats.CounterStat;
 import com.facebook.airlift.stats.GcMonitor;
 import com.facebook.presto.Session;
+import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.execution.Lifespan;
+import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskMetadataContext;
 import com.facebook.presto.execution.TaskState;
@@ -28,6 +30,7 @@ import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.memory.context.MemoryTrackingContext;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.AtomicDouble;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -39,7 +42,10 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
@@ -85,6 +91,9 @@ public class TaskContext
 
     private final List<PipelineContext> pipelineContexts = new CopyOnWriteArrayList<>();
 
+    // Dynamic filters collected by the task, keyed by dynamic filter ID, for consumers in other stages
+    private final ConcurrentMap<String, Domain> dynamicFilterDomains = new ConcurrentHashMap<>();
+
     private final boolean perOperatorCpuTimerEnabled;
     private final boolean cpuTimerEnabled;
 
@@ -291,6 +300,16 @@ public class TaskContext
         return pipelineContexts;
     }
 
+    public void addDynamicFilterDomains(Map<String, Domain> domains)
+    {
+        dynamicFilterDomains.putAll(domains);
+    }
+
+    public Map<String, Domain> getDynamicFilterDomains()
+    {
+        return ImmutableMap.copyOf(dynamicFilterDomains);
+    }
+
     public synchronized ListenableFuture<?> reserveSpill(long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
@@ -308,6 +327,20 @@ public class TaskContext
         return taskMemoryContext.localSystemMemoryContext();
     }
 
+    /**
+     * Creates a user memory context for data that is shared by the drivers of the task,
+     * rather than owned by one of its operators.
+     */
+    public LocalMemoryContext newUserMemoryContext(String allocationTag)
+    {
+        return taskMemoryContext.newUserMemoryContext(allocationTag);
+    }
+
+    public void addStateChangeListener(StateChangeListener<TaskState> stateChangeListener)
+    {
+        taskStateMachine.addStateChangeListener(stateChangeListener);
+    }
+
     public void moreMemoryAvailable()
     {
         pipelineContexts.forEach(PipelineContext::moreMemoryAvailable);
@@ -14,15 +14,24 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.WorkProcessor.Transformation;
+import com.facebook.presto.operator.WorkProcessor.TransformationState;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
 
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -30,8 +39,14 @@ import java.util.Optional;
 import static com.facebook.presto.SystemSessionProperties.isDictionaryAggregationEnabled;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.transform;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
 
 public class TopNRowNumberOperator
@@ -58,6 +73,9 @@ public class TopNRowNumberOperator
         private final boolean generateRowNumber;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final DataSize unspillMemoryLimit;
 
         public TopNRowNumberOperatorFactory(
                 int operatorId,
@@ -73,6 +91,43 @@ public class TopNRowNumberOperator
                 Optional<Integer> hashChannel,
                 int expectedPositions,
                 JoinCompiler joinCompiler)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    partitionChannels,
+                    partitionTypes,
+                    sortChannels,
+                    sortOrder,
+                    maxRowCountPerPartition,
+                    partial,
+                    hashChannel,
+                    expectedPositions,
+                    joinCompiler,
+                    false,
+                    Optional.empty(),
+                    new DataSize(0, MEGABYTE));
+        }
+
+        public TopNRowNumberOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<Integer> partitionChannels,
+                List<? extends Type> partitionTypes,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                int maxRowCountPerPartition,
+                boolean partial,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                Optional<SpillerFactory> spillerFactory,
+                DataSize unspillMemoryLimit)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -90,6 +145,10 @@ public class TopNRowNumberOperator
             this.generateRowNumber = !partial;
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+            this.unspillMemoryLimit = requireNonNull(unspillMemoryLimit, "unspillMemoryLimit is null");
+            checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
         }
 
         @Override
@@ -109,7 +168,10 @@ public class TopNRowNumberOperator
                     generateRowNumber,
                     hashChannel,
                     expectedPositions,
-                    joinCompiler);
+                    joinCompiler,
+                    spillEnabled,
+                    spillerFactory,
+                    unspillMemoryLimit);
         }
 
         @Override
@@ -121,21 +183,43 @@ public class TopNRowNumberOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new TopNRowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler);
+            return new TopNRowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler, spillEnabled, spillerFactory, unspillMemoryLimit);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext revocableMemoryContext;
 
     private final int[] outputChannels;
 
-    private final GroupByHash groupByHash;
-    private final GroupedTopNBuilder groupedTopNBuilder;
+    private final List<Type> sourceTypes;
+    private final List<Integer> partitionChannels;
+    private final List<Type> partitionTypes;
+    private final PageWithPositionComparator comparator;
+    private final int maxRowCountPerPartition;
+    private final boolean generateRowNumber;
+    private final Optional<Integer> hashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+
+    private final boolean spillEnabled;
+    private final Optional<SpillerFactory> spillerFactory;
+    private final long unspillMemoryLimit;
+    // spilled pages are prefixed with the partition columns so that MergeHashSort can merge them
+    private final List<Type> spillTypes;
+    private final int[] spilledSourceChannels;
+
+    private GroupByHash groupByHash;
+    private GroupedTopNBuilder groupedTopNBuilder;
+
+    private Optional<Spiller> spiller = Optional.empty();
+    private Optional<MergeHashSort> mergeHashSort = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
 
     private boolean finishing;
     private Work<?> unfinishedWork;
-    private Iterator<Page> outputIterator;
+    private Iterator<Optional<Page>> outputIterator;
 
     public TopNRowNumberOperator(
             OperatorContext operatorContext,
@@ -149,10 +233,14 @@ public class TopNRowNumberOperator
             boolean generateRowNumber,
             Optional<Integer> hashChannel,
             int expectedPositions,
-            JoinCompiler joinCompiler)
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            Optional<SpillerFactory> spillerFactory,
+            DataSize unspillMemoryLimit)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.revocableMemoryContext = operatorContext.localRevocableMemoryContext();
 
         ImmutableList.Builder<Integer> outputChannelsBuilder = ImmutableList.builder();
         for (int channel : requireNonNull(outputChannels, "outputChannels is null")) {
@@ -164,29 +252,35 @@ public class TopNRowNumberOperator
         this.outputChannels = Ints.toArray(outputChannelsBuilder.build());
 
         checkArgument(maxRowCountPerPartition > 0, "maxRowCountPerPartition must be > 0");
-
         if (!partitionChannels.isEmpty()) {
             checkArgument(expectedPositions > 0, "expectedPositions must be > 0");
-            groupByHash = createGroupByHash(
-                    partitionTypes,
-                    Ints.toArray(partitionChannels),
-                    hashChannel,
-                    expectedPositions,
-                    isDictionaryAggregationEnabled(operatorContext.getSession()),
-                    joinCompiler,
-                    this::updateMemoryReservation);
         }
-        else {
-            groupByHash = new NoChannelGroupByHash();
+
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
+        this.partitionChannels = ImmutableList.copyOf(partitionChannels);
+        this.partitionTypes = ImmutableList.copyOf(partitionTypes);
+        this.comparator = new SimplePageWithPositionComparator(toTypes(sourceTypes, outputChannels, generateRowNumber), sortChannels, sortOrders);
+        this.maxRowCountPerPartition = maxRowCountPerPartition;
+        this.generateRowNumber = generateRowNumber;
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+
+        // spilled rows are merged by the hash of their partition, so there is nothing to spill without partitions
+        this.spillEnabled = spillEnabled && !partitionChannels.isEmpty();
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.unspillMemoryLimit = requireNonNull(unspillMemoryLimit, "unspillMemoryLimit is null").toBytes();
+        checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
+        this.spillTypes = ImmutableList.<Type>builder()
+                .addAll(partitionTypes)
+                .addAll(sourceTypes)
+                .build();
+        this.spilledSourceChannels = new int[sourceTypes.size()];
+        for (int i = 0; i < sourceTypes.size(); i++) {
+            spilledSourceChannels[i] = partitionTypes.size() + i;
         }
 
-        List<Type> types = toTypes(sourceTypes, outputChannels, generateRowNumber);
-        this.groupedTopNBuilder = new GroupedTopNBuilder(
-                ImmutableList.copyOf(sourceTypes),
-                new SimplePageWithPositionComparator(types, sortChannels, sortOrders),
-                maxRowCountPerPartition,
-                generateRowNumber,
-                groupByHash);
+        rebuildGroupedTopNBuilder();
     }
 
     @Override
@@ -222,6 +316,7 @@ public class TopNRowNumberOperator
         checkState(unfinishedWork == null, "Cannot add input with the operator when unfinished work is not empty");
         checkState(outputIterator == null, "Cannot add input with the operator when flushing");
         requireNonNull(page, "page is null");
+        checkSpillSucceeded(spillInProgress);
         unfinishedWork = groupedTopNBuilder.processPage(page);
         if (unfinishedWork.process()) {
             unfinishedWork = null;
@@ -247,17 +342,51 @@ public class TopNRowNumberOperator
 
         if (outputIterator == null) {
             // start flushing
-            outputIterator = groupedTopNBuilder.buildResult();
+            outputIterator = buildOutput();
         }
 
         Page output = null;
         if (outputIterator.hasNext()) {
-            output = outputIterator.next().extractChannels(outputChannels);
+            output = outputIterator.next()
+                    .map(page -> page.extractChannels(outputChannels))
+                    .orElse(null);
         }
         updateMemoryReservation();
         return output;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkSpillSucceeded(spillInProgress);
+        if (revocableMemoryContext.getBytes() == 0) {
+            // the buffered rows are already being flushed
+            return immediateFuture(null);
+        }
+        verify(outputIterator == null && unfinishedWork == null, "Cannot spill while producing output");
+        return spillToDisk();
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        updateMemoryReservation();
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+            mergeHashSort.ifPresent(closer::register);
+            closer.register(() -> localUserMemoryContext.setBytes(0));
+            closer.register(() -> revocableMemoryContext.setBytes(0));
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -265,11 +394,151 @@ public class TopNRowNumberOperator
         return groupByHash.getCapacity();
     }
 
+    private Iterator<Optional<Page>> buildOutput()
+    {
+        checkSpillSucceeded(spillInProgress);
+
+        if (!spiller.isPresent() && revocableMemoryContext.getBytes() > 0) {
+            // the buffered rows can no longer be spilled once they are being output
+            long currentRevocableBytes = revocableMemoryContext.getBytes();
+            revocableMemoryContext.setBytes(0);
+            if (!localUserMemoryContext.trySetBytes(localUserMemoryContext.getBytes() + currentRevocableBytes)) {
+                // TODO: this should be asynchronous
+                revocableMemoryContext.setBytes(currentRevocableBytes);
+                checkSpillSucceeded(spillToDisk());
+            }
+        }
+
+        if (!spiller.isPresent()) {
+            return transform(groupedTopNBuilder.buildResult(), Optional::of);
+        }
+
+        if (!groupedTopNBuilder.isEmpty()) {
+            // the rows buffered since the last spill are merged along with the spilled ones
+            checkSpillSucceeded(spillToDisk());
+        }
+        return mergeFromDisk().yieldingIterator();
+    }
+
+    private ListenableFuture<?> spillToDisk()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.get().create(
+                    spillTypes,
+                    operatorContext.getSpillContext(),
+                    operatorContext.newAggregateSystemMemoryContext()));
+        }
+
+        // start spilling the current content of the builder...
+        spillInProgress = spiller.get().spill(transform(groupedTopNBuilder.buildHashSortedResult(), this::prependPartitionColumns));
+        // ... and immediately create a new builder, so the memory of the current one is owned by the spilling thread
+        rebuildGroupedTopNBuilder();
+
+        return spillInProgress;
+    }
+
+    private WorkProcessor<Page> mergeFromDisk()
+    {
+        mergeHashSort = Optional.of(new MergeHashSort(operatorContext.newAggregateSystemMemoryContext()));
+
+        WorkProcessor<Page> sortedPages = mergeHashSort.get().merge(
+                partitionTypes,
+                spillTypes,
+                spiller.get().getSpills().stream()
+                        .map(WorkProcessor::fromIterator)
+                        .collect(toImmutableList()),
+                operatorContext.getDriverContext().getYieldSignal());
+
+        return sortedPages.flatTransform(new Transformation<Page, WorkProcessor<Page>>()
+        {
+            boolean reset;
+
+            @Override
+            public TransformationState<WorkProcessor<Page>> process(Optional<Page> inputPage)
+            {
+                if (reset) {
+                    rebuildGroupedTopNBuilder();
+                    reset = false;
+                }
+
+                boolean inputFinished = !inputPage.isPresent();
+                if (inputFinished && groupedTopNBuilder.isEmpty()) {
+                    return TransformationState.finished();
+                }
+
+                if (!inputFinished) {
+                    boolean done = groupedTopNBuilder.processPage(inputPage.get().extractChannels(spilledSourceChannels)).process();
+                    // memory reservations never yield when spilling is enabled
+                    verify(done);
+                    updateMemoryReservation();
+
+                    if (unspillMemoryLimit == 0 || groupedTopNBuilder.getEstimatedSizeInBytes() <= unspillMemoryLimit) {
+                        return TransformationState.needsMoreData();
+                    }
+                }
+
+                reset = true;
+                // a partition never spans multiple input pages (guaranteed by MergeHashSort), so its rows are complete
+                return TransformationState.ofResult(WorkProcessor.fromIterator(groupedTopNBuilder.buildResult()), !inputFinished);
+            }
+        });
+    }
+
+    private Page prependPartitionColumns(Page page)
+    {
+        Block[] blocks = new Block[partitionChannels.size() + page.getChannelCount()];
+        for (int i = 0; i < partitionChannels.size(); i++) {
+            blocks[i] = page.getBlock(partitionChannels.get(i));
+        }
+        for (int i = 0; i < page.getChannelCount(); i++) {
+            blocks[partitionChannels.size() + i] = page.getBlock(i);
+        }
+        return new Page(page.getPositionCount(), blocks);
+    }
+
+    private void rebuildGroupedTopNBuilder()
+    {
+        if (!partitionChannels.isEmpty()) {
+            groupByHash = createGroupByHash(
+                    partitionTypes,
+                    Ints.toArray(partitionChannels),
+                    hashChannel,
+                    expectedPositions,
+                    isDictionaryAggregationEnabled(operatorContext.getSession()),
+                    joinCompiler,
+                    this::updateMemoryReservation);
+        }
+        else {
+            groupByHash = new NoChannelGroupByHash();
+        }
+
+        groupedTopNBuilder = new GroupedTopNBuilder(
+                sourceTypes,
+                comparator,
+                maxRowCountPerPartition,
+                generateRowNumber,
+                groupByHash);
+    }
+
     private boolean updateMemoryReservation()
     {
-        // TODO: may need to use trySetMemoryReservation with a compaction to free memory (but that may cause GC pressure)
-        localUserMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
-        return operatorContext.isWaitingForMemory().isDone();
+        long estimatedSizeInBytes = groupedTopNBuilder.getEstimatedSizeInBytes();
+        if (!spillEnabled) {
+            // TODO: may need to use trySetMemoryReservation with a compaction to free memory (but that may cause GC pressure)
+            localUserMemoryContext.setBytes(estimatedSizeInBytes);
+            return operatorContext.isWaitingForMemory().isDone();
+        }
+
+        if (outputIterator == null && !groupedTopNBuilder.isEmpty()) {
+            localUserMemoryContext.setBytes(0);
+            revocableMemoryContext.setBytes(estimatedSizeInBytes);
+        }
+        else {
+            revocableMemoryContext.setBytes(0);
+            localUserMemoryContext.setBytes(estimatedSizeInBytes);
+        }
+        // memory is released by spilling instead, which cannot happen in the middle of a page
+        return true;
     }
 
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels, boolean generateRowNumber)
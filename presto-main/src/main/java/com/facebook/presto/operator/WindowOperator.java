@@ -22,6 +22,7 @@ import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.facebook.presto.operator.WorkProcessor.Transformation;
 import com.facebook.presto.operator.WorkProcessor.TransformationState;
 import com.facebook.presto.operator.window.FramedWindowFunction;
+import com.facebook.presto.operator.window.MemoryTrackingWindowFunction;
 import com.facebook.presto.operator.window.WindowPartition;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spiller.Spiller;
@@ -232,6 +233,12 @@ public class WindowOperator
         this.windowFunctions = windowFunctionDefinitions.stream()
                 .map(functionDefinition -> new FramedWindowFunction(functionDefinition.createWindowFunction(), functionDefinition.getFrameInfo()))
                 .collect(toImmutableList());
+        for (FramedWindowFunction windowFunction : windowFunctions) {
+            if (windowFunction.getFunction() instanceof MemoryTrackingWindowFunction) {
+                ((MemoryTrackingWindowFunction) windowFunction.getFunction()).setMemoryContext(
+                        operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(MemoryTrackingWindowFunction.class.getSimpleName()));
+            }
+        }
 
         this.outputTypes = Stream.concat(
                 outputChannels.stream()
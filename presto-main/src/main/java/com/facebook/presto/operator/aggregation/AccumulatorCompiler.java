@@ -62,6 +62,7 @@ import static com.facebook.presto.bytecode.expression.BytecodeExpressions.consta
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantInt;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantLong;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantString;
+import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantTrue;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.invokeDynamic;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.invokeStatic;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.not;
@@ -163,12 +164,25 @@ public class AccumulatorCompiler
                 grouped);
         generateAddInputWindowIndex(
                 definition,
+                "addInput",
                 stateFileds,
                 metadata.getValueInputMetadata(),
                 metadata.getLambdaInterfaces(),
                 lambdaProviderFields,
                 metadata.getInputFunction(),
                 callSiteBinder);
+        if (!grouped && metadata.getRemoveInputFunction().isPresent()) {
+            generateAddInputWindowIndex(
+                    definition,
+                    "removeInput",
+                    stateFileds,
+                    metadata.getValueInputMetadata(),
+                    metadata.getLambdaInterfaces(),
+                    lambdaProviderFields,
+                    metadata.getRemoveInputFunction().get(),
+                    callSiteBinder);
+            generateHasRemoveInput(definition);
+        }
         generateGetEstimatedSize(definition, stateFileds);
 
         generateGetIntermediateType(
@@ -327,6 +341,7 @@ public class AccumulatorCompiler
 
     private static void generateAddInputWindowIndex(
             ClassDefinition definition,
+            String methodName,
             List<FieldDefinition> stateField,
             List<ParameterMetadata> parameterMetadatas,
             List<Class> lambdaInterfaces,
@@ -341,7 +356,7 @@ public class AccumulatorCompiler
         Parameter startPosition = arg("startPosition", int.class);
         Parameter endPosition = arg("endPosition", int.class);
 
-        MethodDefinition method = definition.declareMethod(a(PUBLIC), "addInput", type(void.class), ImmutableList.of(index, channels, startPosition, endPosition));
+        MethodDefinition method = definition.declareMethod(a(PUBLIC), methodName, type(void.class), ImmutableList.of(index, channels, startPosition, endPosition));
         Scope scope = method.getScope();
 
         Variable position = scope.declareVariable(int.class, "position");
@@ -374,6 +389,14 @@ public class AccumulatorCompiler
                 .ret();
     }
 
+    private static void generateHasRemoveInput(ClassDefinition definition)
+    {
+        MethodDefinition method = definition.declareMethod(a(PUBLIC), "hasRemoveInput", type(boolean.class));
+        method.getBody()
+                .append(constantTrue())
+                .retBoolean();
+    }
+
     private static BytecodeExpression anyParametersAreNull(
             List<ParameterMetadata> parameterMetadatas,
             Variable index,
@@ -22,6 +22,8 @@ import com.facebook.presto.spi.function.AggregationStateSerializerFactory;
 import com.facebook.presto.spi.function.CombineFunction;
 import com.facebook.presto.spi.function.InputFunction;
 import com.facebook.presto.spi.function.OutputFunction;
+import com.facebook.presto.spi.function.RemoveInputFunction;
+import com.facebook.presto.spi.function.SqlType;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -76,8 +78,9 @@ public class AggregationFromAnnotationsParser
             Optional<Method> aggregationStateSerializerFactory = getAggregationStateSerializerFactory(aggregationDefinition, stateClass);
             for (Method outputFunction : getOutputFunctions(aggregationDefinition, stateClass)) {
                 for (Method inputFunction : getInputFunctions(aggregationDefinition, stateClass)) {
+                    Optional<Method> removeInputFunction = getRemoveInputFunction(aggregationDefinition, inputFunction);
                     for (AggregationHeader header : parseHeaders(aggregationDefinition, outputFunction)) {
-                        AggregationImplementation onlyImplementation = parseImplementation(aggregationDefinition, header, stateClass, inputFunction, outputFunction, combineFunction, aggregationStateSerializerFactory);
+                        AggregationImplementation onlyImplementation = parseImplementation(aggregationDefinition, header, stateClass, inputFunction, removeInputFunction, outputFunction, combineFunction, aggregationStateSerializerFactory);
                         ParametricImplementationsGroup<AggregationImplementation> implementations = ParametricImplementationsGroup.of(onlyImplementation);
                         builder.add(new ParametricAggregation(implementations.getSignature(), header, implementations));
                     }
@@ -98,7 +101,8 @@ public class AggregationFromAnnotationsParser
             Optional<Method> aggregationStateSerializerFactory = getAggregationStateSerializerFactory(aggregationDefinition, stateClass);
             Method outputFunction = getOnlyElement(getOutputFunctions(aggregationDefinition, stateClass));
             for (Method inputFunction : getInputFunctions(aggregationDefinition, stateClass)) {
-                AggregationImplementation implementation = parseImplementation(aggregationDefinition, header, stateClass, inputFunction, outputFunction, combineFunction, aggregationStateSerializerFactory);
+                Optional<Method> removeInputFunction = getRemoveInputFunction(aggregationDefinition, inputFunction);
+                AggregationImplementation implementation = parseImplementation(aggregationDefinition, header, stateClass, inputFunction, removeInputFunction, outputFunction, combineFunction, aggregationStateSerializerFactory);
                 implementationsBuilder.addImplementation(implementation);
             }
         }
@@ -205,6 +209,29 @@ public class AggregationFromAnnotationsParser
         return inputFunctions;
     }
 
+    private static Optional<Method> getRemoveInputFunction(Class<?> clazz, Method inputFunction)
+    {
+        // Only include methods that take exactly the same arguments as the input function they revert
+        List<Method> removeInputFunctions = FunctionsParserHelper.findPublicStaticMethods(clazz, RemoveInputFunction.class).stream()
+                .filter(method -> Arrays.equals(method.getParameterTypes(), inputFunction.getParameterTypes()))
+                .filter(method -> getSqlTypes(method).equals(getSqlTypes(inputFunction)))
+                .collect(toImmutableList());
+
+        if (removeInputFunctions.isEmpty()) {
+            return Optional.empty();
+        }
+
+        checkArgument(removeInputFunctions.size() == 1, String.format("There must be at most one @RemoveInputFunction in class %s for the @InputFunction %s", clazz.toGenericString(), inputFunction.getName()));
+        return Optional.of(getOnlyElement(removeInputFunctions));
+    }
+
+    private static List<Optional<String>> getSqlTypes(Method method)
+    {
+        return Arrays.stream(method.getParameters())
+                .map(parameter -> Optional.ofNullable(parameter.getAnnotation(SqlType.class)).map(SqlType::value))
+                .collect(toImmutableList());
+    }
+
     private static Set<Class<?>> getStateClasses(Class<?> clazz)
     {
         ImmutableSet.Builder<Class<?>> builder = ImmutableSet.builder();
@@ -25,6 +25,7 @@ import io.airlift.slice.Slice;
 import java.lang.invoke.MethodHandle;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.facebook.presto.operator.aggregation.AggregationMetadata.ParameterMetadata.ParameterType.BLOCK_INDEX;
@@ -45,6 +46,7 @@ public class AggregationMetadata
     private final List<ParameterMetadata> valueInputMetadata;
     private final List<Class> lambdaInterfaces;
     private final MethodHandle inputFunction;
+    private final Optional<MethodHandle> removeInputFunction;
     private final MethodHandle combineFunction;
     private final MethodHandle outputFunction;
     private final List<AccumulatorStateDescriptor> accumulatorStateDescriptors;
@@ -79,17 +81,42 @@ public class AggregationMetadata
             List<AccumulatorStateDescriptor> accumulatorStateDescriptors,
             Type outputType,
             List<Class> lambdaInterfaces)
+    {
+        this(
+                name,
+                valueInputMetadata,
+                inputFunction,
+                Optional.empty(),
+                combineFunction,
+                outputFunction,
+                accumulatorStateDescriptors,
+                outputType,
+                lambdaInterfaces);
+    }
+
+    public AggregationMetadata(
+            String name,
+            List<ParameterMetadata> valueInputMetadata,
+            MethodHandle inputFunction,
+            Optional<MethodHandle> removeInputFunction,
+            MethodHandle combineFunction,
+            MethodHandle outputFunction,
+            List<AccumulatorStateDescriptor> accumulatorStateDescriptors,
+            Type outputType,
+            List<Class> lambdaInterfaces)
     {
         this.outputType = requireNonNull(outputType);
         this.valueInputMetadata = ImmutableList.copyOf(requireNonNull(valueInputMetadata, "valueInputMetadata is null"));
         this.name = requireNonNull(name, "name is null");
         this.inputFunction = requireNonNull(inputFunction, "inputFunction is null");
+        this.removeInputFunction = requireNonNull(removeInputFunction, "removeInputFunction is null");
         this.combineFunction = requireNonNull(combineFunction, "combineFunction is null");
         this.outputFunction = requireNonNull(outputFunction, "outputFunction is null");
         this.accumulatorStateDescriptors = requireNonNull(accumulatorStateDescriptors, "accumulatorStateDescriptors is null");
         this.lambdaInterfaces = ImmutableList.copyOf(requireNonNull(lambdaInterfaces, "lambdaInterfaces is null"));
 
         verifyInputFunctionSignature(inputFunction, valueInputMetadata, lambdaInterfaces, accumulatorStateDescriptors);
+        removeInputFunction.ifPresent(function -> verifyRemoveInputFunction(function, inputFunction, valueInputMetadata));
         verifyCombineFunction(combineFunction, lambdaInterfaces, accumulatorStateDescriptors);
         verifyExactOutputFunction(outputFunction, accumulatorStateDescriptors);
     }
@@ -119,6 +146,11 @@ public class AggregationMetadata
         return inputFunction;
     }
 
+    public Optional<MethodHandle> getRemoveInputFunction()
+    {
+        return removeInputFunction;
+    }
+
     public MethodHandle getCombineFunction()
     {
         return combineFunction;
@@ -178,6 +210,15 @@ public class AggregationMetadata
         }
     }
 
+    private static void verifyRemoveInputFunction(MethodHandle method, MethodHandle inputFunction, List<ParameterMetadata> dataChannelMetadata)
+    {
+        checkArgument(method.type().equals(inputFunction.type()), "Remove input function type %s must be the same as input function type %s", method.type(), inputFunction.type());
+        // window functions only know which rows reached the input function when null positions are skipped for every argument
+        checkArgument(
+                dataChannelMetadata.stream().noneMatch(metadata -> metadata.getParameterType() == NULLABLE_BLOCK_INPUT_CHANNEL),
+                "Remove input function is not supported for aggregations with @NullablePosition arguments");
+    }
+
     private static void verifyCombineFunction(MethodHandle method, List<Class> lambdaInterfaces, List<AccumulatorStateDescriptor> stateDescriptors)
     {
         Class<?>[] parameterTypes = method.type().parameterArray();
@@ -21,6 +21,7 @@ import com.facebook.presto.spi.function.AggregationState;
 import com.facebook.presto.spi.function.CombineFunction;
 import com.facebook.presto.spi.function.InputFunction;
 import com.facebook.presto.spi.function.OutputFunction;
+import com.facebook.presto.spi.function.RemoveInputFunction;
 import com.facebook.presto.spi.function.SqlType;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -38,6 +39,14 @@ public final class CountIfAggregation
         }
     }
 
+    @RemoveInputFunction
+    public static void removeInput(@AggregationState LongState state, @SqlType(StandardTypes.BOOLEAN) boolean value)
+    {
+        if (value) {
+            state.setLong(state.getLong() - 1);
+        }
+    }
+
     @CombineFunction
     public static void combine(@AggregationState LongState state, @AggregationState LongState otherState)
     {
@@ -88,6 +88,14 @@ public class IndexLookupSource
         return joinPosition;
     }
 
+    @Override
+    public boolean isBatchProbeSupported()
+    {
+        // a lookup of a key that is not in the current snapshot replaces the indexed data,
+        // which invalidates join positions returned for previous keys
+        return false;
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -14,6 +14,10 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.MapType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.UpdateMemory;
 import com.facebook.presto.operator.aggregation.Accumulator;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
@@ -26,29 +30,54 @@ import com.google.common.collect.ImmutableList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 public class AggregateWindowFunction
-        implements WindowFunction
+        implements MemoryTrackingWindowFunction
 {
+    // frames smaller than this are cheaper to re-accumulate than to assemble from the segment tree
+    private static final int MIN_SEGMENT_TREE_FRAME_SIZE = 4 * WindowAggregationSegmentTree.LEAF_SIZE;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean hasRemoveInput;
+    private final boolean supportsSegmentTree;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
+    // number of rows in the current frame that reached the input function, tracked only when input can be removed
+    private long currentInputCount;
+    private WindowAggregationSegmentTree segmentTree;
+    // holds the size of the segment tree, which is not part of the window partition
+    private LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(AggregateWindowFunction.class.getSimpleName());
 
     private AggregateWindowFunction(InternalAggregationFunction function, List<Integer> argumentChannels)
     {
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = function.bind(createArgs(function), Optional.empty());
+        this.hasRemoveInput = accumulatorFactory.createAccumulator(UpdateMemory.NOOP).hasRemoveInput();
+        this.supportsSegmentTree = !hasRemoveInput && function.isDecomposable() && hasBoundedSize(function.getIntermediateType());
+    }
+
+    @Override
+    public void setMemoryContext(LocalMemoryContext memoryContext)
+    {
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        if (segmentTree != null) {
+            segmentTree = null;
+            memoryContext.setBytes(0);
+        }
         resetAccumulator();
     }
 
@@ -64,10 +93,19 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
-        else {
+        else if (!slideFrame(frameStart, frameEnd)) {
             // different frame
             resetAccumulator();
-            accumulate(frameStart, frameEnd);
+            if (supportsSegmentTree && frameEnd - frameStart + 1 >= MIN_SEGMENT_TREE_FRAME_SIZE) {
+                if (segmentTree == null) {
+                    segmentTree = new WindowAggregationSegmentTree(accumulatorFactory, windowIndex, argumentChannels);
+                    memoryContext.setBytes(segmentTree.getRetainedSizeInBytes());
+                }
+                segmentTree.accumulate(accumulator, frameStart, frameEnd);
+            }
+            else {
+                accumulate(frameStart, frameEnd);
+            }
             currentStart = frameStart;
             currentEnd = frameEnd;
         }
@@ -75,9 +113,79 @@ public class AggregateWindowFunction
         accumulator.evaluateFinal(output);
     }
 
+    /**
+     * Moves the current frame to the new one by removing the rows that fell out of it and adding
+     * the rows that entered it. Returns false if the accumulator can not remove input or if
+     * starting over is cheaper because the frames barely overlap.
+     */
+    private boolean slideFrame(int frameStart, int frameEnd)
+    {
+        if (!hasRemoveInput || currentStart < 0) {
+            return false;
+        }
+
+        // all bounds are inclusive
+        int overlapStart = max(frameStart, currentStart);
+        int overlapEnd = min(frameEnd, currentEnd);
+        int removedRows = max(frameStart - currentStart, 0) + max(currentEnd - frameEnd, 0);
+        if (overlapEnd - overlapStart + 1 <= removedRows) {
+            return false;
+        }
+
+        if (currentStart < frameStart) {
+            remove(currentStart, frameStart - 1);
+        }
+        if (frameEnd < currentEnd) {
+            remove(frameEnd + 1, currentEnd);
+        }
+        if (frameStart < currentStart) {
+            accumulate(frameStart, currentStart - 1);
+        }
+        if (currentEnd < frameEnd) {
+            accumulate(currentEnd + 1, frameEnd);
+        }
+
+        if (currentInputCount == 0) {
+            // States such as nullable sums can not tell that their last input was removed,
+            // but with no input left the result is the same as for a fresh accumulator
+            accumulator = accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
+        }
+        currentStart = frameStart;
+        currentEnd = frameEnd;
+        return true;
+    }
+
     private void accumulate(int start, int end)
     {
         accumulator.addInput(windowIndex, argumentChannels, start, end);
+        if (hasRemoveInput) {
+            currentInputCount += countInputRows(start, end);
+        }
+    }
+
+    private void remove(int start, int end)
+    {
+        accumulator.removeInput(windowIndex, argumentChannels, start, end);
+        currentInputCount -= countInputRows(start, end);
+    }
+
+    private int countInputRows(int start, int end)
+    {
+        // the input function is skipped for rows with a null argument
+        int count = 0;
+        for (int position = start; position <= end; position++) {
+            boolean hasNullArgument = false;
+            for (int channel : argumentChannels) {
+                if (windowIndex.isNull(channel, position)) {
+                    hasNullArgument = true;
+                    break;
+                }
+            }
+            if (!hasNullArgument) {
+                count++;
+            }
+        }
+        return count;
     }
 
     private void resetAccumulator()
@@ -89,6 +197,7 @@ public class AggregateWindowFunction
             accumulator = accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
             currentStart = -1;
             currentEnd = -1;
+            currentInputCount = 0;
         }
     }
 
@@ -105,6 +214,15 @@ public class AggregateWindowFunction
         };
     }
 
+    private static boolean hasBoundedSize(Type type)
+    {
+        // collection states grow with every row, so keeping one per segment tree node would multiply the partition size
+        if (type instanceof ArrayType || type instanceof MapType) {
+            return false;
+        }
+        return type.getTypeParameters().stream().allMatch(AggregateWindowFunction::hasBoundedSize);
+    }
+
     private static List<Integer> createArgs(InternalAggregationFunction function)
     {
         ImmutableList.Builder<Integer> list = ImmutableList.builder();
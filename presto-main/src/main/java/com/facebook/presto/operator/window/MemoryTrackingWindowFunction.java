@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.spi.function.WindowFunction;
+
+/**
+ * A window function that keeps state of its own for the current partition, in addition to the
+ * partition itself, and reports the size of that state to the window operator.
+ */
+public interface MemoryTrackingWindowFunction
+        extends WindowFunction
+{
+    /**
+     * Called once, before the first partition, with the user memory context of the window operator.
+     */
+    void setMemoryContext(LocalMemoryContext memoryContext);
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.UpdateMemory;
+import com.facebook.presto.operator.aggregation.Accumulator;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segment tree of partial aggregation states over a window partition. Leaves hold the
+ * intermediate state of {@link #LEAF_SIZE} consecutive rows, and every level above combines
+ * pairs of nodes from the level below. A frame is then aggregated from at most two nodes per
+ * level plus the rows at its edges that do not fill a whole leaf, which bounds the cost of
+ * sliding frames for aggregations that cannot remove input.
+ */
+class WindowAggregationSegmentTree
+{
+    static final int LEAF_SIZE = 32;
+
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(WindowAggregationSegmentTree.class).instanceSize();
+
+    private final AccumulatorFactory accumulatorFactory;
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    private final Type intermediateType;
+    private final List<Block> levels;
+    private final long retainedSizeInBytes;
+
+    public WindowAggregationSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+        this.intermediateType = createAccumulator().getIntermediateType();
+
+        ImmutableList.Builder<Block> levels = ImmutableList.builder();
+        Block level = buildLeaves(windowIndex.size() / LEAF_SIZE);
+        levels.add(level);
+        while (level.getPositionCount() > 1) {
+            level = buildParents(level);
+            levels.add(level);
+        }
+        this.levels = levels.build();
+
+        long retainedSizeInBytes = INSTANCE_SIZE;
+        for (Block nodes : this.levels) {
+            retainedSizeInBytes += nodes.getRetainedSizeInBytes();
+        }
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Adds the rows from {@code startPosition} to {@code endPosition} (both inclusive) to the accumulator,
+     * in row order, so order sensitive aggregations produce the same result as a plain accumulation.
+     */
+    public void accumulate(Accumulator accumulator, int startPosition, int endPosition)
+    {
+        int firstLeaf = (startPosition + LEAF_SIZE - 1) / LEAF_SIZE;
+        int endLeaf = (endPosition + 1) / LEAF_SIZE;
+        if (firstLeaf >= endLeaf) {
+            accumulator.addInput(windowIndex, argumentChannels, startPosition, endPosition);
+            return;
+        }
+
+        if (startPosition < firstLeaf * LEAF_SIZE) {
+            accumulator.addInput(windowIndex, argumentChannels, startPosition, firstLeaf * LEAF_SIZE - 1);
+        }
+
+        // walk up the tree collecting the nodes that exactly cover leaves [firstLeaf, endLeaf)
+        List<Block> leftNodes = new ArrayList<>();
+        List<Block> rightNodes = new ArrayList<>();
+        int low = firstLeaf;
+        int high = endLeaf;
+        for (int level = 0; low < high; level++) {
+            Block nodes = levels.get(level);
+            if ((low & 1) == 1) {
+                leftNodes.add(nodes.getRegion(low, 1));
+                low++;
+            }
+            if ((high & 1) == 1) {
+                high--;
+                rightNodes.add(nodes.getRegion(high, 1));
+            }
+            low >>= 1;
+            high >>= 1;
+        }
+        for (Block node : leftNodes) {
+            accumulator.addIntermediate(node);
+        }
+        for (int i = rightNodes.size() - 1; i >= 0; i--) {
+            accumulator.addIntermediate(rightNodes.get(i));
+        }
+
+        if (endLeaf * LEAF_SIZE <= endPosition) {
+            accumulator.addInput(windowIndex, argumentChannels, endLeaf * LEAF_SIZE, endPosition);
+        }
+    }
+
+    private Block buildLeaves(int leafCount)
+    {
+        BlockBuilder builder = intermediateType.createBlockBuilder(null, leafCount);
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            Accumulator accumulator = createAccumulator();
+            accumulator.addInput(windowIndex, argumentChannels, leaf * LEAF_SIZE, (leaf + 1) * LEAF_SIZE - 1);
+            accumulator.evaluateIntermediate(builder);
+        }
+        return builder.build();
+    }
+
+    private Block buildParents(Block children)
+    {
+        // an odd trailing child has no parent; queries never need it, as they only climb through complete pairs
+        int parentCount = children.getPositionCount() / 2;
+        BlockBuilder builder = intermediateType.createBlockBuilder(null, parentCount);
+        for (int parent = 0; parent < parentCount; parent++) {
+            Accumulator accumulator = createAccumulator();
+            accumulator.addIntermediate(children.getRegion(2 * parent, 2));
+            accumulator.evaluateIntermediate(builder);
+        }
+        return builder.build();
+    }
+
+    private Accumulator createAccumulator()
+    {
+        // window functions do not support distinct and ordering accumulators, so no memory callback is needed
+        return accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
+    }
+}
@@ -25,12 +25,10 @@ import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.List;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
 import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.airlift.slice.Slices.allocate;
 import static java.util.Objects.requireNonNull;
-import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
 
 public class SerializedPageWriteListener
         implements WriteListener
@@ -67,29 +65,33 @@ public class SerializedPageWriteListener
 
             if (page == null) {
                 page = serializedPages.poll();
-
-                int bufferPosition = 0;
-
-                slice.setInt(bufferPosition, page.getPositionCount());
-                bufferPosition += SIZE_OF_INT;
-                slice.setByte(bufferPosition, page.getPageCodecMarkers());
-                bufferPosition += SIZE_OF_BYTE;
-                slice.setInt(bufferPosition, page.getUncompressedSizeInBytes());
-                bufferPosition += SIZE_OF_INT;
-                slice.setInt(bufferPosition, page.getSizeInBytes());
-                bufferPosition += SIZE_OF_INT;
-
-                output.write(slice.byteArray(), 0, bufferPosition);
+                writePageMetadata(slice, page);
+                output.write(slice.byteArray(), 0, PAGE_METADATA_SIZE);
             }
             else {
-                Object base = page.getSlice().getBase();
-                checkArgument(base instanceof byte[], "serialization type only supports byte[]");
-                output.write((byte[]) base, (int) ((page.getSlice().getAddress() - ARRAY_BYTE_BASE_OFFSET)), page.getSizeInBytes());
+                // writes straight from the page's backing array when it has one
+                page.getSlice().getBytes(0, output, page.getSizeInBytes());
                 page = null;
             }
         }
     }
 
+    /**
+     * Writes the {@link #PAGE_METADATA_SIZE} bytes that precede the page data on the wire.
+     */
+    public static void writePageMetadata(Slice buffer, SerializedPage page)
+    {
+        int bufferPosition = 0;
+
+        buffer.setInt(bufferPosition, page.getPositionCount());
+        bufferPosition += SIZE_OF_INT;
+        buffer.setByte(bufferPosition, page.getPageCodecMarkers());
+        bufferPosition += SIZE_OF_BYTE;
+        buffer.setInt(bufferPosition, page.getUncompressedSizeInBytes());
+        bufferPosition += SIZE_OF_INT;
+        buffer.setInt(bufferPosition, page.getSizeInBytes());
+    }
+
     @Override
     public void onError(Throwable t)
     {
@@ -39,6 +39,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import static com.facebook.airlift.http.server.AsyncResponseHandler.bindAsyncResponse;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BINARY_RESULTS;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.toResponse;
 import static com.facebook.presto.server.security.RoleType.USER;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -83,6 +84,7 @@ public class ExecutingStatementResource
             @QueryParam("maxWait") Duration maxWait,
             @QueryParam("targetResultSize") DataSize targetResultSize,
             @HeaderParam(X_FORWARDED_PROTO) String proto,
+            @HeaderParam(PRESTO_BINARY_RESULTS) boolean binaryResults,
             @Context UriInfo uriInfo,
             @Suspended AsyncResponse asyncResponse)
     {
@@ -99,7 +101,7 @@ public class ExecutingStatementResource
 
         Query query = queryProvider.getQuery(queryId, slug);
         ListenableFuture<Response> queryResultsFuture = transform(
-                query.waitForResults(token, uriInfo, proto, wait, targetResultSize),
+                query.waitForResults(token, uriInfo, proto, wait, targetResultSize, binaryResults),
                 results -> toResponse(query, results, compressionEnabled),
                 directExecutor());
         bindAsyncResponse(asyncResponse, queryResultsFuture, responseExecutor);
@@ -35,6 +35,7 @@ import com.facebook.presto.spi.ErrorCode;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.function.SqlFunctionId;
 import com.facebook.presto.spi.function.SqlInvokedFunction;
+import com.facebook.presto.spi.page.PageCodecMarker;
 import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.SerializedPage;
 import com.facebook.presto.spi.security.SelectedRole;
@@ -70,6 +71,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import static com.facebook.airlift.concurrent.MoreFutures.addTimeout;
 import static com.facebook.presto.SystemSessionProperties.getTargetResultSize;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.client.BinaryDataUtils.encodeSerializedPage;
+import static com.facebook.presto.client.BinaryDataUtils.isBinaryDataSupported;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.toStatementStats;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -99,6 +102,7 @@ class Query
     private final ScheduledExecutorService timeoutExecutor;
 
     private final PagesSerde serde;
+    private final PagesSerde binaryDataSerde;
 
     @GuardedBy("this")
     private OptionalLong nextToken = OptionalLong.of(0);
@@ -201,6 +205,7 @@ class Query
         this.timeoutExecutor = timeoutExecutor;
 
         serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
+        binaryDataSerde = new PagesSerdeFactory(blockEncodingSerde, false).createPagesSerde();
     }
 
     public void cancel()
@@ -279,7 +284,7 @@ class Query
         return removedSessionFunctions;
     }
 
-    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize)
+    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize, boolean binaryResults)
     {
         // before waiting, check if this request has already been processed and cached
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -295,7 +300,7 @@ class Query
                 timeoutExecutor);
 
         // when state changes, fetch the next result
-        return Futures.transform(futureStateChange, ignored -> getNextResult(token, uriInfo, scheme, targetResultSize), resultsProcessorExecutor);
+        return Futures.transform(futureStateChange, ignored -> getNextResult(token, uriInfo, scheme, targetResultSize, binaryResults), resultsProcessorExecutor);
     }
 
     private synchronized ListenableFuture<?> getFutureStateChange()
@@ -348,7 +353,7 @@ class Query
         return Optional.empty();
     }
 
-    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize)
+    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults)
     {
         // check if the result for the token have already been created
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -370,8 +375,11 @@ class Query
         // last page is removed.  If another thread observes this state before the response is cached
         // the pages will be lost.
         Iterable<List<Object>> data = null;
+        List<String> binaryData = null;
         try {
             ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            // the binary encoding ships the pages as they are, if the client can decode every column
+            ImmutableList.Builder<String> binaryPages = binaryResults && columns != null && isBinaryDataSupported(columns) ? ImmutableList.builder() : null;
             long bytes = 0;
             long rows = 0;
             long targetResultBytes = targetResultSize.toBytes();
@@ -385,10 +393,19 @@ class Query
                 bytes += page.getLogicalSizeInBytes();
                 rows += page.getPositionCount();
                 pages.add(new RowIterable(session.toConnectorSession(), types, page));
+                if (binaryPages != null) {
+                    if (serializedPage.getPageCodecMarkers() != PageCodecMarker.none()) {
+                        serializedPage = binaryDataSerde.serialize(page);
+                    }
+                    binaryPages.add(encodeSerializedPage(serializedPage));
+                }
             }
             if (rows > 0) {
                 // client implementations do not properly handle empty list of data
                 data = Iterables.concat(pages.build());
+                if (binaryPages != null) {
+                    binaryData = binaryPages.build();
+                }
             }
         }
         catch (Throwable cause) {
@@ -419,6 +436,7 @@ class Query
         if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
             columns = ImmutableList.of(new Column("result", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true));
+            binaryData = null;
         }
 
         // advance next token
@@ -468,7 +486,8 @@ class Query
                 findCancelableLeafStage(queryInfo),
                 nextResultsUri,
                 columns,
-                data,
+                binaryData == null ? data : null,
+                binaryData,
                 toStatementStats(queryInfo),
                 toQueryError(queryInfo),
                 queryInfo.getWarnings(),
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server.remotetask;
+
+import com.facebook.airlift.http.client.Request;
+import com.facebook.airlift.http.client.Response;
+import com.facebook.airlift.http.client.ResponseHandler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.LongConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reports the thread CPU time spent decoding a response, which for task
+ * info responses is dominated by deserialization on the coordinator.
+ */
+class CpuTrackingResponseHandler<T, E extends Exception>
+        implements ResponseHandler<T, E>
+{
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final ResponseHandler<T, E> delegate;
+    private final LongConsumer cpuTimeNanosConsumer;
+
+    private CpuTrackingResponseHandler(ResponseHandler<T, E> delegate, LongConsumer cpuTimeNanosConsumer)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.cpuTimeNanosConsumer = requireNonNull(cpuTimeNanosConsumer, "cpuTimeNanosConsumer is null");
+    }
+
+    public static <T, E extends Exception> ResponseHandler<T, E> trackCpuTime(ResponseHandler<T, E> delegate, LongConsumer cpuTimeNanosConsumer)
+    {
+        return new CpuTrackingResponseHandler<>(delegate, cpuTimeNanosConsumer);
+    }
+
+    @Override
+    public T handleException(Request request, Exception exception)
+            throws E
+    {
+        return delegate.handleException(request, exception);
+    }
+
+    @Override
+    public T handle(Request request, Response response)
+            throws E
+    {
+        long start = currentThreadCpuTime();
+        try {
+            return delegate.handle(request, response);
+        }
+        finally {
+            cpuTimeNanosConsumer.accept(currentThreadCpuTime() - start);
+        }
+    }
+
+    static long currentThreadCpuTime()
+    {
+        return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+}
@@ -105,6 +105,8 @@ import static com.facebook.presto.execution.TaskStatus.failWith;
 import static com.facebook.presto.server.RequestErrorTracker.isExpectedError;
 import static com.facebook.presto.server.RequestErrorTracker.taskRequestErrorTracker;
 import static com.facebook.presto.server.RequestHelpers.setContentTypeHeaders;
+import static com.facebook.presto.server.remotetask.CpuTrackingResponseHandler.currentThreadCpuTime;
+import static com.facebook.presto.server.remotetask.CpuTrackingResponseHandler.trackCpuTime;
 import static com.facebook.presto.server.smile.AdaptingJsonResponseHandler.createAdaptingJsonResponseHandler;
 import static com.facebook.presto.server.smile.FullSmileResponseHandler.createFullSmileResponseHandler;
 import static com.facebook.presto.server.smile.JsonCodecWrapper.unwrapJsonCodec;
@@ -678,6 +680,7 @@ public final class HttpRemoteTask
 
         List<TaskSource> sources = getSources();
 
+        long serializationStartCpuNanos = currentThreadCpuTime();
         Optional<byte[]> fragment = sendPlan.get() ? Optional.of(planFragment.toBytes(planFragmentCodec)) : Optional.empty();
         Optional<TableWriteInfo> writeInfo = sendPlan.get() ? Optional.of(tableWriteInfo) : Optional.empty();
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(
@@ -688,6 +691,7 @@ public final class HttpRemoteTask
                 outputBuffers.get(),
                 writeInfo);
         byte[] taskUpdateRequestJson = taskUpdateRequestCodec.toBytes(updateRequest);
+        stats.updateSerializationCpuNanos(currentThreadCpuTime() - serializationStartCpuNanos);
 
         if (taskUpdateRequestJson.length > maxTaskUpdateSizeInBytes) {
             failTask(new PrestoException(EXCEEDED_TASK_UPDATE_SIZE_LIMIT, format("TaskUpdate size of %d Bytes has exceeded the limit of %d Bytes", taskUpdateRequestJson.length, maxTaskUpdateSizeInBytes)));
@@ -716,6 +720,7 @@ public final class HttpRemoteTask
         else {
             responseHandler = createAdaptingJsonResponseHandler(unwrapJsonCodec(taskInfoCodec));
         }
+        responseHandler = trackCpuTime(responseHandler, stats::infoDeserializationCpuNanos);
 
         updateErrorTracker.startRequest();
 
@@ -58,6 +58,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_STATE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_WAIT;
 import static com.facebook.presto.server.RequestErrorTracker.taskRequestErrorTracker;
 import static com.facebook.presto.server.RequestHelpers.setContentTypeHeaders;
+import static com.facebook.presto.server.remotetask.CpuTrackingResponseHandler.trackCpuTime;
 import static com.facebook.presto.server.smile.AdaptingJsonResponseHandler.createAdaptingJsonResponseHandler;
 import static com.facebook.presto.server.smile.FullSmileResponseHandler.createFullSmileResponseHandler;
 import static com.facebook.presto.server.smile.JsonCodecWrapper.unwrapJsonCodec;
@@ -273,6 +274,7 @@ public class TaskInfoFetcher
         else {
             responseHandler = createAdaptingJsonResponseHandler(unwrapJsonCodec(taskInfoCodec));
         }
+        responseHandler = trackCpuTime(responseHandler, stats::infoDeserializationCpuNanos);
 
         errorTracker.startRequest();
         future = httpClient.executeAsync(request, responseHandler);
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -56,6 +57,13 @@ final class FileHolder
         return Files.newInputStream(filePath, options);
     }
 
+    public synchronized FileChannel newFileChannel(OpenOption... options)
+            throws IOException
+    {
+        checkState(!deleted, "File already deleted");
+        return FileChannel.open(filePath, options);
+    }
+
     @Override
     public synchronized void close()
     {
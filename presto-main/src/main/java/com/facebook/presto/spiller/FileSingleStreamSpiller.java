@@ -19,17 +19,23 @@ import com.facebook.presto.operator.SpillContext;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.PagesSerdeUtil;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.facebook.presto.spi.spiller.SpillCipher;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -37,12 +43,15 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static com.facebook.presto.execution.buffer.PageSplitterUtil.splitPage;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -50,7 +59,12 @@ import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -59,6 +73,10 @@ public class FileSingleStreamSpiller
 {
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
+    // spill files are mapped in windows of this size, so files larger than 2GB can be read
+    // and a file is not mapped all at once
+    @VisibleForTesting
+    static final int MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
 
     private final FileHolder targetFile;
     private final Closer closer = Closer.create();
@@ -67,6 +85,10 @@ public class FileSingleStreamSpiller
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
     private final Optional<SpillCipher> spillCipher;
+    private final boolean mmapReadEnabled;
+    private final boolean readAheadEnabled;
+    private final SpillCompressionCodec compressionCodec;
+    private final SpillCompressionCodecSelector compressionCodecSelector;
 
     private final ListeningExecutorService executor;
 
@@ -81,7 +103,11 @@ public class FileSingleStreamSpiller
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
-            Optional<SpillCipher> spillCipher)
+            Optional<SpillCipher> spillCipher,
+            boolean mmapReadEnabled,
+            boolean readAheadEnabled,
+            SpillCompressionCodec compressionCodec,
+            SpillCompressionCodecSelector compressionCodecSelector)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -89,6 +115,10 @@ public class FileSingleStreamSpiller
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        this.mmapReadEnabled = mmapReadEnabled;
+        this.readAheadEnabled = readAheadEnabled;
+        this.compressionCodec = requireNonNull(compressionCodec, "compressionCodec is null");
+        this.compressionCodecSelector = requireNonNull(compressionCodecSelector, "compressionCodecSelector is null");
         checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
         this.spillCipher.ifPresent(cipher -> closer.register(cipher::destroy));
         // HACK!
@@ -129,47 +159,82 @@ public class FileSingleStreamSpiller
     public Iterator<Page> getSpilledPages()
     {
         checkNoSpillInProgress();
-        return readPages();
+        return readPages(readAheadEnabled);
     }
 
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
-        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+        // the pages are already read on the executor, and reading ahead on it as well could leave
+        // every thread of the executor waiting for a read ahead queued behind it
+        return executor.submit(() -> {
+            checkNoSpillInProgress();
+            return ImmutableList.copyOf(readPages(false));
+        });
     }
 
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        long uncompressedBytes = 0;
+        long serializedBytes = 0;
+        long serializationNanos = 0;
+        long writeNanos = 0;
         try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
                 // page serialization requires  page.getSizeInBytes() + Integer.BYTES to fit in an integer
-                splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
-                        .map(serde::serialize)
-                        .forEach(serializedPage -> {
-                            long pageSize = serializedPage.getSizeInBytes();
-                            localSpillContext.updateBytes(pageSize);
-                            spillerStats.addToTotalSpilledBytes(pageSize);
-                            writeSerializedPage(output, serializedPage);
-                        });
+                for (Page splitPage : splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES)) {
+                    long start = System.nanoTime();
+                    SerializedPage serializedPage = serde.serialize(splitPage);
+                    long serialized = System.nanoTime();
+                    long pageSize = serializedPage.getSizeInBytes();
+                    localSpillContext.updateBytes(pageSize);
+                    spillerStats.addToTotalSpilledBytes(pageSize);
+                    writeSerializedPage(output, serializedPage);
+                    serializationNanos += serialized - start;
+                    writeNanos += System.nanoTime() - serialized;
+                    uncompressedBytes += serializedPage.getUncompressedSizeInBytes();
+                    serializedBytes += pageSize;
+                }
             }
+            long flushStart = System.nanoTime();
+            output.flush();
+            writeNanos += System.nanoTime() - flushStart;
         }
         catch (UncheckedIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
         }
+        spillerStats.addToTotalSpilledUncompressedBytes(uncompressedBytes);
+        spillerStats.addToTotalSerializationTimeNanos(serializationNanos);
+        spillerStats.addToTotalWriteTimeNanos(writeNanos);
+        compressionCodecSelector.record(compressionCodec, uncompressedBytes, serializedBytes, serializationNanos, writeNanos);
     }
 
-    private Iterator<Page> readPages()
+    private Iterator<Page> readPages(boolean readAhead)
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
         writable = false;
 
         try {
-            InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
-            return closeWhenExhausted(pages, input);
+            Iterator<SerializedPage> serializedPages;
+            if (mmapReadEnabled) {
+                FileChannel channel = closer.register(targetFile.newFileChannel(READ));
+                MappedSerializedPageReader reader = closer.register(new MappedSerializedPageReader(channel));
+                serializedPages = closeWhenExhausted(reader, reader);
+            }
+            else {
+                InputStream input = closer.register(targetFile.newInputStream());
+                serializedPages = closeWhenExhausted(PagesSerdeUtil.readSerializedPages(new InputStreamSliceInput(input, BUFFER_SIZE)), input);
+            }
+            Iterator<Page> pages = Iterators.transform(serializedPages, serde::deserialize);
+            if (readAhead) {
+                // spilled pages are split to at most DEFAULT_MAX_PAGE_SIZE_IN_BYTES, and one page is read ahead
+                memoryContext.setBytes(BUFFER_SIZE + DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
+                return new ReadAheadIterator(pages, executor);
+            }
+            return pages;
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
@@ -194,6 +259,141 @@ public class FileSingleStreamSpiller
         checkState(spillInProgress.isDone(), "spill in progress");
     }
 
+    /**
+     * Reads serialized pages from memory mapped windows of the spill file. The page data is copied
+     * from the mapping to the heap once, without going through the stream buffers. The pages do not
+     * reference the mapping itself, as the slices of a mapped buffer would report the size of the
+     * whole window as their retained size. This also allows to unmap each window as soon as the
+     * reader moves past it, instead of leaving it to the garbage collector.
+     * <p>
+     * The reader may be closed by the driver while a read ahead is running on the executor, so reads
+     * and unmapping are synchronized.
+     */
+    private static class MappedSerializedPageReader
+            extends AbstractIterator<SerializedPage>
+            implements Closeable
+    {
+        // positionCount, codecMarkers, uncompressedSizeInBytes, sizeInBytes
+        private static final int PAGE_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+
+        private final FileChannel channel;
+        private final long fileSize;
+
+        private MappedByteBuffer mappedBuffer;
+        private Slice window = Slices.EMPTY_SLICE;
+        private long windowOffset;
+        private long position;
+        private boolean closed;
+
+        public MappedSerializedPageReader(FileChannel channel)
+                throws IOException
+        {
+            this.channel = requireNonNull(channel, "channel is null");
+            this.fileSize = channel.size();
+        }
+
+        @Override
+        protected synchronized SerializedPage computeNext()
+        {
+            checkState(!closed, "reader is closed");
+            if (position >= fileSize) {
+                return endOfData();
+            }
+
+            ensureMapped(PAGE_HEADER_SIZE);
+            int offset = toIntExact(position - windowOffset);
+            int positionCount = window.getInt(offset);
+            byte codecMarkers = window.getByte(offset + Integer.BYTES);
+            int uncompressedSizeInBytes = window.getInt(offset + Integer.BYTES + Byte.BYTES);
+            int sizeInBytes = window.getInt(offset + Integer.BYTES + Byte.BYTES + Integer.BYTES);
+
+            ensureMapped(PAGE_HEADER_SIZE + sizeInBytes);
+            offset = toIntExact(position - windowOffset);
+            Slice slice = Slices.copyOf(window, offset + PAGE_HEADER_SIZE, sizeInBytes);
+            position += PAGE_HEADER_SIZE + sizeInBytes;
+            return new SerializedPage(slice, codecMarkers, positionCount, uncompressedSizeInBytes);
+        }
+
+        private void ensureMapped(int length)
+        {
+            if (position + length <= windowOffset + window.length()) {
+                return;
+            }
+            checkState(position + length <= fileSize, "Spill file is truncated");
+            unmap();
+            try {
+                long size = min(max(length, MAPPED_WINDOW_SIZE), fileSize - position);
+                mappedBuffer = channel.map(READ_ONLY, position, size);
+                window = Slices.wrappedBuffer(mappedBuffer);
+                windowOffset = position;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void close()
+                throws IOException
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            unmap();
+            channel.close();
+        }
+
+        private void unmap()
+        {
+            window = Slices.EMPTY_SLICE;
+            windowOffset = position;
+            if (mappedBuffer == null) {
+                return;
+            }
+            // the pages hold copies of their data, so nothing references the mapping anymore
+            Cleaner cleaner = ((DirectBuffer) mappedBuffer).cleaner();
+            if (cleaner != null) {
+                cleaner.clean();
+            }
+            mappedBuffer = null;
+        }
+    }
+
+    /**
+     * Deserializes the next page on the executor while the current one is being processed.
+     */
+    private static class ReadAheadIterator
+            extends AbstractIterator<Page>
+    {
+        private final Iterator<Page> pages;
+        private final ListeningExecutorService executor;
+        private ListenableFuture<Optional<Page>> nextPage;
+
+        public ReadAheadIterator(Iterator<Page> pages, ListeningExecutorService executor)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.executor = requireNonNull(executor, "executor is null");
+            this.nextPage = readNextPage();
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            Optional<Page> page = getFutureValue(nextPage);
+            if (!page.isPresent()) {
+                return endOfData();
+            }
+            nextPage = readNextPage();
+            return page.get();
+        }
+
+        private ListenableFuture<Optional<Page>> readNextPage()
+        {
+            return executor.submit(() -> pages.hasNext() ? Optional.of(pages.next()) : Optional.empty());
+        }
+    }
+
     private static <T> Iterator<T> closeWhenExhausted(Iterator<T> iterator, Closeable resource)
     {
         requireNonNull(iterator, "iterator is null");
@@ -16,7 +16,6 @@ package com.facebook.presto.spiller;
 import com.facebook.airlift.log.Logger;
 import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.common.type.Type;
-import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.SpillContext;
 import com.facebook.presto.spi.PrestoException;
@@ -27,6 +26,10 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -39,7 +42,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.execution.buffer.PagesSerdeFactory.createCompressedPagesSerde;
 import static com.facebook.presto.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static com.facebook.presto.spiller.SpillCompressionCodec.ADAPTIVE;
+import static com.facebook.presto.spiller.SpillCompressionCodec.LZ4;
+import static com.facebook.presto.spiller.SpillCompressionCodec.NONE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
@@ -61,11 +68,15 @@ public class FileSingleStreamSpillerFactory
     private static final String SPILL_FILE_GLOB = "spill*.bin";
 
     private final ListeningExecutorService executor;
-    private final PagesSerdeFactory serdeFactory;
+    private final BlockEncodingSerde blockEncodingSerde;
     private final List<Path> spillPaths;
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
+    private final SpillCompressionCodec compressionCodec;
+    private final SpillCompressionCodecSelector compressionCodecSelector = new SpillCompressionCodecSelector();
     private final boolean spillEncryptionEnabled;
+    private final boolean spillMmapReadEnabled;
+    private final boolean spillReadAheadEnabled;
     private int roundRobinIndex;
 
     @Inject
@@ -79,8 +90,10 @@ public class FileSingleStreamSpillerFactory
                 spillerStats,
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillCompressionEnabled(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                getSpillCompressionCodec(requireNonNull(nodeSpillConfig, "nodeSpillConfig is null")),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillMmapReadEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillReadAheadEnabled());
     }
 
     @VisibleForTesting
@@ -93,7 +106,38 @@ public class FileSingleStreamSpillerFactory
             boolean spillCompressionEnabled,
             boolean spillEncryptionEnabled)
     {
-        this.serdeFactory = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), spillCompressionEnabled);
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionEnabled, spillEncryptionEnabled, false, false);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean spillMmapReadEnabled,
+            boolean spillReadAheadEnabled)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionEnabled ? LZ4 : NONE, spillEncryptionEnabled, spillMmapReadEnabled, spillReadAheadEnabled);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            SpillCompressionCodec compressionCodec,
+            boolean spillEncryptionEnabled,
+            boolean spillMmapReadEnabled,
+            boolean spillReadAheadEnabled)
+    {
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.compressionCodec = requireNonNull(compressionCodec, "compressionCodec is null");
         this.executor = requireNonNull(executor, "executor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats can not be null");
         requireNonNull(spillPaths, "spillPaths is null");
@@ -113,9 +157,19 @@ public class FileSingleStreamSpillerFactory
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        this.spillMmapReadEnabled = spillMmapReadEnabled;
+        this.spillReadAheadEnabled = spillReadAheadEnabled;
         this.roundRobinIndex = 0;
     }
 
+    private static SpillCompressionCodec getSpillCompressionCodec(NodeSpillConfig nodeSpillConfig)
+    {
+        if (!nodeSpillConfig.isSpillCompressionEnabled()) {
+            return NONE;
+        }
+        return nodeSpillConfig.getSpillCompressionCodec();
+    }
+
     @PostConstruct
     public void cleanupOldSpillFiles()
     {
@@ -153,8 +207,40 @@ public class FileSingleStreamSpillerFactory
         if (spillEncryptionEnabled) {
             spillCipher = Optional.of(new AesSpillCipher());
         }
-        PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        SpillCompressionCodec streamCompressionCodec = compressionCodec == ADAPTIVE ? compressionCodecSelector.select() : compressionCodec;
+        PagesSerde serde = createPagesSerde(streamCompressionCodec, spillCipher);
+        return new FileSingleStreamSpiller(
+                serde,
+                executor,
+                getNextSpillPath(),
+                spillerStats,
+                spillContext,
+                memoryContext,
+                spillCipher,
+                spillMmapReadEnabled,
+                spillReadAheadEnabled,
+                streamCompressionCodec,
+                compressionCodecSelector);
+    }
+
+    @VisibleForTesting
+    SpillCompressionCodecSelector getCompressionCodecSelector()
+    {
+        return compressionCodecSelector;
+    }
+
+    private PagesSerde createPagesSerde(SpillCompressionCodec codec, Optional<SpillCipher> spillCipher)
+    {
+        switch (codec) {
+            case NONE:
+                return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
+            case LZ4:
+                return createCompressedPagesSerde(blockEncodingSerde, new Lz4Compressor(), new Lz4Decompressor(), spillCipher);
+            case ZSTD:
+                return createCompressedPagesSerde(blockEncodingSerde, new ZstdCompressor(), new ZstdDecompressor(), spillCipher);
+            default:
+                throw new IllegalArgumentException("Unsupported spill compression codec: " + codec);
+        }
     }
 
     private synchronized Path getNextSpillPath()
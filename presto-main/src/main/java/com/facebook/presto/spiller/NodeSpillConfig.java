@@ -26,7 +26,10 @@ public class NodeSpillConfig
     private DataSize tempStorageBufferSize = new DataSize(4, DataSize.Unit.KILOBYTE);
 
     private boolean spillCompressionEnabled;
+    private SpillCompressionCodec spillCompressionCodec = SpillCompressionCodec.LZ4;
     private boolean spillEncryptionEnabled;
+    private boolean spillMmapReadEnabled;
+    private boolean spillReadAheadEnabled;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -79,6 +82,19 @@ public class NodeSpillConfig
         return this;
     }
 
+    @NotNull
+    public SpillCompressionCodec getSpillCompressionCodec()
+    {
+        return spillCompressionCodec;
+    }
+
+    @Config("experimental.spill-compression-codec")
+    public NodeSpillConfig setSpillCompressionCodec(SpillCompressionCodec spillCompressionCodec)
+    {
+        this.spillCompressionCodec = spillCompressionCodec;
+        return this;
+    }
+
     public boolean isSpillEncryptionEnabled()
     {
         return spillEncryptionEnabled;
@@ -91,6 +107,30 @@ public class NodeSpillConfig
         return this;
     }
 
+    public boolean isSpillMmapReadEnabled()
+    {
+        return spillMmapReadEnabled;
+    }
+
+    @Config("experimental.spill-mmap-read-enabled")
+    public NodeSpillConfig setSpillMmapReadEnabled(boolean spillMmapReadEnabled)
+    {
+        this.spillMmapReadEnabled = spillMmapReadEnabled;
+        return this;
+    }
+
+    public boolean isSpillReadAheadEnabled()
+    {
+        return spillReadAheadEnabled;
+    }
+
+    @Config("experimental.spill-read-ahead-enabled")
+    public NodeSpillConfig setSpillReadAheadEnabled(boolean spillReadAheadEnabled)
+    {
+        this.spillReadAheadEnabled = spillReadAheadEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getTempStorageBufferSize()
     {
@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.spiller.SpillCompressionCodec.LZ4;
+import static com.facebook.presto.spiller.SpillCompressionCodec.NONE;
+import static com.facebook.presto.spiller.SpillCompressionCodec.ZSTD;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Chooses the compression codec of a spill stream. The cost of a codec is estimated as the time
+ * spent serializing and compressing a byte of page data plus the time spent writing the bytes
+ * it compresses to, based on the compression ratio and time observed for every codec and the
+ * observed disk write throughput. Each codec is tried until it has been observed on enough data,
+ * and afterwards every {@link #EXPLORATION_INTERVAL}-th stream uses the codecs in turn, so that
+ * the statistics follow changes in the spilled data and disk load.
+ */
+@ThreadSafe
+public class SpillCompressionCodecSelector
+{
+    @VisibleForTesting
+    static final List<SpillCompressionCodec> CANDIDATES = ImmutableList.of(NONE, LZ4, ZSTD);
+    @VisibleForTesting
+    static final long MIN_SAMPLE_BYTES = 4 * 1024 * 1024;
+    // statistics are halved after covering this many bytes, so that recent streams dominate
+    private static final long MAX_SAMPLE_BYTES = 1024L * 1024 * 1024;
+    private static final int EXPLORATION_INTERVAL = 32;
+
+    @GuardedBy("this")
+    private final Map<SpillCompressionCodec, CodecStatistics> codecStatistics = new EnumMap<>(SpillCompressionCodec.class);
+    @GuardedBy("this")
+    private long writtenBytes;
+    @GuardedBy("this")
+    private long writeNanos;
+    @GuardedBy("this")
+    private long selections;
+
+    public SpillCompressionCodecSelector()
+    {
+        CANDIDATES.forEach(codec -> codecStatistics.put(codec, new CodecStatistics()));
+    }
+
+    public synchronized SpillCompressionCodec select()
+    {
+        selections++;
+        for (SpillCompressionCodec codec : CANDIDATES) {
+            if (codecStatistics.get(codec).uncompressedBytes < MIN_SAMPLE_BYTES) {
+                return codec;
+            }
+        }
+        if (selections % EXPLORATION_INTERVAL == 0) {
+            return CANDIDATES.get((int) ((selections / EXPLORATION_INTERVAL) % CANDIDATES.size()));
+        }
+
+        double writeNanosPerByte = writtenBytes == 0 ? 0 : (double) writeNanos / writtenBytes;
+        SpillCompressionCodec bestCodec = NONE;
+        double bestCost = Double.MAX_VALUE;
+        for (SpillCompressionCodec codec : CANDIDATES) {
+            double cost = codecStatistics.get(codec).getCostPerByte(writeNanosPerByte);
+            if (cost < bestCost) {
+                bestCodec = codec;
+                bestCost = cost;
+            }
+        }
+        return bestCodec;
+    }
+
+    /**
+     * Records pages spilled with the given codec.
+     *
+     * @param uncompressedBytes size of the serialized pages before compression
+     * @param serializedBytes size of the pages as written
+     * @param serializationNanos time spent serializing and compressing the pages
+     * @param writeNanos time spent writing the pages
+     */
+    public synchronized void record(SpillCompressionCodec codec, long uncompressedBytes, long serializedBytes, long serializationNanos, long writeNanos)
+    {
+        checkArgument(codecStatistics.containsKey(codec), "Unexpected codec: %s", codec);
+        codecStatistics.get(codec).add(uncompressedBytes, serializedBytes, serializationNanos);
+
+        this.writtenBytes += serializedBytes;
+        this.writeNanos += writeNanos;
+        if (this.writtenBytes > MAX_SAMPLE_BYTES) {
+            this.writtenBytes /= 2;
+            this.writeNanos /= 2;
+        }
+    }
+
+    private static class CodecStatistics
+    {
+        private long uncompressedBytes;
+        private long serializedBytes;
+        private long serializationNanos;
+
+        public void add(long uncompressedBytes, long serializedBytes, long serializationNanos)
+        {
+            this.uncompressedBytes += uncompressedBytes;
+            this.serializedBytes += serializedBytes;
+            this.serializationNanos += serializationNanos;
+            if (this.uncompressedBytes > MAX_SAMPLE_BYTES) {
+                this.uncompressedBytes /= 2;
+                this.serializedBytes /= 2;
+                this.serializationNanos /= 2;
+            }
+        }
+
+        public double getCostPerByte(double writeNanosPerByte)
+        {
+            double compressionRatio = (double) serializedBytes / uncompressedBytes;
+            return (double) serializationNanos / uncompressedBytes + compressionRatio * writeNanosPerByte;
+        }
+    }
+}
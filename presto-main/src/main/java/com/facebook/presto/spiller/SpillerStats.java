@@ -20,6 +20,9 @@ import java.util.concurrent.atomic.AtomicLong;
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    protected final AtomicLong totalSpilledUncompressedBytes = new AtomicLong();
+    protected final AtomicLong totalSerializationTimeNanos = new AtomicLong();
+    protected final AtomicLong totalWriteTimeNanos = new AtomicLong();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +34,56 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    @Managed
+    public long getTotalSpilledUncompressedBytes()
+    {
+        return totalSpilledUncompressedBytes.get();
+    }
+
+    public void addToTotalSpilledUncompressedBytes(long delta)
+    {
+        totalSpilledUncompressedBytes.addAndGet(delta);
+    }
+
+    /**
+     * Ratio of the spilled bytes to the size of the spilled pages before compression.
+     */
+    @Managed
+    public double getCompressionRatio()
+    {
+        long uncompressedBytes = totalSpilledUncompressedBytes.get();
+        if (uncompressedBytes == 0) {
+            return 1.0;
+        }
+        return (double) totalSpilledBytes.get() / uncompressedBytes;
+    }
+
+    /**
+     * Time spent serializing, compressing and encrypting spilled pages.
+     */
+    @Managed
+    public long getTotalSerializationTimeNanos()
+    {
+        return totalSerializationTimeNanos.get();
+    }
+
+    public void addToTotalSerializationTimeNanos(long delta)
+    {
+        totalSerializationTimeNanos.addAndGet(delta);
+    }
+
+    /**
+     * Time spent writing serialized pages to spill files.
+     */
+    @Managed
+    public long getTotalWriteTimeNanos()
+    {
+        return totalWriteTimeNanos.get();
+    }
+
+    public void addToTotalWriteTimeNanos(long delta)
+    {
+        totalWriteTimeNanos.addAndGet(delta);
+    }
 }
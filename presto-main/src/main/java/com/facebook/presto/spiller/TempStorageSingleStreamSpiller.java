@@ -155,6 +155,7 @@ public class TempStorageSingleStreamSpiller
                         long pageSize = serializedPage.getSizeInBytes();
                         localSpillContext.updateBytes(pageSize);
                         spillerStats.addToTotalSpilledBytes(pageSize);
+                        spillerStats.addToTotalSpilledUncompressedBytes(serializedPage.getUncompressedSizeInBytes());
                         PageDataOutput pageDataOutput = new PageDataOutput(serializedPage);
                         bufferedBytes += pageDataOutput.size();
                         bufferedPages.add(pageDataOutput);
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.spi.ConnectorPageSource;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Reads pages from a page source that blocks on I/O (e.g. a JDBC result set) on a
+ * separate executor, so that the task runner thread is released while the read is
+ * in flight. At most one read is outstanding; the driver is parked on {@link #isBlocked()}
+ * until it completes.
+ */
+public class BlockingIoPageSource
+        implements ConnectorPageSource
+{
+    private static final Logger log = Logger.get(BlockingIoPageSource.class);
+
+    private final ConnectorPageSource delegate;
+    private final Executor executor;
+
+    @GuardedBy("this")
+    private CompletableFuture<Page> pendingPage;
+    @GuardedBy("this")
+    private boolean closed;
+
+    public BlockingIoPageSource(ConnectorPageSource delegate, Executor executor)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.executor = requireNonNull(executor, "executor is null");
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return delegate.getCompletedPositions();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public synchronized boolean isFinished()
+    {
+        // the delegate must not be touched while a read is in flight
+        return closed || (pendingPage == null && delegate.isFinished());
+    }
+
+    @Override
+    public synchronized Page getNextPage()
+    {
+        if (closed) {
+            return null;
+        }
+        if (pendingPage == null) {
+            if (delegate.isFinished()) {
+                return null;
+            }
+            pendingPage = supplyAsync(delegate::getNextPage, executor);
+        }
+        if (!pendingPage.isDone()) {
+            return null;
+        }
+
+        CompletableFuture<Page> page = pendingPage;
+        pendingPage = null;
+        return getFutureValue(page);
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> isBlocked()
+    {
+        if (pendingPage == null || pendingPage.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return pendingPage;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return delegate.getSystemMemoryUsage();
+    }
+
+    @Override
+    public synchronized void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (pendingPage == null || pendingPage.isDone()) {
+            delegate.close();
+            return;
+        }
+        // defer closing until the in flight read returns, as the delegate is not thread safe
+        pendingPage.whenComplete((page, throwable) -> {
+            try {
+                delegate.close();
+            }
+            catch (IOException | RuntimeException e) {
+                log.warn(e, "Error closing page source");
+            }
+        });
+    }
+}
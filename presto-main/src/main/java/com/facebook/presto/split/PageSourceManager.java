@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.split;
 
+import com.facebook.airlift.concurrent.BoundedExecutor;
 import com.facebook.presto.Session;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorId;
@@ -25,21 +28,55 @@ import com.facebook.presto.spi.SplitContext;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 public class PageSourceManager
         implements PageSourceProvider
 {
     private final ConcurrentMap<ConnectorId, ConnectorPageSourceProvider> pageSourceProviders = new ConcurrentHashMap<>();
+    private final Set<String> blockingIoCatalogs;
+    private final ExecutorService blockingIoThreadPool;
+    private final Executor blockingIoExecutor;
+
+    public PageSourceManager()
+    {
+        this(new TaskManagerConfig());
+    }
+
+    @Inject
+    public PageSourceManager(TaskManagerConfig config)
+    {
+        requireNonNull(config, "config is null");
+        this.blockingIoCatalogs = ImmutableSet.copyOf(config.getBlockingIoCatalogs());
+        this.blockingIoThreadPool = newCachedThreadPool(daemonThreadsNamed("blocking-io-%s"));
+        this.blockingIoExecutor = new BoundedExecutor(blockingIoThreadPool, config.getBlockingIoThreads());
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        blockingIoThreadPool.shutdownNow();
+    }
 
     public void addConnectorPageSourceProvider(ConnectorId connectorId, ConnectorPageSourceProvider pageSourceProvider)
     {
@@ -61,23 +98,34 @@ public class PageSourceManager
 
         Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilter = table.getDynamicFilter();
 
+        // the split may already carry filters of other stages attached by the coordinator
+        TupleDomain<ColumnHandle> dynamicFilterPredicate = split.getSplitContext().getDynamicFilterPredicate().orElse(TupleDomain.all());
+        if (dynamicFilter.isPresent()) {
+            dynamicFilterPredicate = dynamicFilterPredicate.intersect(dynamicFilter.get().get());
+        }
+
         // directly return the result if the given constraint is always false
-        if (dynamicFilter.isPresent() && dynamicFilter.get().get().isNone()) {
+        if (dynamicFilterPredicate.isNone()) {
             return new FixedPageSource(ImmutableList.of());
         }
 
-        if (dynamicFilter.isPresent()) {
+        Map<ColumnHandle, BloomFilter> dynamicBloomFilters = table.getDynamicBloomFilters()
+                .map(Supplier::get)
+                .orElse(ImmutableMap.of());
+
+        if (dynamicFilter.isPresent() || !dynamicBloomFilters.isEmpty()) {
             split = new Split(
                     split.getConnectorId(),
                     split.getTransactionHandle(),
                     split.getConnectorSplit(),
                     split.getLifespan(),
-                    new SplitContext(split.getSplitContext().isCacheable(), dynamicFilter.get().get()));
+                    new SplitContext(split.getSplitContext().isCacheable(), Optional.of(dynamicFilterPredicate), dynamicBloomFilters));
         }
 
         ConnectorSession connectorSession = session.toConnectorSession(split.getConnectorId());
+        ConnectorPageSource pageSource;
         if (table.getLayout().isPresent()) {
-            return getPageSourceProvider(split).createPageSource(
+            pageSource = getPageSourceProvider(split).createPageSource(
                     split.getTransactionHandle(),
                     connectorSession,
                     split.getConnectorSplit(),
@@ -85,7 +133,15 @@ public class PageSourceManager
                     columns,
                     split.getSplitContext());
         }
-        return getPageSourceProvider(split).createPageSource(split.getTransactionHandle(), connectorSession, split.getConnectorSplit(), columns, split.getSplitContext());
+        else {
+            pageSource = getPageSourceProvider(split).createPageSource(split.getTransactionHandle(), connectorSession, split.getConnectorSplit(), columns, split.getSplitContext());
+        }
+
+        // page sources of these catalogs block on I/O, so read them without holding a task runner thread
+        if (blockingIoCatalogs.contains(split.getConnectorId().getCatalogName())) {
+            return new BlockingIoPageSource(pageSource, blockingIoExecutor);
+        }
+        return pageSource;
     }
 
     private ConnectorPageSourceProvider getPageSourceProvider(Split split)
@@ -121,6 +121,7 @@ public class FeaturesConfig
     private boolean spillEnabled;
     private boolean joinSpillingEnabled;
     private DataSize aggregationOperatorUnspillMemoryLimit = new DataSize(4, DataSize.Unit.MEGABYTE);
+    private DataSize topNOperatorUnspillMemoryLimit = new DataSize(4, DataSize.Unit.MEGABYTE);
     private List<Path> spillerSpillPaths = ImmutableList.of();
     private int spillerThreads = 4;
     private double spillMaxUsedSpaceThreshold = 0.9;
@@ -142,8 +143,10 @@ public class FeaturesConfig
 
     private Duration iterativeOptimizerTimeout = new Duration(3, MINUTES); // by default let optimizer wait a long time in case it retrieves some data from ConnectorMetadata
     private boolean enableDynamicFiltering;
+    private boolean enableDistributedDynamicFiltering;
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
+    private DataSize dynamicFilteringBloomFilterSize = new DataSize(1, MEGABYTE);
 
     private boolean fragmentResultCachingEnabled;
 
@@ -174,6 +177,7 @@ public class FeaturesConfig
     private boolean checkAccessControlOnUtilizedColumnsOnly;
     private boolean skipRedundantSort = true;
     private boolean isAllowWindowOrderByLiterals = true;
+    private boolean bigintJoinHashEnabled;
 
     private String warnOnNoTableLayoutFilter = "";
 
@@ -948,6 +952,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public DataSize getTopNOperatorUnspillMemoryLimit()
+    {
+        return topNOperatorUnspillMemoryLimit;
+    }
+
+    @Config("experimental.topn-operator-unspill-memory-limit")
+    @ConfigDescription("How much memory a TopNRowNumber operator may use to merge the partitions it has spilled")
+    public FeaturesConfig setTopNOperatorUnspillMemoryLimit(DataSize topNOperatorUnspillMemoryLimit)
+    {
+        this.topNOperatorUnspillMemoryLimit = topNOperatorUnspillMemoryLimit;
+        return this;
+    }
+
     public List<Path> getSpillerSpillPaths()
     {
         return spillerSpillPaths;
@@ -1034,6 +1051,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isEnableDistributedDynamicFiltering()
+    {
+        return enableDistributedDynamicFiltering;
+    }
+
+    @Config("experimental.enable-distributed-dynamic-filtering")
+    @ConfigDescription("Collect dynamic filters of partitioned joins on the coordinator and apply them to probe-side scans in other stages")
+    public FeaturesConfig setEnableDistributedDynamicFiltering(boolean value)
+    {
+        this.enableDistributedDynamicFiltering = value;
+        return this;
+    }
+
     public int getDynamicFilteringMaxPerDriverRowCount()
     {
         return dynamicFilteringMaxPerDriverRowCount;
@@ -1059,6 +1089,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @MaxDataSize("64MB")
+    public DataSize getDynamicFilteringBloomFilterSize()
+    {
+        return dynamicFilteringBloomFilterSize;
+    }
+
+    @Config("experimental.dynamic-filtering-bloom-filter-size")
+    @ConfigDescription("Size of the per-driver bloom filter that summarizes build-side values exceeding the dynamic filtering limits, 0 disables it")
+    public FeaturesConfig setDynamicFilteringBloomFilterSize(DataSize dynamicFilteringBloomFilterSize)
+    {
+        this.dynamicFilteringBloomFilterSize = dynamicFilteringBloomFilterSize;
+        return this;
+    }
+
     public boolean isFragmentResultCachingEnabled()
     {
         return fragmentResultCachingEnabled;
@@ -1503,4 +1547,17 @@ public class FeaturesConfig
         this.isAllowWindowOrderByLiterals = value;
         return this;
     }
+
+    public boolean isBigintJoinHashEnabled()
+    {
+        return bigintJoinHashEnabled;
+    }
+
+    @Config("experimental.bigint-join-hash-enabled")
+    @ConfigDescription("Use a hash table specialized for single BIGINT and INTEGER join keys")
+    public FeaturesConfig setBigintJoinHashEnabled(boolean bigintJoinHashEnabled)
+    {
+        this.bigintJoinHashEnabled = bigintJoinHashEnabled;
+        return this;
+    }
 }
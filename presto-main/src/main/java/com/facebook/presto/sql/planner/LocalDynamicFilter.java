@@ -13,29 +13,40 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.plan.FilterNode;
 import com.facebook.presto.spi.plan.PlanNode;
 import com.facebook.presto.spi.plan.TableScanNode;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher;
 import com.facebook.presto.sql.planner.plan.AbstractJoinNode;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.slice.Slice;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
 import static java.util.Objects.requireNonNull;
@@ -43,6 +54,9 @@ import static java.util.stream.Collectors.toMap;
 
 public class LocalDynamicFilter
 {
+    // A bloom filter that passes most values is not worth evaluating for every probe row.
+    private static final double MAX_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY = 0.5;
+
     // Mapping from dynamic filter ID to its probe variables.
     private final Multimap<String, VariableReferenceExpression> probeVariables;
 
@@ -51,25 +65,52 @@ public class LocalDynamicFilter
 
     private final SettableFuture<TupleDomain<VariableReferenceExpression>> resultFuture;
 
+    // Bloom filters of the build side values, set before the resulting predicate.
+    private final SettableFuture<Map<VariableReferenceExpression, BloomFilter>> bloomFilterResultFuture;
+
+    // The task-wide predicate keyed by dynamic filter ID, reported to the coordinator for consumers in other stages.
+    private final SettableFuture<TupleDomain<String>> filterIdResultFuture;
+
     // The resulting predicate for local dynamic filtering.
     private TupleDomain<String> result;
 
+    // Union of the bloom filters reported by the partitions, keyed by dynamic filter ID.
+    private final Map<String, BloomFilter> bloomFilters = new HashMap<>();
+
+    // Domains of the partitions that did not report a bloom filter, to be added to the merged one.
+    private final ListMultimap<String, Domain> partitionDomains = ArrayListMultimap.create();
+
+    // Dynamic filters for which some partition reported neither values nor a bloom filter.
+    private final Set<String> unboundedFilterIds = new HashSet<>();
+
     // Number of partitions left to be processed.
     private int partitionsLeft;
 
+    // Memory of the bloom filters, which are retained until the memory is released.
+    private final LocalMemoryContext memoryContext;
+    private boolean memoryReleased;
+
     public LocalDynamicFilter(Multimap<String, VariableReferenceExpression> probeVariables, Map<String, Integer> buildChannels, int partitionCount)
+    {
+        this(probeVariables, buildChannels, partitionCount, newSimpleAggregatedMemoryContext().newLocalMemoryContext(LocalDynamicFilter.class.getSimpleName()));
+    }
+
+    public LocalDynamicFilter(Multimap<String, VariableReferenceExpression> probeVariables, Map<String, Integer> buildChannels, int partitionCount, LocalMemoryContext memoryContext)
     {
         this.probeVariables = requireNonNull(probeVariables, "probeVariables is null");
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
-        verify(probeVariables.keySet().equals(buildChannels.keySet()), "probeVariables and buildChannels must have same keys");
+        verify(buildChannels.keySet().containsAll(probeVariables.keySet()), "buildChannels must contain all probeVariables keys");
 
         this.resultFuture = SettableFuture.create();
+        this.bloomFilterResultFuture = SettableFuture.create();
+        this.filterIdResultFuture = SettableFuture.create();
 
         this.result = TupleDomain.none();
         this.partitionsLeft = partitionCount;
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
     }
 
-    private synchronized void addPartition(TupleDomain<String> tupleDomain)
+    private synchronized void addPartition(TupleDomain<String> tupleDomain, Map<String, BloomFilter> partitionBloomFilters)
     {
         // Called concurrently by each DynamicFilterSourceOperator instance (when collection is over).
         partitionsLeft -= 1;
@@ -77,16 +118,128 @@ public class LocalDynamicFilter
         // NOTE: may result in a bit more relaxed constraint if there are multiple columns and multiple rows.
         // See the comment at TupleDomain::columnWiseUnion() for more details.
         result = TupleDomain.columnWiseUnion(result, tupleDomain);
-        if (partitionsLeft == 0) {
-            // No more partitions are left to be processed.
-            verify(resultFuture.set(convertTupleDomain(result)), "dynamic filter result is provided more than once");
+        addBloomFilters(tupleDomain, partitionBloomFilters);
+        if (partitionsLeft > 0) {
+            updateMemoryUsage(bloomFilters.values());
+            return;
+        }
+        // No more partitions are left to be processed.
+        Map<String, BloomFilter> mergedBloomFilters = mergeBloomFilters();
+        bloomFilters.clear();
+        partitionDomains.clear();
+        updateMemoryUsage(mergedBloomFilters.values());
+        bloomFilterResultFuture.set(convertBloomFilters(mergedBloomFilters));
+        verify(resultFuture.set(convertTupleDomain(result)), "dynamic filter result is provided more than once");
+        filterIdResultFuture.set(result);
+    }
+
+    private void updateMemoryUsage(Collection<BloomFilter> retainedBloomFilters)
+    {
+        if (memoryReleased) {
+            return;
+        }
+        memoryContext.setBytes(retainedBloomFilters.stream()
+                .mapToLong(BloomFilter::getRetainedSizeInBytes)
+                .sum());
+    }
+
+    /**
+     * Releases the memory of the bloom filters, once they are no longer used by the table scans.
+     */
+    public synchronized void releaseMemory()
+    {
+        memoryReleased = true;
+        memoryContext.close();
+    }
+
+    private void addBloomFilters(TupleDomain<String> tupleDomain, Map<String, BloomFilter> partitionBloomFilters)
+    {
+        partitionBloomFilters.forEach((filterId, bloomFilter) -> bloomFilters.merge(filterId, bloomFilter, BloomFilter::union));
+        if (tupleDomain.isNone()) {
+            // the partition has no build side rows
+            return;
+        }
+        Map<String, Domain> domains = tupleDomain.getDomains().get();
+        for (String filterId : buildChannels.keySet()) {
+            if (partitionBloomFilters.containsKey(filterId)) {
+                continue;
+            }
+            Domain domain = domains.get(filterId);
+            if (domain == null) {
+                unboundedFilterIds.add(filterId);
+            }
+            else {
+                partitionDomains.put(filterId, domain);
+            }
+        }
+    }
+
+    private Map<String, BloomFilter> mergeBloomFilters()
+    {
+        ImmutableMap.Builder<String, BloomFilter> merged = ImmutableMap.builder();
+        for (Map.Entry<String, BloomFilter> entry : bloomFilters.entrySet()) {
+            String filterId = entry.getKey();
+            if (unboundedFilterIds.contains(filterId)) {
+                continue;
+            }
+            // the partitions without a bloom filter reported their distinct values instead
+            BloomFilter bloomFilter = entry.getValue().copy();
+            boolean complete = true;
+            for (Domain domain : partitionDomains.get(filterId)) {
+                if (!addValues(bloomFilter, domain)) {
+                    complete = false;
+                    break;
+                }
+            }
+            if (complete && bloomFilter.getFalsePositiveProbability() <= MAX_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY) {
+                merged.put(filterId, bloomFilter);
+            }
+        }
+        return merged.build();
+    }
+
+    private static boolean addValues(BloomFilter bloomFilter, Domain domain)
+    {
+        if (domain.isNone()) {
+            return true;
+        }
+        if (domain.getValues().isAll() || !domain.getType().isOrderable()) {
+            return false;
+        }
+        for (Range range : domain.getValues().getRanges().getOrderedRanges()) {
+            if (!range.isSingleValue()) {
+                return false;
+            }
+            Object value = range.getSingleValue();
+            if (value instanceof Long) {
+                bloomFilter.put((long) value);
+            }
+            else if (value instanceof Slice) {
+                bloomFilter.put((Slice) value);
+            }
+            else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<VariableReferenceExpression, BloomFilter> convertBloomFilters(Map<String, BloomFilter> bloomFilters)
+    {
+        ImmutableMap.Builder<VariableReferenceExpression, BloomFilter> builder = ImmutableMap.builder();
+        for (Map.Entry<String, BloomFilter> entry : bloomFilters.entrySet()) {
+            for (VariableReferenceExpression probeVariable : probeVariables.get(entry.getKey())) {
+                builder.put(probeVariable, entry.getValue());
+            }
         }
+        return builder.build();
     }
 
     private TupleDomain<VariableReferenceExpression> convertTupleDomain(TupleDomain<String> result)
     {
         if (result.isNone()) {
-            return TupleDomain.none();
+            // Without local probe variables there is nothing to filter in this fragment.
+            return probeVariables.isEmpty() ? TupleDomain.all() : TupleDomain.none();
         }
         // Convert the predicate to use probe variables (instead dynamic filter IDs).
         // Note that in case of a probe-side union, a single dynamic filter may match multiple probe variables.
@@ -102,6 +255,23 @@ public class LocalDynamicFilter
     }
 
     public static Optional<LocalDynamicFilter> create(AbstractJoinNode planNode, int partitionCount)
+    {
+        return create(planNode, partitionCount, false);
+    }
+
+    /**
+     * @param collectForRemoteConsumers whether to collect the build channels of dynamic filters
+     * that have no probe in the current fragment, so they can be sent to the coordinator
+     */
+    public static Optional<LocalDynamicFilter> create(AbstractJoinNode planNode, int partitionCount, boolean collectForRemoteConsumers)
+    {
+        return create(planNode, partitionCount, collectForRemoteConsumers, newSimpleAggregatedMemoryContext().newLocalMemoryContext(LocalDynamicFilter.class.getSimpleName()));
+    }
+
+    /**
+     * @param memoryContext accounts for the bloom filters collected from the build side until {@link #releaseMemory()}
+     */
+    public static Optional<LocalDynamicFilter> create(AbstractJoinNode planNode, int partitionCount, boolean collectForRemoteConsumers, LocalMemoryContext memoryContext)
     {
         Set<String> joinDynamicFilters = planNode.getDynamicFilters().keySet();
         List<FilterNode> filterNodes = PlanNodeSearcher
@@ -128,7 +298,7 @@ public class LocalDynamicFilter
         PlanNode buildNode = planNode.getBuild();
         Map<String, Integer> buildChannels = planNode.getDynamicFilters().entrySet().stream()
                 // Skip build channels that don't match local probe dynamic filters.
-                .filter(entry -> probeVariables.containsKey(entry.getKey()))
+                .filter(entry -> collectForRemoteConsumers || probeVariables.containsKey(entry.getKey()))
                 .collect(toMap(
                         // Dynamic filter ID
                         Map.Entry::getKey,
@@ -143,7 +313,7 @@ public class LocalDynamicFilter
         if (buildChannels.isEmpty()) {
             return Optional.empty();
         }
-        return Optional.of(new LocalDynamicFilter(probeVariables, buildChannels, partitionCount));
+        return Optional.of(new LocalDynamicFilter(probeVariables, buildChannels, partitionCount, memoryContext));
     }
 
     private static boolean isFilterAboveTableScan(PlanNode node)
@@ -161,7 +331,25 @@ public class LocalDynamicFilter
         return resultFuture;
     }
 
+    public ListenableFuture<TupleDomain<String>> getFilterIdResultFuture()
+    {
+        return filterIdResultFuture;
+    }
+
+    /**
+     * The returned future completes before {@link #getResultFuture()}.
+     */
+    public ListenableFuture<Map<VariableReferenceExpression, BloomFilter>> getBloomFilterResultFuture()
+    {
+        return bloomFilterResultFuture;
+    }
+
     public Consumer<TupleDomain<String>> getTupleDomainConsumer()
+    {
+        return tupleDomain -> addPartition(tupleDomain, ImmutableMap.of());
+    }
+
+    public BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> getDynamicFilterConsumer()
     {
         return this::addPartition;
     }
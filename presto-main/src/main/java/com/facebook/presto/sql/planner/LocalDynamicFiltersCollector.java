@@ -13,12 +13,17 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.google.common.collect.ImmutableMap;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @ThreadSafe
 public class LocalDynamicFiltersCollector
 {
@@ -29,6 +34,9 @@ public class LocalDynamicFiltersCollector
     @GuardedBy ("this")
     private TupleDomain<VariableReferenceExpression> predicate;
 
+    @GuardedBy ("this")
+    private final Map<VariableReferenceExpression, BloomFilter> bloomFilters = new HashMap<>();
+
     public LocalDynamicFiltersCollector()
     {
         this.predicate = TupleDomain.all();
@@ -43,4 +51,15 @@ public class LocalDynamicFiltersCollector
     {
         this.predicate = this.predicate.intersect(predicate);
     }
+
+    public synchronized Map<VariableReferenceExpression, BloomFilter> getBloomFilters()
+    {
+        return ImmutableMap.copyOf(bloomFilters);
+    }
+
+    public synchronized void addBloomFilters(Map<VariableReferenceExpression, BloomFilter> bloomFilters)
+    {
+        // any of the bloom filters of a variable is a valid constraint, keep the first one
+        bloomFilters.forEach(this.bloomFilters::putIfAbsent);
+    }
 }
@@ -23,6 +23,8 @@ import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.function.OperatorType;
 import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.predicate.BloomFilter;
+import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeSignature;
@@ -242,6 +244,7 @@ import java.util.stream.IntStream;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.presto.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
@@ -250,6 +253,8 @@ import static com.facebook.presto.SystemSessionProperties.getIndexLoaderTimeout;
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskPartitionedWriterCount;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.getTopNOperatorUnspillMemoryLimit;
+import static com.facebook.presto.SystemSessionProperties.isEnableDistributedDynamicFiltering;
 import static com.facebook.presto.SystemSessionProperties.isEnableDynamicFiltering;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isJoinSpillingEnabled;
@@ -696,6 +701,11 @@ public class LocalExecutionPlanner
             return taskContext.getSession();
         }
 
+        public TaskContext getTaskContext()
+        {
+            return taskContext;
+        }
+
         public StageExecutionId getStageExecutionId()
         {
             return taskContext.getTaskId().getStageExecutionId();
@@ -989,7 +999,10 @@ public class LocalExecutionPlanner
                     node.isPartial(),
                     hashChannel,
                     1000,
-                    joinCompiler);
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()),
+                    Optional.of(spillerFactory),
+                    getTopNOperatorUnspillMemoryLimit(context.getSession()));
 
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, source);
         }
@@ -1245,7 +1258,15 @@ public class LocalExecutionPlanner
 
             List<Integer> channels = getChannelsForVariables(node.getDistinctVariables(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashVariable().map(variableChannelGetter(source));
-            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler);
+            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    source.getTypes(),
+                    channels,
+                    hashChannel,
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()),
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operator, makeLayout(node), context, source);
         }
 
@@ -1364,6 +1385,18 @@ public class LocalExecutionPlanner
                     TupleDomain<VariableReferenceExpression> predicate = collector.getPredicate();
                     return predicate.transform(tableScanNode.getAssignments()::get);
                 });
+                if (table != null) {
+                    table = table.withDynamicBloomFilters(() -> {
+                        ImmutableMap.Builder<ColumnHandle, BloomFilter> bloomFilters = ImmutableMap.builder();
+                        collector.getBloomFilters().forEach((variable, bloomFilter) -> {
+                            ColumnHandle column = tableScanNode.getAssignments().get(variable);
+                            if (column != null) {
+                                bloomFilters.put(column, bloomFilter);
+                            }
+                        });
+                        return bloomFilters.build();
+                    });
+                }
             }
 
             // compiler uses inputs instead of variables, so rewrite the expressions first
@@ -2303,10 +2336,11 @@ public class LocalExecutionPlanner
             return new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
                     context.getNextOperatorId(),
                     planNodeId,
-                    dynamicFilter.getTupleDomainConsumer(),
+                    dynamicFilter.getDynamicFilterConsumer(),
                     filterBuildChannels,
                     getDynamicFilteringMaxPerDriverRowCount(context.getSession()),
-                    getDynamicFilteringMaxPerDriverSize(context.getSession()));
+                    getDynamicFilteringMaxPerDriverSize(context.getSession()),
+                    getDynamicFilteringBloomFilterSize(context.getSession()));
         }
 
         private Optional<LocalDynamicFilter> createDynamicFilter(PhysicalOperation buildSource, AbstractJoinNode node, LocalExecutionPlanContext context, int partitionCount)
@@ -2321,16 +2355,48 @@ public class LocalExecutionPlanner
                 throw new PrestoException(NOT_SUPPORTED, "Dynamic filtering cannot be used with grouped execution");
             }
             LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
+            boolean distributed = isEnableDistributedDynamicFiltering(context.getSession());
+            TaskContext taskContext = context.getTaskContext();
             return LocalDynamicFilter
-                    .create(node, partitionCount)
+                    .create(node, partitionCount, distributed, taskContext.newUserMemoryContext(LocalDynamicFilter.class.getSimpleName()))
                     .map(filter -> {
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
+                        // The bloom filters are complete before the predicate.
+                        addSuccessCallback(filter.getBloomFilterResultFuture(), collector::addBloomFilters);
                         addSuccessCallback(filter.getResultFuture(), collector::intersect);
+                        // The bloom filters are used by the table scans of the task until it is done.
+                        taskContext.addStateChangeListener(state -> {
+                            if (state.isDone()) {
+                                filter.releaseMemory();
+                            }
+                        });
+                        if (distributed) {
+                            // Report the task-wide domains so the coordinator can merge them for consumers in other stages.
+                            addSuccessCallback(
+                                    filter.getFilterIdResultFuture(),
+                                    result -> taskContext.addDynamicFilterDomains(toDynamicFilterDomains(result, filter.getBuildChannels(), buildSource.getTypes())));
+                        }
                         return filter;
                     });
         }
 
+        private Map<String, Domain> toDynamicFilterDomains(TupleDomain<String> result, Map<String, Integer> buildChannels, List<Type> buildTypes)
+        {
+            ImmutableMap.Builder<String, Domain> domains = ImmutableMap.builder();
+            for (Map.Entry<String, Integer> entry : buildChannels.entrySet()) {
+                Type type = buildTypes.get(entry.getValue());
+                if (result.isNone()) {
+                    domains.put(entry.getKey(), Domain.none(type));
+                }
+                else {
+                    // Filters that were dropped by the per-driver limits do not constrain the probe side
+                    domains.put(entry.getKey(), result.getDomains().get().getOrDefault(entry.getKey(), Domain.all(type)));
+                }
+            }
+            return domains.build();
+        }
+
         private JoinFilterFunctionFactory compileJoinFilterFunction(
                 SqlFunctionProperties sqlFunctionProperties,
                 Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
@@ -2421,6 +2487,10 @@ public class LocalExecutionPlanner
 
             Optional<Integer> buildHashChannel = node.getFilteringSourceHashVariable().map(variableChannelGetter(buildSource));
 
+            // the spilled set is read back once all probe operators have finished, so their number must be known
+            OptionalInt probeOperatorsCount = context.getDriverInstanceCount();
+            boolean spillEnabled = isJoinSpillingEnabled(session) && probeOperatorsCount.isPresent();
+
             SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
                     buildContext.getNextOperatorId(),
                     node.getId(),
@@ -2428,7 +2498,10 @@ public class LocalExecutionPlanner
                     buildChannel,
                     buildHashChannel,
                     10_000,
-                    joinCompiler);
+                    joinCompiler,
+                    spillEnabled,
+                    probeOperatorsCount,
+                    partitioningSpillerFactory);
 
             ImmutableList.Builder<OperatorFactory> factoriesBuilder = ImmutableList.builder();
             factoriesBuilder.addAll(buildSource.getOperatorFactories());
@@ -2455,7 +2528,15 @@ public class LocalExecutionPlanner
                     .put(node.getSemiJoinOutput(), probeSource.getLayout().size())
                     .build();
 
-            HashSemiJoinOperatorFactory operator = new HashSemiJoinOperatorFactory(context.getNextOperatorId(), node.getId(), setProvider, probeSource.getTypes(), probeChannel);
+            Optional<Integer> probeHashChannel = node.getSourceHashVariable().map(variableChannelGetter(probeSource));
+            HashSemiJoinOperatorFactory operator = new HashSemiJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    setProvider,
+                    probeSource.getTypes(),
+                    probeChannel,
+                    probeHashChannel,
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operator, outputMappings, context, probeSource);
         }
 
@@ -720,10 +720,19 @@ public class AddLocalExchanges
         @Override
         public PlanWithProperties visitSemiJoin(SemiJoinNode node, StreamPreferredProperties parentPreferences)
         {
-            PlanWithProperties source = planAndEnforce(
-                    node.getSource(),
-                    defaultParallelism(session),
-                    parentPreferences.constrainTo(node.getSource().getOutputVariables()).withDefaultParallelism(session));
+            PlanWithProperties source;
+            if (isSpillEnabled(session) && isJoinSpillingEnabled(session)) {
+                source = planAndEnforce(
+                        node.getSource(),
+                        fixedParallelism(),
+                        parentPreferences.constrainTo(node.getSource().getOutputVariables()).withFixedParallelism());
+            }
+            else {
+                source = planAndEnforce(
+                        node.getSource(),
+                        defaultParallelism(session),
+                        parentPreferences.constrainTo(node.getSource().getOutputVariables()).withDefaultParallelism(session));
+            }
 
             // this filter source consumes the input completely, so we do not pass through parent preferences
             PlanWithProperties filteringSource = planAndEnforce(node.getFilteringSource(), singleStream(), singleStream());
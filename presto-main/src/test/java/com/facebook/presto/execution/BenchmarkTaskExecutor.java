@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.execution.executor.TaskExecutor;
+import com.facebook.presto.execution.executor.TaskHandle;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Measures the scheduling overhead of the task executor with many short splits, which makes
+ * the runner threads contend on split admission and dispatch.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkTaskExecutor
+{
+    private static final int TASKS = 64;
+    private static final int SPLITS_PER_TASK = 500;
+    private static final int SPLIT_WORK_TOKENS = 100;
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS * SPLITS_PER_TASK)
+    public Object benchmark(BenchmarkData data)
+            throws Exception
+    {
+        TaskExecutor taskExecutor = data.getTaskExecutor();
+        List<TaskHandle> taskHandles = new ArrayList<>(TASKS);
+        List<ListenableFuture<?>> finishedFutures = new ArrayList<>(TASKS * SPLITS_PER_TASK);
+        for (int task = 0; task < TASKS; task++) {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("benchmark", 0, 0, task), () -> 0, 16, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            taskHandles.add(taskHandle);
+
+            ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+            for (int split = 0; split < SPLITS_PER_TASK; split++) {
+                splits.add(new ShortSplit());
+            }
+            finishedFutures.addAll(taskExecutor.enqueueSplits(taskHandle, false, splits.build()));
+        }
+        Object result = allAsList(finishedFutures).get();
+        taskHandles.forEach(taskExecutor::removeTask);
+        return result;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"8", "16", "32", "64", "128"})
+        private int runnerThreads = 8;
+
+        private TaskExecutor taskExecutor;
+
+        @Setup
+        public void setup()
+        {
+            taskExecutor = new TaskExecutor(runnerThreads, 2 * runnerThreads, 4, 16, TASK_FAIR, Ticker.systemTicker());
+            taskExecutor.start();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            taskExecutor.stop();
+        }
+
+        public TaskExecutor getTaskExecutor()
+        {
+            return taskExecutor;
+        }
+    }
+
+    private static class ShortSplit
+            implements SplitRunner
+    {
+        private volatile boolean finished;
+
+        @Override
+        public boolean isFinished()
+        {
+            return finished;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            Blackhole.consumeCPU(SPLIT_WORK_TOKENS);
+            finished = true;
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "short split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskExecutor.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
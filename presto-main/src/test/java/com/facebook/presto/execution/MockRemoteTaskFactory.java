@@ -284,7 +284,8 @@ public class MockRemoteTaskFactory
                     taskContext.getTaskStats(),
                     true,
                     DEFAULT_METADATA_UPDATES,
-                    nodeId);
+                    nodeId,
+                    ImmutableMap.of());
         }
 
         @Override
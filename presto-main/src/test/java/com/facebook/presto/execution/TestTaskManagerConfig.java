@@ -68,7 +68,9 @@ public class TestTaskManagerConfig
                 .setLevelTimeMultiplier(new BigDecimal("2"))
                 .setStatisticsCpuTimerEnabled(true)
                 .setLegacyLifespanCompletionCondition(false)
-                .setTaskPriorityTracking(TASK_FAIR));
+                .setTaskPriorityTracking(TASK_FAIR)
+                .setBlockingIoCatalogs("")
+                .setBlockingIoThreads(256));
     }
 
     @Test
@@ -109,6 +111,8 @@ public class TestTaskManagerConfig
                 .put("task.statistics-cpu-timer-enabled", "false")
                 .put("task.legacy-lifespan-completion-condition", "true")
                 .put("task.task-priority-tracking", "QUERY_FAIR")
+                .put("task.blocking-io-catalogs", "mysql, postgresql")
+                .put("task.blocking-io-threads", "64")
                 .build();
 
         TaskManagerConfig expected = new TaskManagerConfig()
@@ -145,7 +149,9 @@ public class TestTaskManagerConfig
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
                 .setStatisticsCpuTimerEnabled(false)
                 .setLegacyLifespanCompletionCondition(true)
-                .setTaskPriorityTracking(QUERY_FAIR);
+                .setTaskPriorityTracking(QUERY_FAIR)
+                .setBlockingIoCatalogs("mysql,postgresql")
+                .setBlockingIoThreads(64);
 
         assertFullMapping(properties, expected);
     }
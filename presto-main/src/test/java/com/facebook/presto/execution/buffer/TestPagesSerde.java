@@ -18,6 +18,7 @@ import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
@@ -33,6 +34,7 @@ import static com.facebook.presto.spi.page.PagesSerdeUtil.readPages;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writePages;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -107,6 +109,23 @@ public class TestPagesSerde
         assertEquals(secondValueSize, 4 + 3); // length + "bob" (null shared with first entry)
     }
 
+    @Test
+    public void testSerializedPageRetainedSize()
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            BIGINT.writeLong(builder, i);
+        }
+        Page page = new Page(builder.build());
+
+        SerializedPage serializedPage = serde.serialize(page);
+        Slice slice = serializedPage.getSlice();
+        // the serialization buffer is kept as long as little of it is unused
+        assertTrue(slice.getRetainedSize() - slice.length() <= slice.length() * 0.25);
+        assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(serializedPage), page);
+    }
+
     private static int serializedSize(List<? extends Type> types, Page expectedPage)
     {
         PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
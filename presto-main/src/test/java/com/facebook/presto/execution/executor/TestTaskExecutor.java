@@ -23,9 +23,11 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -33,11 +35,13 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
 import static com.facebook.airlift.testing.Assertions.assertLessThan;
+import static com.facebook.airlift.testing.Assertions.assertLessThanOrEqual;
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.QUERY_FAIR;
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_CONTRIBUTION_CAP;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -451,6 +455,103 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testConcurrentAdmission()
+            throws Exception
+    {
+        int minimumNumberOfDrivers = 8;
+        int threads = 4;
+        TaskExecutor taskExecutor = new TaskExecutor(4, minimumNumberOfDrivers, 1, 1000, TASK_FAIR, new TestingTicker());
+        taskExecutor.start();
+        ExecutorService executor = newFixedThreadPool(2 * threads);
+        try {
+            TaskHandle leafTaskHandle = taskExecutor.addTask(new TaskId("test", 0, 0, 0), () -> 0, 1000, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            TaskHandle intermediateTaskHandle = taskExecutor.addTask(new TaskId("test", 1, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            // the leaf splits stay blocked once they start, so every admitted leaf split keeps running
+            List<BlockingSplit> leafSplits = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                List<BlockingSplit> splits = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    splits.add(new BlockingSplit(true));
+                }
+                leafSplits.addAll(splits);
+                futures.add(executor.submit(() -> {
+                    for (BlockingSplit split : splits) {
+                        taskExecutor.enqueueSplits(leafTaskHandle, false, ImmutableList.of(split));
+                    }
+                }));
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        taskExecutor.enqueueSplits(intermediateTaskHandle, true, ImmutableList.of(new BlockingSplit(false)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // the intermediate splits that finish last admit leaf splits up to the minimum number of drivers
+            while (taskExecutor.getIntermediateSplits() > 0 || leafSplits.stream().filter(BlockingSplit::isStarted).count() < minimumNumberOfDrivers) {
+                MILLISECONDS.sleep(10);
+            }
+
+            // beyond the minimum, only the split guaranteed to the task and one split for each
+            // intermediate split that started while the splits were being admitted may be admitted
+            assertLessThanOrEqual(taskExecutor.getTotalSplits(), minimumNumberOfDrivers + 1 + threads);
+        }
+        finally {
+            executor.shutdownNow();
+            taskExecutor.stop();
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testConcurrentFinish()
+            throws Exception
+    {
+        int threads = 8;
+        TaskExecutor taskExecutor = new TaskExecutor(4, 4, 1, 4, TASK_FAIR, new TestingTicker());
+        taskExecutor.start();
+        ExecutorService executor = newFixedThreadPool(threads);
+        try {
+            List<TaskHandle> taskHandles = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                taskHandles.add(taskExecutor.addTask(new TaskId("test", task, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty()));
+            }
+
+            // leaf and intermediate splits finish while others are enqueued and admitted
+            List<Future<List<ListenableFuture<?>>>> enqueued = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                TaskHandle taskHandle = taskHandles.get(thread % taskHandles.size());
+                enqueued.add(executor.submit(() -> {
+                    List<ListenableFuture<?>> finished = new ArrayList<>();
+                    for (int i = 0; i < 200; i++) {
+                        finished.addAll(taskExecutor.enqueueSplits(taskHandle, i % 2 == 0, ImmutableList.of(new BlockingSplit(false))));
+                    }
+                    return finished;
+                }));
+            }
+
+            // no split is left queued without being admitted
+            for (Future<List<ListenableFuture<?>>> future : enqueued) {
+                Futures.allAsList(future.get()).get();
+            }
+
+            while (taskExecutor.getTotalSplits() > 0) {
+                MILLISECONDS.sleep(10);
+            }
+            assertEquals(taskExecutor.getIntermediateSplits(), 0);
+            assertEquals(taskExecutor.getWaitingSplits(), 0);
+            assertEquals(taskExecutor.getRunningSplits(), 0);
+        }
+        finally {
+            executor.shutdownNow();
+            taskExecutor.stop();
+        }
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
@@ -477,6 +578,53 @@ public class TestTaskExecutor
         }
     }
 
+    private static class BlockingSplit
+            implements SplitRunner
+    {
+        private final boolean blocking;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        // a blocking split never finishes, and the other splits finish in their first quantum
+        public BlockingSplit(boolean blocking)
+        {
+            this.blocking = blocking;
+        }
+
+        public boolean isStarted()
+        {
+            return started.get();
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            started.set(true);
+            if (blocking) {
+                return SettableFuture.create();
+            }
+            finished.set(true);
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "blocking-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return finished.get();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.common.predicate.Domain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.execution.scheduler.DynamicFilterService.mergeTaskDomains;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestDynamicFilterService
+{
+    @Test
+    public void testMergeTaskDomains()
+    {
+        assertEquals(
+                mergeTaskDomains("df", ImmutableList.of(
+                        ImmutableMap.of("df", Domain.singleValue(BIGINT, 1L)),
+                        ImmutableMap.of("df", Domain.singleValue(BIGINT, 2L), "other", Domain.none(BIGINT)),
+                        ImmutableMap.of("df", Domain.none(BIGINT)))),
+                Optional.of(Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L))));
+    }
+
+    @Test
+    public void testIncompleteTaskDomains()
+    {
+        assertFalse(mergeTaskDomains("df", ImmutableList.of()).isPresent());
+        assertFalse(mergeTaskDomains("df", ImmutableList.of(
+                ImmutableMap.of("df", Domain.singleValue(BIGINT, 1L)),
+                ImmutableMap.of("other", Domain.singleValue(BIGINT, 2L)))).isPresent());
+    }
+}
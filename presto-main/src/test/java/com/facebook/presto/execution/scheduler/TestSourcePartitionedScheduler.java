@@ -32,6 +32,7 @@ import com.facebook.presto.metadata.InMemoryNodeManager;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.operator.StageExecutionDescriptor;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorId;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
@@ -420,6 +421,24 @@ public class TestSourcePartitionedScheduler
         secondStage.abort();
     }
 
+    @Test
+    public void testDynamicFilterPrunesSplits()
+    {
+        SubPlan plan = createPlan();
+        NodeTaskMap nodeTaskMap = new NodeTaskMap(finalizerService);
+        SqlStageExecution stage = createSqlStageExecution(plan, nodeTaskMap);
+
+        // the build side of the join is empty, so only the empty split that starts the drivers is scheduled
+        StageScheduler scheduler = getSourcePartitionedScheduler(createFixedSplitSource(60, TestingSplit::createRemoteSplit), stage, nodeManager, nodeTaskMap, 200, TupleDomain::none);
+
+        ScheduleResult scheduleResult = scheduler.schedule();
+        assertEffectivelyFinished(scheduleResult, scheduler);
+        assertEquals(scheduleResult.getSplitsScheduled(), 1);
+        assertPartitionedSplitCount(stage, 1);
+
+        stage.abort();
+    }
+
     private static void assertPartitionedSplitCount(SqlStageExecution stage, int expectedPartitionedSplitCount)
     {
         assertEquals(stage.getAllTasks().stream().mapToInt(RemoteTask::getPartitionedSplitCount).sum(), expectedPartitionedSplitCount);
@@ -446,6 +465,17 @@ public class TestSourcePartitionedScheduler
             InternalNodeManager nodeManager,
             NodeTaskMap nodeTaskMap,
             int splitBatchSize)
+    {
+        return getSourcePartitionedScheduler(connectorSplitSource, stage, nodeManager, nodeTaskMap, splitBatchSize, TupleDomain::all);
+    }
+
+    private static StageScheduler getSourcePartitionedScheduler(
+            ConnectorSplitSource connectorSplitSource,
+            SqlStageExecution stage,
+            InternalNodeManager nodeManager,
+            NodeTaskMap nodeTaskMap,
+            int splitBatchSize,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
     {
         NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
                 .setIncludeCoordinator(false)
@@ -454,7 +484,7 @@ public class TestSourcePartitionedScheduler
         NodeScheduler nodeScheduler = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, new NodeSelectionStats(), nodeSchedulerConfig, nodeTaskMap);
         SplitSource splitSource = new ConnectorAwareSplitSource(CONNECTOR_ID, TestingTransactionHandle.create(), connectorSplitSource);
         SplitPlacementPolicy placementPolicy = new DynamicSplitPlacementPolicy(nodeScheduler.createNodeSelector(splitSource.getConnectorId()), stage::getAllTasks);
-        return newSourcePartitionedSchedulerAsStageScheduler(stage, TABLE_SCAN_NODE_ID, splitSource, placementPolicy, splitBatchSize);
+        return newSourcePartitionedSchedulerAsStageScheduler(stage, TABLE_SCAN_NODE_ID, splitSource, placementPolicy, splitBatchSize, dynamicFilter);
     }
 
     private static SubPlan createPlan()
@@ -369,6 +369,55 @@ public class BenchmarkHashBuildAndJoinOperators
         return outputPages.build();
     }
 
+    @Benchmark
+    public long benchmarkProbeLookupSource(JoinContext joinContext)
+    {
+        return probeLookupSource(joinContext, false);
+    }
+
+    @Benchmark
+    public long benchmarkBatchProbeLookupSource(JoinContext joinContext)
+    {
+        return probeLookupSource(joinContext, true);
+    }
+
+    private static long probeLookupSource(JoinContext joinContext, boolean batch)
+    {
+        LookupSourceFactory lookupSourceFactory = joinContext.getLookupSourceFactory().getJoinBridge(Lifespan.taskWide());
+        try (LookupSourceProvider lookupSourceProvider = getFutureValue(lookupSourceFactory.createLookupSourceProvider())) {
+            return lookupSourceProvider.withLease(lookupSourceLease -> probeLookupSource(lookupSourceLease.getLookupSource(), joinContext, batch));
+        }
+    }
+
+    private static long probeLookupSource(LookupSource lookupSource, JoinContext joinContext, boolean batch)
+    {
+        int[] positions = new int[JoinContext.ROWS_PER_PAGE];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        long[] joinPositions = new long[JoinContext.ROWS_PER_PAGE];
+
+        long matches = 0;
+        for (Page page : joinContext.getProbePages()) {
+            Page hashChannelsPage = page.extractChannels(Ints.toArray(joinContext.getHashChannels()));
+            int positionCount = page.getPositionCount();
+            if (batch) {
+                lookupSource.getJoinPositions(positions, positionCount, hashChannelsPage, page, joinPositions);
+            }
+            else {
+                for (int position = 0; position < positionCount; position++) {
+                    joinPositions[position] = lookupSource.getJoinPosition(position, hashChannelsPage, page);
+                }
+            }
+            for (int position = 0; position < positionCount; position++) {
+                if (joinPositions[position] >= 0) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
     public static void main(String[] args)
             throws RunnerException
     {
@@ -16,9 +16,13 @@ package com.facebook.presto.operator;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.spiller.SingleStreamSpiller;
+import com.facebook.presto.spiller.SingleStreamSpillerFactory;
 import com.facebook.presto.spiller.Spiller;
 import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.ArrayList;
@@ -26,10 +30,11 @@ import java.util.Iterator;
 import java.util.List;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.unmodifiableIterator;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 
 public class DummySpillerFactory
-        implements SpillerFactory
+        implements SpillerFactory, SingleStreamSpillerFactory
 {
     private long spillsCount;
 
@@ -64,6 +69,49 @@ public class DummySpillerFactory
         };
     }
 
+    @Override
+    public SingleStreamSpiller create(List<Type> types, SpillContext spillContext, LocalMemoryContext memoryContext)
+    {
+        return new SingleStreamSpiller()
+        {
+            private final List<Page> spills = new ArrayList<>();
+
+            @Override
+            public ListenableFuture<?> spill(Iterator<Page> pageIterator)
+            {
+                spillsCount++;
+                Iterators.addAll(spills, pageIterator);
+                return immediateFuture(null);
+            }
+
+            @Override
+            public Iterator<Page> getSpilledPages()
+            {
+                return unmodifiableIterator(spills.iterator());
+            }
+
+            @Override
+            public long getSpilledPagesInMemorySize()
+            {
+                return spills.stream()
+                        .mapToLong(Page::getSizeInBytes)
+                        .sum();
+            }
+
+            @Override
+            public ListenableFuture<List<Page>> getAllSpilledPages()
+            {
+                return immediateFuture(ImmutableList.copyOf(spills));
+            }
+
+            @Override
+            public void close()
+            {
+                spills.clear();
+            }
+        };
+    }
+
     public long getSpillsCount()
     {
         return spillsCount;
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.airlift.testing.TestingTicker;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestAdaptiveExchangeRequestController
+{
+    private static final long BUFFER_CAPACITY = 32 * DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+    private static final long MAX_REQUEST_SIZE = 16 * DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+    private static final URI LOCATION = URI.create("http://localhost:8080");
+
+    @Test
+    public void testRequestSizeGrowsWithFullResponses()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AdaptiveExchangeRequestController controller = new AdaptiveExchangeRequestController(BUFFER_CAPACITY, MAX_REQUEST_SIZE, 1, 0.5, ticker);
+        controller.addSource(LOCATION);
+
+        long requestSize = controller.requestScheduled(LOCATION);
+        for (int i = 0; i < 100; i++) {
+            ticker.increment(10, MILLISECONDS);
+            controller.responseReceived(LOCATION, requestSize, 0);
+            long nextRequestSize = controller.requestScheduled(LOCATION);
+            assertTrue(nextRequestSize >= requestSize);
+            requestSize = nextRequestSize;
+        }
+        assertEquals(requestSize, MAX_REQUEST_SIZE);
+        assertTrue(controller.getBytesReceived(LOCATION) > 0);
+        assertTrue(controller.getAverageBandwidth() > 0);
+    }
+
+    @Test
+    public void testBackOffOnLatencyInflation()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AdaptiveExchangeRequestController controller = new AdaptiveExchangeRequestController(BUFFER_CAPACITY, MAX_REQUEST_SIZE, 1, 0.5, ticker);
+        controller.addSource(LOCATION);
+
+        long requestSize = controller.requestScheduled(LOCATION);
+        ticker.increment(10, MILLISECONDS);
+        controller.responseReceived(LOCATION, requestSize, 0);
+        long grownRequestSize = controller.requestScheduled(LOCATION);
+        assertTrue(grownRequestSize > requestSize);
+
+        ticker.increment(1000, MILLISECONDS);
+        controller.responseReceived(LOCATION, grownRequestSize, 0);
+        assertEquals(controller.getRequestSize(LOCATION), grownRequestSize / 2);
+    }
+
+    @Test
+    public void testPartialResponseLatencyIgnored()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AdaptiveExchangeRequestController controller = new AdaptiveExchangeRequestController(BUFFER_CAPACITY, MAX_REQUEST_SIZE, 1, 0.5, ticker);
+        controller.addSource(LOCATION);
+
+        long requestSize = controller.requestScheduled(LOCATION);
+        ticker.increment(10, MILLISECONDS);
+        controller.responseReceived(LOCATION, requestSize, 0);
+        long grownRequestSize = controller.requestScheduled(LOCATION);
+        long bandwidth = controller.getAverageBandwidth();
+
+        // a long poll that returns a few bytes once the source produces them is not congestion
+        ticker.increment(1000, MILLISECONDS);
+        controller.responseReceived(LOCATION, 1, 0);
+        assertEquals(controller.getRequestSize(LOCATION), grownRequestSize);
+        assertEquals(controller.getAverageBandwidth(), bandwidth);
+
+        // and does not hide the congestion of the next full response
+        controller.requestScheduled(LOCATION);
+        ticker.increment(1000, MILLISECONDS);
+        controller.responseReceived(LOCATION, grownRequestSize, 0);
+        assertEquals(controller.getRequestSize(LOCATION), grownRequestSize / 2);
+    }
+
+    @Test
+    public void testBackOffOnBufferOverflow()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AdaptiveExchangeRequestController controller = new AdaptiveExchangeRequestController(BUFFER_CAPACITY, MAX_REQUEST_SIZE, 1, 0.5, ticker);
+        controller.addSource(LOCATION);
+        int maxRequestsInFlight = controller.getMaxRequestsInFlight();
+
+        long requestSize = controller.requestScheduled(LOCATION);
+        controller.responseReceived(LOCATION, requestSize, BUFFER_CAPACITY + 1);
+        assertEquals(controller.getRequestSize(LOCATION), DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
+        assertEquals(controller.getMaxRequestsInFlight(), maxRequestsInFlight / 2);
+    }
+
+    @Test
+    public void testRequestsInFlight()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AdaptiveExchangeRequestController controller = new AdaptiveExchangeRequestController(BUFFER_CAPACITY, MAX_REQUEST_SIZE, 1, 0.5, ticker);
+        URI otherLocation = URI.create("http://localhost:8081");
+        controller.addSource(LOCATION);
+        controller.addSource(otherLocation);
+
+        // the first request is always allowed
+        assertTrue(controller.canScheduleRequest(1));
+        controller.requestScheduled(LOCATION);
+        assertEquals(controller.getRequestsInFlight(), 1);
+
+        // expected bytes in flight already exceed what the buffer needs
+        assertFalse(controller.canScheduleRequest(1));
+        assertTrue(controller.canScheduleRequest(BUFFER_CAPACITY));
+
+        // scheduling the same source twice does not double count it
+        controller.requestScheduled(LOCATION);
+        controller.requestScheduled(otherLocation);
+        assertEquals(controller.getRequestsInFlight(), 2);
+
+        controller.requestFinished(LOCATION);
+        controller.removeSource(otherLocation);
+        assertEquals(controller.getRequestsInFlight(), 0);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.Session;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.BIGINT_JOIN_HASH_ENABLED;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestBigintJoinHash
+{
+    private static final Session ENABLED_SESSION = testSessionBuilder()
+            .setSystemProperty(BIGINT_JOIN_HASH_ENABLED, "true")
+            .build();
+
+    @Test
+    public void testMatchesGenericJoinHash()
+    {
+        List<Page> buildPages = rowPagesBuilder(BIGINT, VARCHAR)
+                .row(1L, "a")
+                .row(2L, "b")
+                .row(null, "null")
+                .row(2L, "c")
+                .pageBreak()
+                .row(Long.MIN_VALUE, "min")
+                .row(Long.MAX_VALUE, "max")
+                .row(0L, "zero")
+                .row(2L, "d")
+                .build();
+        Page probePage = rowPagesBuilder(BIGINT)
+                .row(2L)
+                .row(3L)
+                .row(null)
+                .row(Long.MIN_VALUE)
+                .row(0L)
+                .row(1L)
+                .build()
+                .get(0);
+
+        LookupSource bigintLookupSource = createLookupSource(ENABLED_SESSION, ImmutableList.of(BIGINT, VARCHAR), buildPages);
+        LookupSource genericLookupSource = createLookupSource(TEST_SESSION, ImmutableList.of(BIGINT, VARCHAR), buildPages);
+        assertTrue(bigintLookupSource instanceof BigintJoinHash);
+        assertTrue(genericLookupSource instanceof JoinHash);
+
+        assertEquals(bigintLookupSource.getJoinPositionCount(), genericLookupSource.getJoinPositionCount());
+        for (int position = 0; position < probePage.getPositionCount(); position++) {
+            assertEquals(matches(bigintLookupSource, probePage, position), matches(genericLookupSource, probePage, position));
+        }
+        assertEquals(matches(bigintLookupSource, probePage, 0).size(), 3);
+        assertEquals(matches(bigintLookupSource, probePage, 1).size(), 0);
+        assertEquals(matches(bigintLookupSource, probePage, 2).size(), 0);
+    }
+
+    @Test
+    public void testManyKeys()
+    {
+        RowPagesBuilder buildPages = rowPagesBuilder(INTEGER);
+        for (int i = 0; i < 10_000; i++) {
+            buildPages.row((long) i * 7);
+        }
+        LookupSource lookupSource = createLookupSource(ENABLED_SESSION, ImmutableList.of(INTEGER), buildPages.build());
+        assertTrue(lookupSource instanceof BigintJoinHash);
+
+        RowPagesBuilder probePages = rowPagesBuilder(INTEGER);
+        for (int i = 0; i < 70_000; i++) {
+            probePages.row((long) i);
+        }
+        for (Page probePage : probePages.build()) {
+            for (int position = 0; position < probePage.getPositionCount(); position++) {
+                long value = INTEGER.getLong(probePage.getBlock(0), position);
+                assertEquals(matches(lookupSource, probePage, position).size(), value % 7 == 0 ? 1 : 0);
+            }
+        }
+    }
+
+    @Test
+    public void testGetJoinPositions()
+    {
+        RowPagesBuilder buildPages = rowPagesBuilder(BIGINT);
+        for (int i = 0; i < 1000; i++) {
+            buildPages.row((long) i % 300);
+        }
+        Page probePage = rowPagesBuilder(BIGINT)
+                .addSequencePage(500, -100)
+                .build()
+                .get(0);
+        int[] positions = new int[probePage.getPositionCount() / 2];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i * 2;
+        }
+
+        for (Session session : ImmutableList.of(ENABLED_SESSION, TEST_SESSION)) {
+            LookupSource lookupSource = createLookupSource(session, ImmutableList.of(BIGINT), buildPages.build());
+            long[] joinPositions = new long[positions.length];
+            lookupSource.getJoinPositions(positions, positions.length, probePage, probePage, joinPositions);
+            for (int i = 0; i < positions.length; i++) {
+                assertEquals(joinPositions[i], lookupSource.getJoinPosition(positions[i], probePage, probePage));
+            }
+        }
+    }
+
+    private static LookupSource createLookupSource(Session session, List<Type> types, List<Page> pages)
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(types, 100);
+        pages.forEach(pagesIndex::addPage);
+        return pagesIndex.createLookupSourceSupplier(
+                session,
+                ImmutableList.of(0),
+                OptionalInt.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                ImmutableList.of())
+                .get();
+    }
+
+    private static List<Long> matches(LookupSource lookupSource, Page probePage, int position)
+    {
+        List<Long> joinPositions = new ArrayList<>();
+        long joinPosition = lookupSource.getJoinPosition(position, probePage, probePage);
+        while (joinPosition >= 0) {
+            joinPositions.add(joinPosition);
+            joinPosition = lookupSource.getNextJoinPosition(joinPosition, position, probePage);
+        }
+        return joinPositions;
+    }
+}
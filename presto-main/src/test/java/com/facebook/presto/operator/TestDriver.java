@@ -672,14 +672,14 @@ public class TestDriver
         @Override
         public Future<?> put(String plan, Split split, List<Page> result)
         {
-            cache.put(new CacheKey(plan, split.getSplitIdentifier()), result);
+            cache.put(CacheKey.of(plan, split.getSplitIdentifier()), result);
             return immediateFuture(null);
         }
 
         @Override
         public Optional<Iterator<Page>> get(String plan, Split split)
         {
-            CacheKey key = new CacheKey(plan, split.getSplitIdentifier());
+            CacheKey key = CacheKey.of(plan, split.getSplitIdentifier());
             if (cache.containsKey(key)) {
                 return Optional.of(cache.get(key).iterator());
             }
@@ -15,7 +15,9 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
@@ -23,12 +25,16 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -52,9 +58,11 @@ import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.base.Strings.repeat;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -255,6 +263,45 @@ public class TestDynamicFilterSourceOperator
         assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
     }
 
+    @Test
+    public void testCollectTooManyRowsWithBloomFilter()
+    {
+        int maxRowCount = getDynamicFilteringMaxPerDriverRowCount(pipelineContext.getSession());
+        Page largePage = createSequencePage(ImmutableList.of(BIGINT, DOUBLE), maxRowCount + 1);
+
+        List<Map<String, BloomFilter>> bloomFilters = new ArrayList<>();
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                (tupleDomain, partitionBloomFilters) -> {
+                    partitions.add(tupleDomain);
+                    bloomFilters.add(partitionBloomFilters);
+                },
+                ImmutableList.of(channel(0, BIGINT), channel(1, DOUBLE)),
+                maxRowCount,
+                getDynamicFilteringMaxPerDriverSize(TEST_SESSION),
+                new DataSize(1, KILOBYTE));
+        verifyPassThrough(
+                createOperator(operatorFactory),
+                ImmutableList.of(BIGINT, DOUBLE),
+                largePage,
+                new Page(createLongsBlock(-5L), createDoublesBlock(1.0)));
+        operatorFactory.noMoreOperators();
+
+        // the double channel has no bloom filter and does not constrain the probe side
+        assertEquals(
+                partitions.build(),
+                ImmutableList.of(TupleDomain.withColumnDomains(ImmutableMap.of(
+                        "0", Domain.create(ValueSet.ofRanges(Range.range(BIGINT, -5L, true, (long) maxRowCount, true)), false)))));
+        assertEquals(bloomFilters.size(), 1);
+        assertEquals(bloomFilters.get(0).keySet(), ImmutableSet.of("0"));
+        BloomFilter bloomFilter = bloomFilters.get(0).get("0");
+        for (long value = 0; value <= maxRowCount; value++) {
+            assertTrue(bloomFilter.mightContain(value));
+        }
+        assertTrue(bloomFilter.mightContain(-5L));
+    }
+
     @Test
     public void testCollectTooManyBytesSingleColumn()
     {
@@ -122,6 +122,7 @@ public class TestExchangeClient
                 true,
                 false,
                 0.2,
+                false,
                 new TestingHttpClient(processor, scheduler),
                 new TestingDriftClient<>(),
                 scheduler,
@@ -148,6 +149,59 @@ public class TestExchangeClient
         assertStatus(status.getPageBufferClientStatuses().get(0), location, "closed", 3, 3, 3, "not scheduled");
     }
 
+    @Test
+    public void testAdaptiveRequestSizing()
+    {
+        DataSize maxResponseSize = new DataSize(10, MEGABYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxResponseSize);
+
+        List<URI> locations = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            URI location = URI.create("http://localhost:" + (8080 + i));
+            locations.add(location);
+            processor.addPage(location, createPage(1));
+            processor.addPage(location, createPage(2));
+            processor.setComplete(location);
+        }
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                new DataSize(32, MEGABYTE),
+                maxResponseSize,
+                1,
+                new Duration(1, MINUTES),
+                true,
+                false,
+                0.2,
+                true,
+                new TestingHttpClient(processor, scheduler),
+                new TestingDriftClient<>(),
+                scheduler,
+                new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                pageBufferClientCallbackExecutor);
+
+        for (int i = 0; i < locations.size(); i++) {
+            exchangeClient.addLocation(locations.get(i), TaskId.valueOf("queryid.0.0." + i));
+        }
+        exchangeClient.noMoreLocations();
+
+        for (int i = 0; i < locations.size() * 2; i++) {
+            assertNotNull(getNextPage(exchangeClient));
+        }
+        assertNull(getNextPage(exchangeClient));
+        assertTrue(exchangeClient.isClosed());
+
+        ExchangeClientStatus status = exchangeClient.getStatus();
+        assertEquals(status.getBufferedPages(), 0);
+        assertEquals(status.getBufferedBytes(), 0);
+        assertTrue(status.getAverageRequestSizeInBytes() > 0);
+        assertTrue(status.getMaxRequestsInFlight() >= 1);
+        for (PageBufferClientStatus clientStatus : status.getPageBufferClientStatuses()) {
+            assertEquals(clientStatus.getPagesReceived(), 2);
+            assertEquals(clientStatus.getState(), "closed");
+        }
+    }
+
     @Test(timeOut = 10000)
     public void testAddLocation()
             throws Exception
@@ -164,6 +218,7 @@ public class TestExchangeClient
                 true,
                 false,
                 0.2,
+                false,
                 new TestingHttpClient(processor, testingHttpClientExecutor),
                 new TestingDriftClient<>(),
                 scheduler,
@@ -239,6 +294,7 @@ public class TestExchangeClient
                 true,
                 false,
                 0.2,
+                false,
                 new TestingHttpClient(processor, testingHttpClientExecutor),
                 new TestingDriftClient<>(),
                 scheduler,
@@ -324,6 +380,7 @@ public class TestExchangeClient
                 true,
                 false,
                 0.2,
+                false,
                 new TestingHttpClient(processor, testingHttpClientExecutor),
                 new TestingDriftClient<>(),
                 scheduler,
@@ -391,6 +448,7 @@ public class TestExchangeClient
                 true,
                 false,
                 0.2,
+                false,
                 new TestingHttpClient(processor, testingHttpClientExecutor),
                 new TestingDriftClient<>(),
                 scheduler,
@@ -469,6 +527,7 @@ public class TestExchangeClient
                 true,
                 false,
                 0.2,
+                false,
                 new TestingHttpClient(processor, testingHttpClientExecutor),
                 new TestingDriftClient<>(),
                 scheduler,
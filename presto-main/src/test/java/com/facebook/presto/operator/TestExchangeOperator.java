@@ -92,6 +92,7 @@ public class TestExchangeOperator
                 true,
                 false,
                 0.2,
+                false,
                 httpClient,
                 new TestingDriftClient<>(),
                 scheduler,
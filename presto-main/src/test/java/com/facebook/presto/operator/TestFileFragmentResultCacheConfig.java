@@ -36,7 +36,8 @@ public class TestFileFragmentResultCacheConfig
                 .setCachingEnabled(false)
                 .setBaseDirectory(null)
                 .setBlockEncodingCompressionEnabled(false)
-                .setMaxCachedEntries(10_000)
+                .setRestoreOnStartupEnabled(false)
+                .setMaxCacheSize(new DataSize(100, GIGABYTE))
                 .setCacheTtl(new Duration(2, DAYS))
                 .setMaxInFlightSize(new DataSize(1, GIGABYTE)));
     }
@@ -49,7 +50,8 @@ public class TestFileFragmentResultCacheConfig
                 .put("fragment-result-cache.enabled", "true")
                 .put("fragment-result-cache.base-directory", "tcp://abc")
                 .put("fragment-result-cache.block-encoding-compression-enabled", "true")
-                .put("fragment-result-cache.max-cached-entries", "100000")
+                .put("fragment-result-cache.restore-on-startup-enabled", "true")
+                .put("fragment-result-cache.max-cache-size", "200GB")
                 .put("fragment-result-cache.cache-ttl", "1d")
                 .put("fragment-result-cache.max-in-flight-size", "2GB")
                 .build();
@@ -58,7 +60,8 @@ public class TestFileFragmentResultCacheConfig
                 .setCachingEnabled(true)
                 .setBaseDirectory(new URI("tcp://abc"))
                 .setBlockEncodingCompressionEnabled(true)
-                .setMaxCachedEntries(100000)
+                .setRestoreOnStartupEnabled(true)
+                .setMaxCacheSize(new DataSize(200, GIGABYTE))
                 .setCacheTtl(new Duration(1, DAYS))
                 .setMaxInFlightSize(new DataSize(2, GIGABYTE));
 
@@ -22,6 +22,8 @@ import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.facebook.presto.spi.schedule.NodeSelectionStrategy;
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -41,8 +43,12 @@ import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static java.lang.System.currentTimeMillis;
 import static java.nio.file.Files.createTempDirectory;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -133,6 +139,158 @@ public class TestFileFragmentResultCacheManager
         assertEquals(stats.getCacheRemoval(), 2);
     }
 
+    @Test(timeOut = 30_000)
+    public void testSplitWithoutIdentifier()
+            throws Exception
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats, directory, new DataSize(1, GIGABYTE), false);
+
+        Split split = new Split(new ConnectorId("test"), new ConnectorTransactionHandle() {}, new TestingSplitWithoutIdentifier());
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, split, ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")))).get();
+        assertFalse(cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, split).isPresent());
+        assertEquals(stats.getCacheEntries(), 0);
+        assertEquals(listFiles(directory).length, 0);
+        deleteDirectory(directory);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testSplitIdentifierCollision()
+            throws Exception
+    {
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats);
+
+        // both identifiers have the same string representation, so the splits have the same key
+        Split split1 = new Split(new ConnectorId("test"), new ConnectorTransactionHandle() {}, new TestingSplit(new TestingIdentifier(1)));
+        Split split2 = new Split(new ConnectorId("test"), new ConnectorTransactionHandle() {}, new TestingSplit(new TestingIdentifier(2)));
+        List<Page> pages = ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")));
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, split1, pages).get();
+
+        assertFalse(cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, split2).isPresent());
+        Optional<Iterator<Page>> result = cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, split1);
+        assertTrue(result.isPresent());
+        assertPagesEqual(result.get(), pages.iterator());
+        assertEquals(stats.getCacheHit(), 1);
+        assertEquals(stats.getCacheMiss(), 1);
+        cacheManager.invalidateAllCache();
+    }
+
+    @Test(timeOut = 30_000)
+    public void testCacheAgainAfterRemoval()
+            throws Exception
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats, directory, new DataSize(1, GIGABYTE), false);
+
+        List<Page> pages = ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")));
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1, pages).get();
+        cacheManager.invalidateAllCache();
+        // the file of the removed entry is deleted asynchronously, which must not delete the file of the new entry
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1, pages).get();
+        while (listFiles(directory).length > 1) {
+            Thread.sleep(10);
+        }
+
+        Optional<Iterator<Page>> result = cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1);
+        assertTrue(result.isPresent());
+        assertPagesEqual(result.get(), pages.iterator());
+        assertEquals(stats.getCacheEntries(), 1);
+
+        cacheManager.invalidateAllCache();
+        while (listFiles(directory).length > 0) {
+            Thread.sleep(10);
+        }
+        deleteDirectory(directory);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testEvictionBySize()
+            throws Exception
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats, directory, new DataSize(1, BYTE), false);
+
+        // the entry is larger than the whole cache, so it is evicted right away
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1, ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")))).get();
+        assertFalse(cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1).isPresent());
+        assertEquals(stats.getCacheEntries(), 0);
+        assertEquals(stats.getCacheSizeInBytes(), 0);
+        assertEquals(stats.getCacheRemoval(), 1);
+        while (listFiles(directory).length > 0) {
+            Thread.sleep(10);
+        }
+        deleteDirectory(directory);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testRestoreOnStartup()
+            throws Exception
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        List<Page> pages = ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")));
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats, directory, new DataSize(1, GIGABYTE), true);
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1, pages).get();
+        assertEquals(stats.getCacheEntries(), 1);
+        assertTrue(stats.getCacheSizeInBytes() > 0);
+
+        // a file that is not named after a key, e.g. a leftover of an interrupted write
+        Files.createFile(new File(directory).toPath().resolve("incomplete.tmp"));
+
+        FragmentCacheStats restartedStats = new FragmentCacheStats();
+        FileFragmentResultCacheManager restartedCacheManager = fileFragmentResultCacheManager(restartedStats, directory, new DataSize(1, GIGABYTE), true);
+        while (restartedStats.getCacheEntries() < 1 || listFiles(directory).length > 1) {
+            Thread.sleep(10);
+        }
+        assertEquals(restartedStats.getCacheSizeInBytes(), stats.getCacheSizeInBytes());
+
+        Optional<Iterator<Page>> result = restartedCacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1);
+        assertTrue(result.isPresent());
+        assertPagesEqual(result.get(), pages.iterator());
+        assertFalse(restartedCacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_2).isPresent());
+        assertEquals(restartedStats.getCacheHit(), 1);
+        assertEquals(restartedStats.getCacheMiss(), 1);
+
+        deleteDirectory(directory);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testRestoredEntryExpiresFromWriteTime()
+            throws Exception
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        Duration cacheTtl = new Duration(2, SECONDS);
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats, directory, new DataSize(1, GIGABYTE), true, cacheTtl);
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1, ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")))).get();
+
+        // the file was written half the TTL before the restart
+        long writeTimeMillis = currentTimeMillis() - cacheTtl.toMillis() / 2;
+        assertTrue(listFiles(directory)[0].setLastModified(writeTimeMillis));
+
+        FragmentCacheStats restartedStats = new FragmentCacheStats();
+        FileFragmentResultCacheManager restartedCacheManager = fileFragmentResultCacheManager(restartedStats, directory, new DataSize(1, GIGABYTE), true, cacheTtl);
+        while (restartedStats.getCacheEntries() < 1) {
+            Thread.sleep(10);
+        }
+
+        // the entry expires the TTL after it was written, not after it was restored
+        while (currentTimeMillis() <= writeTimeMillis + cacheTtl.toMillis()) {
+            Thread.sleep(10);
+        }
+        assertFalse(restartedCacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1).isPresent());
+        assertEquals(restartedStats.getCacheMiss(), 1);
+        assertEquals(restartedStats.getCacheEntries(), 0);
+        while (listFiles(directory).length > 0) {
+            Thread.sleep(10);
+        }
+        deleteDirectory(directory);
+    }
+
     private static void assertPagesEqual(Iterator<Page> pages1, Iterator<Page> pages2)
     {
         while (pages1.hasNext() && pages2.hasNext()) {
@@ -149,25 +307,91 @@ public class TestFileFragmentResultCacheManager
 
     private FileFragmentResultCacheManager fileFragmentResultCacheManager(FragmentCacheStats fragmentCacheStats)
     {
-        FileFragmentResultCacheConfig cacheConfig = new FileFragmentResultCacheConfig();
+        return fileFragmentResultCacheManager(fragmentCacheStats, cacheDirectory, new FileFragmentResultCacheConfig().getMaxCacheSize(), false);
+    }
+
+    private FileFragmentResultCacheManager fileFragmentResultCacheManager(FragmentCacheStats fragmentCacheStats, URI directory, DataSize maxCacheSize, boolean restoreOnStartupEnabled)
+    {
+        return fileFragmentResultCacheManager(fragmentCacheStats, directory, maxCacheSize, restoreOnStartupEnabled, new FileFragmentResultCacheConfig().getCacheTtl());
+    }
+
+    private FileFragmentResultCacheManager fileFragmentResultCacheManager(FragmentCacheStats fragmentCacheStats, URI directory, DataSize maxCacheSize, boolean restoreOnStartupEnabled, Duration cacheTtl)
+    {
+        FileFragmentResultCacheConfig cacheConfig = new FileFragmentResultCacheConfig()
+                .setMaxCacheSize(maxCacheSize)
+                .setRestoreOnStartupEnabled(restoreOnStartupEnabled)
+                .setCacheTtl(cacheTtl);
         return new FileFragmentResultCacheManager(
-                cacheConfig.setBaseDirectory(cacheDirectory),
+                cacheConfig.setBaseDirectory(directory),
                 new TestingBlockEncodingSerde(),
                 fragmentCacheStats,
                 writeExecutor,
                 removalExecutor);
     }
 
+    private static File[] listFiles(URI directory)
+    {
+        File[] files = new File(directory).listFiles();
+        checkState(files != null);
+        return files;
+    }
+
+    private static void deleteDirectory(URI directory)
+            throws IOException
+    {
+        for (File file : listFiles(directory)) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(new File(directory).toPath());
+    }
+
     private static class TestingSplit
-            implements ConnectorSplit
+            extends TestingSplitWithoutIdentifier
     {
-        private final int id;
+        private final Object id;
 
-        public TestingSplit(int id)
+        public TestingSplit(Object id)
         {
             this.id = id;
         }
 
+        @Override
+        public Object getSplitIdentifier()
+        {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TestingSplit that = (TestingSplit) o;
+            return id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(id);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("id", id)
+                    .toString();
+        }
+    }
+
+    private static class TestingSplitWithoutIdentifier
+            implements ConnectorSplit
+    {
         @Override
         public NodeSelectionStrategy getNodeSelectionStrategy()
         {
@@ -185,11 +409,15 @@ public class TestFileFragmentResultCacheManager
         {
             return this;
         }
+    }
 
-        @Override
-        public Object getSplitIdentifier()
+    private static class TestingIdentifier
+    {
+        private final int id;
+
+        public TestingIdentifier(int id)
         {
-            return id;
+            this.id = id;
         }
 
         @Override
@@ -201,7 +429,7 @@ public class TestFileFragmentResultCacheManager
             if (o == null || getClass() != o.getClass()) {
                 return false;
             }
-            TestingSplit that = (TestingSplit) o;
+            TestingIdentifier that = (TestingIdentifier) o;
             return id == that.id;
         }
 
@@ -214,9 +442,7 @@ public class TestFileFragmentResultCacheManager
         @Override
         public String toString()
         {
-            return toStringHelper(this)
-                    .add("id", id)
-                    .toString();
+            return "identifier";
         }
     }
 }
@@ -20,6 +20,7 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.operator.HashSemiJoinOperator.HashSemiJoinOperatorFactory;
 import com.facebook.presto.operator.SetBuilderOperator.SetBuilderOperatorFactory;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.GenericPartitioningSpillerFactory;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.MaterializedResult;
@@ -33,9 +34,11 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
@@ -54,6 +57,7 @@ import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestHashSemiJoinOperator
@@ -151,6 +155,103 @@ public class TestHashSemiJoinOperator
         OperatorAssertion.assertOperatorEquals(joinOperatorFactory, driverContext, probeInput, expected, hashEnabled, ImmutableList.of(probeTypes.size()));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testSemiJoinWithSpill(boolean hashEnabled)
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        DummySpillerFactory spillerFactory = new DummySpillerFactory();
+
+        // build
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT);
+        List<Page> buildInput = rowPagesBuilder
+                .row(10L)
+                .row(30L)
+                .row(30L)
+                .row(35L)
+                .pageBreak()
+                .row(36L)
+                .row(37L)
+                .row((Object) null)
+                .row(50L)
+                .build();
+        SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
+                1,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes().get(0),
+                0,
+                rowPagesBuilder.getHashChannel(),
+                10,
+                new JoinCompiler(createTestMetadataManager(), new FeaturesConfig()),
+                true,
+                OptionalInt.of(1),
+                new GenericPartitioningSpillerFactory(spillerFactory));
+        Operator setBuilderOperator = setBuilderOperatorFactory.createOperator(driverContext);
+
+        // spill the set built from the first page, the second page is spilled as is
+        assertTrue(setBuilderOperator.needsInput());
+        setBuilderOperator.addInput(buildInput.get(0));
+        assertGreaterThan(setBuilderOperator.getOperatorContext().getReservedRevocableBytes(), 0L);
+        getFutureValue(setBuilderOperator.startMemoryRevoke());
+        setBuilderOperator.finishMemoryRevoke();
+        assertTrue(setBuilderOperator.needsInput());
+        setBuilderOperator.addInput(buildInput.get(1));
+        setBuilderOperator.finish();
+        assertTrue(setBuilderOperatorFactory.getSetProvider().getSpilledChannelSet().isDone());
+
+        // probe
+        List<Type> probeTypes = ImmutableList.of(BIGINT, BIGINT);
+        RowPagesBuilder rowPagesBuilderProbe = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, BIGINT);
+        List<Page> probeInput = rowPagesBuilderProbe
+                .addSequencePage(10, 30, 0)
+                .addSequencePage(5, 8, 10)
+                .build();
+        HashSemiJoinOperatorFactory joinOperatorFactory = new HashSemiJoinOperatorFactory(
+                2,
+                new PlanNodeId("test"),
+                setBuilderOperatorFactory.getSetProvider(),
+                rowPagesBuilderProbe.getTypes(),
+                0,
+                rowPagesBuilderProbe.getHashChannel(),
+                new GenericPartitioningSpillerFactory(spillerFactory));
+        Operator joinOperator = joinOperatorFactory.createOperator(driverContext);
+
+        for (Page page : probeInput) {
+            assertTrue(joinOperator.needsInput());
+            joinOperator.addInput(page);
+            assertEquals(joinOperator.getOutput(), null);
+        }
+        joinOperator.finish();
+
+        // the set builder reads the partitions back as the probe operator requests them
+        ImmutableList.Builder<Page> output = ImmutableList.builder();
+        for (int i = 0; i < 1_000 && !joinOperator.isFinished(); i++) {
+            setBuilderOperator.finish();
+            Page page = joinOperator.getOutput();
+            if (page != null) {
+                output.add(page);
+            }
+        }
+        assertTrue(joinOperator.isFinished());
+        setBuilderOperator.finish();
+        assertTrue(setBuilderOperator.isFinished());
+        joinOperator.close();
+        setBuilderOperator.close();
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+
+        // expected
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), concat(probeTypes, ImmutableList.of(BOOLEAN)));
+        for (long i = 0; i < 10; i++) {
+            long value = 30 + i;
+            expected.row(value, i, value == 30 || (value >= 35 && value <= 37) ? true : null);
+        }
+        for (long i = 0; i < 5; i++) {
+            long value = 8 + i;
+            expected.row(value, 10 + i, value == 10 ? true : null);
+        }
+
+        OperatorAssertion.assertPagesEqualIgnoreOrder(driverContext, output.build(), expected.build(), hashEnabled, Optional.of(probeTypes.size()));
+    }
+
     @Test(dataProvider = "dataType")
     public void testSemiJoinMemoryReservationYield(Type type)
     {
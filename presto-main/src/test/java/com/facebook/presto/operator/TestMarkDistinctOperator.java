@@ -18,7 +18,9 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.GenericPartitioningSpillerFactory;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.MaterializedResult;
@@ -29,13 +31,17 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntPredicate;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
+import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -45,6 +51,7 @@ import static com.facebook.presto.operator.GroupByHashYieldAssertion.createPages
 import static com.facebook.presto.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
@@ -106,6 +113,95 @@ public class TestMarkDistinctOperator
         OperatorAssertion.assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected.build(), hashEnabled, Optional.of(1));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testMarkDistinctWithSpill(boolean hashEnabled)
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(100, 0, 0)
+                .addSequencePage(100, 50, 100)
+                .addSequencePage(100, 0, 200)
+                .build();
+
+        DummySpillerFactory spillerFactory = new DummySpillerFactory();
+        OperatorFactory operatorFactory = new MarkDistinctOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                ImmutableList.of(0),
+                rowPagesBuilder.getHashChannel(),
+                joinCompiler,
+                true,
+                new GenericPartitioningSpillerFactory(spillerFactory));
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BOOLEAN);
+        for (long i = 0; i < 100; i++) {
+            expected.row(i, i, true);
+            expected.row(i + 50, i + 100, i + 50 >= 100);
+            expected.row(i, i + 200, false);
+        }
+
+        OperatorAssertion.assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected.build(), hashEnabled, Optional.of(2));
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+    }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testMarkDistinctWithSpillOfExchangePartition(boolean hashEnabled)
+    {
+        // the input of a single driver behind a local exchange with the default task concurrency
+        int exchangePartitionCount = 16;
+        HashGenerator hashGenerator = new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0});
+        LocalPartitionGenerator exchangePartitionGenerator = new LocalPartitionGenerator(hashGenerator, exchangePartitionCount);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(4000, 0)
+                .addSequencePage(4000, 0)
+                .build().stream()
+                .map(page -> filterPositions(page, position -> exchangePartitionGenerator.getPartition(page, position) == 0))
+                .collect(toImmutableList());
+
+        SpillPartitionGenerator spillPartitionGenerator = new SpillPartitionGenerator(hashGenerator, 16);
+        Set<Integer> spillPartitions = new HashSet<>();
+        for (int position = 0; position < input.get(0).getPositionCount(); position++) {
+            spillPartitions.add(spillPartitionGenerator.getPartition(input.get(0), position));
+        }
+        assertEquals(spillPartitions.size(), 16);
+
+        DummySpillerFactory spillerFactory = new DummySpillerFactory();
+        OperatorFactory operatorFactory = new MarkDistinctOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                ImmutableList.of(0),
+                rowPagesBuilder.getHashChannel(),
+                joinCompiler,
+                true,
+                new GenericPartitioningSpillerFactory(spillerFactory));
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BOOLEAN);
+        for (int position = 0; position < input.get(0).getPositionCount(); position++) {
+            long value = BIGINT.getLong(input.get(0).getBlock(0), position);
+            expected.row(value, true);
+            expected.row(value, false);
+        }
+
+        OperatorAssertion.assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected.build(), hashEnabled, Optional.of(1));
+        // every spill partition that received rows is flushed to its own spiller at least once
+        assertGreaterThanOrEqual(spillerFactory.getSpillsCount(), 16L);
+    }
+
+    private static Page filterPositions(Page page, IntPredicate predicate)
+    {
+        int[] retainedPositions = new int[page.getPositionCount()];
+        int retainedPositionCount = 0;
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            if (predicate.test(position)) {
+                retainedPositions[retainedPositionCount++] = position;
+            }
+        }
+        return page.getPositions(retainedPositions, 0, retainedPositionCount);
+    }
+
     @Test(dataProvider = "dataType")
     public void testMemoryReservationYield(Type type)
     {
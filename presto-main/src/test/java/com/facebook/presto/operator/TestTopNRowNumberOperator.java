@@ -24,6 +24,7 @@ import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -43,12 +44,15 @@ import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
 import static com.facebook.presto.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
 import static com.facebook.presto.operator.TopNRowNumberOperator.TopNRowNumberOperatorFactory;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestTopNRowNumberOperator
@@ -88,6 +92,17 @@ public class TestTopNRowNumberOperator
         return new Object[][] {{true}, {false}};
     }
 
+    @DataProvider
+    public Object[][] spillEnabled()
+    {
+        // hashEnabled, unspillMemoryLimit
+        return new Object[][] {
+                {true, 0L},
+                {false, 0L},
+                {true, 1L},
+                {false, 1L}};
+    }
+
     @Test(dataProvider = "hashEnabledValues")
     public void testPartitioned(boolean hashEnabled)
     {
@@ -137,6 +152,61 @@ public class TestTopNRowNumberOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test(dataProvider = "spillEnabled")
+    public void testPartitionedWithSpill(boolean hashEnabled, long unspillMemoryLimit)
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, DOUBLE);
+        List<Page> input = rowPagesBuilder
+                .row(1L, 0.3)
+                .row(2L, 0.2)
+                .row(3L, 0.1)
+                .row(3L, 0.91)
+                .pageBreak()
+                .row(1L, 0.4)
+                .pageBreak()
+                .row(1L, 0.5)
+                .row(1L, 0.6)
+                .row(2L, 0.7)
+                .row(2L, 0.8)
+                .pageBreak()
+                .row(2L, 0.9)
+                .row(1L, 0.1)
+                .build();
+
+        DummySpillerFactory spillerFactory = new DummySpillerFactory();
+        TopNRowNumberOperatorFactory operatorFactory = new TopNRowNumberOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                Ints.asList(1, 0),
+                Ints.asList(0),
+                ImmutableList.of(BIGINT),
+                Ints.asList(1),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                3,
+                false,
+                rowPagesBuilder.getHashChannel(),
+                10,
+                joinCompiler,
+                true,
+                Optional.of(spillerFactory),
+                new DataSize(unspillMemoryLimit, BYTE));
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE, BIGINT, BIGINT)
+                .row(0.1, 1L, 1L)
+                .row(0.3, 1L, 2L)
+                .row(0.4, 1L, 3L)
+                .row(0.2, 2L, 1L)
+                .row(0.7, 2L, 2L)
+                .row(0.8, 2L, 3L)
+                .row(0.1, 3L, 1L)
+                .row(0.91, 3L, 2L)
+                .build();
+
+        assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected, true);
+        assertTrue(spillerFactory.getSpillsCount() > 0, "Operator did not spill");
+    }
+
     @Test(dataProvider = "partial")
     public void testUnPartitioned(boolean partial)
     {
@@ -22,6 +22,8 @@ import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -530,4 +532,124 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testSlidingFrames()
+    {
+        // frames large enough to use the segment tree for min and max, with runs of nulls that empty the sliding sums
+        assertSlidingFrameMatchesArrayAggregation("ROWS BETWEEN 150 PRECEDING AND 20 FOLLOWING");
+        assertSlidingFrameMatchesArrayAggregation("ROWS BETWEEN 5 PRECEDING AND 2 PRECEDING");
+        assertSlidingFrameMatchesArrayAggregation("ROWS BETWEEN 3 FOLLOWING AND 200 FOLLOWING");
+        assertSlidingFrameMatchesArrayAggregation("ROWS BETWEEN 1000 PRECEDING AND 1000 FOLLOWING");
+    }
+
+    private void assertSlidingFrameMatchesArrayAggregation(String frame)
+    {
+        String window = format("OVER (PARTITION BY n %% 3 ORDER BY n %s)", frame);
+        @Language("SQL") String sql = format("" +
+                        "SELECT count_if(" +
+                        "    count_value IS DISTINCT FROM coalesce(cardinality(non_null), 0) OR " +
+                        "    count_star IS DISTINCT FROM coalesce(cardinality(all_values), 0) OR " +
+                        "    sum_value IS DISTINCT FROM reduce(non_null, CAST(NULL AS BIGINT), (s, v) -> coalesce(s, 0) + v, s -> s) OR " +
+                        "    avg_value IS DISTINCT FROM CAST(reduce(non_null, CAST(NULL AS BIGINT), (s, v) -> coalesce(s, 0) + v, s -> s) AS DOUBLE) / cardinality(non_null) OR " +
+                        "    min_value IS DISTINCT FROM array_min(non_null) OR " +
+                        "    max_value IS DISTINCT FROM array_max(non_null)) " +
+                        "FROM (" +
+                        "    SELECT " +
+                        "        count(x) %1$s AS count_value, " +
+                        "        count(*) %1$s AS count_star, " +
+                        "        sum(x) %1$s AS sum_value, " +
+                        "        avg(x) %1$s AS avg_value, " +
+                        "        min(x) %1$s AS min_value, " +
+                        "        max(x) %1$s AS max_value, " +
+                        "        array_agg(x) %1$s AS all_values, " +
+                        "        filter(array_agg(x) %1$s, v -> v IS NOT NULL) AS non_null " +
+                        "    FROM (SELECT n, IF(n %% 7 = 0 OR n BETWEEN 500 AND 520, NULL, n %% 100) AS x FROM UNNEST(sequence(1, 3000)) AS t (n)))",
+                window);
+        assertEquals(queryRunner.execute(sql).getOnlyValue(), 0L);
+    }
+
+    @Test
+    public void testSlidingFramesDouble()
+    {
+        // sum of doubles can not remove input and is answered from the segment tree; quarters keep every sum exact
+        assertSlidingDoubleFrameMatchesArrayAggregation("ROWS BETWEEN 150 PRECEDING AND 20 FOLLOWING");
+        assertSlidingDoubleFrameMatchesArrayAggregation("ROWS BETWEEN 3 FOLLOWING AND 200 FOLLOWING");
+        assertSlidingDoubleFrameMatchesArrayAggregation("ROWS BETWEEN 1000 PRECEDING AND 1000 FOLLOWING");
+    }
+
+    private void assertSlidingDoubleFrameMatchesArrayAggregation(String frame)
+    {
+        String window = format("OVER (PARTITION BY n %% 3 ORDER BY n %s)", frame);
+        @Language("SQL") String sql = format("" +
+                        "SELECT count_if(" +
+                        "    sum_value IS DISTINCT FROM reduce(non_null, CAST(NULL AS DOUBLE), (s, v) -> coalesce(s, 0) + v, s -> s) OR " +
+                        "    avg_value IS DISTINCT FROM reduce(non_null, CAST(NULL AS DOUBLE), (s, v) -> coalesce(s, 0) + v, s -> s) / cardinality(non_null)) " +
+                        "FROM (" +
+                        "    SELECT " +
+                        "        sum(x) %1$s AS sum_value, " +
+                        "        avg(x) %1$s AS avg_value, " +
+                        "        filter(array_agg(x) %1$s, v -> v IS NOT NULL) AS non_null " +
+                        "    FROM (SELECT n, IF(n %% 7 = 0 OR n BETWEEN 500 AND 520, NULL, (n %% 100) / 4e0) AS x FROM UNNEST(sequence(1, 3000)) AS t (n)))",
+                window);
+        assertEquals(queryRunner.execute(sql).getOnlyValue(), 0L);
+    }
+
+    @Test
+    public void testSlidingFramesDecimal()
+    {
+        // neither sum nor avg of decimals can remove input, so both are answered from the segment tree
+        assertSlidingDecimalFrameMatchesArrayAggregation("ROWS BETWEEN 150 PRECEDING AND 20 FOLLOWING");
+        assertSlidingDecimalFrameMatchesArrayAggregation("ROWS BETWEEN 3 FOLLOWING AND 200 FOLLOWING");
+        assertSlidingDecimalFrameMatchesArrayAggregation("ROWS BETWEEN 1000 PRECEDING AND 1000 FOLLOWING");
+    }
+
+    private void assertSlidingDecimalFrameMatchesArrayAggregation(String frame)
+    {
+        String window = format("OVER (PARTITION BY n %% 3 ORDER BY n %s)", frame);
+        @Language("SQL") String sql = format("" +
+                        "SELECT count_if(" +
+                        "    sum_value IS DISTINCT FROM expected_sum OR " +
+                        "    avg_value IS DISTINCT FROM CAST(expected_sum / cardinality(non_null) AS DECIMAL(10, 2))) " +
+                        "FROM (" +
+                        "    SELECT " +
+                        "        sum_value, " +
+                        "        avg_value, " +
+                        "        non_null, " +
+                        "        reduce(non_null, CAST(NULL AS DECIMAL(38, 2)), (s, v) -> coalesce(s, CAST(0 AS DECIMAL(38, 2))) + v, s -> s) AS expected_sum " +
+                        "    FROM (" +
+                        "        SELECT " +
+                        "            sum(x) %1$s AS sum_value, " +
+                        "            avg(x) %1$s AS avg_value, " +
+                        "            filter(array_agg(x) %1$s, v -> v IS NOT NULL) AS non_null " +
+                        "        FROM (SELECT n, CAST(IF(n %% 7 = 0 OR n BETWEEN 500 AND 520, NULL, (n %% 100) * DECIMAL '0.25') AS DECIMAL(10, 2)) AS x FROM UNNEST(sequence(1, 3000)) AS t (n))))",
+                window);
+        assertEquals(queryRunner.execute(sql).getOnlyValue(), 0L);
+    }
+
+    @Test
+    public void testSlidingFramesWithoutRemoveInput()
+    {
+        // bitwise_or_agg and bool_or can not remove input, so large frames are answered from the segment tree
+        assertSlidingFrameWithoutRemoveInputMatchesArrayAggregation("ROWS BETWEEN 150 PRECEDING AND 20 FOLLOWING");
+        assertSlidingFrameWithoutRemoveInputMatchesArrayAggregation("ROWS BETWEEN 5 PRECEDING AND 2 PRECEDING");
+        assertSlidingFrameWithoutRemoveInputMatchesArrayAggregation("ROWS BETWEEN 1000 PRECEDING AND 1000 FOLLOWING");
+    }
+
+    private void assertSlidingFrameWithoutRemoveInputMatchesArrayAggregation(String frame)
+    {
+        String window = format("OVER (PARTITION BY n %% 3 ORDER BY n %s)", frame);
+        @Language("SQL") String sql = format("" +
+                        "SELECT count_if(" +
+                        "    bitwise_or_value IS DISTINCT FROM reduce(non_null, CAST(NULL AS BIGINT), (s, v) -> bitwise_or(coalesce(s, 0), v), s -> s) OR " +
+                        "    bool_or_value IS DISTINCT FROM reduce(non_null, CAST(NULL AS BOOLEAN), (s, v) -> coalesce(s, false) OR v > 90, s -> s)) " +
+                        "FROM (" +
+                        "    SELECT " +
+                        "        bitwise_or_agg(x) %1$s AS bitwise_or_value, " +
+                        "        bool_or(x > 90) %1$s AS bool_or_value, " +
+                        "        filter(array_agg(x) %1$s, v -> v IS NOT NULL) AS non_null " +
+                        "    FROM (SELECT n, IF(n %% 7 = 0 OR n BETWEEN 500 AND 520, NULL, n %% 100) AS x FROM UNNEST(sequence(1, 3000)) AS t (n)))",
+                window);
+        assertEquals(queryRunner.execute(sql).getOnlyValue(), 0L);
+    }
 }
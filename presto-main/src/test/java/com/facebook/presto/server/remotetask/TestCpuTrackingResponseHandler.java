@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server.remotetask;
+
+import com.facebook.airlift.http.client.Request;
+import com.facebook.airlift.http.client.Response;
+import com.facebook.airlift.http.client.ResponseHandler;
+import com.facebook.airlift.http.client.testing.TestingResponse;
+import com.google.common.collect.ImmutableListMultimap;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.airlift.http.client.HttpStatus.OK;
+import static com.facebook.presto.server.remotetask.CpuTrackingResponseHandler.trackCpuTime;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestCpuTrackingResponseHandler
+{
+    @Test
+    public void testReportsCpuTime()
+    {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicLong cpuNanos = new AtomicLong(-1);
+        ResponseHandler<String, RuntimeException> handler = trackCpuTime(
+                new ResponseHandler<String, RuntimeException>()
+                {
+                    @Override
+                    public String handleException(Request request, Exception exception)
+                    {
+                        return "exception";
+                    }
+
+                    @Override
+                    public String handle(Request request, Response response)
+                    {
+                        return "response";
+                    }
+                },
+                nanos -> {
+                    calls.incrementAndGet();
+                    cpuNanos.set(nanos);
+                });
+
+        assertEquals(handler.handleException(null, new RuntimeException()), "exception");
+        assertEquals(calls.get(), 0);
+
+        assertEquals(handler.handle(null, new TestingResponse(OK, ImmutableListMultimap.of(), new byte[0])), "response");
+        assertEquals(calls.get(), 1);
+        assertTrue(cpuNanos.get() >= 0);
+    }
+}
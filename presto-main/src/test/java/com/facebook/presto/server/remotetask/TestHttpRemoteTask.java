@@ -503,7 +503,8 @@ public class TestHttpRemoteTask
                     initialTaskInfo.getStats(),
                     initialTaskInfo.isNeedsPlan(),
                     initialTaskInfo.getMetadataUpdates(),
-                    initialTaskInfo.getNodeId());
+                    initialTaskInfo.getNodeId(),
+                    initialTaskInfo.getDynamicFilterDomains());
         }
 
         private TaskStatus buildTaskStatus()
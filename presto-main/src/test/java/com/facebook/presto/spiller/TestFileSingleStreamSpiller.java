@@ -32,14 +32,21 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
+import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.spiller.SpillCompressionCodec.ADAPTIVE;
+import static com.facebook.presto.spiller.SpillCompressionCodec.LZ4;
+import static com.facebook.presto.spiller.SpillCompressionCodec.NONE;
+import static com.facebook.presto.spiller.SpillCompressionCodec.ZSTD;
+import static com.facebook.presto.spiller.SpillCompressionCodecSelector.MIN_SAMPLE_BYTES;
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
@@ -47,6 +54,7 @@ import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator
 import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -94,18 +102,131 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testSpillMmapRead()
+            throws Exception
+    {
+        assertSpill(false, false, true, false);
+        assertSpill(true, true, true, false);
+    }
+
+    @Test
+    public void testSpillReadAhead()
+            throws Exception
+    {
+        assertSpill(false, false, false, true);
+        assertSpill(true, false, true, true);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testGetAllSpilledPagesReadAhead()
+            throws Exception
+    {
+        // all pages are read on the only thread of the executor, which must not wait for a read ahead queued on it
+        ListeningExecutorService singleThreadExecutor = listeningDecorator(newSingleThreadExecutor());
+        try {
+            for (boolean mmapRead : ImmutableList.of(false, true)) {
+                Path spillPath = newSpillPath();
+                FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(singleThreadExecutor, spillPath, new SpillerStats(), NONE, false, mmapRead, true);
+                SingleStreamSpiller spiller = spillerFactory.create(TYPES, new TestingSpillContext(), newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+                Page page = buildPage();
+                spiller.spill(Iterators.forArray(page, page, page)).get();
+
+                List<Page> spilledPages = spiller.getAllSpilledPages().get();
+                assertEquals(spilledPages.size(), 3);
+                for (Page spilledPage : spilledPages) {
+                    PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+                }
+
+                spiller.close();
+                assertEquals(listFiles(spillPath).size(), 0);
+            }
+        }
+        finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSpillZstdCompression()
+            throws Exception
+    {
+        assertSpill(ZSTD, false, false, false);
+        assertSpill(ZSTD, true, true, false);
+    }
+
+    @Test
+    public void testSpillAdaptiveCompression()
+            throws Exception
+    {
+        // without statistics, every codec is tried in turn
+        Path spillPath = newSpillPath();
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(spillPath, spillerStats, ADAPTIVE, false, false, false);
+        assertSpill(spillerFactory, spillPath, spillerStats, NONE, false, false);
+
+        // a codec which saves more write time than it costs is chosen once every codec has been observed
+        spillerFactory = createSpillerFactory(spillPath, spillerStats, ADAPTIVE, false, false, false);
+        SpillCompressionCodecSelector selector = spillerFactory.getCompressionCodecSelector();
+        selector.record(NONE, MIN_SAMPLE_BYTES, MIN_SAMPLE_BYTES, 1_000_000, 100_000_000);
+        selector.record(LZ4, MIN_SAMPLE_BYTES, MIN_SAMPLE_BYTES / 2, 2_000_000, 50_000_000);
+        selector.record(ZSTD, MIN_SAMPLE_BYTES, MIN_SAMPLE_BYTES / 4, 10_000_000, 25_000_000);
+        assertSpill(spillerFactory, spillPath, spillerStats, ZSTD, false, false);
+
+        assertTrue(spillerStats.getTotalSpilledUncompressedBytes() > 0);
+        assertTrue(spillerStats.getCompressionRatio() < 1.0);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
     {
-        File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
-        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+        assertSpill(compression, encryption, false, false);
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, boolean mmapRead, boolean readAhead)
+            throws Exception
+    {
+        assertSpill(compression ? LZ4 : NONE, encryption, mmapRead, readAhead);
+    }
+
+    private void assertSpill(SpillCompressionCodec compressionCodec, boolean encryption, boolean mmapRead, boolean readAhead)
+            throws Exception
+    {
+        Path spillPath = newSpillPath();
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(spillPath, spillerStats, compressionCodec, encryption, mmapRead, readAhead);
+        assertSpill(spillerFactory, spillPath, spillerStats, compressionCodec, encryption, readAhead);
+    }
+
+    private FileSingleStreamSpillerFactory createSpillerFactory(Path spillPath, SpillerStats spillerStats, SpillCompressionCodec compressionCodec, boolean encryption, boolean mmapRead, boolean readAhead)
+    {
+        return createSpillerFactory(executor, spillPath, spillerStats, compressionCodec, encryption, mmapRead, readAhead);
+    }
+
+    private static FileSingleStreamSpillerFactory createSpillerFactory(ListeningExecutorService executor, Path spillPath, SpillerStats spillerStats, SpillCompressionCodec compressionCodec, boolean encryption, boolean mmapRead, boolean readAhead)
+    {
+        return new FileSingleStreamSpillerFactory(
                 executor, // executor won't be closed, because we don't call destroy() on the spiller factory
                 new BlockEncodingManager(),
-                new SpillerStats(),
-                ImmutableList.of(spillPath.toPath()),
+                spillerStats,
+                ImmutableList.of(spillPath),
                 1.0,
-                compression,
-                encryption);
+                compressionCodec,
+                encryption,
+                mmapRead,
+                readAhead);
+    }
+
+    private Path newSpillPath()
+    {
+        return new File(tempDirectory, UUID.randomUUID().toString()).toPath();
+    }
+
+    private void assertSpill(FileSingleStreamSpillerFactory spillerFactory, Path spillPath, SpillerStats spillerStats, SpillCompressionCodec expectedCodec, boolean encryption, boolean readAhead)
+            throws Exception
+    {
+        boolean compression = expectedCodec != NONE;
+        long spilledBytes = spillerStats.getTotalSpilledBytes();
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -117,10 +238,11 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 4096);
         spiller.spill(page).get();
         spiller.spill(Iterators.forArray(page, page, page)).get();
-        assertEquals(listFiles(spillPath.toPath()).size(), 1);
+        assertEquals(listFiles(spillPath).size(), 1);
+        assertTrue(spillerStats.getTotalSpilledBytes() > spilledBytes);
 
         // Assert the spill codec flags match the expected configuration
-        try (InputStream is = newInputStream(listFiles(spillPath.toPath()).get(0))) {
+        try (InputStream is = newInputStream(listFiles(spillPath).get(0))) {
             Iterator<SerializedPage> serializedPages = PagesSerdeUtil.readSerializedPages(new InputStreamSliceInput(is));
             assertTrue(serializedPages.hasNext(), "at least one page should be successfully read back");
             byte markers = serializedPages.next().getPageCodecMarkers();
@@ -133,7 +255,7 @@ public class TestFileSingleStreamSpiller
         // assertEquals(memoryContext.getBytes(), 0);
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE + (readAhead ? DEFAULT_MAX_PAGE_SIZE_IN_BYTES : 0));
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -145,7 +267,7 @@ public class TestFileSingleStreamSpiller
         }
 
         spiller.close();
-        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(listFiles(spillPath).size(), 0);
         assertEquals(memoryContext.getBytes(), 0);
     }
 
@@ -155,9 +277,11 @@ public class TestFileSingleStreamSpiller
         BlockBuilder col2 = DOUBLE.createBlockBuilder(null, 1);
         BlockBuilder col3 = VARBINARY.createBlockBuilder(null, 1);
 
-        col1.writeLong(42).closeEntry();
-        col2.writeLong(doubleToLongBits(43.0)).closeEntry();
-        col3.writeLong(doubleToLongBits(43.0)).writeLong(1).closeEntry();
+        for (int i = 0; i < 100; i++) {
+            col1.writeLong(42).closeEntry();
+            col2.writeLong(doubleToLongBits(43.0)).closeEntry();
+            col3.writeLong(doubleToLongBits(43.0)).writeLong(1).closeEntry();
+        }
 
         return new Page(col1.build(), col2.build(), col3.build());
     }
@@ -36,7 +36,10 @@ public class TestNodeSpillConfig
                 .setMaxRevocableMemoryPerNode(new DataSize(16, GIGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setSpillCompressionEnabled(false)
+                .setSpillCompressionCodec(SpillCompressionCodec.LZ4)
                 .setSpillEncryptionEnabled(false)
+                .setSpillMmapReadEnabled(false)
+                .setSpillReadAheadEnabled(false)
                 .setTempStorageBufferSize(new DataSize(4, KILOBYTE)));
     }
 
@@ -48,7 +51,10 @@ public class TestNodeSpillConfig
                 .put("experimental.max-revocable-memory-per-node", "24MB")
                 .put("experimental.query-max-spill-per-node", "15 MB")
                 .put("experimental.spill-compression-enabled", "true")
+                .put("experimental.spill-compression-codec", "ADAPTIVE")
                 .put("experimental.spill-encryption-enabled", "true")
+                .put("experimental.spill-mmap-read-enabled", "true")
+                .put("experimental.spill-read-ahead-enabled", "true")
                 .put("experimental.temp-storage-buffer-size", "24MB")
                 .build();
 
@@ -57,7 +63,10 @@ public class TestNodeSpillConfig
                 .setMaxRevocableMemoryPerNode(new DataSize(24, MEGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
                 .setSpillCompressionEnabled(true)
+                .setSpillCompressionCodec(SpillCompressionCodec.ADAPTIVE)
                 .setSpillEncryptionEnabled(true)
+                .setSpillMmapReadEnabled(true)
+                .setSpillReadAheadEnabled(true)
                 .setTempStorageBufferSize(new DataSize(24, MEGABYTE));
 
         assertFullMapping(properties, expected);
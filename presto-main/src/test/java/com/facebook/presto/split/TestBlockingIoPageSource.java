@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.spi.FixedPageSource;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.ConnectorPageSource.NOT_BLOCKED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestBlockingIoPageSource
+{
+    @Test
+    public void testReadsOnExecutor()
+            throws Exception
+    {
+        List<Page> pages = rowPagesBuilder(BIGINT)
+                .addSequencePage(10, 0)
+                .addSequencePage(10, 10)
+                .build();
+        List<Runnable> reads = new ArrayList<>();
+        Executor executor = reads::add;
+
+        BlockingIoPageSource pageSource = new BlockingIoPageSource(new FixedPageSource(pages), executor);
+        List<Page> result = new ArrayList<>();
+        while (!pageSource.isFinished()) {
+            assertSame(pageSource.isBlocked(), NOT_BLOCKED);
+            assertNull(pageSource.getNextPage());
+            assertEquals(reads.size(), 1);
+            assertFalse(pageSource.isFinished());
+            assertNotSame(pageSource.isBlocked(), NOT_BLOCKED);
+
+            reads.remove(0).run();
+            assertTrue(pageSource.isBlocked().isDone());
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                result.add(page);
+            }
+        }
+        assertEquals(result, pages);
+        pageSource.close();
+    }
+
+    @Test
+    public void testCloseWaitsForInFlightRead()
+            throws Exception
+    {
+        List<Runnable> reads = new ArrayList<>();
+        FixedPageSource delegate = new FixedPageSource(rowPagesBuilder(BIGINT)
+                .addSequencePage(10, 0)
+                .addSequencePage(10, 10)
+                .build());
+        BlockingIoPageSource pageSource = new BlockingIoPageSource(delegate, reads::add);
+
+        assertNull(pageSource.getNextPage());
+        pageSource.close();
+        assertTrue(pageSource.isFinished());
+        assertFalse(delegate.isFinished());
+
+        reads.remove(0).run();
+        assertTrue(delegate.isFinished());
+        assertEquals(reads, ImmutableList.of());
+    }
+}
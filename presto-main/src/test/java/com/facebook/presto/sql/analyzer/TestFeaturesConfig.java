@@ -90,6 +90,7 @@ public class TestFeaturesConfig
                 .setSpillEnabled(false)
                 .setJoinSpillingEnabled(false)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("4MB"))
+                .setTopNOperatorUnspillMemoryLimit(DataSize.valueOf("4MB"))
                 .setSpillerSpillPaths("")
                 .setSpillerThreads(4)
                 .setSpillMaxUsedSpaceThreshold(0.9)
@@ -105,8 +106,10 @@ public class TestFeaturesConfig
                 .setIterativeOptimizerTimeout(new Duration(3, MINUTES))
                 .setRuntimeOptimizerEnabled(false)
                 .setEnableDynamicFiltering(false)
+                .setEnableDistributedDynamicFiltering(false)
                 .setDynamicFilteringMaxPerDriverRowCount(100)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(10, KILOBYTE))
+                .setDynamicFilteringBloomFilterSize(new DataSize(1, MEGABYTE))
                 .setFragmentResultCachingEnabled(false)
                 .setEnableStatsCalculator(true)
                 .setEnableStatsCollectionForTemporaryTable(false)
@@ -153,7 +156,8 @@ public class TestFeaturesConfig
                 .setWarnOnNoTableLayoutFilter("")
                 .setInlineSqlFunctions(true)
                 .setCheckAccessControlOnUtilizedColumnsOnly(false)
-                .setAllowWindowOrderByLiterals(true));
+                .setAllowWindowOrderByLiterals(true)
+                .setBigintJoinHashEnabled(false));
     }
 
     @Test
@@ -167,8 +171,10 @@ public class TestFeaturesConfig
                 .put("experimental.iterative-optimizer-timeout", "10s")
                 .put("experimental.runtime-optimizer-enabled", "true")
                 .put("experimental.enable-dynamic-filtering", "true")
+                .put("experimental.enable-distributed-dynamic-filtering", "true")
                 .put("experimental.dynamic-filtering-max-per-driver-row-count", "256")
                 .put("experimental.dynamic-filtering-max-per-driver-size", "64kB")
+                .put("experimental.dynamic-filtering-bloom-filter-size", "4MB")
                 .put("experimental.fragment-result-caching-enabled", "true")
                 .put("experimental.enable-stats-calculator", "false")
                 .put("experimental.enable-stats-collection-for-temporary-table", "true")
@@ -214,6 +220,7 @@ public class TestFeaturesConfig
                 .put("experimental.spill-enabled", "true")
                 .put("experimental.join-spill-enabled", "true")
                 .put("experimental.aggregation-operator-unspill-memory-limit", "100MB")
+                .put("experimental.topn-operator-unspill-memory-limit", "100MB")
                 .put("experimental.spiller-spill-path", "/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .put("experimental.spiller-threads", "42")
                 .put("experimental.spiller-max-used-space-threshold", "0.8")
@@ -260,6 +267,7 @@ public class TestFeaturesConfig
                 .put("check-access-control-on-utilized-columns-only", "true")
                 .put("optimizer.skip-redundant-sort", "false")
                 .put("is-allow-window-order-by-literals", "false")
+                .put("experimental.bigint-join-hash-enabled", "true")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -270,8 +278,10 @@ public class TestFeaturesConfig
                 .setIterativeOptimizerTimeout(new Duration(10, SECONDS))
                 .setRuntimeOptimizerEnabled(true)
                 .setEnableDynamicFiltering(true)
+                .setEnableDistributedDynamicFiltering(true)
                 .setDynamicFilteringMaxPerDriverRowCount(256)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
+                .setDynamicFilteringBloomFilterSize(new DataSize(4, MEGABYTE))
                 .setFragmentResultCachingEnabled(true)
                 .setEnableStatsCalculator(false)
                 .setEnableStatsCollectionForTemporaryTable(true)
@@ -312,6 +322,7 @@ public class TestFeaturesConfig
                 .setSpillEnabled(true)
                 .setJoinSpillingEnabled(true)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("100MB"))
+                .setTopNOperatorUnspillMemoryLimit(DataSize.valueOf("100MB"))
                 .setSpillerSpillPaths("/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .setSpillerThreads(42)
                 .setSpillMaxUsedSpaceThreshold(0.8)
@@ -363,7 +374,8 @@ public class TestFeaturesConfig
                 .setInlineSqlFunctions(false)
                 .setCheckAccessControlOnUtilizedColumnsOnly(true)
                 .setSkipRedundantSort(false)
-                .setAllowWindowOrderByLiterals(false);
+                .setAllowWindowOrderByLiterals(false)
+                .setBigintJoinHashEnabled(true);
         assertFullMapping(properties, expected);
     }
 
@@ -15,8 +15,12 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.sql.planner.assertions.BasePlanTest;
 import com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher;
@@ -33,6 +37,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
@@ -40,9 +45,11 @@ import static com.facebook.presto.SystemSessionProperties.FORCE_SINGLE_NODE_OUTP
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilter
         extends BasePlanTest
@@ -96,6 +103,82 @@ public class TestLocalDynamicFilter
                 new VariableReferenceExpression("a2", INTEGER), Domain.singleValue(INTEGER, 7L))));
     }
 
+    @Test
+    public void testBloomFilterPartitions()
+            throws ExecutionException, InterruptedException
+    {
+        VariableReferenceExpression probeVariable = new VariableReferenceExpression("a", BIGINT);
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", probeVariable),
+                ImmutableMap.of("123", 0),
+                3);
+        BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> consumer = filter.getDynamicFilterConsumer();
+        ListenableFuture<Map<VariableReferenceExpression, BloomFilter>> result = filter.getBloomFilterResultFuture();
+
+        BloomFilter bloomFilter = new BloomFilter(1024);
+        bloomFilter.put(10L);
+        bloomFilter.put(20L);
+        consumer.accept(
+                TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 10L, true, 20L, true)), false))),
+                ImmutableMap.of("123", bloomFilter));
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L)))), ImmutableMap.of());
+        consumer.accept(TupleDomain.none(), ImmutableMap.of());
+        assertFalse(bloomFilter.mightContain(1L));
+
+        // the values of the partition without a bloom filter are added to the merged one
+        BloomFilter merged = result.get().get(probeVariable);
+        for (long value : new long[] {1, 2, 10, 20}) {
+            assertTrue(merged.mightContain(value));
+        }
+        assertFalse(merged.mightContain(15L));
+    }
+
+    @Test
+    public void testBloomFilterMemory()
+            throws ExecutionException, InterruptedException
+    {
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new VariableReferenceExpression("a", BIGINT)),
+                ImmutableMap.of("123", 0),
+                2,
+                memoryContext);
+        BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> consumer = filter.getDynamicFilterConsumer();
+
+        BloomFilter bloomFilter = new BloomFilter(1024);
+        bloomFilter.put(10L);
+        consumer.accept(
+                TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.singleValue(BIGINT, 10L))),
+                ImmutableMap.of("123", bloomFilter));
+        // the bloom filter of the partition is retained until the other partitions finish
+        assertEquals(memoryContext.getBytes(), bloomFilter.getRetainedSizeInBytes());
+
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.singleValue(BIGINT, 20L))), ImmutableMap.of());
+        // the merged bloom filter is retained until the memory is released
+        assertEquals(memoryContext.getBytes(), filter.getBloomFilterResultFuture().get().get(new VariableReferenceExpression("a", BIGINT)).getRetainedSizeInBytes());
+
+        filter.releaseMemory();
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testBloomFilterWithUnboundedPartition()
+            throws ExecutionException, InterruptedException
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new VariableReferenceExpression("a", BIGINT)),
+                ImmutableMap.of("123", 0),
+                2);
+        BiConsumer<TupleDomain<String>, Map<String, BloomFilter>> consumer = filter.getDynamicFilterConsumer();
+
+        BloomFilter bloomFilter = new BloomFilter(1024);
+        bloomFilter.put(10L);
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.singleValue(BIGINT, 10L))), ImmutableMap.of("123", bloomFilter));
+        consumer.accept(TupleDomain.all(), ImmutableMap.of());
+        assertEquals(filter.getBloomFilterResultFuture().get(), ImmutableMap.of());
+        assertEquals(filter.getResultFuture().get(), TupleDomain.all());
+    }
+
     @Test
     public void testMultiplePartitions()
             throws ExecutionException, InterruptedException
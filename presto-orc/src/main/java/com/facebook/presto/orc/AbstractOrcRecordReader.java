@@ -54,6 +54,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.orc.AbstractOrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
@@ -97,6 +98,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
 
     private final List<StripeInformation> stripes;
     private final StripeReader stripeReader;
+    private final Optional<StripePrefetcher> stripePrefetcher;
     private int currentStripe = -1;
     private OrcAggregatedMemoryContext currentStripeSystemMemoryContext;
     private Optional<DwrfEncryptionInfo> dwrfEncryptionInfo = Optional.empty();
@@ -145,6 +147,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             DataSize maxMergeDistance,
             DataSize tinyStripeThreshold,
             DataSize maxBlockSize,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize,
             Map<String, Slice> userMetadata,
             OrcAggregatedMemoryContext systemMemoryUsage,
             Optional<OrcWriteValidation> writeValidation,
@@ -241,6 +245,20 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         this.intermediateKeyMetadata = createIntermediateKeysMap(columnToIntermediateKeyMap, dwrfEncryptionGroupMap, orcDataSource.getId());
         checkPermissionsForEncryptedColumns(includedOrcColumns, dwrfEncryptionGroupMap, intermediateKeyMetadata);
 
+        // tiny stripes are read ahead by the caching data source, which does not support concurrent reads,
+        // and the streams of encrypted columns are only known once the stripe is decrypted
+        if (stripePrefetchExecutor.isPresent() && this.stripes.size() > 1 && !(orcDataSource instanceof CachingOrcDataSource) && this.dwrfEncryptionGroupMap.isEmpty()) {
+            this.stripePrefetcher = Optional.of(new StripePrefetcher(
+                    orcDataSource,
+                    stripePrefetchExecutor.get(),
+                    maxMergeDistance,
+                    requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null"),
+                    systemMemoryUsage.newOrcLocalMemoryContext(StripePrefetcher.class.getSimpleName())));
+        }
+        else {
+            this.stripePrefetcher = Optional.empty();
+        }
+
         stripeReader = new StripeReader(
                 orcDataSource,
                 decompressor,
@@ -253,7 +271,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
                 writeValidation,
                 stripeMetadataSource,
                 cacheable,
-                this.dwrfEncryptionGroupMap);
+                this.dwrfEncryptionGroupMap,
+                stripePrefetcher);
 
         this.streamReaders = requireNonNull(streamReaders, "streamReaders is null");
         for (int columnId = 0; columnId < root.getFieldCount(); columnId++) {
@@ -485,12 +504,29 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         return splitLength;
     }
 
+    /**
+     * Returns the number of stripes whose streams were prefetched while the previous stripe was read.
+     */
+    public long getStripePrefetchHits()
+    {
+        return stripePrefetcher.map(StripePrefetcher::getHits).orElse(0L);
+    }
+
+    /**
+     * Returns the number of stripes read without prefetched streams, when prefetching is enabled.
+     */
+    public long getStripePrefetchMisses()
+    {
+        return stripePrefetcher.map(StripePrefetcher::getMisses).orElse(0L);
+    }
+
     @Override
     public void close()
             throws IOException
     {
         try (Closer closer = Closer.create()) {
             closer.register(orcDataSource);
+            stripePrefetcher.ifPresent(closer::register);
             for (StreamReader column : streamReaders) {
                 if (column != null) {
                     closer.register(column::close);
@@ -668,6 +704,11 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
 
             rowGroups = stripe.getRowGroups().iterator();
         }
+
+        // read the next stripe while this one is decoded
+        if (currentStripe + 1 < stripes.size()) {
+            stripeReader.prefetchStripe(stripes.get(currentStripe + 1), currentStripeSystemMemoryContext);
+        }
     }
 
     @VisibleForTesting
@@ -15,6 +15,10 @@ package com.facebook.presto.orc;
 
 import io.airlift.units.DataSize;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
 
 public class OrcReaderOptions
@@ -25,6 +29,8 @@ public class OrcReaderOptions
     private final boolean zstdJniDecompressionEnabled;
     private final boolean mapNullKeysEnabled;
     private final boolean enableTimestampMicroPrecision;
+    private final Optional<Executor> stripePrefetchExecutor;
+    private final DataSize maxStripePrefetchSize;
 
     public OrcReaderOptions(DataSize maxMergeDistance, DataSize tinyStripeThreshold, DataSize maxBlockSize, boolean zstdJniDecompressionEnabled)
     {
@@ -38,6 +44,19 @@ public class OrcReaderOptions
             boolean zstdJniDecompressionEnabled,
             boolean mapNullKeysEnabled,
             boolean enableTimestampMicroPrecision)
+    {
+        this(maxMergeDistance, tinyStripeThreshold, maxBlockSize, zstdJniDecompressionEnabled, mapNullKeysEnabled, enableTimestampMicroPrecision, Optional.empty(), new DataSize(64, MEGABYTE));
+    }
+
+    public OrcReaderOptions(
+            DataSize maxMergeDistance,
+            DataSize tinyStripeThreshold,
+            DataSize maxBlockSize,
+            boolean zstdJniDecompressionEnabled,
+            boolean mapNullKeysEnabled,
+            boolean enableTimestampMicroPrecision,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBlockSize = requireNonNull(maxBlockSize, "maxBlockSize is null");
@@ -45,6 +64,8 @@ public class OrcReaderOptions
         this.zstdJniDecompressionEnabled = zstdJniDecompressionEnabled;
         this.mapNullKeysEnabled = mapNullKeysEnabled;
         this.enableTimestampMicroPrecision = enableTimestampMicroPrecision;
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
     }
 
     public DataSize getMaxMergeDistance()
@@ -76,4 +97,17 @@ public class OrcReaderOptions
     {
         return enableTimestampMicroPrecision;
     }
+
+    /**
+     * Returns the executor that reads the next stripe in the background, if stripe prefetching is enabled.
+     */
+    public Optional<Executor> getStripePrefetchExecutor()
+    {
+        return stripePrefetchExecutor;
+    }
+
+    public DataSize getMaxStripePrefetchSize()
+    {
+        return maxStripePrefetchSize;
+    }
 }
@@ -15,6 +15,10 @@ package com.facebook.presto.orc;
 
 import io.airlift.units.DataSize;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
 
 public class OrcRecordReaderOptions
@@ -24,10 +28,19 @@ public class OrcRecordReaderOptions
     private final DataSize maxBlockSize;
     private final boolean mapNullKeysEnabled;
     private final boolean enableTimestampMicroPrecision;
+    private final Optional<Executor> stripePrefetchExecutor;
+    private final DataSize maxStripePrefetchSize;
 
     public OrcRecordReaderOptions(OrcReaderOptions options)
     {
-        this(options.getMaxMergeDistance(), options.getTinyStripeThreshold(), options.getMaxBlockSize(), options.mapNullKeysEnabled(), options.enableTimestampMicroPrecision());
+        this(
+                options.getMaxMergeDistance(),
+                options.getTinyStripeThreshold(),
+                options.getMaxBlockSize(),
+                options.mapNullKeysEnabled(),
+                options.enableTimestampMicroPrecision(),
+                options.getStripePrefetchExecutor(),
+                options.getMaxStripePrefetchSize());
     }
 
     public OrcRecordReaderOptions(
@@ -36,12 +49,26 @@ public class OrcRecordReaderOptions
             DataSize maxBlockSize,
             boolean mapNullKeysEnabled,
             boolean enableTimestampMicroPrecision)
+    {
+        this(maxMergeDistance, tinyStripeThreshold, maxBlockSize, mapNullKeysEnabled, enableTimestampMicroPrecision, Optional.empty(), new DataSize(64, MEGABYTE));
+    }
+
+    public OrcRecordReaderOptions(
+            DataSize maxMergeDistance,
+            DataSize tinyStripeThreshold,
+            DataSize maxBlockSize,
+            boolean mapNullKeysEnabled,
+            boolean enableTimestampMicroPrecision,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBlockSize = requireNonNull(maxBlockSize, "maxBlockSize is null");
         this.tinyStripeThreshold = requireNonNull(tinyStripeThreshold, "tinyStripeThreshold is null");
         this.mapNullKeysEnabled = mapNullKeysEnabled;
         this.enableTimestampMicroPrecision = enableTimestampMicroPrecision;
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
     }
 
     public DataSize getMaxMergeDistance()
@@ -68,4 +95,17 @@ public class OrcRecordReaderOptions
     {
         return enableTimestampMicroPrecision;
     }
+
+    /**
+     * Returns the executor that reads the next stripe in the background, if stripe prefetching is enabled.
+     */
+    public Optional<Executor> getStripePrefetchExecutor()
+    {
+        return stripePrefetchExecutor;
+    }
+
+    public DataSize getMaxStripePrefetchSize()
+    {
+        return maxStripePrefetchSize;
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.StripeReader.StripeId;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.facebook.presto.orc.OrcDataSourceUtils.getDiskRangeSlice;
+import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the streams of the next stripe in the background while the current stripe is decoded,
+ * so that the reader does not wait for the storage at stripe boundaries.
+ * <p>
+ * Only the reads of the disk ranges happen in the background. The stripe footer is read and
+ * parsed by the reader thread when the previous stripe is opened, and the buffers are turned
+ * into streams when the stripe itself is read. The prefetched bytes are accounted in the memory
+ * context of the reader until then, and stripes with more data than the configured limit are
+ * not prefetched. A read that is no longer needed is cancelled, but if it has already started,
+ * its memory stays accounted until it has finished.
+ */
+@NotThreadSafe
+public class StripePrefetcher
+        implements Closeable
+{
+    private final OrcDataSource orcDataSource;
+    private final Executor executor;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxPrefetchSize;
+    private final OrcLocalMemoryContext memoryContext;
+    // cancelled reads that were already running, which still write to their buffers
+    private final List<StripeRead> cancelledReads = new ArrayList<>();
+
+    private StripeId stripeId;
+    private StripeFooter stripeFooter;
+    private List<DiskRange> prefetchedRanges = ImmutableList.of();
+    private StripeRead read;
+
+    private long hits;
+    private long misses;
+
+    public StripePrefetcher(OrcDataSource orcDataSource, Executor executor, DataSize maxMergeDistance, DataSize maxPrefetchSize, OrcLocalMemoryContext memoryContext)
+    {
+        this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxPrefetchSize = requireNonNull(maxPrefetchSize, "maxPrefetchSize is null");
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+    }
+
+    public void prefetch(StripeId stripeId, StripeFooter stripeFooter, Map<StreamId, DiskRange> diskRanges)
+    {
+        reset();
+        this.stripeId = requireNonNull(stripeId, "stripeId is null");
+        this.stripeFooter = requireNonNull(stripeFooter, "stripeFooter is null");
+
+        if (diskRanges.isEmpty()) {
+            return;
+        }
+        List<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxPrefetchSize);
+        long prefetchSize = 0;
+        for (DiskRange range : mergedRanges) {
+            prefetchSize += range.getLength();
+        }
+        if (prefetchSize > maxPrefetchSize.toBytes()) {
+            return;
+        }
+
+        StripeRead read = new StripeRead(orcDataSource, mergedRanges, prefetchSize);
+        executor.execute(read);
+        this.read = read;
+        prefetchedRanges = mergedRanges;
+        updateMemoryUsage();
+    }
+
+    public Optional<StripeFooter> getStripeFooter(StripeId stripeId)
+    {
+        if (stripeId.equals(this.stripeId)) {
+            return Optional.of(stripeFooter);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the inputs of the disk ranges of the stripe if they have been prefetched, waiting for
+     * the prefetch to complete. The prefetched data is handed out only once.
+     */
+    public Optional<Map<StreamId, OrcDataSourceInput>> getInputs(StripeId stripeId, Map<StreamId, DiskRange> diskRanges)
+            throws IOException
+    {
+        if (!stripeId.equals(this.stripeId) || read == null || !isPrefetched(diskRanges.values())) {
+            misses++;
+            reset();
+            return Optional.empty();
+        }
+
+        Map<DiskRange, byte[]> prefetchedBuffers;
+        try {
+            prefetchedBuffers = read.getBuffers().get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        catch (ExecutionException e) {
+            // the caller reads the stripe again, and fails if the storage is still failing
+            misses++;
+            reset();
+            return Optional.empty();
+        }
+
+        ImmutableMap.Builder<StreamId, OrcDataSourceInput> inputs = ImmutableMap.builder();
+        for (Entry<StreamId, DiskRange> entry : diskRanges.entrySet()) {
+            Slice slice = getDiskRangeSlice(entry.getValue(), prefetchedBuffers);
+            inputs.put(entry.getKey(), new OrcDataSourceInput(slice.getInput(), slice.length()));
+        }
+        hits++;
+        // from now on, the memory is accounted by the streams of the stripe
+        reset();
+        return Optional.of(inputs.build());
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    @Override
+    public void close()
+    {
+        reset();
+        // the data source is closed after the prefetcher, so the running reads must finish first
+        for (StripeRead cancelledRead : cancelledReads) {
+            getUnchecked(cancelledRead.getFinished());
+        }
+        cancelledReads.clear();
+        memoryContext.close();
+    }
+
+    private boolean isPrefetched(Iterable<DiskRange> diskRanges)
+    {
+        for (DiskRange diskRange : diskRanges) {
+            boolean prefetched = false;
+            for (DiskRange prefetchedRange : prefetchedRanges) {
+                if (prefetchedRange.contains(diskRange)) {
+                    prefetched = true;
+                    break;
+                }
+            }
+            if (!prefetched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reset()
+    {
+        // a read that has produced its buffers, or failed, no longer uses them
+        if (read != null && !read.getBuffers().isDone() && !read.cancel()) {
+            cancelledReads.add(read);
+        }
+        stripeId = null;
+        stripeFooter = null;
+        prefetchedRanges = ImmutableList.of();
+        read = null;
+        updateMemoryUsage();
+    }
+
+    private void updateMemoryUsage()
+    {
+        cancelledReads.removeIf(cancelledRead -> cancelledRead.getFinished().isDone());
+        long bytes = read == null ? 0 : read.getSize();
+        for (StripeRead cancelledRead : cancelledReads) {
+            bytes += cancelledRead.getSize();
+        }
+        memoryContext.setBytes(bytes);
+    }
+
+    private static class StripeRead
+            implements Runnable
+    {
+        private final OrcDataSource orcDataSource;
+        private final List<DiskRange> ranges;
+        private final long size;
+        private final SettableFuture<Map<DiskRange, byte[]>> buffers = SettableFuture.create();
+        private final SettableFuture<?> finished = SettableFuture.create();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        public StripeRead(OrcDataSource orcDataSource, List<DiskRange> ranges, long size)
+        {
+            this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
+            this.ranges = ImmutableList.copyOf(requireNonNull(ranges, "ranges is null"));
+            this.size = size;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+
+        public ListenableFuture<Map<DiskRange, byte[]>> getBuffers()
+        {
+            return buffers;
+        }
+
+        /**
+         * Completes once the read no longer uses its buffers or the data source.
+         */
+        public ListenableFuture<?> getFinished()
+        {
+            return finished;
+        }
+
+        /**
+         * Cancels the read, and returns whether it is no longer running. Otherwise, it keeps
+         * running until {@link #getFinished()} completes.
+         */
+        public boolean cancel()
+        {
+            buffers.cancel(false);
+            if (started.compareAndSet(false, true)) {
+                finished.set(null);
+                return true;
+            }
+            return finished.isDone();
+        }
+
+        @Override
+        public void run()
+        {
+            if (!started.compareAndSet(false, true)) {
+                // cancelled while it was queued
+                return;
+            }
+            try {
+                buffers.set(readRanges());
+            }
+            catch (Throwable t) {
+                buffers.setException(t);
+            }
+            finally {
+                finished.set(null);
+            }
+        }
+
+        private Map<DiskRange, byte[]> readRanges()
+                throws IOException
+        {
+            ImmutableMap.Builder<DiskRange, byte[]> buffers = ImmutableMap.builder();
+            for (DiskRange range : ranges) {
+                byte[] buffer = new byte[range.getLength()];
+                orcDataSource.readFully(range.getOffset(), buffer);
+                buffers.put(range, buffer);
+            }
+            return buffers.build();
+        }
+    }
+}
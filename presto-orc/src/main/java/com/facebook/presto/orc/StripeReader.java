@@ -96,6 +96,7 @@ public class StripeReader
     private final StripeMetadataSource stripeMetadataSource;
     private final boolean cacheable;
     private final Multimap<Integer, Integer> dwrfEncryptionGroupColumns;
+    private final Optional<StripePrefetcher> stripePrefetcher;
 
     public StripeReader(
             OrcDataSource orcDataSource,
@@ -109,7 +110,8 @@ public class StripeReader
             Optional<OrcWriteValidation> writeValidation,
             StripeMetadataSource stripeMetadataSource,
             boolean cacheable,
-            Map<Integer, Integer> dwrfEncryptionGroupMap)
+            Map<Integer, Integer> dwrfEncryptionGroupMap,
+            Optional<StripePrefetcher> stripePrefetcher)
     {
         this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
@@ -123,6 +125,8 @@ public class StripeReader
         this.stripeMetadataSource = requireNonNull(stripeMetadataSource, "stripeMetadataSource is null");
         this.cacheable = requireNonNull(cacheable, "hiveFileContext is null");
         this.dwrfEncryptionGroupColumns = invertEncryptionGroupMap(requireNonNull(dwrfEncryptionGroupMap, "dwrfEncryptionGroupMap is null"));
+        this.stripePrefetcher = requireNonNull(stripePrefetcher, "stripePrefetcher is null");
+        checkArgument(!stripePrefetcher.isPresent() || dwrfEncryptionGroupMap.isEmpty(), "stripes with encrypted columns can not be prefetched");
     }
 
     private Multimap<Integer, Integer> invertEncryptionGroupMap(Map<Integer, Integer> dwrfEncryptionGroupMap)
@@ -149,7 +153,8 @@ public class StripeReader
         StripeId stripeId = new StripeId(orcDataSource.getId(), stripe.getOffset());
 
         // read the stripe footer
-        StripeFooter stripeFooter = readStripeFooter(stripeId, stripe, systemMemoryUsage);
+        Optional<StripeFooter> prefetchedStripeFooter = stripePrefetcher.isPresent() ? stripePrefetcher.get().getStripeFooter(stripeId) : Optional.empty();
+        StripeFooter stripeFooter = prefetchedStripeFooter.isPresent() ? prefetchedStripeFooter.get() : readStripeFooter(stripeId, stripe, systemMemoryUsage);
 
         // get streams for selected columns
         List<List<Stream>> allStreams = new ArrayList<>();
@@ -280,6 +285,27 @@ public class StripeReader
         return new Stripe(stripe.getNumberOfRows(), columnEncodings, ImmutableList.of(rowGroup), dictionaryStreamSources);
     }
 
+    /**
+     * Starts reading the included streams of the stripe in the background, if stripe prefetching
+     * is enabled. The stripe footer is read right away.
+     */
+    public void prefetchStripe(StripeInformation stripe, OrcAggregatedMemoryContext systemMemoryUsage)
+            throws IOException
+    {
+        if (!stripePrefetcher.isPresent()) {
+            return;
+        }
+
+        StripeId stripeId = new StripeId(orcDataSource.getId(), stripe.getOffset());
+        StripeFooter stripeFooter = readStripeFooter(stripeId, stripe, systemMemoryUsage);
+
+        Map<StreamId, Stream> includedStreams = new HashMap<>();
+        addIncludedStreams(stripeFooter.getColumnEncodings(), stripeFooter.getStreams(), includedStreams);
+        Map<StreamId, DiskRange> diskRanges = Maps.filterKeys(getDiskRanges(ImmutableList.of(stripeFooter.getStreams())), Predicates.in(includedStreams.keySet()));
+
+        stripePrefetcher.get().prefetch(stripeId, stripeFooter, diskRanges);
+    }
+
     private StripeEncryptionGroup getStripeEncryptionGroup(DwrfDataEncryptor decryptor, Slice encryptedGroup, Collection<Integer> columns, OrcAggregatedMemoryContext systemMemoryUsage)
             throws IOException
     {
@@ -338,8 +364,9 @@ public class StripeReader
         // Note: this code does not use the Java 8 stream APIs to avoid any extra object allocation
         //
 
-        // read ranges
-        Map<StreamId, OrcDataSourceInput> streamsData = stripeMetadataSource.getInputs(orcDataSource, stripeId, diskRanges, cacheable);
+        // read ranges, unless they have been prefetched
+        Optional<Map<StreamId, OrcDataSourceInput>> prefetchedStreamsData = stripePrefetcher.isPresent() ? stripePrefetcher.get().getInputs(stripeId, diskRanges) : Optional.empty();
+        Map<StreamId, OrcDataSourceInput> streamsData = prefetchedStreamsData.isPresent() ? prefetchedStreamsData.get() : stripeMetadataSource.getInputs(orcDataSource, stripeId, diskRanges, cacheable);
 
         // transform streams to OrcInputStream
         ImmutableMap.Builder<StreamId, OrcInputStream> streamsBuilder = ImmutableMap.builder();
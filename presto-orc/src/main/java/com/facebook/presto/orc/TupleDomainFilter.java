@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.google.common.annotations.VisibleForTesting;
 
 import java.util.Arrays;
@@ -1284,6 +1285,84 @@ public interface TupleDomainFilter
         }
     }
 
+    /**
+     * Passes the values that pass the delegate filter and may be contained in a bloom filter
+     * collected from the build side of a join. Supports integer-like and string-like values.
+     */
+    class BloomFilterValues
+            extends AbstractTupleDomainFilter
+    {
+        private final TupleDomainFilter delegate;
+        private final BloomFilter bloomFilter;
+
+        private BloomFilterValues(TupleDomainFilter delegate, BloomFilter bloomFilter)
+        {
+            super(delegate.isDeterministic(), delegate.testNull());
+            this.delegate = delegate;
+            this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+        }
+
+        public static BloomFilterValues of(TupleDomainFilter delegate, BloomFilter bloomFilter)
+        {
+            return new BloomFilterValues(requireNonNull(delegate, "delegate is null"), bloomFilter);
+        }
+
+        @Override
+        public boolean testNonNull()
+        {
+            return delegate.testNonNull();
+        }
+
+        @Override
+        public boolean testLong(long value)
+        {
+            return delegate.testLong(value) && bloomFilter.mightContain(value);
+        }
+
+        @Override
+        public boolean testBytes(byte[] buffer, int offset, int length)
+        {
+            return delegate.testBytes(buffer, offset, length) && bloomFilter.mightContain(buffer, offset, length);
+        }
+
+        @Override
+        public boolean testLength(int length)
+        {
+            return delegate.testLength(length);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            BloomFilterValues that = (BloomFilterValues) o;
+            return delegate.equals(that.delegate) &&
+                    bloomFilter == that.bloomFilter;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(delegate, System.identityHashCode(bloomFilter));
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("delegate", delegate)
+                    .add("bloomFilter", bloomFilter)
+                    .toString();
+        }
+    }
+
     class BigintMultiRange
             extends AbstractTupleDomainFilter
     {
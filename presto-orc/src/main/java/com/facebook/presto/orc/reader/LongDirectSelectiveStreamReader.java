@@ -36,6 +36,7 @@ import java.util.Optional;
 import static com.facebook.presto.common.block.ClosingBlockLease.newLease;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.facebook.presto.orc.reader.ReaderUtils.unpackLongNulls;
 import static com.facebook.presto.orc.reader.SelectiveStreamReaders.initializeOutputPositions;
 import static com.facebook.presto.orc.stream.MissingInputStreamSource.missingStreamSource;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -165,21 +166,14 @@ public class LongDirectSelectiveStreamReader
                     allNulls = true;
                 }
                 else {
-                    for (int i = 0; i < positionCount; i++) {
-                        if (nulls[i]) {
-                            values[i] = 0;
-                        }
-                        else {
-                            values[i] = dataStream.next();
-                        }
-                    }
+                    int nonNullCount = positionCount - nullCount;
+                    dataStream.next(values, nonNullCount);
+                    unpackLongNulls(values, nulls, positionCount, nonNullCount);
                 }
             }
             else {
                 // no nulls
-                for (int i = 0; i < positionCount; i++) {
-                    values[i] = dataStream.next();
-                }
+                dataStream.next(values, positionCount);
             }
             outputPositionCount = positionCount;
             return positionCount;
@@ -217,19 +211,10 @@ public class LongDirectSelectiveStreamReader
     {
         if (positions[positionCount - 1] == positionCount - 1) {
             // no skipping
-            if (presentStream == null) {
-                // no nulls
-                if (!outputRequired && !filter.isPositionalFilter()) {
-                    // no output; just filter
-                    for (int i = 0; i < positionCount; i++) {
-                        long value = dataStream.next();
-                        if (filter.testLong(value)) {
-                            outputPositions[outputPositionCount] = positions[i];
-                            outputPositionCount++;
-                        }
-                    }
-                    return positionCount;
-                }
+            if (presentStream == null && !filter.isPositionalFilter()) {
+                // no nulls; decode and filter in bulk
+                outputPositionCount = dataStream.next(filter, positions, positionCount, outputPositions, outputRequired ? values : null);
+                return positionCount;
             }
         }
 
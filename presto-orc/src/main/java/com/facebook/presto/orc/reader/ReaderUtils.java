@@ -140,6 +140,19 @@ final class ReaderUtils
         return result;
     }
 
+    public static void unpackLongNulls(long[] values, boolean[] isNull, int positionCount, int nonNullCount)
+    {
+        int position = nonNullCount - 1;
+        for (int i = positionCount - 1; i >= 0; i--) {
+            if (!isNull[i]) {
+                values[i] = values[position--];
+            }
+            else {
+                values[i] = 0;
+            }
+        }
+    }
+
     public static void unpackLengthNulls(int[] values, boolean[] isNull, int nonNullCount)
     {
         int nullSuppressedPosition = nonNullCount - 1;
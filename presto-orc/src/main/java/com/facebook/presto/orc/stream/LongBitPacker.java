@@ -29,6 +29,8 @@ public final class LongBitPacker
 {
     // ORC uses no more than 9 bits to store run lengths (https://orc.apache.org/docs/run-length.html#direct)
     private static final int MAX_BUFFERED_POSITIONS = 512;
+    // a value must fit in a long after shifting out the up to 7 bits that precede it in its first byte
+    private static final int MAX_WORD_UNPACK_BIT_SIZE = Long.SIZE - 7;
 
     // We use this temp buffer to work around poor read performance of single bytes from Slice.
     // Benchmarks show that reading from this byte[] is ~3x faster, even after accounting for the
@@ -76,7 +78,35 @@ public final class LongBitPacker
                 unpack64(buffer, offset, len, input);
                 break;
             default:
-                unpackGeneric(buffer, offset, len, bitSize, input);
+                if (bitSize <= MAX_WORD_UNPACK_BIT_SIZE) {
+                    unpackWords(buffer, offset, len, bitSize, input);
+                }
+                else {
+                    unpackGeneric(buffer, offset, len, bitSize, input);
+                }
+        }
+    }
+
+    /**
+     * Unpacks values of any width that fits in a long together with the bit offset within the
+     * first byte, by reading each value from an 8-byte big-endian word. The loop has no data
+     * dependent branches, so the JIT can unroll and vectorize it.
+     */
+    private void unpackWords(long[] buffer, int offset, int len, int bitSize, InputStream input)
+            throws IOException
+    {
+        int blockReadableBytes = (len * bitSize + 7) / 8;
+        for (int i = 0; i < blockReadableBytes; ) {
+            i += input.read(tmp, i, blockReadableBytes - i);
+        }
+        int valueShift = Long.SIZE - bitSize;
+        for (int i = 0; i < len; i++) {
+            int bitOffset = i * bitSize;
+            // It's safe to read 8-bytes at a time, because slice is a view over tmp, which has
+            // 8 bytes of buffer space for every position. Stale bytes past the end of the block
+            // are shifted out.
+            long word = Long.reverseBytes(getLongUnchecked(slice, bitOffset >>> 3));
+            buffer[offset + i] = (word << (bitOffset & 7)) >>> valueShift;
         }
     }
 
@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.orc.stream;
 
+import com.facebook.presto.orc.TupleDomainFilter;
 import com.facebook.presto.orc.checkpoint.LongStreamCheckpoint;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 
 import static com.google.common.base.Preconditions.checkPositionIndex;
@@ -35,6 +38,30 @@ public interface LongInputStream
     void next(short[] values, int items)
             throws IOException;
 
+    /**
+     * Reads the next {@code items} values and keeps the ones that pass the filter. For each passing
+     * value, the corresponding entry of {@code positions} is stored in {@code outputPositions} and
+     * the value is stored in {@code values}, unless {@code values} is null.
+     *
+     * @return the number of values that passed the filter
+     */
+    default int next(TupleDomainFilter filter, int[] positions, int items, int[] outputPositions, @Nullable long[] values)
+            throws IOException
+    {
+        int outputPositionCount = 0;
+        for (int i = 0; i < items; i++) {
+            long value = next();
+            if (filter.testLong(value)) {
+                if (values != null) {
+                    values[outputPositionCount] = value;
+                }
+                outputPositions[outputPositionCount] = positions[i];
+                outputPositionCount++;
+            }
+        }
+        return outputPositionCount;
+    }
+
     default void nextIntVector(int items, int[] vector, int offset)
             throws IOException
     {
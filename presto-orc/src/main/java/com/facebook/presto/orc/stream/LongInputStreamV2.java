@@ -14,9 +14,13 @@
 package com.facebook.presto.orc.stream;
 
 import com.facebook.presto.orc.OrcCorruptionException;
+import com.facebook.presto.orc.TupleDomainFilter;
+import com.facebook.presto.orc.TupleDomainFilter.BigintRange;
 import com.facebook.presto.orc.checkpoint.LongStreamCheckpoint;
 import com.facebook.presto.orc.checkpoint.LongStreamV2Checkpoint;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -381,6 +385,65 @@ public class LongInputStreamV2
         }
     }
 
+    @Override
+    public int next(TupleDomainFilter filter, int[] positions, int items, int[] outputPositions, @Nullable long[] values)
+            throws IOException
+    {
+        int outputPositionCount = 0;
+        int offset = 0;
+        while (items > 0) {
+            if (used == numLiterals) {
+                numLiterals = 0;
+                used = 0;
+                readValues();
+            }
+
+            int chunkSize = min(numLiterals - used, items);
+            if (filter instanceof BigintRange) {
+                BigintRange range = (BigintRange) filter;
+                outputPositionCount = filterRange(range.getLower(), range.getUpper(), positions, offset, chunkSize, outputPositions, values, outputPositionCount);
+            }
+            else {
+                for (int i = 0; i < chunkSize; i++) {
+                    long literal = literals[used + i];
+                    if (filter.testLong(literal)) {
+                        if (values != null) {
+                            values[outputPositionCount] = literal;
+                        }
+                        outputPositions[outputPositionCount] = positions[offset + i];
+                        outputPositionCount++;
+                    }
+                }
+            }
+            used += chunkSize;
+            offset += chunkSize;
+            items -= chunkSize;
+        }
+        return outputPositionCount;
+    }
+
+    private int filterRange(long lower, long upper, int[] positions, int offset, int chunkSize, int[] outputPositions, @Nullable long[] values, int outputPositionCount)
+    {
+        // Every value is written to the next output slot, which is only claimed if the value
+        // passes the filter. This keeps the loop free of unpredictable branches.
+        if (values == null) {
+            for (int i = 0; i < chunkSize; i++) {
+                long literal = literals[used + i];
+                outputPositions[outputPositionCount] = positions[offset + i];
+                outputPositionCount += (literal >= lower & literal <= upper) ? 1 : 0;
+            }
+        }
+        else {
+            for (int i = 0; i < chunkSize; i++) {
+                long literal = literals[used + i];
+                values[outputPositionCount] = literal;
+                outputPositions[outputPositionCount] = positions[offset + i];
+                outputPositionCount += (literal >= lower & literal <= upper) ? 1 : 0;
+            }
+        }
+        return outputPositionCount;
+    }
+
     @Override
     public void next(short[] values, int items)
             throws IOException
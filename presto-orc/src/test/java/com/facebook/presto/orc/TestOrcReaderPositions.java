@@ -44,6 +44,8 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
@@ -54,13 +56,16 @@ import static com.facebook.presto.orc.OrcReader.BATCH_SIZE_GROWTH_FACTOR;
 import static com.facebook.presto.orc.OrcReader.INITIAL_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
 import static com.facebook.presto.orc.OrcTester.MAX_BLOCK_SIZE;
 import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
 import static com.facebook.presto.orc.OrcTester.createOrcRecordWriter;
 import static com.facebook.presto.orc.OrcTester.createSettableStructObjectInspector;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.Math.min;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.apache.hadoop.hive.ql.io.orc.CompressionKind.SNAPPY;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -289,6 +294,44 @@ public class TestOrcReaderPositions
         }
     }
 
+    @Test
+    public void testStripePrefetch()
+            throws Exception
+    {
+        ExecutorService executor = newSingleThreadExecutor();
+        try (TempFile tempFile = new TempFile()) {
+            createMultiStripeFile(tempFile.getFile());
+
+            // the stripes must not be considered tiny, otherwise the whole file is cached up front
+            OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), new DataSize(1, BYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), true);
+            OrcReader orcReader = new OrcReader(
+                    orcDataSource,
+                    ORC,
+                    new StorageOrcFileTailSource(),
+                    new StorageStripeMetadataSource(),
+                    NOOP_ORC_AGGREGATED_MEMORY_CONTEXT,
+                    new OrcReaderOptions(new DataSize(1, BYTE), new DataSize(1, BYTE), MAX_BLOCK_SIZE, false, false, false, Optional.of(executor), new DataSize(1, MEGABYTE)),
+                    false,
+                    NO_ENCRYPTION,
+                    DwrfKeyProvider.EMPTY);
+
+            try (OrcBatchRecordReader reader = orcReader.createBatchRecordReader(ImmutableMap.of(0, BIGINT), OrcPredicate.TRUE, HIVE_STORAGE_TIME_ZONE, new TestingHiveOrcAggregatedMemoryContext(), MAX_BATCH_SIZE)) {
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(reader.nextBatch(), 20);
+                    assertCurrentBatch(reader, i);
+                }
+                assertEquals(reader.nextBatch(), -1);
+
+                // the first stripe is never prefetched
+                assertEquals(reader.getStripePrefetchHits(), 4);
+                assertEquals(reader.getStripePrefetchMisses(), 1);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testReadUserMetadata()
             throws Exception
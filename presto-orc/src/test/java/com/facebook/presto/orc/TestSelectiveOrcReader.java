@@ -17,6 +17,7 @@ import com.facebook.presto.common.InvalidFunctionArgumentException;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.type.CharType;
 import com.facebook.presto.common.type.DecimalType;
 import com.facebook.presto.common.type.SqlDate;
@@ -27,6 +28,7 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.orc.OrcTester.OrcReaderSettings;
 import com.facebook.presto.orc.TupleDomainFilter.BigintRange;
 import com.facebook.presto.orc.TupleDomainFilter.BigintValuesUsingHashTable;
+import com.facebook.presto.orc.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.orc.TupleDomainFilter.BooleanValue;
 import com.facebook.presto.orc.TupleDomainFilter.BytesRange;
 import com.facebook.presto.orc.TupleDomainFilter.BytesValues;
@@ -330,6 +332,49 @@ public class TestSelectiveOrcReader
         testRoundTripNumeric(concat(ImmutableList.of(1), nCopies(9999, 123), ImmutableList.of(2), nCopies(9999, 123)), BigintRange.of(123, 123, true));
     }
 
+    @Test
+    public void testBloomFilterValues()
+            throws Exception
+    {
+        BloomFilter bloomFilter = new BloomFilter(64 * 1024);
+        for (int value = 0; value < NUM_ROWS; value += 100) {
+            bloomFilter.put(value);
+            bloomFilter.put(Slices.utf8Slice(String.valueOf(value)));
+        }
+
+        List<Long> longValues = intsBetween(0, NUM_ROWS).stream()
+                .map(value -> value % 10 == 5 ? null : Long.valueOf(value))
+                .collect(toList());
+        List<String> stringValues = longValues.stream()
+                .map(value -> value == null ? null : value.toString())
+                .collect(toList());
+
+        TupleDomainFilter longFilter = BloomFilterValues.of(BigintRange.of(0, NUM_ROWS, false), bloomFilter);
+        TupleDomainFilter stringFilter = BloomFilterValues.of(BytesRange.of(null, true, null, true, false), bloomFilter);
+
+        // the bloom filter drops the values that were never added to it, and with them the nulls the delegate does not allow
+        List<List<?>> filteredValues = OrcTester.filterRows(
+                ImmutableList.of(BIGINT, VARCHAR),
+                ImmutableList.of(longValues, stringValues),
+                ImmutableMap.of(0, ImmutableMap.of(new Subfield("c"), longFilter), 1, ImmutableMap.of(new Subfield("c"), stringFilter)));
+        List<Long> expectedValues = intsBetween(0, NUM_ROWS).stream()
+                .filter(value -> value % 100 == 0)
+                .map(Long::valueOf)
+                .collect(toList());
+        assertTrue(filteredValues.get(0).containsAll(expectedValues));
+        assertTrue(filteredValues.get(0).size() < expectedValues.size() * 2);
+
+        tester.testRoundTrip(BIGINT, longValues, longFilter);
+        tester.testRoundTrip(VARCHAR, stringValues, stringFilter);
+        tester.testRoundTripTypes(
+                ImmutableList.of(BIGINT, VARCHAR),
+                ImmutableList.of(longValues, stringValues),
+                toSubfieldFilters(
+                        ImmutableMap.of(0, longFilter),
+                        ImmutableMap.of(1, stringFilter),
+                        ImmutableMap.of(0, BloomFilterValues.of(BigintRange.of(0, NUM_ROWS, true), bloomFilter), 1, stringFilter)));
+    }
+
     @Test
     public void testFloats()
             throws Exception
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.StripeReader.StripeId;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestStripePrefetcher
+{
+    private static final DataSize SIZE = new DataSize(1, MEGABYTE);
+    private static final OrcDataSourceId DATA_SOURCE_ID = new OrcDataSourceId("test");
+    private static final StripeFooter STRIPE_FOOTER = new StripeFooter(ImmutableList.of(), ImmutableMap.of(), ImmutableList.of());
+    private static final Map<StreamId, DiskRange> DISK_RANGES = ImmutableMap.of(new StreamId(0, 0, DATA), new DiskRange(0, 100));
+
+    @Test
+    public void testPrefetch()
+            throws Exception
+    {
+        TestingHiveOrcAggregatedMemoryContext memoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        List<Runnable> queue = new ArrayList<>();
+        BlockingOrcDataSource dataSource = new BlockingOrcDataSource(false);
+        StripePrefetcher prefetcher = new StripePrefetcher(dataSource, queue::add, SIZE, SIZE, memoryContext.newOrcLocalMemoryContext("test"));
+
+        prefetcher.prefetch(new StripeId(DATA_SOURCE_ID, 0), STRIPE_FOOTER, DISK_RANGES);
+        assertEquals(memoryContext.getBytes(), 100);
+        queue.forEach(Runnable::run);
+
+        Optional<Map<StreamId, OrcDataSourceInput>> inputs = prefetcher.getInputs(new StripeId(DATA_SOURCE_ID, 0), DISK_RANGES);
+        assertTrue(inputs.isPresent());
+        assertEquals(inputs.get().keySet(), DISK_RANGES.keySet());
+        assertEquals(prefetcher.getHits(), 1);
+        // the streams of the stripe account for the memory from now on
+        assertEquals(memoryContext.getBytes(), 0);
+
+        prefetcher.close();
+    }
+
+    @Test
+    public void testCancelQueuedRead()
+    {
+        TestingHiveOrcAggregatedMemoryContext memoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        List<Runnable> queue = new ArrayList<>();
+        BlockingOrcDataSource dataSource = new BlockingOrcDataSource(false);
+        StripePrefetcher prefetcher = new StripePrefetcher(dataSource, queue::add, SIZE, SIZE, memoryContext.newOrcLocalMemoryContext("test"));
+
+        prefetcher.prefetch(new StripeId(DATA_SOURCE_ID, 0), STRIPE_FOOTER, DISK_RANGES);
+        assertEquals(memoryContext.getBytes(), 100);
+
+        // the read has not started, so its memory is released right away
+        prefetcher.prefetch(new StripeId(DATA_SOURCE_ID, 1), STRIPE_FOOTER, ImmutableMap.of());
+        assertEquals(memoryContext.getBytes(), 0);
+
+        queue.forEach(Runnable::run);
+        assertEquals(dataSource.getReads(), 0);
+
+        prefetcher.close();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testCancelRunningRead()
+            throws Exception
+    {
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            TestingHiveOrcAggregatedMemoryContext memoryContext = new TestingHiveOrcAggregatedMemoryContext();
+            BlockingOrcDataSource dataSource = new BlockingOrcDataSource(true);
+            StripePrefetcher prefetcher = new StripePrefetcher(dataSource, executor, SIZE, SIZE, memoryContext.newOrcLocalMemoryContext("test"));
+
+            prefetcher.prefetch(new StripeId(DATA_SOURCE_ID, 0), STRIPE_FOOTER, DISK_RANGES);
+            dataSource.awaitRead();
+
+            // the cancelled read still writes to its buffers
+            prefetcher.prefetch(new StripeId(DATA_SOURCE_ID, 1), STRIPE_FOOTER, ImmutableMap.of());
+            assertEquals(memoryContext.getBytes(), 100);
+
+            dataSource.release();
+            // the executor runs one task at a time, so the read is finished once this one has run
+            executor.submit(() -> {}).get();
+
+            prefetcher.prefetch(new StripeId(DATA_SOURCE_ID, 2), STRIPE_FOOTER, ImmutableMap.of());
+            assertEquals(memoryContext.getBytes(), 0);
+
+            prefetcher.close();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class BlockingOrcDataSource
+            extends AbstractOrcDataSource
+    {
+        private final CountDownLatch readStarted = new CountDownLatch(1);
+        private final CountDownLatch readReleased;
+        private final AtomicInteger reads = new AtomicInteger();
+
+        public BlockingOrcDataSource(boolean blocking)
+        {
+            super(DATA_SOURCE_ID, 1000, SIZE, SIZE, SIZE, false);
+            this.readReleased = new CountDownLatch(blocking ? 1 : 0);
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            reads.incrementAndGet();
+            readStarted.countDown();
+            try {
+                readReleased.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        public int getReads()
+        {
+            return reads.get();
+        }
+
+        public void awaitRead()
+                throws InterruptedException
+        {
+            readStarted.await();
+        }
+
+        public void release()
+        {
+            readReleased.countDown();
+        }
+    }
+}
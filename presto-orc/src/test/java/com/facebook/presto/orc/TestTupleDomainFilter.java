@@ -13,10 +13,12 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.orc.TupleDomainFilter.BigintMultiRange;
 import com.facebook.presto.orc.TupleDomainFilter.BigintRange;
 import com.facebook.presto.orc.TupleDomainFilter.BigintValuesUsingBitmask;
 import com.facebook.presto.orc.TupleDomainFilter.BigintValuesUsingHashTable;
+import com.facebook.presto.orc.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.orc.TupleDomainFilter.BooleanValue;
 import com.facebook.presto.orc.TupleDomainFilter.BytesRange;
 import com.facebook.presto.orc.TupleDomainFilter.BytesValues;
@@ -345,6 +347,27 @@ public class TestTupleDomainFilter
         assertTrue(filter.testBytes(toBytes("apple"), 0, 5));
     }
 
+    @Test
+    public void testBloomFilterValues()
+    {
+        BloomFilter bloomFilter = new BloomFilter(1024);
+        bloomFilter.put(1);
+        bloomFilter.put(100);
+        bloomFilter.put(Slices.utf8Slice("apple"));
+
+        TupleDomainFilter filter = BloomFilterValues.of(BigintRange.of(1, 50, false), bloomFilter);
+        assertTrue(filter.testLong(1));
+        assertFalse(filter.testLong(2));
+        assertFalse(filter.testLong(100));
+        assertFalse(filter.testNull());
+
+        filter = BloomFilterValues.of(BytesRange.of(toBytes("a"), false, toBytes("b"), false, false), bloomFilter);
+        assertTrue(filter.testLength(5));
+        assertTrue(filter.testBytes(toBytes("xapple"), 1, 5));
+        assertFalse(filter.testBytes(toBytes("avocado"), 0, 7));
+        assertFalse(filter.testBytes(toBytes("cherry"), 0, 6));
+    }
+
     private static byte[] sequentialBytes(byte base, int length)
     {
         byte[] bytes = new byte[length];
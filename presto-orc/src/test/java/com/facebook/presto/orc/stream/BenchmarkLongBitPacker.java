@@ -211,7 +211,7 @@ public class BenchmarkLongBitPacker
         private final long[] buffer = new long[256];
         private final LongBitPacker packer = new LongBitPacker();
 
-        @Param({"1", "2", "4", "8", "16", "24", "32", "40", "48", "56", "64"})
+        @Param({"1", "2", "3", "4", "8", "12", "16", "20", "24", "28", "32", "40", "48", "56", "64"})
         private int bits;
 
         private BasicSliceInput input;
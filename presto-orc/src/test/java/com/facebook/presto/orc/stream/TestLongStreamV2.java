@@ -16,8 +16,13 @@ package com.facebook.presto.orc.stream;
 import com.facebook.presto.orc.OrcCorruptionException;
 import com.facebook.presto.orc.OrcDecompressor;
 import com.facebook.presto.orc.TestingHiveOrcAggregatedMemoryContext;
+import com.facebook.presto.orc.TupleDomainFilter;
+import com.facebook.presto.orc.TupleDomainFilter.BigintRange;
+import com.facebook.presto.orc.TupleDomainFilter.BigintValuesUsingBitmask;
 import com.facebook.presto.orc.checkpoint.LongStreamCheckpoint;
 import com.facebook.presto.orc.metadata.CompressionParameters;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
 
@@ -26,10 +31,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Random;
 
 import static com.facebook.presto.orc.OrcDecompressor.createOrcDecompressor;
 import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static org.testng.Assert.assertEquals;
 
 public class TestLongStreamV2
         extends AbstractTestValueStream<Long, LongStreamCheckpoint, LongOutputStreamV2, LongInputStreamV2>
@@ -49,6 +56,83 @@ public class TestLongStreamV2
         testWriteValue(groups);
     }
 
+    @Test
+    public void testNextWithFilter()
+            throws IOException
+    {
+        // mix runs of repeated, increasing, random small and random large values to exercise all encodings
+        Random random = new Random(0);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            switch ((i / 500) % 4) {
+                case 0:
+                    values[i] = 7;
+                    break;
+                case 1:
+                    values[i] = i * 3;
+                    break;
+                case 2:
+                    values[i] = random.nextInt(100) - 50;
+                    break;
+                default:
+                    values[i] = random.nextLong();
+            }
+        }
+
+        LongOutputStreamV2 outputStream = createValueOutputStream();
+        for (long value : values) {
+            outputStream.writeLong(value);
+        }
+        outputStream.close();
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1000);
+        outputStream.getStreamDataOutput(33).writeData(sliceOutput);
+
+        int[] positions = new int[values.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+
+        List<TupleDomainFilter> filters = ImmutableList.of(
+                BigintRange.of(-20, 2000, false),
+                BigintRange.of(7, 7, false),
+                BigintValuesUsingBitmask.of(-10, 9000, new long[] {-10, 7, 42, 9000}, false));
+        for (TupleDomainFilter filter : filters) {
+            for (boolean outputRequired : ImmutableList.of(true, false)) {
+                LongInputStreamV2 valueStream = createValueStream(sliceOutput.slice());
+                int[] outputPositions = new int[values.length];
+                long[] outputValues = outputRequired ? new long[values.length] : null;
+
+                // read in two batches, so the first batch ends in the middle of a run
+                int firstBatchSize = 1234;
+                int outputPositionCount = valueStream.next(filter, positions, firstBatchSize, outputPositions, outputValues);
+                int[] remainingOutputPositions = new int[values.length];
+                long[] remainingOutputValues = outputRequired ? new long[values.length] : null;
+                int remainingOutputPositionCount = valueStream.next(filter, positions, values.length - firstBatchSize, remainingOutputPositions, remainingOutputValues);
+
+                int expectedOutputPosition = 0;
+                for (int i = 0; i < values.length; i++) {
+                    if (!filter.testLong(values[i])) {
+                        continue;
+                    }
+                    if (i < firstBatchSize) {
+                        assertEquals(outputPositions[expectedOutputPosition], i);
+                        if (outputRequired) {
+                            assertEquals(outputValues[expectedOutputPosition], values[i]);
+                        }
+                    }
+                    else {
+                        assertEquals(remainingOutputPositions[expectedOutputPosition - outputPositionCount], i - firstBatchSize);
+                        if (outputRequired) {
+                            assertEquals(remainingOutputValues[expectedOutputPosition - outputPositionCount], values[i]);
+                        }
+                    }
+                    expectedOutputPosition++;
+                }
+                assertEquals(outputPositionCount + remainingOutputPositionCount, expectedOutputPosition);
+            }
+        }
+    }
+
     @Override
     protected LongOutputStreamV2 createValueOutputStream()
     {
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet;
+
+import com.facebook.presto.common.predicate.BloomFilter;
+import com.facebook.presto.common.predicate.Domain;
+import io.airlift.slice.Slice;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A filter on the values of a flat column: the domain of the column and, optionally, a bloom filter
+ * that the values must pass, such as the summary of the build side of a join.
+ */
+public final class ColumnFilter
+{
+    private final Domain domain;
+    private final Optional<BloomFilter> bloomFilter;
+
+    public ColumnFilter(Domain domain, Optional<BloomFilter> bloomFilter)
+    {
+        this.domain = requireNonNull(domain, "domain is null");
+        this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+    }
+
+    public static ColumnFilter of(Domain domain)
+    {
+        return new ColumnFilter(domain, Optional.empty());
+    }
+
+    public Domain getDomain()
+    {
+        return domain;
+    }
+
+    public Optional<BloomFilter> getBloomFilter()
+    {
+        return bloomFilter;
+    }
+
+    public boolean isNullAllowed()
+    {
+        return domain.isNullAllowed();
+    }
+
+    public boolean test(Slice value)
+    {
+        return domain.includesNullableValue(value) && (!bloomFilter.isPresent() || bloomFilter.get().mightContain(value));
+    }
+
+    /**
+     * Tests a value in the native representation of the type of the column, which may be null.
+     */
+    public boolean testNullable(Object value)
+    {
+        if (value == null) {
+            return domain.isNullAllowed();
+        }
+        if (!domain.includesNullableValue(value)) {
+            return false;
+        }
+        if (!bloomFilter.isPresent()) {
+            return true;
+        }
+        // the bloom filter holds the values of integer-like and string-like types only
+        if (value instanceof Long) {
+            return bloomFilter.get().mightContain((long) value);
+        }
+        if (value instanceof Slice) {
+            return bloomFilter.get().mightContain((Slice) value);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnFilter that = (ColumnFilter) o;
+        return domain.equals(that.domain) &&
+                bloomFilter.equals(that.bloomFilter);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(domain, bloomFilter);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("domain", domain)
+                .add("bloomFilter", bloomFilter)
+                .toString();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet;
+
+import com.facebook.presto.parquet.reader.ColumnChunk;
+
+/**
+ * A reader of a flat column, that can evaluate a filter on the values of the current batch and
+ * materialize the values of a subset of the positions of the batch.
+ */
+public interface FilteringColumnReader
+        extends ColumnReader
+{
+    /**
+     * Keeps the positions of the current batch whose values pass the filter.
+     *
+     * @param positions positions of the current batch in increasing order. The positions that pass
+     * the filter are stored at the beginning of the array.
+     * @return the number of positions that pass the filter
+     */
+    int filter(ColumnFilter filter, int[] positions, int positionCount);
+
+    /**
+     * Reads the values at the given positions of the current batch, which must be in increasing order.
+     */
+    ColumnChunk readNext(int[] positions, int positionCount);
+}
@@ -17,15 +17,19 @@ package com.facebook.presto.parquet.batchreader;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
 import com.facebook.presto.common.block.VariableWidthBlock;
-import com.facebook.presto.parquet.ColumnReader;
+import com.facebook.presto.parquet.ColumnFilter;
 import com.facebook.presto.parquet.DataPage;
 import com.facebook.presto.parquet.DictionaryPage;
 import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.FilteringColumnReader;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.parquet.batchreader.decoders.Decoders.FlatDecoders;
 import com.facebook.presto.parquet.batchreader.decoders.FlatDefinitionLevelDecoder;
 import com.facebook.presto.parquet.batchreader.decoders.ValuesDecoder.BinaryValuesDecoder;
 import com.facebook.presto.parquet.batchreader.decoders.ValuesDecoder.BinaryValuesDecoder.ValueBuffer;
+import com.facebook.presto.parquet.batchreader.decoders.rle.BinaryRLEDictionaryValuesDecoder;
+import com.facebook.presto.parquet.batchreader.decoders.rle.BinaryRLEDictionaryValuesDecoder.RLEValueBuffer;
+import com.facebook.presto.parquet.batchreader.dictionary.BinaryBatchDictionary;
 import com.facebook.presto.parquet.batchreader.dictionary.Dictionaries;
 import com.facebook.presto.parquet.dictionary.Dictionary;
 import com.facebook.presto.parquet.reader.ColumnChunk;
@@ -36,6 +40,7 @@ import io.airlift.slice.Slices;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -46,7 +51,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 public class BinaryFlatBatchReader
-        implements ColumnReader
+        implements FilteringColumnReader
 {
     private final RichColumnDescriptor columnDescriptor;
 
@@ -60,6 +65,13 @@ public class BinaryFlatBatchReader
     private int readOffset;
     private PageReader pageReader;
 
+    // values of the current batch, decoded without materializing them
+    private DecodedBatch decodedBatch;
+
+    // result of evaluating a filter on each entry of the dictionary
+    private ColumnFilter dictionaryFilter;
+    private boolean[] dictionaryFilterResults;
+
     public BinaryFlatBatchReader(RichColumnDescriptor columnDescriptor)
     {
         this.columnDescriptor = requireNonNull(columnDescriptor, "columnDescriptor is null");
@@ -90,11 +102,21 @@ public class BinaryFlatBatchReader
     {
         readOffset = readOffset + nextBatchSize;
         nextBatchSize = batchSize;
+        decodedBatch = null;
     }
 
     @Override
     public ColumnChunk readNext()
     {
+        if (decodedBatch != null) {
+            // the batch has been decoded for filtering
+            int[] positions = new int[decodedBatch.getPositionCount()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = i;
+            }
+            return readNext(positions, positions.length);
+        }
+
         ColumnChunk columnChunk = null;
         try {
             seek();
@@ -114,6 +136,199 @@ public class BinaryFlatBatchReader
         return columnChunk;
     }
 
+    @Override
+    public int filter(ColumnFilter filter, int[] positions, int positionCount)
+    {
+        DecodedBatch batch = getDecodedBatch();
+        boolean[] dictionaryResults = batch.hasDictionaryIds() ? getDictionaryFilterResults(filter) : null;
+
+        int outputPositionCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            int valueIndex = batch.getValueIndex(position);
+            boolean passes;
+            if (valueIndex < 0) {
+                passes = filter.isNullAllowed();
+            }
+            else if (batch.getDictionaryId(valueIndex) >= 0) {
+                passes = dictionaryResults[batch.getDictionaryId(valueIndex)];
+            }
+            else {
+                passes = filter.test(batch.getPlainSlice(valueIndex));
+            }
+
+            if (passes) {
+                positions[outputPositionCount] = position;
+                outputPositionCount++;
+            }
+        }
+        return outputPositionCount;
+    }
+
+    @Override
+    public ColumnChunk readNext(int[] positions, int positionCount)
+    {
+        DecodedBatch batch = getDecodedBatch();
+        BinaryBatchDictionary binaryDictionary = (BinaryBatchDictionary) dictionary;
+
+        int bufferSize = 0;
+        int nonNullCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int valueIndex = batch.getValueIndex(positions[i]);
+            if (valueIndex >= 0) {
+                int dictionaryId = batch.getDictionaryId(valueIndex);
+                bufferSize += dictionaryId >= 0 ? binaryDictionary.getLength(dictionaryId) : batch.getPlainLength(valueIndex);
+                nonNullCount++;
+            }
+        }
+
+        if (nonNullCount == 0) {
+            Block block = RunLengthEncodedBlock.create(field.getType(), null, positionCount);
+            return new ColumnChunk(block, new int[0], new int[0]);
+        }
+
+        byte[] byteBuffer = new byte[bufferSize];
+        int[] offsets = new int[positionCount + 1];
+        boolean[] isNull = nonNullCount == positionCount ? null : new boolean[positionCount];
+
+        // only the values at the selected positions are copied out of the dictionary and the pages
+        int bufferIndex = 0;
+        for (int i = 0; i < positionCount; i++) {
+            offsets[i] = bufferIndex;
+            int valueIndex = batch.getValueIndex(positions[i]);
+            if (valueIndex < 0) {
+                isNull[i] = true;
+                continue;
+            }
+            int dictionaryId = batch.getDictionaryId(valueIndex);
+            if (dictionaryId >= 0) {
+                bufferIndex += binaryDictionary.copyTo(byteBuffer, bufferIndex, dictionaryId);
+            }
+            else {
+                bufferIndex += batch.copyPlainValue(byteBuffer, bufferIndex, valueIndex);
+            }
+        }
+        offsets[positionCount] = bufferIndex;
+
+        Block block = new VariableWidthBlock(positionCount, Slices.wrappedBuffer(byteBuffer, 0, bufferSize), offsets, Optional.ofNullable(isNull));
+        return new ColumnChunk(block, new int[0], new int[0]);
+    }
+
+    private DecodedBatch getDecodedBatch()
+    {
+        if (decodedBatch == null) {
+            try {
+                seek();
+                decodedBatch = decodeBatch();
+            }
+            catch (IOException ex) {
+                throw new PrestoException(PARQUET_IO_READ_ERROR, "Error reading Parquet column " + columnDescriptor, ex);
+            }
+
+            readOffset = 0;
+            nextBatchSize = 0;
+        }
+        return decodedBatch;
+    }
+
+    private boolean[] getDictionaryFilterResults(ColumnFilter filter)
+    {
+        // the filter of a column is the same for all batches, so the dictionary is evaluated once
+        if (filter != dictionaryFilter) {
+            BinaryBatchDictionary binaryDictionary = (BinaryBatchDictionary) dictionary;
+            boolean[] results = new boolean[binaryDictionary.getDictionarySize()];
+            for (int dictionaryId = 0; dictionaryId < results.length; dictionaryId++) {
+                results[dictionaryId] = filter.test(binaryDictionary.getSlice(dictionaryId));
+            }
+            dictionaryFilter = filter;
+            dictionaryFilterResults = results;
+        }
+        return dictionaryFilterResults;
+    }
+
+    /**
+     * Decodes the dictionary ids of the values of the batch, and the values of the pages that are
+     * not dictionary encoded. Values are not copied out of the dictionary.
+     */
+    private DecodedBatch decodeBatch()
+            throws IOException
+    {
+        boolean[] isNull = field.isRequired() ? null : new boolean[nextBatchSize];
+        List<ValueBuffer> valueBuffers = new ArrayList<>();
+        List<ValuesDecoderContext<BinaryValuesDecoder>> valuesDecoderContexts = new ArrayList<>();
+
+        int totalNonNullCount = 0;
+        int plainBufferSize = 0;
+        boolean hasDictionaryIds = false;
+        int remainingInBatch = nextBatchSize;
+        int startOffset = 0;
+        while (remainingInBatch > 0) {
+            if (remainingCountInPage == 0) {
+                if (!readNextPage()) {
+                    break;
+                }
+            }
+
+            int readChunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int nonNullCount = isNull == null ? readChunkSize : definitionLevelDecoder.readNext(isNull, startOffset, readChunkSize);
+            totalNonNullCount += nonNullCount;
+
+            ValueBuffer valueBuffer = valuesDecoder.readNext(nonNullCount);
+            valueBuffers.add(valueBuffer);
+            if (valuesDecoder instanceof BinaryRLEDictionaryValuesDecoder) {
+                hasDictionaryIds = true;
+            }
+            else {
+                plainBufferSize += valueBuffer.getBufferSize();
+            }
+
+            ValuesDecoderContext<BinaryValuesDecoder> valuesDecoderContext = new ValuesDecoderContext<>(valuesDecoder, startOffset, startOffset + readChunkSize);
+            valuesDecoderContext.setValueCount(readChunkSize);
+            valuesDecoderContext.setNonNullCount(nonNullCount);
+            valuesDecoderContexts.add(valuesDecoderContext);
+
+            startOffset += readChunkSize;
+            remainingInBatch -= readChunkSize;
+            remainingCountInPage -= readChunkSize;
+        }
+
+        int[] valueIndexes = new int[nextBatchSize];
+        int[] dictionaryIds = hasDictionaryIds ? new int[totalNonNullCount] : null;
+        byte[] plainBuffer = new byte[plainBufferSize];
+        int[] plainOffsets = new int[totalNonNullCount + 1];
+
+        int valueIndex = 0;
+        int plainBufferIndex = 0;
+        for (int i = 0; i < valuesDecoderContexts.size(); i++) {
+            ValuesDecoderContext<BinaryValuesDecoder> valuesDecoderContext = valuesDecoderContexts.get(i);
+            ValueBuffer valueBuffer = valueBuffers.get(i);
+            int nonNullCount = valuesDecoderContext.getNonNullCount();
+            if (valueBuffer instanceof RLEValueBuffer) {
+                System.arraycopy(((RLEValueBuffer) valueBuffer).getDictionaryIds(), 0, dictionaryIds, valueIndex, nonNullCount);
+            }
+            else {
+                plainBufferIndex = valuesDecoderContext.getValuesDecoder().readIntoBuffer(plainBuffer, plainBufferIndex, plainOffsets, valueIndex, valueBuffer);
+                if (dictionaryIds != null) {
+                    Arrays.fill(dictionaryIds, valueIndex, valueIndex + nonNullCount, -1);
+                }
+            }
+
+            for (int position = valuesDecoderContext.getStart(); position < valuesDecoderContext.getEnd(); position++) {
+                if (isNull != null && isNull[position]) {
+                    valueIndexes[position] = -1;
+                }
+                else {
+                    valueIndexes[position] = valueIndex;
+                    valueIndex++;
+                }
+            }
+        }
+        // positions past the end of the column chunk are null
+        Arrays.fill(valueIndexes, startOffset, nextBatchSize, -1);
+
+        return new DecodedBatch(valueIndexes, dictionaryIds, plainBuffer, plainOffsets);
+    }
+
     protected boolean readNextPage()
     {
         definitionLevelDecoder = null;
@@ -265,6 +480,61 @@ public class BinaryFlatBatchReader
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
+    private static class DecodedBatch
+    {
+        // index of the value of each position, or -1 if the position is null
+        private final int[] valueIndexes;
+        // dictionary id of each value, or -1 if the value is not dictionary encoded
+        private final int[] dictionaryIds;
+        private final byte[] plainBuffer;
+        private final int[] plainOffsets;
+
+        public DecodedBatch(int[] valueIndexes, int[] dictionaryIds, byte[] plainBuffer, int[] plainOffsets)
+        {
+            this.valueIndexes = valueIndexes;
+            this.dictionaryIds = dictionaryIds;
+            this.plainBuffer = plainBuffer;
+            this.plainOffsets = plainOffsets;
+        }
+
+        public int getPositionCount()
+        {
+            return valueIndexes.length;
+        }
+
+        public int getValueIndex(int position)
+        {
+            return valueIndexes[position];
+        }
+
+        public boolean hasDictionaryIds()
+        {
+            return dictionaryIds != null;
+        }
+
+        public int getDictionaryId(int valueIndex)
+        {
+            return dictionaryIds == null ? -1 : dictionaryIds[valueIndex];
+        }
+
+        public int getPlainLength(int valueIndex)
+        {
+            return plainOffsets[valueIndex + 1] - plainOffsets[valueIndex];
+        }
+
+        public Slice getPlainSlice(int valueIndex)
+        {
+            return Slices.wrappedBuffer(plainBuffer, plainOffsets[valueIndex], getPlainLength(valueIndex));
+        }
+
+        public int copyPlainValue(byte[] byteBuffer, int bufferIndex, int valueIndex)
+        {
+            int length = getPlainLength(valueIndex);
+            System.arraycopy(plainBuffer, plainOffsets[valueIndex], byteBuffer, bufferIndex, length);
+            return length;
+        }
+    }
+
     private void seek()
             throws IOException
     {
@@ -276,6 +546,12 @@ public class BinaryFlatBatchReader
         int startOffset = 0;
         while (remainingInBatch > 0) {
             if (remainingCountInPage == 0) {
+                // pages that are skipped entirely are not decompressed
+                int skippedCount = pageReader.skipNextPage(remainingInBatch);
+                if (skippedCount > 0) {
+                    remainingInBatch -= skippedCount;
+                    continue;
+                }
                 if (!readNextPage()) {
                     break;
                 }
@@ -222,6 +222,12 @@ public class Int32FlatBatchReader
         int startOffset = 0;
         while (remainingInBatch > 0) {
             if (remainingCountInPage == 0) {
+                // pages that are skipped entirely are not decompressed
+                int skippedCount = pageReader.skipNextPage(remainingInBatch);
+                if (skippedCount > 0) {
+                    remainingInBatch -= skippedCount;
+                    continue;
+                }
                 if (!readNextPage()) {
                     break;
                 }
@@ -17,10 +17,12 @@ package com.facebook.presto.parquet.batchreader.dictionary;
 import com.facebook.presto.parquet.DictionaryPage;
 import com.facebook.presto.parquet.batchreader.BytesUtils;
 import com.facebook.presto.parquet.dictionary.Dictionary;
+import io.airlift.slice.Slice;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.Slices.wrappedBuffer;
 import static java.util.Objects.requireNonNull;
 
 public final class BinaryBatchDictionary
@@ -59,6 +61,16 @@ public final class BinaryBatchDictionary
         return offsets[dictionaryId + 1] - (offsets[dictionaryId] + 4);
     }
 
+    public int getDictionarySize()
+    {
+        return dictionarySize;
+    }
+
+    public Slice getSlice(int dictionaryId)
+    {
+        return wrappedBuffer(pageBuffer, offsets[dictionaryId] + 4, getLength(dictionaryId));
+    }
+
     public int copyTo(byte[] byteBuffer, int offset, int dictionaryId)
     {
         int length = offsets[dictionaryId + 1] - (offsets[dictionaryId] + 4);
@@ -20,6 +20,7 @@ import com.facebook.presto.parquet.DictionaryPage;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -52,6 +53,14 @@ public class PageReader
         return valueCount;
     }
 
+    /**
+     * Returns the data pages that have not been read yet, without decompressing them.
+     */
+    public List<DataPage> getCompressedPages()
+    {
+        return Collections.unmodifiableList(compressedPages);
+    }
+
     public DataPage readPage()
     {
         if (compressedPages.isEmpty()) {
@@ -96,6 +105,20 @@ public class PageReader
         }
     }
 
+    /**
+     * Skips the next data page without decompressing it, if the page has at most the given
+     * number of values.
+     *
+     * @return the number of values in the skipped page, or 0 if no page was skipped
+     */
+    public int skipNextPage(int maxValueCount)
+    {
+        if (compressedPages.isEmpty() || compressedPages.get(0).getValueCount() > maxValueCount) {
+            return 0;
+        }
+        return compressedPages.remove(0).getValueCount();
+    }
+
     public DictionaryPage readDictionaryPage()
     {
         if (compressedDictionaryPage == null) {
@@ -20,14 +20,21 @@ import com.facebook.presto.common.block.IntArrayBlock;
 import com.facebook.presto.common.block.LongArrayBlock;
 import com.facebook.presto.common.block.RowBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.MapType;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeSignatureParameter;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.parquet.ColumnFilter;
 import com.facebook.presto.parquet.ColumnReader;
 import com.facebook.presto.parquet.ColumnReaderFactory;
+import com.facebook.presto.parquet.DataPage;
+import com.facebook.presto.parquet.DataPageV1;
+import com.facebook.presto.parquet.DataPageV2;
 import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.FilteringColumnReader;
 import com.facebook.presto.parquet.GroupField;
 import com.facebook.presto.parquet.ParquetCorruptionException;
 import com.facebook.presto.parquet.ParquetDataSource;
@@ -40,6 +47,7 @@ import it.unimi.dsi.fastutil.booleans.BooleanList;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnPath;
@@ -49,8 +57,10 @@ import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -60,7 +70,9 @@ import static com.facebook.presto.common.type.StandardTypes.MAP;
 import static com.facebook.presto.common.type.StandardTypes.ROW;
 import static com.facebook.presto.common.type.StandardTypes.SMALLINT;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
 import static com.facebook.presto.parquet.ParquetValidationUtils.validateParquet;
+import static com.facebook.presto.parquet.predicate.TupleDomainParquetPredicate.getDomain;
 import static com.facebook.presto.parquet.reader.ListColumnReader.calculateCollectionOffsets;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Math.max;
@@ -81,6 +93,8 @@ public class ParquetReader
     private final AggregatedMemoryContext systemMemoryContext;
     private final boolean batchReadEnabled;
     private final boolean enableVerification;
+    // domains that the pages of the flat columns are pruned with, using the statistics in the page headers
+    private final TupleDomain<ColumnDescriptor> pageFilter;
 
     private int currentBlock;
     private BlockMetaData currentBlockMetadata;
@@ -88,10 +102,16 @@ public class ParquetReader
     private long currentGroupRowCount;
     private long nextRowInGroup;
     private int batchSize;
+    // rows of the current row group whose pages may match the page filter
+    private RowRanges currentGroupRowRanges;
 
     private int nextBatchSize = INITIAL_BATCH_SIZE;
     private final ColumnReader[] columnReaders;
     protected final ColumnReader[] verificationColumnReaders;
+    // column chunks of the current row group that have been read from the data source
+    private final byte[][] columnChunkBuffers;
+    // column chunks of the current batch that have been read in full to evaluate a filter
+    private final ColumnChunk[] filteredColumnChunks;
     private long[] maxBytesPerCell;
     private long maxCombinedBytesPerRow;
     private final long maxReadBlockBytes;
@@ -107,6 +127,19 @@ public class ParquetReader
             DataSize maxReadBlockSize,
             boolean batchReadEnabled,
             boolean enableVerification)
+    {
+        this(messageColumnIO, blocks, dataSource, systemMemoryContext, maxReadBlockSize, batchReadEnabled, enableVerification, TupleDomain.all());
+    }
+
+    public ParquetReader(MessageColumnIO
+            messageColumnIO,
+            List<BlockMetaData> blocks,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            DataSize maxReadBlockSize,
+            boolean batchReadEnabled,
+            boolean enableVerification,
+            TupleDomain<ColumnDescriptor> pageFilter)
     {
         this.blocks = blocks;
         this.dataSource = requireNonNull(dataSource, "dataSource is null");
@@ -118,6 +151,9 @@ public class ParquetReader
         columnReaders = new ColumnReader[columns.size()];
         this.enableVerification = enableVerification;
         verificationColumnReaders = enableVerification ? new ColumnReader[columns.size()] : null;
+        filteredColumnChunks = new ColumnChunk[columns.size()];
+        columnChunkBuffers = new byte[columns.size()][];
+        this.pageFilter = requireNonNull(pageFilter, "pageFilter is null");
         maxBytesPerCell = new long[columns.size()];
     }
 
@@ -136,16 +172,24 @@ public class ParquetReader
 
     public int nextBatch()
     {
-        if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
-            return -1;
+        while (true) {
+            if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
+                return -1;
+            }
+            long nextRow = currentGroupRowRanges.getNextRow(nextRowInGroup);
+            if (nextRow == nextRowInGroup) {
+                break;
+            }
+            skipRows((nextRow < 0 ? currentGroupRowCount : nextRow) - nextRowInGroup);
         }
 
         batchSize = toIntExact(min(nextBatchSize, maxBatchSize));
         nextBatchSize = min(batchSize * BATCH_SIZE_GROWTH_FACTOR, MAX_VECTOR_LENGTH);
-        batchSize = toIntExact(min(batchSize, currentGroupRowCount - nextRowInGroup));
+        batchSize = toIntExact(min(batchSize, currentGroupRowRanges.getRangeEnd(nextRowInGroup) - nextRowInGroup));
 
         nextRowInGroup += batchSize;
         currentPosition += batchSize;
+        Arrays.fill(filteredColumnChunks, null);
         Arrays.stream(columnReaders)
                 .forEach(reader -> reader.prepareNextRead(batchSize));
 
@@ -157,6 +201,26 @@ public class ParquetReader
         return batchSize;
     }
 
+    private void skipRows(long rowCount)
+    {
+        nextRowInGroup += rowCount;
+        currentPosition += rowCount;
+        if (nextRowInGroup >= currentGroupRowCount) {
+            // the column readers are recreated for the next row group
+            return;
+        }
+
+        // the skipped rows are added to the read offset of the readers like an unread batch
+        int skippedRowCount = toIntExact(rowCount);
+        Arrays.stream(columnReaders)
+                .forEach(reader -> reader.prepareNextRead(skippedRowCount));
+
+        if (enableVerification) {
+            Arrays.stream(verificationColumnReaders)
+                    .forEach(reader -> reader.prepareNextRead(skippedRowCount));
+        }
+    }
+
     private boolean advanceToNextRowGroup()
     {
         currentRowGroupMemoryContext.close();
@@ -171,9 +235,59 @@ public class ParquetReader
         nextRowInGroup = 0L;
         currentGroupRowCount = currentBlockMetadata.getRowCount();
         initializeColumnReaders();
+        Arrays.fill(columnChunkBuffers, null);
+        try {
+            currentGroupRowRanges = getPageFilterRowRanges();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         return true;
     }
 
+    private RowRanges getPageFilterRowRanges()
+            throws IOException
+    {
+        RowRanges rowRanges = RowRanges.all(currentGroupRowCount);
+        if (pageFilter.isAll() || pageFilter.isNone()) {
+            return rowRanges;
+        }
+
+        Map<ColumnDescriptor, Domain> domains = pageFilter.getDomains().get();
+        for (PrimitiveColumnIO columnIO : columns) {
+            ColumnDescriptor columnDescriptor = columnIO.getColumnDescriptor();
+            Domain domain = domains.get(columnDescriptor);
+            // the values of a page are its rows only for flat columns
+            if (domain == null || columnDescriptor.getMaxRepetitionLevel() > 0) {
+                continue;
+            }
+
+            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
+            ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, toIntExact(metadata.getTotalSize()));
+            PageReader pageReader = new ParquetColumnChunk(descriptor, getColumnChunkBuffer(columnIO.getId(), columnDescriptor), 0).readAllPages();
+            RowRanges.Builder pageRowRanges = RowRanges.builder();
+            long pageStart = 0;
+            for (DataPage page : pageReader.getCompressedPages()) {
+                long pageRowCount = page.getValueCount();
+                Domain pageDomain = getDomain(domain.getType(), pageRowCount, getStatistics(page), dataSource.getId(), columnDescriptor.toString(), false);
+                if (!domain.intersect(pageDomain).isNone()) {
+                    pageRowRanges.add(pageStart, pageStart + pageRowCount);
+                }
+                pageStart += pageRowCount;
+            }
+            rowRanges = rowRanges.intersect(pageRowRanges.build());
+        }
+        return rowRanges;
+    }
+
+    private static Statistics<?> getStatistics(DataPage page)
+    {
+        if (page instanceof DataPageV1) {
+            return ((DataPageV1) page).getStatistics();
+        }
+        return ((DataPageV2) page).getStatistics();
+    }
+
     private ColumnChunk readArray(GroupField field)
             throws IOException
     {
@@ -237,25 +351,11 @@ public class ParquetReader
         ColumnDescriptor columnDescriptor = field.getDescriptor();
 
         int fieldId = field.getId();
-        ColumnReader columnReader = columnReaders[fieldId];
-        if (!columnReader.isInitialized()) {
-            validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
-            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = metadata.getStartingPos();
-            int totalSize = toIntExact(metadata.getTotalSize());
-            byte[] buffer = allocateBlock(totalSize);
-            dataSource.readFully(startingPosition, buffer);
-            ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
-            ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
-            columnReader.init(columnChunk.readAllPages(), field);
-
-            if (enableVerification) {
-                ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
-                ParquetColumnChunk columnChunkVerfication = new ParquetColumnChunk(descriptor, buffer, 0);
-                verificationColumnReader.init(columnChunkVerfication.readAllPages(), field);
-            }
+        if (filteredColumnChunks[fieldId] != null) {
+            return filteredColumnChunks[fieldId];
         }
 
+        ColumnReader columnReader = initializeColumnReader(field);
         ColumnChunk columnChunk = columnReader.readNext();
         columnChunk = typeCoercion(columnChunk, field.getDescriptor().getPrimitiveType().getPrimitiveTypeName(), field.getType());
 
@@ -276,6 +376,41 @@ public class ParquetReader
         return columnChunk;
     }
 
+    private ColumnReader initializeColumnReader(PrimitiveField field)
+            throws IOException
+    {
+        ColumnDescriptor columnDescriptor = field.getDescriptor();
+        ColumnReader columnReader = columnReaders[field.getId()];
+        if (!columnReader.isInitialized()) {
+            validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
+            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
+            int totalSize = toIntExact(metadata.getTotalSize());
+            byte[] buffer = getColumnChunkBuffer(field.getId(), columnDescriptor);
+            ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
+            ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
+            columnReader.init(columnChunk.readAllPages(), field);
+
+            if (enableVerification) {
+                ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
+                ParquetColumnChunk columnChunkVerfication = new ParquetColumnChunk(descriptor, buffer, 0);
+                verificationColumnReader.init(columnChunkVerfication.readAllPages(), field);
+            }
+        }
+        return columnReader;
+    }
+
+    private byte[] getColumnChunkBuffer(int columnId, ColumnDescriptor columnDescriptor)
+            throws IOException
+    {
+        if (columnChunkBuffers[columnId] == null) {
+            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
+            byte[] buffer = allocateBlock(toIntExact(metadata.getTotalSize()));
+            dataSource.readFully(metadata.getStartingPos(), buffer);
+            columnChunkBuffers[columnId] = buffer;
+        }
+        return columnChunkBuffers[columnId];
+    }
+
     private byte[] allocateBlock(int length)
     {
         byte[] buffer = new byte[length];
@@ -313,6 +448,61 @@ public class ParquetReader
         return readColumnChunk(field).getBlock();
     }
 
+    /**
+     * Reads the values of the field at the given positions of the current batch, which must be in
+     * increasing order.
+     */
+    public Block readBlock(Field field, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (field instanceof PrimitiveField && filteredColumnChunks[((PrimitiveField) field).getId()] == null && !enableVerification) {
+            PrimitiveField primitiveField = (PrimitiveField) field;
+            ColumnReader columnReader = initializeColumnReader(primitiveField);
+            if (columnReader instanceof FilteringColumnReader) {
+                ColumnChunk columnChunk = ((FilteringColumnReader) columnReader).readNext(positions, positionCount);
+                return typeCoercion(columnChunk, primitiveField.getDescriptor().getPrimitiveType().getPrimitiveTypeName(), field.getType()).getBlock();
+            }
+        }
+        return readColumnChunk(field).getBlock().getPositions(positions, 0, positionCount);
+    }
+
+    /**
+     * Evaluates the filter on the values of a flat primitive field at the given positions of the
+     * current batch, which must be in increasing order. The column readers that support it evaluate
+     * the filter without materializing the values, for example once per dictionary entry.
+     *
+     * @return the number of positions that pass, which are stored at the beginning of {@code positions}
+     */
+    public int filter(PrimitiveField field, ColumnFilter filter, int[] positions, int positionCount)
+            throws IOException
+    {
+        checkArgument(field.getDescriptor().getPath().length == 1, "Only flat columns can be filtered");
+
+        int fieldId = field.getId();
+        if (filteredColumnChunks[fieldId] == null && !enableVerification) {
+            ColumnReader columnReader = initializeColumnReader(field);
+            if (columnReader instanceof FilteringColumnReader) {
+                return ((FilteringColumnReader) columnReader).filter(filter, positions, positionCount);
+            }
+        }
+
+        // the whole batch is read, and is kept for the projection of the column
+        ColumnChunk columnChunk = readPrimitive(field);
+        filteredColumnChunks[fieldId] = columnChunk;
+
+        Block block = columnChunk.getBlock();
+        Type type = field.getType();
+        int outputPositionCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (filter.testNullable(readNativeValue(type, block, position))) {
+                positions[outputPositionCount] = position;
+                outputPositionCount++;
+            }
+        }
+        return outputPositionCount;
+    }
+
     private ColumnChunk readColumnChunk(Field field)
             throws IOException
     {
@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Sorted, disjoint and non-adjacent ranges of rows of a row group, each with an inclusive start
+ * and an exclusive end.
+ */
+public class RowRanges
+{
+    private final long[] starts;
+    private final long[] ends;
+
+    private RowRanges(long[] starts, long[] ends)
+    {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static RowRanges all(long rowCount)
+    {
+        checkArgument(rowCount >= 0, "rowCount is negative");
+        if (rowCount == 0) {
+            return new RowRanges(new long[0], new long[0]);
+        }
+        return new RowRanges(new long[] {0}, new long[] {rowCount});
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public int getRangeCount()
+    {
+        return starts.length;
+    }
+
+    public long getRowCount()
+    {
+        long rowCount = 0;
+        for (int i = 0; i < starts.length; i++) {
+            rowCount += ends[i] - starts[i];
+        }
+        return rowCount;
+    }
+
+    /**
+     * @return the first row at or after the given row that is in a range, or -1 if there is none
+     */
+    public long getNextRow(long row)
+    {
+        int range = findRange(row);
+        if (range == starts.length) {
+            return -1;
+        }
+        return Math.max(row, starts[range]);
+    }
+
+    /**
+     * @return the end of the range that contains the given row
+     */
+    public long getRangeEnd(long row)
+    {
+        int range = findRange(row);
+        checkArgument(range < starts.length && starts[range] <= row, "row %s is not in a range", row);
+        return ends[range];
+    }
+
+    public RowRanges intersect(RowRanges other)
+    {
+        Builder builder = builder();
+        int left = 0;
+        int right = 0;
+        while (left < starts.length && right < other.starts.length) {
+            long start = Math.max(starts[left], other.starts[right]);
+            long end = Math.min(ends[left], other.ends[right]);
+            if (start < end) {
+                builder.add(start, end);
+            }
+            if (ends[left] < other.ends[right]) {
+                left++;
+            }
+            else {
+                right++;
+            }
+        }
+        return builder.build();
+    }
+
+    // index of the first range that ends after the row
+    private int findRange(long row)
+    {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] <= row) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public static class Builder
+    {
+        private final LongList starts = new LongArrayList();
+        private final LongList ends = new LongArrayList();
+
+        private Builder() {}
+
+        /**
+         * Adds a range that starts at or after the end of the last added range.
+         */
+        public Builder add(long start, long end)
+        {
+            checkArgument(start <= end, "start %s is after end %s", start, end);
+            if (start == end) {
+                return this;
+            }
+            int last = ends.size() - 1;
+            if (last >= 0) {
+                checkState(ends.getLong(last) <= start, "ranges must be added in order");
+                if (ends.getLong(last) == start) {
+                    ends.set(last, end);
+                    return this;
+                }
+            }
+            starts.add(start);
+            ends.add(end);
+            return this;
+        }
+
+        public RowRanges build()
+        {
+            return new RowRanges(starts.toLongArray(), ends.toLongArray());
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.ColumnFilter;
+import com.facebook.presto.parquet.FileParquetDataSource;
+import com.facebook.presto.parquet.PrimitiveField;
+import com.facebook.presto.parquet.cache.MetadataReader;
+import com.facebook.presto.parquet.writer.ParquetWriter;
+import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.ColumnIOConverter;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.google.common.base.Strings.padStart;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.toIntExact;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetReader
+{
+    private static final int ROW_COUNT = 16_000;
+    private static final int ROWS_PER_PAGE = 100;
+
+    private static final int DICTIONARY_COLUMN = 0;
+    private static final int PLAIN_COLUMN = 1;
+    private static final int MIXED_COLUMN = 2;
+    private static final int INTEGER_COLUMN = 3;
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("dictionary", "plain", "mixed", "integer");
+    private static final List<Type> COLUMN_TYPES = ImmutableList.of(VARCHAR, VARCHAR, VARCHAR, INTEGER);
+    // the integer column is read as bigint, which the reader coerces
+    private static final List<Type> READ_TYPES = ImmutableList.of(VARCHAR, VARCHAR, VARCHAR, BIGINT);
+
+    private File temporaryDirectory;
+    private File file;
+    private Object[][] values;
+    private ParquetMetadata parquetMetadata;
+    private MessageColumnIO messageColumnIO;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        values = new Object[COLUMN_NAMES.size()][ROW_COUNT];
+        for (int row = 0; row < ROW_COUNT; row++) {
+            values[DICTIONARY_COLUMN][row] = row % 7 == 3 ? null : "value_" + row % 5;
+            values[PLAIN_COLUMN][row] = row % 11 == 0 ? null : "plain_" + row;
+            values[MIXED_COLUMN][row] = row % 13 == 0 ? null : mixedValue(row);
+            values[INTEGER_COLUMN][row] = row % 17 == 0 ? null : (long) row;
+        }
+
+        temporaryDirectory = createTempDir();
+        file = new File(temporaryDirectory, "test.parquet");
+        writeParquetFile(file, values);
+
+        parquetMetadata = MetadataReader.readFooter(FileSystem.getLocal(new Configuration()), new Path(file.getAbsolutePath()), file.length()).getParquetMetadata();
+        MessageType schema = parquetMetadata.getFileMetaData().getSchema();
+        messageColumnIO = getColumnIO(schema, schema);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testDictionaryPages()
+            throws IOException
+    {
+        assertEncodings(DICTIONARY_COLUMN, true, false);
+
+        int selectedRows = assertFilters(ImmutableMap.of(
+                DICTIONARY_COLUMN, ColumnFilter.of(Domain.create(ValueSet.of(VARCHAR, utf8Slice("value_1"), utf8Slice("value_3")), false))));
+        assertTrue(selectedRows > 0 && selectedRows < ROW_COUNT);
+    }
+
+    @Test
+    public void testPlainPages()
+            throws IOException
+    {
+        assertEncodings(PLAIN_COLUMN, false, true);
+
+        int selectedRows = assertFilters(ImmutableMap.of(
+                PLAIN_COLUMN, ColumnFilter.of(Domain.create(ValueSet.ofRanges(Range.lessThan(VARCHAR, utf8Slice("plain_2"))), true))));
+        assertTrue(selectedRows > 0 && selectedRows < ROW_COUNT);
+    }
+
+    @Test
+    public void testDictionaryAndPlainPages()
+            throws IOException
+    {
+        // the dictionary outgrows its maximum size, so the later pages of the column chunk are not dictionary encoded
+        assertEncodings(MIXED_COLUMN, true, true);
+
+        Domain domain = Domain.create(
+                ValueSet.ofRanges(
+                        Range.equal(VARCHAR, utf8Slice("value_2")),
+                        Range.range(VARCHAR, utf8Slice(mixedValue(6_000)), true, utf8Slice(mixedValue(9_000)), false)),
+                true);
+        int selectedRows = assertFilters(ImmutableMap.of(MIXED_COLUMN, ColumnFilter.of(domain)));
+        assertTrue(selectedRows > 0 && selectedRows < ROW_COUNT);
+    }
+
+    @Test
+    public void testNulls()
+            throws IOException
+    {
+        assertTrue(assertFilters(ImmutableMap.of(DICTIONARY_COLUMN, ColumnFilter.of(Domain.onlyNull(VARCHAR)))) > 0);
+        assertTrue(assertFilters(ImmutableMap.of(PLAIN_COLUMN, ColumnFilter.of(Domain.onlyNull(VARCHAR)))) > 0);
+        assertTrue(assertFilters(ImmutableMap.of(MIXED_COLUMN, ColumnFilter.of(Domain.notNull(VARCHAR)))) > 0);
+        assertTrue(assertFilters(ImmutableMap.of(INTEGER_COLUMN, ColumnFilter.of(Domain.onlyNull(BIGINT)))) > 0);
+    }
+
+    @Test
+    public void testAllRowsFilteredOut()
+            throws IOException
+    {
+        assertEquals(assertFilters(ImmutableMap.of(DICTIONARY_COLUMN, ColumnFilter.of(Domain.singleValue(VARCHAR, utf8Slice("missing"))))), 0);
+        assertEquals(assertFilters(ImmutableMap.of(PLAIN_COLUMN, ColumnFilter.of(Domain.singleValue(VARCHAR, utf8Slice("missing"))))), 0);
+        assertEquals(assertFilters(ImmutableMap.of(MIXED_COLUMN, ColumnFilter.of(Domain.none(VARCHAR)))), 0);
+
+        // every row that passes the first filter is filtered out by the second
+        assertEquals(
+                assertFilters(ImmutableMap.of(
+                        DICTIONARY_COLUMN, ColumnFilter.of(Domain.singleValue(VARCHAR, utf8Slice("value_1"))),
+                        PLAIN_COLUMN, ColumnFilter.of(Domain.onlyNull(VARCHAR)),
+                        INTEGER_COLUMN, ColumnFilter.of(Domain.onlyNull(BIGINT)))),
+                0);
+    }
+
+    @Test
+    public void testTypeCoercion()
+            throws IOException
+    {
+        int selectedRows = assertFilters(ImmutableMap.of(
+                INTEGER_COLUMN, ColumnFilter.of(Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 1_000L, true, 5_000L, false)), false))));
+        assertTrue(selectedRows > 0 && selectedRows < ROW_COUNT);
+    }
+
+    @Test
+    public void testMultipleFilters()
+            throws IOException
+    {
+        int selectedRows = assertFilters(ImmutableMap.of(
+                DICTIONARY_COLUMN, ColumnFilter.of(Domain.create(ValueSet.of(VARCHAR, utf8Slice("value_0"), utf8Slice("value_4")), true)),
+                INTEGER_COLUMN, ColumnFilter.of(Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 3_000L)), true)),
+                MIXED_COLUMN, ColumnFilter.of(Domain.notNull(VARCHAR)),
+                PLAIN_COLUMN, ColumnFilter.of(Domain.create(ValueSet.ofRanges(Range.lessThan(VARCHAR, utf8Slice("plain_5"))), false))));
+        assertTrue(selectedRows > 0 && selectedRows < ROW_COUNT);
+    }
+
+    @Test
+    public void testFilterChangeBetweenBatches()
+            throws IOException
+    {
+        // the results of evaluating a filter on the dictionary must not be reused for a different filter
+        int selectedRows = assertFilters(ImmutableList.of(
+                ImmutableMap.of(DICTIONARY_COLUMN, ColumnFilter.of(Domain.singleValue(VARCHAR, utf8Slice("value_1")))),
+                ImmutableMap.of(DICTIONARY_COLUMN, ColumnFilter.of(Domain.create(ValueSet.of(VARCHAR, utf8Slice("value_2"), utf8Slice("value_3")), true))),
+                ImmutableMap.of(MIXED_COLUMN, ColumnFilter.of(Domain.singleValue(VARCHAR, utf8Slice("value_4"))))));
+        assertTrue(selectedRows > 0 && selectedRows < ROW_COUNT);
+    }
+
+    @Test
+    public void testPagesPruned()
+            throws IOException
+    {
+        // keeps the first and last pages and the three pages around row 7150, which the range only partially covers
+        Domain domain = Domain.create(ValueSet.ofRanges(
+                Range.lessThan(BIGINT, 1_000L),
+                Range.range(BIGINT, 7_050L, true, 7_250L, false),
+                Range.greaterThanOrEqual(BIGINT, 15_900L)), false);
+        assertEquals(assertPagesPruned(domain, ImmutableMap.of()), 1_000 + 300 + 100);
+    }
+
+    @Test
+    public void testPagesPrunedAndFiltered()
+            throws IOException
+    {
+        // the rows of the remaining pages are filtered on another column
+        Domain domain = Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 2_000L, true, 2_500L, false), Range.greaterThanOrEqual(BIGINT, 12_000L)), false);
+        int selectedRows = assertPagesPruned(domain, ImmutableMap.of(
+                DICTIONARY_COLUMN, ColumnFilter.of(Domain.create(ValueSet.of(VARCHAR, utf8Slice("value_1"), utf8Slice("value_3")), false))));
+        assertTrue(selectedRows > 0 && selectedRows < 500 + 4_000);
+    }
+
+    /**
+     * Reads the file with a page filter on the integer column and the given filters, and verifies that
+     * the batches hold exactly the rows of the pages that have a value in the domain, with all columns
+     * aligned to them.
+     *
+     * @return the number of rows that passed the filters
+     */
+    private int assertPagesPruned(Domain integerDomain, Map<Integer, ColumnFilter> filters)
+            throws IOException
+    {
+        List<Integer> expectedRows = new ArrayList<>();
+        for (int pageStart = 0; pageStart < ROW_COUNT; pageStart += ROWS_PER_PAGE) {
+            boolean pageMatches = false;
+            for (int row = pageStart; row < pageStart + ROWS_PER_PAGE; row++) {
+                pageMatches |= values[INTEGER_COLUMN][row] != null && integerDomain.includesNullableValue(values[INTEGER_COLUMN][row]);
+            }
+            if (pageMatches) {
+                for (int row = pageStart; row < pageStart + ROWS_PER_PAGE; row++) {
+                    expectedRows.add(row);
+                }
+            }
+        }
+        assertTrue(expectedRows.size() < ROW_COUNT);
+
+        int selectedRows = 0;
+        TupleDomain<ColumnDescriptor> pageFilter = TupleDomain.withColumnDomains(ImmutableMap.of(getField(INTEGER_COLUMN).getDescriptor(), integerDomain));
+        try (ParquetReader parquetReader = createParquetReader(pageFilter)) {
+            int readRows = 0;
+            for (int batchSize = parquetReader.nextBatch(); batchSize > 0; batchSize = parquetReader.nextBatch()) {
+                // a batch never spans pruned pages
+                int firstRow = toIntExact(parquetReader.getPosition()) - batchSize;
+                for (int position = 0; position < batchSize; position++) {
+                    assertEquals(firstRow + position, (int) expectedRows.get(readRows + position));
+                }
+
+                int[] positions = new int[batchSize];
+                for (int position = 0; position < batchSize; position++) {
+                    positions[position] = position;
+                }
+                int positionCount = batchSize;
+                for (Entry<Integer, ColumnFilter> entry : filters.entrySet()) {
+                    positionCount = parquetReader.filter(getField(entry.getKey()), entry.getValue(), positions, positionCount);
+                }
+
+                for (int position = 0; position < batchSize; position++) {
+                    assertEquals(Ints.asList(positions).subList(0, positionCount).contains(position), matches(filters, firstRow + position));
+                }
+
+                if (positionCount > 0) {
+                    for (int column = 0; column < COLUMN_NAMES.size(); column++) {
+                        Block block = parquetReader.readBlock(getField(column), positions, positionCount);
+                        assertEquals(block.getPositionCount(), positionCount);
+                        for (int i = 0; i < positionCount; i++) {
+                            int row = firstRow + positions[i];
+                            assertEquals(getValue(column, block, i), values[column][row], "column " + COLUMN_NAMES.get(column) + " at row " + row);
+                        }
+                    }
+                }
+
+                readRows += batchSize;
+                selectedRows += positionCount;
+            }
+            assertEquals(readRows, expectedRows.size());
+        }
+        return selectedRows;
+    }
+
+    private int assertFilters(Map<Integer, ColumnFilter> filters)
+            throws IOException
+    {
+        return assertFilters(ImmutableList.of(filters));
+    }
+
+    /**
+     * Filters every batch of the file with the filters at the index of the batch, modulo the number
+     * of filters, and verifies the selected positions and the values of all columns at them.
+     *
+     * @return the number of rows that passed the filters
+     */
+    private int assertFilters(List<Map<Integer, ColumnFilter>> filtersByBatch)
+            throws IOException
+    {
+        int selectedRows = 0;
+        try (ParquetReader parquetReader = createParquetReader()) {
+            int batch = 0;
+            int row = 0;
+            for (int batchSize = parquetReader.nextBatch(); batchSize > 0; batchSize = parquetReader.nextBatch()) {
+                Map<Integer, ColumnFilter> filters = filtersByBatch.get(batch % filtersByBatch.size());
+
+                int[] positions = new int[batchSize];
+                for (int position = 0; position < batchSize; position++) {
+                    positions[position] = position;
+                }
+                int positionCount = batchSize;
+                for (Entry<Integer, ColumnFilter> entry : filters.entrySet()) {
+                    positionCount = parquetReader.filter(getField(entry.getKey()), entry.getValue(), positions, positionCount);
+                }
+
+                List<Integer> expectedPositions = new ArrayList<>();
+                for (int position = 0; position < batchSize; position++) {
+                    if (matches(filters, row + position)) {
+                        expectedPositions.add(position);
+                    }
+                }
+                assertEquals(Ints.asList(positions).subList(0, positionCount), expectedPositions);
+
+                if (positionCount > 0) {
+                    // the filtered columns are projected as well
+                    for (int column = 0; column < COLUMN_NAMES.size(); column++) {
+                        Block block = parquetReader.readBlock(getField(column), positions, positionCount);
+                        assertEquals(block.getPositionCount(), positionCount);
+                        for (int i = 0; i < positionCount; i++) {
+                            assertEquals(getValue(column, block, i), values[column][row + positions[i]], "column " + COLUMN_NAMES.get(column) + " at row " + (row + positions[i]));
+                        }
+                    }
+                }
+
+                batch++;
+                row += batchSize;
+                selectedRows += positionCount;
+            }
+            assertEquals(row, ROW_COUNT);
+        }
+        return selectedRows;
+    }
+
+    private boolean matches(Map<Integer, ColumnFilter> filters, int row)
+    {
+        for (Entry<Integer, ColumnFilter> entry : filters.entrySet()) {
+            Object value = values[entry.getKey()][row];
+            if (!entry.getValue().testNullable(value instanceof String ? utf8Slice((String) value) : value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object getValue(int column, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return null;
+        }
+        Type type = READ_TYPES.get(column);
+        if (type.equals(BIGINT)) {
+            return BIGINT.getLong(block, position);
+        }
+        return type.getSlice(block, position).toStringUtf8();
+    }
+
+    private void assertEncodings(int column, boolean dictionaryEncoded, boolean plainEncoded)
+    {
+        Set<Encoding> encodings = parquetMetadata.getBlocks().get(0).getColumns().get(column).getEncodings();
+        assertEquals(encodings.stream().anyMatch(Encoding::usesDictionary), dictionaryEncoded, encodings.toString());
+        assertEquals(encodings.stream().anyMatch(encoding -> !encoding.usesDictionary()), plainEncoded, encodings.toString());
+    }
+
+    private ParquetReader createParquetReader()
+            throws IOException
+    {
+        return createParquetReader(TupleDomain.all());
+    }
+
+    private ParquetReader createParquetReader(TupleDomain<ColumnDescriptor> pageFilter)
+            throws IOException
+    {
+        return new ParquetReader(
+                messageColumnIO,
+                parquetMetadata.getBlocks(),
+                new FileParquetDataSource(file),
+                newSimpleAggregatedMemoryContext(),
+                new DataSize(16, MEGABYTE),
+                true,
+                false,
+                pageFilter);
+    }
+
+    private PrimitiveField getField(int column)
+    {
+        return (PrimitiveField) ColumnIOConverter.constructField(READ_TYPES.get(column), messageColumnIO.getChild(column)).get();
+    }
+
+    private static String mixedValue(int row)
+    {
+        // the first rows repeat a few values and the others are long and distinct
+        return row < 2_000 ? "value_" + row % 5 : padStart(String.valueOf(row), 120, '0');
+    }
+
+    private static void writeParquetFile(File file, Object[][] values)
+            throws IOException
+    {
+        ParquetWriterOptions writerOptions = ParquetWriterOptions.builder()
+                .setMaxPageSize(DataSize.succinctBytes(100))
+                .setMaxBlockSize(new DataSize(64, MEGABYTE))
+                .build();
+        try (ParquetWriter writer = new ParquetWriter(new FileOutputStream(file), COLUMN_NAMES, COLUMN_TYPES, writerOptions, UNCOMPRESSED.getHadoopCompressionCodecClassName())) {
+            // the pages are larger than the maximum page size, so each of them is written as a separate Parquet page
+            for (int start = 0; start < ROW_COUNT; start += ROWS_PER_PAGE) {
+                PageBuilder pageBuilder = new PageBuilder(COLUMN_TYPES);
+                for (int row = start; row < start + ROWS_PER_PAGE; row++) {
+                    pageBuilder.declarePosition();
+                    for (int column = 0; column < COLUMN_TYPES.size(); column++) {
+                        BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(column);
+                        Object value = values[column][row];
+                        if (value == null) {
+                            blockBuilder.appendNull();
+                        }
+                        else if (value instanceof String) {
+                            VARCHAR.writeSlice(blockBuilder, utf8Slice((String) value));
+                        }
+                        else {
+                            INTEGER.writeLong(blockBuilder, (Long) value);
+                        }
+                    }
+                }
+                writer.write(pageBuilder.build());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestRowRanges
+{
+    @Test
+    public void testBuilder()
+    {
+        RowRanges rowRanges = RowRanges.builder()
+                .add(0, 10)
+                .add(10, 20)
+                .add(25, 25)
+                .add(30, 40)
+                .build();
+        assertEquals(rowRanges.getRangeCount(), 2);
+        assertEquals(rowRanges.getRowCount(), 30);
+
+        assertEquals(rowRanges.getNextRow(5), 5);
+        assertEquals(rowRanges.getNextRow(20), 30);
+        assertEquals(rowRanges.getNextRow(39), 39);
+        assertEquals(rowRanges.getNextRow(40), -1);
+        assertEquals(rowRanges.getRangeEnd(0), 20);
+        assertEquals(rowRanges.getRangeEnd(35), 40);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRangeEndOutsideRanges()
+    {
+        RowRanges.builder().add(0, 10).add(20, 30).build().getRangeEnd(15);
+    }
+
+    @Test
+    public void testIntersect()
+    {
+        RowRanges left = RowRanges.builder()
+                .add(0, 10)
+                .add(20, 30)
+                .add(40, 50)
+                .build();
+        RowRanges right = RowRanges.builder()
+                .add(5, 25)
+                .add(45, 60)
+                .build();
+        RowRanges intersection = left.intersect(right);
+        assertEquals(intersection.getRangeCount(), 3);
+        assertEquals(intersection.getRowCount(), 15);
+        assertEquals(intersection.getNextRow(0), 5);
+        assertEquals(intersection.getRangeEnd(5), 10);
+        assertEquals(intersection.getNextRow(10), 20);
+        assertEquals(intersection.getRangeEnd(20), 25);
+        assertEquals(intersection.getNextRow(25), 45);
+        assertEquals(intersection.getRangeEnd(45), 50);
+
+        assertEquals(RowRanges.all(100).intersect(left).getRowCount(), 30);
+        assertEquals(RowRanges.all(0).intersect(left).getRangeCount(), 0);
+        assertEquals(RowRanges.all(0).getNextRow(0), -1);
+    }
+}
@@ -692,7 +692,8 @@ public class PrestoSparkTaskExecutorFactory
                     taskStats,
                     false,
                     DEFAULT_METADATA_UPDATES,
-                    "");
+                    "",
+                    ImmutableMap.of());
         }
     }
 
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.spi;
 
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.schedule.NodeSelectionStrategy;
 
 import java.util.List;
@@ -39,6 +40,11 @@ public interface ConnectorSplit
 
     Object getInfo();
 
+    /**
+     * Identifies the data read by the split, for the fragment result cache. Splits that read the same data
+     * must have equal identifiers, and the string representation of an identifier must be unique and
+     * stable across restarts. Results of splits that do not override this method are not cached.
+     */
     default Object getSplitIdentifier()
     {
         return this;
@@ -48,4 +54,14 @@ public interface ConnectorSplit
     {
         return OptionalLong.empty();
     }
+
+    /**
+     * Returns false if the split is known to produce no rows satisfying the given
+     * dynamic filter, so that the engine can skip it before it is scheduled.
+     * The default implementation never prunes.
+     */
+    default boolean mayMatchDynamicFilter(TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        return true;
+    }
 }
@@ -13,12 +13,17 @@
  */
 package com.facebook.presto.spi;
 
+import com.facebook.presto.common.predicate.BloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 
 // TODO: Use builder pattern for SplitContext if we are to add optional field
@@ -27,11 +32,12 @@ public class SplitContext
     public static final SplitContext NON_CACHEABLE = new SplitContext(false);
 
     private final boolean cacheable;
-    // For local execution only; no need for serialization.
+    // Collected locally by the task or attached by the coordinator from filters of other stages
     private final Optional<TupleDomain<ColumnHandle>> dynamicFilterPredicate;
+    // This is not serializable; collected locally by the task
+    private final Map<ColumnHandle, BloomFilter> dynamicBloomFilters;
 
-    @JsonCreator
-    public SplitContext(@JsonProperty boolean cacheable)
+    public SplitContext(boolean cacheable)
     {
         this(cacheable, Optional.empty());
     }
@@ -41,10 +47,19 @@ public class SplitContext
         this(cacheable, Optional.of(requireNonNull(dynamicFilterPredicate, "dynamicFilterPredicate is null")));
     }
 
-    private SplitContext(boolean cacheable, Optional<TupleDomain<ColumnHandle>> dynamicFilterPredicate)
+    @JsonCreator
+    public SplitContext(
+            @JsonProperty("cacheable") boolean cacheable,
+            @JsonProperty("dynamicFilterPredicate") Optional<TupleDomain<ColumnHandle>> dynamicFilterPredicate)
+    {
+        this(cacheable, dynamicFilterPredicate, emptyMap());
+    }
+
+    public SplitContext(boolean cacheable, Optional<TupleDomain<ColumnHandle>> dynamicFilterPredicate, Map<ColumnHandle, BloomFilter> dynamicBloomFilters)
     {
         this.cacheable = cacheable;
-        this.dynamicFilterPredicate = dynamicFilterPredicate;
+        this.dynamicFilterPredicate = requireNonNull(dynamicFilterPredicate, "dynamicFilterPredicate is null");
+        this.dynamicBloomFilters = unmodifiableMap(new HashMap<>(requireNonNull(dynamicBloomFilters, "dynamicBloomFilters is null")));
     }
 
     @JsonProperty
@@ -53,8 +68,18 @@ public class SplitContext
         return cacheable;
     }
 
+    @JsonProperty
     public Optional<TupleDomain<ColumnHandle>> getDynamicFilterPredicate()
     {
         return dynamicFilterPredicate;
     }
+
+    /**
+     * Bloom filters of the build side values of joins, which may be applied in addition
+     * to the {@link #getDynamicFilterPredicate() dynamic filter predicate} of the same columns.
+     */
+    public Map<ColumnHandle, BloomFilter> getDynamicBloomFilters()
+    {
+        return dynamicBloomFilters;
+    }
 }
@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.function;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks the inverse of an {@link InputFunction}. The method must take exactly the same
+ * parameters as the input function it reverts, and applying it to a value previously
+ * passed to the input function must leave the state as if that value had never been added.
+ * Window functions use it to slide a frame without re-accumulating the rows that stay in it.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface RemoveInputFunction
+{
+}
@@ -39,6 +39,7 @@ import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
 public class PagesSerde
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    private static final double MAXIMUM_RETAINED_SLACK_RATIO = 0.25;
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final Optional<PageCompressor> compressor;
@@ -134,7 +135,9 @@ public class PagesSerde
             slice = Slices.wrappedBuffer(spillCipher.get().encrypt(slice.toByteBuffer()));
             markers = ENCRYPTED.set(markers);
         }
-        else if (!slice.isCompact()) {
+        else if (slice.getRetainedSize() - slice.length() > slice.length() * MAXIMUM_RETAINED_SLACK_RATIO) {
+            // the serialization buffer is sized from the page size, so it is rarely an exact fit;
+            // only pay for a copy when the unused part of the buffer is significant
             slice = Slices.copyOf(slice);
         }
 